@@ -8,10 +8,10 @@ parse: expression;
 
 // enable any order for limit skip and order keywords
 expression
-  : (ID)? ('filter' or)? ('skip' skip)? ('limit' limit)? (ordering)?
-  | (ID)? ('filter' or)? ('limit' limit)? ('skip' skip)? (ordering)?
-  | (ID)? ('filter' or)? (ordering)? ('limit' limit)? ('skip' skip)?
-  | (ID)? ('filter' or)? (ordering)? ('skip' skip)? ('limit' limit)?;
+  : (ID)? ('filter' or)? (aggregation)? ('skip' skip)? ('limit' limit)? (ordering)?
+  | (ID)? ('filter' or)? (aggregation)? ('limit' limit)? ('skip' skip)? (ordering)?
+  | (ID)? ('filter' or)? (aggregation)? (ordering)? ('limit' limit)? ('skip' skip)?
+  | (ID)? ('filter' or)? (aggregation)? (ordering)? ('skip' skip)? ('limit' limit)?;
 
 or: and (OR and)*;
 
@@ -19,21 +19,29 @@ and: not (AND not)*;
 
 not: NOT filter | filter;
 
-limit: NUMBER (',' NUMBER)?;
+limit: (NUMBER | PARAM) (',' NUMBER)?;
 
-skip: NUMBER;
+skip: NUMBER | PARAM;
 
 // either reversed or ordered, not both
 ordering: (('ordered' ordered) | ('reversed' reversed))?;
-ordered: (ID (',' ID)*)?;
-reversed: (ID (',' ID)*)?;
+ordered: (id (',' id)*)?;
+reversed: (id (',' id)*)?;
+
+// group count, avg age
+aggregation: (GROUP group)? function (',' function)*;
+group: id (',' id)*;
+function: COUNT | (SUM | MIN | MAX | AVG) id;
 
 filter
-  : (ID)? operator value
+  : (id)? operator value
   // enable parentheses around expressions
   | '(' or ')';
 
-value: STRING | NUMBER | DECIMAL | NULL | TRUE | FALSE;
+// fields may be named like the keywords of aggregations
+id: ID | COUNT | SUM | MIN | MAX | AVG | GROUP;
+
+value: STRING | NUMBER | DECIMAL | NULL | TRUE | FALSE | PARAM;
 
 fragment QUOTE :   '\'' ;
 
@@ -49,6 +57,9 @@ DECIMAL: '-'? INT '.' INT;
 // no leading zeros
 fragment INT : '0' | [1-9] [0-9]* ;
 
+// bind parameter of prepared queries
+PARAM: '?';
+
 NULL:  'null';
 TRUE:  'true';
 FALSE:  'false';
@@ -66,6 +77,12 @@ CONTAINS : 'contains';
 STARTS_WITH: 'startsWith';
 ENDS_WITH: 'endsWith';
 REGEXP: 'regExp';
+COUNT: 'count';
+SUM: 'sum';
+MIN: 'min';
+MAX: 'max';
+AVG: 'avg';
+GROUP: 'group';
 
 operator : EQ | NT_EQ | LT | LT_EQ | GT | GT_EQ | CONTAINS | STARTS_WITH | ENDS_WITH | REGEXP;
 
@@ -0,0 +1,124 @@
+package org.deephacks.graphene;
+
+import org.deephacks.graphene.internal.BoundedCache;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of the values of instances keyed by primary key, with a bounded cache for each
+ * schema, that save reading instances that are read again and again. Values are cached
+ * rather than instances, since generated instances decode their fields lazily through
+ * a reader that is not safe to share between threads, so every reader get an instance
+ * of its own that is created from the cached value.
+ *
+ * Writes evict the instances they change when their transaction commit. A reader
+ * that began before a commit see instances as they were before the commit, so
+ * instances are only read from and written to the cache by transactions that began
+ * after the last commit that evicted instances, which is checked again after the
+ * instance is cached since the commit may happen in between. The version is read
+ * before the snapshot of a transaction is taken and no transaction use the cache
+ * while a commit that evict instances is in progress, so every transaction that use
+ * the cache with the same version see the same snapshot. Transactions with writes of
+ * their own do not use the cache at all, since they see instances that are not
+ * committed.
+ */
+class EntityCache {
+  private final int maxSize;
+  private final ConcurrentHashMap<Integer, BoundedCache<ByteBuffer, byte[]>> caches = new ConcurrentHashMap<>();
+  /** incremented before instances are evicted */
+  private final AtomicLong version = new AtomicLong();
+  /** number of commits in progress that evict instances */
+  private final AtomicInteger committing = new AtomicInteger();
+
+  /**
+   * @param maxSize maximum number of instances cached for each schema, zero disable the cache
+   */
+  EntityCache(int maxSize) {
+    this.maxSize = maxSize;
+  }
+
+  boolean isEnabled() {
+    return maxSize > 0;
+  }
+
+  long getVersion() {
+    return version.get();
+  }
+
+  /**
+   * @return true if the transaction can read instances from the cache
+   */
+  boolean isCached(Transaction tx) {
+    return isEnabled() && !tx.hasWrites() && isCurrent(tx);
+  }
+
+  /**
+   * @return true if no commit have evicted instances since the transaction began
+   */
+  private boolean isCurrent(Transaction tx) {
+    return committing.get() == 0 && tx.getCacheVersion() == version.get();
+  }
+
+  /**
+   * @return the cached value of an instance or null
+   */
+  byte[] get(Schema<?> schema, byte[] key) {
+    return getCache(schema).get(ByteBuffer.wrap(key));
+  }
+
+  void put(Transaction tx, Schema<?> schema, byte[] key, byte[] value) {
+    if (!isCurrent(tx)) {
+      return;
+    }
+    BoundedCache<ByteBuffer, byte[]> cache = getCache(schema);
+    ByteBuffer cacheKey = ByteBuffer.wrap(key);
+    cache.put(cacheKey, value);
+    if (!isCurrent(tx)) {
+      cache.remove(cacheKey);
+    }
+  }
+
+  /**
+   * Evict an instance when the transaction that write it commit.
+   */
+  void evictOnCommit(Transaction tx, Schema<?> schema, byte[] key) {
+    if (isEnabled()) {
+      evictOnCommit(tx, () -> getCache(schema).remove(ByteBuffer.wrap(key)));
+    }
+  }
+
+  /**
+   * Evict every instance of a schema when the transaction commit.
+   */
+  void evictAllOnCommit(Transaction tx, Schema<?> schema) {
+    if (isEnabled()) {
+      evictOnCommit(tx, () -> getCache(schema).clear());
+    }
+  }
+
+  private void evictOnCommit(Transaction tx, Runnable evict) {
+    AtomicBoolean started = new AtomicBoolean();
+    tx.beforeCommit(() -> {
+      started.set(true);
+      committing.incrementAndGet();
+    });
+    tx.onCommit(() -> {
+      version.incrementAndGet();
+      evict.run();
+      committing.decrementAndGet();
+    });
+    tx.onRollback(() -> {
+      if (started.get()) {
+        committing.decrementAndGet();
+      }
+    });
+  }
+
+  BoundedCache<ByteBuffer, byte[]> getCache(Schema<?> schema) {
+    return caches.computeIfAbsent(schema.getSchemaId(), id -> new BoundedCache<>(maxSize));
+  }
+}
@@ -1,34 +1,60 @@
 package org.deephacks.graphene;
 
+import org.deephacks.graphene.Schema.IndexSchema.IndexPart;
+import org.deephacks.graphene.Schema.KeySchema;
+import org.deephacks.graphene.Schema.Probe;
 import org.deephacks.graphene.Transaction.Transactional;
 import org.deephacks.graphene.internal.EntityInterface;
-import org.deephacks.graphene.internal.FastKeyComparator;
 import org.deephacks.graphene.internal.KeyInterface;
+import org.deephacks.graphene.internal.gql.Aggregate;
+import org.deephacks.graphene.internal.gql.IllegalQueryException;
+import org.deephacks.graphene.internal.gql.PreparedQuery;
 import org.deephacks.graphene.internal.gql.Query;
+import org.deephacks.graphene.internal.serialization.Buf;
 import org.deephacks.graphene.internal.serialization.BufAllocator;
 import org.deephacks.graphene.internal.serialization.Bytes;
+import org.deephacks.graphene.internal.serialization.BytesUtils;
 import org.deephacks.graphene.internal.serialization.KeySerialization.KeyWriter;
+import org.deephacks.graphene.internal.serialization.OrderedBytes;
+import org.deephacks.graphene.internal.serialization.PooledBufAllocator;
 import org.deephacks.graphene.internal.serialization.UnsafeBufAllocator;
 import org.deephacks.graphene.internal.serialization.ValueSerialization.ValueWriter;
 import org.fusesource.lmdbjni.Constants;
 import org.fusesource.lmdbjni.Cursor;
 import org.fusesource.lmdbjni.Database;
+import org.fusesource.lmdbjni.DirectBuffer;
 import org.fusesource.lmdbjni.Entry;
 import org.fusesource.lmdbjni.Env;
 import org.fusesource.lmdbjni.GetOp;
+import org.fusesource.lmdbjni.LMDBException;
 import org.fusesource.lmdbjni.SeekOp;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.Spliterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -40,6 +66,8 @@ public class Graphene {
   private static final String DEFAULT_GRAPHENE_DIR_NAME = "graphene.env";
   private static final File DEFAULT_ENV_FILE = new File(TMP_DIR, DEFAULT_GRAPHENE_DIR_NAME);
   private static SchemaRepository SCHEMA_REPOSITORY;
+  /** number of keys that getAll step a cursor forward before it seek instead */
+  private static final int MAX_STEPS = 8;
 
   private static final String primaryName = "graphene.primary";
   private final Database primary;
@@ -57,11 +85,38 @@ public class Graphene {
   private static final String instanceName = "graphene.instance";
   private final Database instances;
 
+  /** never written, read by transactions that began before a database was created */
+  private static final String emptyName = "graphene.empty";
+  private final Database empty;
+
   private final Env env;
+  /**
+   * References are indexed in reverse in the secondary database, with keys that start with
+   * this prefix followed by the ordered bytes of the referenced key and the key of the
+   * instance that hold the reference.
+   */
+  private final byte[] referencePrefix;
+  /**
+   * True if each schema and index have a database of its own. Otherwise instances are kept
+   * in the primary database and index keys in the secondary database.
+   */
+  private final boolean databasePerSchema;
+  /** databases of schemas and indexes by their id, opened the first time they are used */
+  private final ConcurrentHashMap<Integer, Database> databases = new ConcurrentHashMap<>();
+  /** databases of schemas and indexes that existed when the environment was opened, by name */
+  private final Map<String, Database> existingDatabases = new HashMap<>();
+  /** databases opened in write transactions that have not committed yet */
+  private final Map<Transaction, Map<Integer, Database>> uncommittedDatabases = new ConcurrentHashMap<>();
   private final BufAllocator bufAllocator;
   private final UniqueIds uniqueIds;
   private final TransactionManager txManager;
   private final Set<Class> entities = new HashSet<>();
+  private final ConcurrentHashMap<String, Sequence> sequences = new ConcurrentHashMap<>();
+  private final int maxBatchSize;
+  private final int deleteChunkSize;
+  private final EntityCache entityCache;
+  /** started by the first asynchronous write */
+  private GroupCommit groupCommit;
 
   public static Builder builder() {
     return new Builder();
@@ -75,11 +130,16 @@ public class Graphene {
       File dir = builder.dir.orElse(DEFAULT_ENV_FILE);
       dir.mkdirs();
       Long size = builder.dbSizeInBytes.orElse(4_294_967_296L);
-      this.bufAllocator = builder.bufAllocator.orElse(new UnsafeBufAllocator());
+      this.bufAllocator = builder.bufAllocator.orElse(builder.pooledBuffers.orElse(false) ? new PooledBufAllocator() : new UnsafeBufAllocator());
+      this.maxBatchSize = builder.maxBatchSize.orElse(1024);
+      this.deleteChunkSize = builder.deleteChunkSize.orElse(10_000);
+      this.entityCache = new EntityCache(builder.entityCacheSize.orElse(0));
       this.env = new Env();
       this.env.setMapSize(size);
-      this.env.setMaxDbs(10);
-      this.env.open(dir.getPath());
+      this.databasePerSchema = builder.databasePerSchema.orElse(false);
+      this.env.setMaxDbs(builder.maxDbs.orElse(databasePerSchema ? 1024 : 10));
+      // read transactions are not tied to threads, parallel streams use them from many
+      this.env.open(dir.getPath(), Constants.NOTLS);
       this.txManager = new TransactionManager(this);
       this.primary = env.openDatabase(primaryName);
       this.secondary = env.openDatabase(secondaryName);
@@ -88,44 +148,246 @@ public class Graphene {
       this.instances = env.openDatabase(instanceName);
       this.uniqueIds = new UniqueIds(this, new KeyValueStore(this, instances), new KeyValueStore(this, schema));
       Graphene.SCHEMA_REPOSITORY = new SchemaRepository(bufAllocator, uniqueIds);
+      this.referencePrefix = Bytes.fromInt(uniqueIds.getSchemaId(secondaryName + ".references"));
+      if (databasePerSchema) {
+        openExistingDatabases();
+      }
+      this.empty = databasePerSchema ? env.openDatabase(emptyName) : null;
       INSTANCE.set(this);
     }
   }
 
+  /**
+   * Lmdb only let transactions use databases that were opened before they began, so
+   * databases of schemas and indexes that exist are opened when the environment is opened.
+   * Names of databases are the keys of the unnamed database.
+   */
+  private void openExistingDatabases() {
+    org.fusesource.lmdbjni.Transaction tx = env.createTransaction(false);
+    try {
+      List<String> names = new ArrayList<>();
+      try (Cursor cursor = env.openDatabase(tx, null, 0).openCursor(tx)) {
+        for (Entry entry = cursor.get(GetOp.FIRST); entry != null; entry = cursor.get(GetOp.NEXT)) {
+          String name = new String(entry.getKey(), StandardCharsets.UTF_8);
+          if (name.startsWith(primaryName + ".") || name.startsWith(secondaryName + ".")) {
+            names.add(name);
+          }
+        }
+      }
+      for (String name : names) {
+        existingDatabases.put(name, openDatabase(tx, name));
+      }
+      tx.commit();
+    } catch (Throwable e) {
+      tx.abort();
+      throw e;
+    }
+  }
+
+  /**
+   * Get the database of a schema or index, which is opened the first time it is used and
+   * created if it does not exist. Keys keep the id of their schema or index, since
+   * references and traversals find the schema of a key from it.
+   *
+   * Databases are created in a write transaction of their own, unless the current thread
+   * already hold the write lock. They are then created in its write transaction and only
+   * shared when it commit, since lmdb close databases opened in transactions that roll back.
+   */
+  private Database getDatabase(Transaction tx, int id, String name) {
+    Database existing = existingDatabases.get(name);
+    if (existing != null) {
+      return databases.computeIfAbsent(id, i -> existing);
+    }
+    if (tx != null && !tx.isReadOnly()) {
+      Map<Integer, Database> opened = uncommittedDatabases.computeIfAbsent(tx, t -> {
+        t.onCommit(() -> uncommittedDatabases.remove(t).forEach(databases::putIfAbsent));
+        t.onRollback(() -> uncommittedDatabases.remove(t));
+        return new HashMap<>();
+      });
+      return opened.computeIfAbsent(id, i -> openDatabase(tx.getTx(), name));
+    }
+    return databases.computeIfAbsent(id, i -> {
+      org.fusesource.lmdbjni.Transaction write = env.createTransaction(false);
+      try {
+        Database opened = openDatabase(write, name);
+        write.commit();
+        return opened;
+      } catch (Throwable e) {
+        write.abort();
+        throw e;
+      }
+    });
+  }
+
+  private Database openDatabase(org.fusesource.lmdbjni.Transaction tx, String name) {
+    try {
+      return env.openDatabase(tx, name, Constants.CREATE);
+    } catch (LMDBException e) {
+      if (e.getErrorCode() == LMDBException.DBS_FULL) {
+        throw new IllegalStateException("Cannot open database " + name + ", increase maxDbs", e);
+      }
+      throw e;
+    }
+  }
+
   public <E> boolean putAll(final List<E> entities) {
+    joinTxWrite(serialize(entities));
+    return true;
+  }
+
+  /**
+   * Serialize instances outside of any transaction.
+   *
+   * @return writes of the serialized instances
+   */
+  private <E> Transactional serialize(final List<E> entities) {
     Guavas.checkNotNull(entities);
-    List<byte[][]> kvs = new ArrayList<>();
-    Schema<?> schema = null;
-    Class<?> entityClass = null;
+    List<Row> rows = new ArrayList<>();
     for (E entity : entities) {
-      EntityInterface iface = (EntityInterface) entity;
-      if (schema == null) {
-        entityClass = entity.getClass();
-        schema = SCHEMA_REPOSITORY.getSchema(entityClass);
+      rows.add(serialize(entity));
+    }
+    return tx -> {
+      for (Row row : rows) {
+        put(tx, row);
       }
-      try {
-        KeyWriter keyWriter = new KeyWriter(bufAllocator.allocateOutput(schema.getKeySchema().size() + 4), schema.getKeySchema());
-        ValueWriter valueWriter = new ValueWriter(bufAllocator.allocateOutput(), bufAllocator.allocateOutput(), uniqueIds);
-        int schemaId = uniqueIds.getSchemaId(schema.getGeneratedClass());
-        final byte[][] data = iface.serialize(keyWriter, valueWriter, schemaId);
-        if (data == null || data.length != 2) {
-          throw new IllegalArgumentException("Could not serialize type");
-        }
-        if (data[0].length == 0 && iface.isEmbedded()) {
-          String msg = "Cannot store @Embedded classes " + entityClass.getName();
-          throw new IllegalArgumentException(msg);
+      putReferences(tx, rows);
+    };
+  }
+
+  /**
+   * Serialize an instance into buffers of the allocator, which are released when the
+   * row has been written.
+   */
+  private Row serialize(Object entity) {
+    EntityInterface iface = (EntityInterface) entity;
+    Class<?> entityClass = entity.getClass();
+    Schema<?> schema = SCHEMA_REPOSITORY.getSchema(entityClass);
+    Buf key = bufAllocator.allocateOutput(schema.getKeySchema().size() + 4);
+    Buf values = bufAllocator.allocateOutput();
+    Buf header = bufAllocator.allocateOutput();
+    try {
+      KeyWriter keyWriter = new KeyWriter(key, schema.getKeySchema());
+      ValueWriter valueWriter = new ValueWriter(values, header, uniqueIds);
+      int schemaId = uniqueIds.getSchemaId(schema.getGeneratedClass());
+      byte[] keyBytes = iface.serializeKey(keyWriter, schemaId);
+      bufAllocator.release(key);
+      if (keyBytes.length == 0 && iface.isEmbedded()) {
+        String msg = "Cannot store @Embedded classes " + entityClass.getName();
+        throw new IllegalArgumentException(msg);
+      }
+      iface.writeValue(valueWriter);
+      List<byte[]> indexKeys = schema.getIndexSchema().isEmpty() ? Collections.emptyList() : schema.getIndexKeys(entity, keyBytes);
+      List<byte[]> references = schema.isReferencing() ? iface.getReferences() : Collections.emptyList();
+      return new Row(schema, keyBytes, valueWriter, indexKeys, references, values, header);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private void put(Transaction tx, Row row) {
+    if (!row.schema.getIndexSchema().isEmpty() || row.schema.isReferencing()) {
+      // remove index keys and references of the instance that is overwritten
+      byte[] existing = getPrimary(row.schema).get(tx.getTx(), row.key);
+      if (existing != null) {
+        deleteIndexKeys(tx, row.schema, new byte[][]{row.key, existing});
+        deleteReferences(tx, row.schema, new byte[][]{row.key, existing});
+      }
+      putIndexKeys(tx, row.schema, row.key, row.indexKeys);
+    }
+    put(tx, row, 0);
+    entityCache.evictOnCommit(tx, row.schema, row.key);
+  }
+
+  /**
+   * Write the value of a row straight from its buffers into the database.
+   *
+   * @return false if NOOVERWRITE is given and the key already exist
+   */
+  private boolean put(Transaction tx, Row row, int flags) {
+    try {
+      return ReservedPut.put(getPrimary(row.schema), tx.getTx(), row.key, row.value, flags);
+    } finally {
+      row.release(bufAllocator);
+    }
+  }
+
+  /**
+   * @see #load(Iterator, int, LongConsumer)
+   */
+  public <E> long load(Stream<E> entities, LongConsumer progress) {
+    return load(entities.iterator(), 10_000, progress);
+  }
+
+  /**
+   * Load many instances without keeping more than a chunk of them in memory. Each
+   * chunk is serialized in parallel, sorted by key and written in a transaction of
+   * its own. Keys that are bigger than every key already written are appended to
+   * the end of the database, which avoid searching and splitting pages of the
+   * b-tree, so loads are fastest if instances come in key order. Instances
+   * overwrite existing instances with the same key, like put.
+   *
+   * Chunks that have been committed stay written if a later chunk fail, so the
+   * load must not run within a transaction.
+   *
+   * @param entities instances to load
+   * @param chunkSize maximum number of instances written in each transaction
+   * @param progress called with the number of instances written after each chunk
+   * @param <E> instance type
+   * @return number of instances written
+   */
+  public <E> long load(Iterator<E> entities, int chunkSize, LongConsumer progress) {
+    Guavas.checkArgument(chunkSize > 0, "chunkSize must be positive");
+    if (txManager.peek() != null) {
+      throw new IllegalStateException("Loads commit transactions of their own and cannot run in a transaction.");
+    }
+    long count = 0;
+    List<E> chunk = new ArrayList<>(Math.min(chunkSize, 10_000));
+    while (entities.hasNext()) {
+      chunk.add(entities.next());
+      if (chunk.size() == chunkSize || !entities.hasNext()) {
+        List<Row> rows = chunk.parallelStream()
+                .map(this::serialize)
+                .sorted((r1, r2) -> BytesUtils.compareTo(r1.key, r2.key))
+                .collect(Collectors.toList());
+        try {
+          withTxWrite(tx -> {
+            append(tx, rows);
+            putReferences(tx, rows);
+          });
+        } finally {
+          // rows are released as they are written, and the rest if the chunk fail
+          rows.forEach(row -> row.release(bufAllocator));
         }
-        kvs.add(data);
-      } catch (IOException e) {
-        throw new RuntimeException(e);
+        count += chunk.size();
+        chunk.clear();
+        progress.accept(count);
       }
     }
-    joinTxWrite(tx -> {
-      for (byte[][] kv : kvs) {
-        primary.put(tx.getTx(), kv[0], kv[1]);
+    return count;
+  }
+
+  /**
+   * Append rows, sorted by key, that are bigger than the last key of their database
+   * and put the rest.
+   */
+  private void append(Transaction tx, List<Row> rows) {
+    Map<Database, Optional<byte[]>> lastKeys = new IdentityHashMap<>();
+    for (Row row : rows) {
+      Database db = getPrimary(row.schema);
+      Optional<byte[]> lastKey = lastKeys.computeIfAbsent(db, d -> {
+        try (Cursor cursor = d.openCursor(tx.getTx())) {
+          Entry last = cursor.get(GetOp.LAST);
+          return last == null ? Optional.<byte[]>empty() : Optional.of(last.getKey());
+        }
+      });
+      if (!lastKey.isPresent() || BytesUtils.compareTo(row.key, lastKey.get()) > 0) {
+        put(tx, row, Constants.APPEND);
+        putIndexKeys(tx, row.schema, row.key, row.indexKeys);
+        lastKeys.put(db, Optional.of(row.key));
+      } else {
+        put(tx, row);
       }
-    });
-    return true;
+    }
   }
 
   /**
@@ -150,15 +412,188 @@ public class Graphene {
    */
   public <E> Optional<E> get(Object key, Class<E> entityClass) {
     Schema<E> schema = SCHEMA_REPOSITORY.getSchema(entityClass);
-    return joinTxReadReturn(transaction -> {
-      Optional<byte[][]> optional = getKv(key, schema);
-      if (optional.isPresent()) {
-        return Optional.ofNullable(schema.getEntity(optional.get()));
+    return joinTxReadReturn(tx -> {
+      byte[] dataKey = getKey(key, schema);
+      boolean cached = entityCache.isCached(tx);
+      byte[] value = cached ? entityCache.get(schema, dataKey) : null;
+      if (value == null) {
+        value = getPrimary(schema).get(tx.getTx(), dataKey);
+        if (value == null) {
+          return Optional.<E>empty();
+        }
+        if (cached) {
+          entityCache.put(tx, schema, dataKey, value);
+        }
       }
-      return Optional.<E>empty();
+      return Optional.ofNullable(schema.getEntity(new byte[][]{dataKey, value}));
     });
   }
 
+  /**
+   * Get many instances in the same transaction. Keys are serialized and sorted so that
+   * a single cursor is walked forward through them, stepping to the next key when keys
+   * are close to each other and seeking only when they are far apart, instead of
+   * searching the b-tree from the root for every key.
+   *
+   * @param keys        primary keys of instances
+   * @param entityClass instance type
+   * @param <E>         instance type
+   * @return instances in the order of the keys, absent for keys that does not exist
+   */
+  public <E> List<Optional<E>> getAll(Collection<?> keys, Class<E> entityClass) {
+    Schema<E> schema = SCHEMA_REPOSITORY.getSchema(entityClass);
+    List<byte[]> dataKeys = new ArrayList<>(keys.size());
+    for (Object key : keys) {
+      dataKeys.add(getKey(key, schema));
+    }
+    return joinTxReadReturn(tx -> getAll(tx, schema, dataKeys));
+  }
+
+  /**
+   * Get many instances like getAll, keyed by their primary key.
+   *
+   * @return instances that exist in the order of the keys
+   */
+  public <K, E> Map<K, E> getAllAsMap(Collection<K> keys, Class<E> entityClass) {
+    List<K> keyList = new ArrayList<>(keys);
+    List<Optional<E>> entities = getAll(keyList, entityClass);
+    Map<K, E> result = new LinkedHashMap<>();
+    for (int i = 0; i < keyList.size(); i++) {
+      if (entities.get(i).isPresent()) {
+        result.put(keyList.get(i), entities.get(i).get());
+      }
+    }
+    return result;
+  }
+
+  private <E> List<Optional<E>> getAll(Transaction tx, Schema<E> schema, List<byte[]> dataKeys) {
+    List<Optional<E>> result = new ArrayList<>(Collections.nCopies(dataKeys.size(), Optional.<E>empty()));
+    boolean cached = entityCache.isCached(tx);
+    List<Integer> uncached = new ArrayList<>();
+    List<byte[]> uncachedKeys = new ArrayList<>();
+    for (int i = 0; i < dataKeys.size(); i++) {
+      byte[] value = cached ? entityCache.get(schema, dataKeys.get(i)) : null;
+      if (value != null) {
+        result.set(i, Optional.ofNullable(schema.getEntity(new byte[][]{dataKeys.get(i), value})));
+      } else {
+        uncached.add(i);
+        uncachedKeys.add(dataKeys.get(i));
+      }
+    }
+    if (uncached.isEmpty()) {
+      return result;
+    }
+    List<byte[]> values;
+    try (Cursor c = getPrimary(schema).openCursor(tx.getTx())) {
+      values = getValues(c, uncachedKeys);
+    }
+    for (int j = 0; j < uncached.size(); j++) {
+      if (values.get(j) != null) {
+        byte[] dataKey = uncachedKeys.get(j);
+        if (cached) {
+          entityCache.put(tx, schema, dataKey, values.get(j));
+        }
+        result.set(uncached.get(j), Optional.ofNullable(schema.getEntity(new byte[][]{dataKey, values.get(j)})));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Read the values of primary keys of any type, with a cursor walk for each database
+   * that the keys belong to.
+   *
+   * @param tx transaction that cursors are opened in, which close them when it end
+   * @param dataKeys primary keys in any order
+   * @return values in the order of the keys, null for keys that does not exist
+   */
+  List<byte[]> getValues(Transaction tx, List<byte[]> dataKeys) {
+    Map<Database, List<Integer>> positions = new IdentityHashMap<>();
+    for (int i = 0; i < dataKeys.size(); i++) {
+      positions.computeIfAbsent(getPrimary(tx, getSchema(dataKeys.get(i))), db -> new ArrayList<>()).add(i);
+    }
+    List<byte[]> result = new ArrayList<>(Collections.nCopies(dataKeys.size(), (byte[]) null));
+    for (Map.Entry<Database, List<Integer>> entry : positions.entrySet()) {
+      List<byte[]> keys = new ArrayList<>(entry.getValue().size());
+      for (int i : entry.getValue()) {
+        keys.add(dataKeys.get(i));
+      }
+      List<byte[]> values = getValues(tx.openCursor(entry.getKey()), keys);
+      for (int j = 0; j < values.size(); j++) {
+        result.set(entry.getValue().get(j), values.get(j));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Read the values of many keys with a cursor that is walked forward through the keys
+   * in sorted order, see getAll.
+   *
+   * @param c cursor on the primary database
+   * @param dataKeys primary keys in any order
+   * @return values in the order of the keys, null for keys that does not exist
+   */
+  List<byte[]> getValues(Cursor c, List<byte[]> dataKeys) {
+    List<byte[]> result = new ArrayList<>(Collections.nCopies(dataKeys.size(), (byte[]) null));
+    if (dataKeys.isEmpty()) {
+      return result;
+    }
+    List<Integer> sorted = new ArrayList<>(dataKeys.size());
+    int maxLength = 0;
+    for (int i = 0; i < dataKeys.size(); i++) {
+      sorted.add(i);
+      maxLength = Math.max(maxLength, dataKeys.get(i).length);
+    }
+    sorted.sort((i1, i2) -> BytesUtils.compareTo(dataKeys.get(i1), dataKeys.get(i2)));
+    // lmdb read the key from its address so it cannot be backed by a byte array
+    ByteBuffer seekMemory = ByteBuffer.allocateDirect(maxLength);
+    DirectBuffer key = new DirectBuffer(0, 0);
+    DirectBuffer value = new DirectBuffer(0, 0);
+    int rc = seek(c, seekMemory, dataKeys.get(sorted.get(0)), key, value);
+    for (int j = 0; j < sorted.size() && rc != LMDBException.NOTFOUND; j++) {
+      int i = sorted.get(j);
+      byte[] dataKey = dataKeys.get(i);
+      if (j > 0 && BytesUtils.compareTo(dataKeys.get(sorted.get(j - 1)), dataKey) == 0) {
+        // duplicate keys get the same value
+        result.set(i, result.get(sorted.get(j - 1)));
+        continue;
+      }
+      rc = stepTo(c, seekMemory, dataKey, key, value);
+      if (rc != LMDBException.NOTFOUND && compareTo(key, dataKey) == 0) {
+        result.set(i, StreamResultSet.toBytes(value));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Move a cursor that is positioned at or before a key to the first key that is
+   * equal to or bigger than the key.
+   *
+   * @return return code of the cursor, which is NOTFOUND if there is no such key
+   */
+  private static int stepTo(Cursor c, ByteBuffer seekMemory, byte[] dataKey, DirectBuffer key, DirectBuffer value) {
+    int rc = 0;
+    for (int steps = 0; steps < MAX_STEPS; steps++) {
+      if (compareTo(key, dataKey) >= 0) {
+        return rc;
+      }
+      rc = c.position(key, value, GetOp.NEXT);
+      if (rc == LMDBException.NOTFOUND) {
+        return rc;
+      }
+    }
+    return compareTo(key, dataKey) >= 0 ? rc : seek(c, seekMemory, dataKey, key, value);
+  }
+
+  private static int seek(Cursor c, ByteBuffer seekMemory, byte[] dataKey, DirectBuffer key, DirectBuffer value) {
+    seekMemory.clear();
+    seekMemory.put(dataKey);
+    key.wrap(new DirectBuffer(seekMemory).addressOffset(), dataKey.length);
+    return c.seekPosition(key, value, SeekOp.RANGE);
+  }
+
   /**
    * Select and return all instances.
    *
@@ -174,6 +609,66 @@ public class Graphene {
     });
   }
 
+  /**
+   * Get a page of instances in key order.
+   *
+   * @param entityClass the type which is target for selection
+   * @param size maximum number of instances in the page
+   * @param token token of the previous page or absent for the first page
+   * @param <E>         instance type
+   * @return page of instances and the token of the next page
+   */
+  public <E> Page<E> page(Class<E> entityClass, int size, Optional<String> token) {
+    return joinTxReadReturn(tx -> tx.page(entityClass, size, token));
+  }
+
+  /**
+   * Put instances through the group commit pipeline, where a single writer thread
+   * commit the writes of many threads in the same transaction. Instances are
+   * serialized by the calling thread.
+   *
+   * @param entities instances to be written
+   * @param <E>    instance type
+   * @return completed when the transaction that wrote the instances has committed
+   */
+  public <E> CompletableFuture<Boolean> putAsync(final List<E> entities) {
+    Transactional writes = serialize(entities);
+    return getGroupCommit().submit(tx -> {
+      writes.execute(tx);
+      return true;
+    });
+  }
+
+  /**
+   * @see #putAsync(List)
+   */
+  public <E> CompletableFuture<Boolean> putAsync(final E entity) {
+    return putAsync(Arrays.asList(entity));
+  }
+
+  /**
+   * Delete an instance through the group commit pipeline.
+   *
+   * @param key         primary key to delete
+   * @param entityClass instance type to delete
+   * @param <E>         instance type
+   * @return completed with the deleted instance when the transaction has committed
+   */
+  public <E> CompletableFuture<Optional<E>> deleteAsync(Object key, Class<E> entityClass) {
+    return getGroupCommit().submit(tx -> delete(key, entityClass));
+  }
+
+  EntityCache getEntityCache() {
+    return entityCache;
+  }
+
+  private synchronized GroupCommit getGroupCommit() {
+    if (groupCommit == null) {
+      groupCommit = new GroupCommit(txManager, maxBatchSize);
+    }
+    return groupCommit;
+  }
+
   /**
    * Put an instance if it does not exist. If the instance exist, nothing will be written.
    *
@@ -183,26 +678,15 @@ public class Graphene {
    */
   public <E> boolean putNoOverwrite(E entity) {
     Guavas.checkNotNull(entity);
-    EntityInterface iface = (EntityInterface) entity;
-    try {
-      Class<?> entityClass = entity.getClass();
-      Schema<?> schema = SCHEMA_REPOSITORY.getSchema(entityClass);
-      KeyWriter keyWriter = schema.getKeyWriter();
-      ValueWriter valueWriter = new ValueWriter(bufAllocator.allocateOutput(), bufAllocator.allocateOutput(), uniqueIds);
-      int schemaId = uniqueIds.getSchemaId(schema.getGeneratedClass());
-      final byte[][] data = iface.serialize(keyWriter, valueWriter, schemaId);
-      if (data == null || data.length != 2) {
-        throw new IllegalArgumentException("Could not serialize type");
-      }
-      if (data[0].length == 0 && iface.isEmbedded()) {
-        String msg = "Cannot store @Embedded classes " + entityClass.getName();
-        throw new IllegalArgumentException(msg);
+    Row row = serialize(entity);
+    return joinTxWriteReturn(tx -> {
+      if (!put(tx, row, Constants.NOOVERWRITE)) {
+        return false;
       }
-      return joinTxWriteReturn(tx -> primary.put(tx.getTx(), data[0], data[1], Constants.NOOVERWRITE) == null);
-    } catch (IOException e) {
-      // better exception!
-      throw new RuntimeException(e);
-    }
+      putIndexKeys(tx, row.schema, row.key, row.indexKeys);
+      putReferences(tx, Collections.singletonList(row));
+      return true;
+    });
   }
 
   /**
@@ -216,89 +700,599 @@ public class Graphene {
    */
   public <E> Optional<E> delete(Object key, Class<E> entityClass) throws DeleteConstraintException {
     Schema<E> schema = SCHEMA_REPOSITORY.getSchema(entityClass);
-    try {
-      return joinTxWriteReturn(tx -> {
-        final Optional<byte[][]> optional = getKv(key, schema);
-        if (!optional.isPresent()) {
-          return Optional.<E>empty();
-        }
-        if (!primary.delete(tx.getTx(), optional.get()[0], null)) {
-          return Optional.<E>empty();
+    return joinTxWriteReturn(tx -> {
+      final Optional<byte[][]> optional = getKv(key, schema);
+      if (!optional.isPresent()) {
+        return Optional.<E>empty();
+      }
+      checkNotReferenced(tx, optional.get()[0]);
+      if (!getPrimary(schema).delete(tx.getTx(), optional.get()[0], null)) {
+        return Optional.<E>empty();
+      }
+      deleteIndexKeys(tx, schema, optional.get());
+      deleteReferences(tx, schema, optional.get());
+      entityCache.evictOnCommit(tx, schema, optional.get()[0]);
+      return Optional.ofNullable(schema.getEntity(optional.get()));
+    });
+  }
+
+  /**
+   * Delete every instance of a type, also known as truncate. Index entries and references
+   * of instances are deleted in the same chunk as the instances, so instances are only
+   * read if the type have indexes or references. Types that have databases of their own
+   * have their databases emptied in one transaction, without a cursor over their keys.
+   *
+   * @see #deleteRange(RowKeyRange, Class)
+   * @throws DeleteConstraintException if an instance of another type reference an instance of the type
+   */
+  public <E> void deleteAll(Class<E> entityClass) {
+    Schema<E> schema = SCHEMA_REPOSITORY.getSchema(entityClass);
+    if (schema.isReferencing()) {
+      deleteRange(schema, schema.getKeyRange(), Optional.empty(), deleteChunkSize);
+      return;
+    }
+    // references are checked in the write transactions that delete, where no reference
+    // can be written concurrently
+    if (databasePerSchema) {
+      joinTxWrite(tx -> {
+        checkTypeNotReferenced(tx, schema);
+        getPrimary(schema).drop(tx.getTx(), false);
+        for (IndexPart part : schema.getIndexSchema().getIndexParts()) {
+          getIndex(schema, part.getPrefix()).drop(tx.getTx(), false);
         }
-        return Optional.ofNullable(schema.getEntity(optional.get()));
+        entityCache.evictAllOnCommit(tx, schema);
       });
-    } catch (DeleteConstraintException e) {
-        /* FIXME
-        throw new org.deephacks.graphene.DeleteConstraintException(
-                new RowKey(e.getPrimaryKey().getData()) + " have a reference to " + new RowKey(e.getSecondaryKey().getData()), e);
-        */
-      throw new RuntimeException(e);
+      return;
     }
+    boolean indexed = !schema.getIndexSchema().isEmpty();
+    deleteRange(primary, schema.getKeyRange(), tx -> {
+      checkTypeNotReferenced(tx, schema);
+      entityCache.evictAllOnCommit(tx, schema);
+    }, (tx, kv) -> {
+      // index keys are deleted in the same chunk as their instance
+      if (indexed) {
+        deleteIndexKeys(tx, schema, new byte[][]{StreamResultSet.toBytes(kv[0]), StreamResultSet.toBytes(kv[1])});
+      }
+      return true;
+    }, deleteChunkSize);
   }
 
-  public <E> void deleteAll(Class<E> entityClass) {
+  /**
+   * @throws DeleteConstraintException if an instance of another type reference an instance of the type
+   */
+  private void checkTypeNotReferenced(Transaction tx, Schema<?> schema) {
+    Optional<byte[]> referrer = getReferrer(tx, OrderedBytes.encodeBytesPrefix(schema.getMinKey()), Optional.empty());
+    if (referrer.isPresent()) {
+      throw new DeleteConstraintException(describeKey(referrer.get()) + " have a reference to " + schema.getInterfaceClass().getName());
+    }
+  }
+
+  /**
+   * Delete instances within a range of primary keys.
+   *
+   * Instances are deleted as the cursor move forward, without collecting keys first. If
+   * there is no current transaction, instances are deleted in chunks that commit separately,
+   * which keep the write lock from being held for the whole range. A failure leave chunks
+   * that have already committed deleted.
+   *
+   * @param range       range of primary keys, which is narrowed to keys of the type
+   * @param entityClass instance type to delete
+   * @param <E>         instance type
+   * @return number of deleted instances
+   */
+  public <E> long deleteRange(RowKeyRange range, Class<E> entityClass) {
     Schema<E> schema = SCHEMA_REPOSITORY.getSchema(entityClass);
-    try {
-      joinTxWrite(tx -> {
-        byte[] firstKey = schema.getMinKey();
-        byte[] lastKey = schema.getMaxKey();
-        try (Cursor c = primary.openCursor(tx.getTx())) {
-          Entry entry = c.seek(SeekOp.RANGE, firstKey);
-          // this is a awkward, keys are first collected then deleted
-          // ideally entries should be deleted as the cursor is forwarded
-          List<byte[]> keys = new ArrayList<>();
-          while (entry  != null) {
-            if (!FastKeyComparator.withinKeyRange(entry.getKey(), firstKey, lastKey)) {
-              break;
-            }
-            keys.add(entry.getKey());
-            // c.delete() would be more appropriate but this seems to mess
-            // up the position of the cursor.
-            entry = c.get(GetOp.NEXT);
-          }
-          for (byte[] k : keys) {
-            c.seek(SeekOp.KEY, k);
+    return deleteRange(schema, range, Optional.empty(), deleteChunkSize);
+  }
+
+  /**
+   * Delete instances that match the filters of a query. The range of primary keys is
+   * narrowed by filters on key fields and other filters are evaluated before instances
+   * are created. Ordering and limits of the query are ignored.
+   *
+   * @see #deleteRange(RowKeyRange, Class)
+   * @return number of deleted instances
+   */
+  @SuppressWarnings("unchecked")
+  public <E> long deleteWhere(String query, Class<E> entityClass) {
+    Query<E> q = Query.parse(query, entityClass);
+    Schema<E> schema = SCHEMA_REPOSITORY.getSchema(entityClass);
+    Optional<Predicate<? super E>> filter = q.getPredicate().map(p -> (Predicate<? super E>) p);
+    return deleteRange(schema, q.getKeyRange(schema), filter, deleteChunkSize);
+  }
+
+  <E> long deleteRange(Schema<E> schema, RowKeyRange range, Optional<Predicate<? super E>> filter, int chunkSize) {
+    Optional<Probe<E>> probe = filter.map(f -> schema.getProbe());
+    boolean indexed = !schema.getIndexSchema().isEmpty() || schema.isReferencing();
+    // instances are only checked one by one if some instance of the type is referenced,
+    // which is checked again by every chunk since references may be written in between
+    AtomicBoolean referenced = new AtomicBoolean();
+    Consumer<Transaction> begin = tx -> {
+      referenced.set(getReferrer(tx, OrderedBytes.encodeBytesPrefix(schema.getMinKey()), Optional.empty()).isPresent());
+      entityCache.evictAllOnCommit(tx, schema);
+    };
+    return deleteRange(getPrimary(schema), range.intersect(schema.getKeyRange()), begin, (tx, kv) -> {
+      if (filter.isPresent() && !filter.get().test(probe.get().reset(kv[0], kv[1]))) {
+        return false;
+      }
+      if (referenced.get()) {
+        checkNotReferenced(tx, StreamResultSet.toBytes(kv[0]));
+      }
+      if (indexed) {
+        byte[][] bytes = new byte[][]{StreamResultSet.toBytes(kv[0]), StreamResultSet.toBytes(kv[1])};
+        deleteIndexKeys(tx, schema, bytes);
+        deleteReferences(tx, schema, bytes);
+      }
+      return true;
+    }, chunkSize);
+  }
+
+  /**
+   * Delete keys of a database within a range, in the current transaction if there is one,
+   * otherwise in chunks of at most chunkSize deleted keys that commit separately.
+   *
+   * @param begin called with each transaction that keys are deleted in
+   * @param delete test if a key and value should be deleted, before it is deleted
+   */
+  private long deleteRange(Database db, RowKeyRange range, Consumer<Transaction> begin,
+                           BiPredicate<Transaction, DirectBuffer[]> delete, int chunkSize) {
+    if (txManager.peek() != null) {
+      return joinTxWriteReturn(tx -> {
+        begin.accept(tx);
+        return deleteChunk(tx, db, range, delete, Long.MAX_VALUE);
+      }).deleted;
+    }
+    long deleted = 0;
+    RowKeyRange remaining = range;
+    while (remaining != RowKeyRange.EMPTY_RANGE) {
+      final RowKeyRange chunkRange = remaining;
+      DeletedChunk chunk = withTxWriteReturn(tx -> {
+        begin.accept(tx);
+        return deleteChunk(tx, db, chunkRange, delete, chunkSize);
+      });
+      deleted += chunk.deleted;
+      remaining = chunk.remaining;
+    }
+    return deleted;
+  }
+
+  private DeletedChunk deleteChunk(Transaction tx, Database db, RowKeyRange range,
+                                   BiPredicate<Transaction, DirectBuffer[]> delete, long chunkSize) {
+    DirectBuffer key = new DirectBuffer(0, 0);
+    DirectBuffer value = new DirectBuffer(0, 0);
+    DirectBuffer[] kv = new DirectBuffer[]{key, value};
+    long deleted = 0;
+    try (Cursor c = db.openCursor(tx.getTx())) {
+      int rc = seekLowerBound(c, range, key, value);
+      while (rc != LMDBException.NOTFOUND && withinUpperBound(key, range)) {
+        if (delete.test(tx, kv)) {
+          if (++deleted == chunkSize) {
+            // continue after the last deleted key in the next chunk
+            byte[] last = StreamResultSet.toBytes(key);
             c.delete();
+            return new DeletedChunk(deleted, RowKeyRange.getKeyRange(last, false, range.getUpperRange(), range.isUpperInclusive()));
           }
+          // the cursor is positioned at the key after the deleted one, which is returned by next
+          c.delete();
         }
-      });
-    } catch (DeleteConstraintException e)
-    {
-      /* FIXME
-      throw new org.deephacks.graphene.DeleteConstraintException(
-              new RowKey(e.getPrimaryKey().getData()) + " have a reference to " + new RowKey(e.getSecondaryKey().getData()), e);
-              */
+        rc = c.position(key, value, GetOp.NEXT);
+      }
     }
+    return new DeletedChunk(deleted, RowKeyRange.EMPTY_RANGE);
+  }
+
+  /**
+   * Position a cursor at the first key within a range.
+   *
+   * @return return code of the cursor, which is NOTFOUND if there is no key after the lower bound
+   */
+  private static int seekLowerBound(Cursor c, RowKeyRange range, DirectBuffer key, DirectBuffer value) {
+    if (range == RowKeyRange.EMPTY_RANGE) {
+      return LMDBException.NOTFOUND;
+    } else if (range.lowerUnbound()) {
+      return c.position(key, value, GetOp.FIRST);
+    }
+    // lmdb read the key from its address so it cannot be backed by a byte array
+    ByteBuffer lowerKey = ByteBuffer.allocateDirect(range.getLowerRange().length);
+    lowerKey.put(range.getLowerRange());
+    key.wrap(lowerKey);
+    int rc = c.seekPosition(key, value, SeekOp.RANGE);
+    if (rc != LMDBException.NOTFOUND && !range.isLowerInclusive() && compareTo(key, range.getLowerRange()) == 0) {
+      rc = c.position(key, value, GetOp.NEXT);
+    }
+    return rc;
+  }
+
+  private static boolean withinUpperBound(DirectBuffer key, RowKeyRange range) {
+    if (range.upperUnbound()) {
+      return true;
+    }
+    int cmp = compareTo(key, range.getUpperRange());
+    return cmp < 0 || (cmp == 0 && range.isUpperInclusive());
+  }
+
+  private static int compareTo(DirectBuffer buffer, byte[] bytes) {
+    return BytesUtils.compareTo(buffer.addressOffset(), buffer.capacity(), bytes);
+  }
+
+  private static class DeletedChunk {
+    private final long deleted;
+    /** range of keys that are left for the next chunk */
+    private final RowKeyRange remaining;
+
+    private DeletedChunk(long deleted, RowKeyRange remaining) {
+      this.deleted = deleted;
+      this.remaining = remaining;
+    }
+  }
+
+  /**
+   * Traverse the references of an instance, see Traversal.
+   *
+   * @param key primary key of the instance where the traversal start
+   * @param entityClass instance type
+   * @param <E> instance type
+   * @return a traversal that is executed when its result is collected
+   */
+  public <E> Traversal traverse(Object key, Class<E> entityClass) {
+    return traverse(Collections.singletonList(key), entityClass);
+  }
+
+  /**
+   * Traverse the references of many instances, see Traversal.
+   *
+   * @param keys primary keys of the instances where the traversal start
+   * @param entityClass instance type
+   * @param <E> instance type
+   * @return a traversal that is executed when its result is collected
+   */
+  public <E> Traversal traverse(Collection<?> keys, Class<E> entityClass) {
+    Schema<E> schema = SCHEMA_REPOSITORY.getSchema(entityClass);
+    List<byte[]> dataKeys = new ArrayList<>(keys.size());
+    for (Object key : keys) {
+      dataKeys.add(getKey(key, schema));
+    }
+    return new Traversal(this, dataKeys);
   }
 
-  @SuppressWarnings("unchecked")
   public <T> List<T> query(String query, Class<T> cls) {
+    return query(query, cls, false);
+  }
+
+  /**
+   * Execute a query and optionally scan ranges of primary keys in parallel, in a read
+   * only transaction. Queries that are ordered or have skip or limit are scanned by a
+   * single cursor, since their result depend on the order that instances are scanned in.
+   *
+   * @param query query
+   * @param cls class of instances queried
+   * @param parallel true if ranges of keys may be scanned in parallel
+   * @param <T> instance type
+   * @return instances that match the query
+   */
+  public <T> List<T> query(String query, Class<T> cls, boolean parallel) {
     return joinTxReadReturn(tx -> {
-      final Cursor cursor = primary.openCursor(tx.getTx());
       Query<T> q = Query.parse(query, cls);
       Schema<?> schema = SCHEMA_REPOSITORY.getSchema(q.getType());
-      StreamResultSet objects = new StreamResultSet<>(schema, cursor);
-      Spliterator spliterator = objects.spliterator();
-      try (Stream stream = StreamSupport.stream(spliterator, false)) {
-        tx.push(cursor);
-        return q.collect(stream);
-      }
+      return collect(tx, q, schema, parallel);
+    });
+  }
+
+  /**
+   * Prepare a query that is executed many times with different values of its bind
+   * parameters, written as ?, without parsing the query again.
+   *
+   * @param query query with bind parameters
+   * @param cls class of instances queried
+   * @param <T> instance type
+   * @return a prepared query
+   */
+  public <T> PreparedQuery<T> prepare(String query, Class<T> cls) {
+    return Query.prepare(query, cls);
+  }
+
+  /**
+   * Execute a prepared query.
+   *
+   * @param query prepared query
+   * @param params values of the bind parameters in the order they appear in the query
+   * @param <T> instance type
+   * @return instances that match the query
+   */
+  public <T> List<T> query(PreparedQuery<T> query, Object... params) {
+    return joinTxReadReturn(tx -> {
+      Query<T> q = query.bind(params);
+      Schema<?> schema = SCHEMA_REPOSITORY.getSchema(q.getType());
+      return collect(tx, q, schema, false);
+    });
+  }
+
+  /**
+   * Compute the aggregate functions of a query, like count, sum, min, max and avg, over
+   * each group of instances that match the query.
+   *
+   * @param query query with aggregate functions
+   * @param cls class of instances queried
+   * @param <T> instance type
+   * @return aggregate of each group
+   */
+  public <T> List<Aggregate> aggregate(String query, Class<T> cls) {
+    return aggregate(query, cls, false);
+  }
+
+  /**
+   * Compute the aggregate functions of a query and optionally scan ranges of primary
+   * keys in parallel, in a read only transaction. Skip and limit apply to groups, so
+   * aggregate queries with skip or limit can also be scanned in parallel.
+   *
+   * @param query query with aggregate functions
+   * @param cls class of instances queried
+   * @param parallel true if ranges of keys may be scanned in parallel
+   * @param <T> instance type
+   * @return aggregate of each group
+   */
+  public <T> List<Aggregate> aggregate(String query, Class<T> cls, boolean parallel) {
+    return joinTxReadReturn(tx -> {
+      Query<T> q = Query.parse(query, cls);
+      Schema<?> schema = SCHEMA_REPOSITORY.getSchema(q.getType());
+      return aggregate(tx, q, schema, parallel);
     });
   }
 
+  /**
+   * Aggregate instances as they are scanned, without collecting them. Queries that only
+   * count instances in a range of primary keys count keys without creating instances and
+   * only read values if there are filters to evaluate.
+   */
+  @SuppressWarnings("unchecked")
+  <T> List<Aggregate> aggregate(Transaction tx, Query<T> query, Schema<?> schema, boolean parallel) {
+    RowKeyRange keyRange = query.getKeyRange(schema);
+    if (query.isCount() && !getIndexPart(query, schema, keyRange).isPresent()) {
+      return query.count(count(tx, schema, keyRange, query.getPredicate()));
+    }
+    try (Stream stream = select(tx, query, schema, false, parallel)) {
+      return query.aggregate(stream, false);
+    }
+  }
+
+  private <T> long count(Transaction tx, Schema<?> schema, RowKeyRange range, Optional<Predicate<T>> filter) {
+    Optional<? extends Probe<?>> probe = filter.map(f -> schema.getProbe());
+    DirectBuffer key = new DirectBuffer(0, 0);
+    DirectBuffer value = new DirectBuffer(0, 0);
+    long count = 0;
+    try (Cursor c = getPrimary(schema).openCursor(tx.getTx())) {
+      int rc = seekLowerBound(c, range, key, value);
+      while (rc != LMDBException.NOTFOUND && withinUpperBound(key, range)) {
+        if (!filter.isPresent() || filter.get().test((T) probe.get().reset(key, value))) {
+          count++;
+        }
+        rc = c.position(key, value, GetOp.NEXT);
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Collect the instances that match a query. Instances that are scanned in key or
+   * index order are not sorted if that is also the order of the query. Queries reversed
+   * by key scan instances in reverse key order instead of sorting them.
+   *
+   * @param parallel true if ranges of keys may be scanned in parallel, which is ignored
+   *                 if the query is ordered or have skip or limit
+   */
+  @SuppressWarnings("unchecked")
+  <T> List<T> collect(Transaction tx, Query<T> query, Schema<?> schema, boolean parallel) {
+    if (query.isAggregate()) {
+      throw new IllegalQueryException("Query have aggregate functions, use aggregate instead.");
+    }
+    Optional<IndexPart> index = getIndexPart(query, schema, query.getKeyRange(schema));
+    boolean reversed = !index.isPresent() && query.isKeyReversed(schema);
+    boolean ordered = index.isPresent() ? query.isIndexOrdered(index.get()) : reversed || query.isKeyOrdered(schema);
+    parallel = parallel && !query.isOrdered() && !query.getSkip().isPresent() && !query.getLimit().isPresent();
+    try (Stream stream = select(tx, query, schema, reversed, parallel)) {
+      return query.collect(stream, false, ordered);
+    }
+  }
+
+  /**
+   * Select the instances that match the filters of a query. Instances are scanned within
+   * the range of primary keys if filters on key fields narrow it, otherwise within the
+   * range of an index if there are filters on indexed fields, otherwise every instance
+   * is scanned. Filters are evaluated before instances are created.
+   *
+   * Ranges of primary keys are only scanned in parallel if asked for and in read only
+   * transactions, where every cursor see the same snapshot. Otherwise a single cursor
+   * walk the keys. Cursors are closed when the transaction end.
+   *
+   * @param reversed true if primary keys are scanned in reverse order, which is ignored
+   *                 if instances are scanned through an index
+   * @param parallel true if ranges of primary keys may be scanned in parallel
+   */
+  @SuppressWarnings("unchecked")
+  <T> Stream<T> select(Transaction tx, Query<?> query, Schema<T> schema, boolean reversed, boolean parallel) {
+    RowKeyRange keyRange = query.getKeyRange(schema);
+    Optional<RowKeyRange> indexRange = Optional.empty();
+    if (getIndexPart(query, schema, keyRange).isPresent()) {
+      indexRange = query.getIndexRange(schema);
+    }
+    Optional<Predicate<? super T>> filter = query.getPredicate().map(p -> (Predicate<? super T>) p);
+    if (indexRange.isPresent()) {
+      Cursor indexCursor = getIndex(schema, getIndexPart(query, schema, keyRange).get().getPrefix()).openCursor(tx.getTx());
+      Cursor primaryCursor = getPrimary(schema).openCursor(tx.getTx());
+      tx.push(indexCursor);
+      tx.push(primaryCursor);
+      StreamResultSet<T> resultSet = StreamResultSet.indexScan(schema, indexCursor, indexRange.get(), primaryCursor);
+      if (filter.isPresent()) {
+        resultSet.filter(filter.get());
+      }
+      return StreamSupport.stream(resultSet.spliterator(), false);
+    }
+    RangeSpliterator<T> spliterator = new RangeSpliterator<>(schema, keyRange, () -> tx.openPrimaryCursor(schema), filter, reversed);
+    return StreamSupport.stream(spliterator, parallel && tx.isReadOnly());
+  }
+
+  /**
+   * Indexes are only scanned if filters on key fields does not narrow the range of keys.
+   */
+  private Optional<IndexPart> getIndexPart(Query<?> query, Schema<?> schema, RowKeyRange keyRange) {
+    if (!keyRange.equals(schema.getKeyRange())) {
+      return Optional.empty();
+    }
+    return query.getIndexPart(schema);
+  }
+
+  private void putIndexKeys(Transaction tx, Schema<?> schema, byte[] primaryKey, List<byte[]> indexKeys) {
+    for (byte[] indexKey : indexKeys) {
+      getIndex(schema, indexKey).put(tx.getTx(), indexKey, primaryKey);
+    }
+  }
+
+  private void deleteIndexKeys(Transaction tx, Schema<?> schema, byte[][] kv) {
+    if (schema.getIndexSchema().isEmpty()) {
+      return;
+    }
+    Object entity = schema.getEntity(kv);
+    for (byte[] indexKey : schema.getIndexKeys(entity, kv[0])) {
+      getIndex(schema, indexKey).delete(tx.getTx(), indexKey);
+    }
+  }
+
+  /**
+   * Check that instances that rows reference exist and index their references in reverse.
+   * Rows are checked after all of them are written, so they can reference each other.
+   *
+   * @throws ForeignKeyConstraintException if a referenced instance does not exist
+   */
+  private void putReferences(Transaction tx, List<Row> rows) {
+    for (Row row : rows) {
+      for (byte[] reference : row.references) {
+        if (getPrimary(getSchema(reference)).get(tx.getTx(), reference) == null) {
+          throw new ForeignKeyConstraintException(describeKey(row.key) + " have a reference to "
+                  + describeKey(reference) + " that does not exist");
+        }
+        secondary.put(tx.getTx(), getReverseKey(reference, row.key), row.key);
+      }
+    }
+  }
+
+  private void deleteReferences(Transaction tx, Schema<?> schema, byte[][] kv) {
+    if (!schema.isReferencing()) {
+      return;
+    }
+    EntityInterface entity = (EntityInterface) schema.getEntity(kv);
+    for (byte[] reference : entity.getReferences()) {
+      // an instance that reference the same instance many times have one reverse key
+      secondary.delete(tx.getTx(), getReverseKey(reference, kv[0]));
+    }
+  }
+
+  /**
+   * Check that no other instance reference an instance, by probing the reverse references
+   * of its key.
+   *
+   * @throws DeleteConstraintException if another instance reference the instance
+   */
+  private void checkNotReferenced(Transaction tx, byte[] key) {
+    Optional<byte[]> referrer = getReferrer(tx, OrderedBytes.encode(key), Optional.of(key));
+    if (referrer.isPresent()) {
+      throw new DeleteConstraintException(describeKey(referrer.get()) + " have a reference to " + describeKey(key));
+    }
+  }
+
+  /**
+   * @param referenced ordered bytes of referenced keys, or their prefix
+   * @param ignore key of an instance that may reference itself
+   * @return key of the first instance that reference one of the keys
+   */
+  private Optional<byte[]> getReferrer(Transaction tx, byte[] referenced, Optional<byte[]> ignore) {
+    byte[] prefix = Bytes.concat(referencePrefix, referenced);
+    RowKeyRange range = RowKeyRange.getPrefixRange(prefix);
+    DirectBuffer key = new DirectBuffer(0, 0);
+    DirectBuffer value = new DirectBuffer(0, 0);
+    try (Cursor c = secondary.openCursor(tx.getTx())) {
+      int rc = seekLowerBound(c, range, key, value);
+      while (rc != LMDBException.NOTFOUND && withinUpperBound(key, range)) {
+        byte[] referrer = StreamResultSet.toBytes(value);
+        if (!ignore.isPresent() || !Arrays.equals(ignore.get(), referrer)) {
+          return Optional.of(referrer);
+        }
+        rc = c.position(key, value, GetOp.NEXT);
+      }
+    }
+    return Optional.empty();
+  }
+
+  private byte[] getReverseKey(byte[] referenced, byte[] referrer) {
+    return Bytes.concat(referencePrefix, OrderedBytes.encode(referenced), referrer);
+  }
+
+  /**
+   * @return name of the type of a primary key followed by its bytes
+   */
+  private String describeKey(byte[] key) {
+    String name = uniqueIds.getSchemaName(getSchemaId(key));
+    return name + Arrays.toString(Arrays.copyOfRange(key, KeySchema.SCHEMA_ID_SIZE, key.length));
+  }
+
+  /**
+   * @return schema of the instance that a primary key belong to
+   */
+  Schema<?> getSchema(byte[] key) {
+    return SCHEMA_REPOSITORY.getSchema(getSchemaId(key));
+  }
+
+  private int getSchemaId(byte[] key) {
+    try {
+      return bufAllocator.allocateInput(key).readInt();
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * @return primary key of a referenced instance
+   */
+  byte[] getReferenceKey(Object entity) {
+    Schema<?> schema = SCHEMA_REPOSITORY.getSchema(entity.getClass());
+    try {
+      return ((EntityInterface) entity).serializeKey(schema.getKeyWriter(), schema.getSchemaId());
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Resolve references with one sorted walk over their keys.
+   *
+   * @return referenced instances in the order of the keys, null for instances that does not exist
+   */
+  <E> List<E> resolve(List<byte[]> keys, Class<E> entityClass) {
+    Schema<E> schema = SCHEMA_REPOSITORY.getSchema(entityClass);
+    List<Optional<E>> entities = joinTxReadReturn(tx -> getAll(tx, schema, keys));
+    List<E> result = new ArrayList<>(entities.size());
+    for (Optional<E> entity : entities) {
+      result.add(entity.orElse(null));
+    }
+    return result;
+  }
+
   private <E> Optional<byte[][]> getKv(Object key, Schema<E> schema) {
+    final byte[] dataKey = getKey(key, schema);
+    return joinTxReadReturn(tx -> {
+      byte[] value;
+      if ((value = getPrimary(schema).get(tx.getTx(), dataKey)) != null) {
+        byte[][] kv = new byte[][]{dataKey, value};
+        return Optional.ofNullable(kv);
+      }
+      return Optional.<byte[][]>empty();
+    });
+  }
+
+  private <E> byte[] getKey(Object key, Schema<E> schema) {
     KeyInterface iface = schema.getKey(key);
     try {
       KeyWriter keyWriter = schema.getKeyWriter();
-      final byte[] dataKey = iface.serializeKey(keyWriter, schema.getSchemaId());
-      return joinTxReadReturn(tx -> {
-        byte[] value;
-        if ((value = primary.get(tx.getTx(), dataKey)) != null) {
-          byte[][] kv = new byte[][]{dataKey, value};
-          return Optional.ofNullable(kv);
-        }
-        return Optional.<byte[][]>empty();
-      });
+      return iface.serializeKey(keyWriter, schema.getSchemaId());
     } catch (IOException e) {
       // TODO: fix proper exception
       throw new RuntimeException(e);
@@ -348,30 +1342,81 @@ public class Graphene {
   }
 
   public void close() {
+    synchronized (this) {
+      if (groupCommit != null) {
+        // commit writes that are already queued
+        groupCommit.close();
+        groupCommit = null;
+      }
+    }
     schema.close();
     instances.close();
     secondary.close();
     primary.close();
     sequence.close();
+    Set<Database> opened = Collections.newSetFromMap(new IdentityHashMap<>());
+    opened.addAll(existingDatabases.values());
+    opened.addAll(databases.values());
+    for (Database db : opened) {
+      db.close();
+    }
+    if (empty != null) {
+      empty.close();
+    }
     INSTANCE.set(null);
   }
 
+  /**
+   * @return the graphene instance that is open
+   */
+  static Graphene getInstance() {
+    Graphene graphene = INSTANCE.get();
+    if (graphene == null) {
+      throw new IllegalStateException("Graphene have not been created.");
+    }
+    return graphene;
+  }
+
   Env getEnv() {
     return env;
   }
 
-  long increment(byte[] key) {
+  /**
+   * Reserve a block of numbers of a sequence, where the stored value is the last
+   * number that have been reserved.
+   *
+   * @param first smallest number that the block may start at
+   * @return the last number of the block
+   */
+  long reserve(byte[] key, int size, long first) {
     return joinTxWriteReturn(tx -> {
       byte[] seq = sequence.get(tx.getTx(), key);
-      long num = 0;
-      if (seq != null) {
-        num = Bytes.getLong(seq) + 1;
-      }
-      sequence.put(tx.getTx(), key, Bytes.fromLong(num));
-      return num;
+      long next = seq == null ? 0 : Bytes.getLong(seq) + 1;
+      long last = Math.max(next, first) + size - 1;
+      sequence.put(tx.getTx(), key, Bytes.fromLong(last));
+      return last;
     });
   }
 
+  /**
+   * @see #getSequence(String, int)
+   */
+  public Sequence getSequence(String name) {
+    return getSequence(name, 100);
+  }
+
+  /**
+   * Get a sequence of unique numbers that reserve blocks of numbers in storage.
+   * Sequences are created once per name and the block size of later calls is ignored.
+   *
+   * @param name name of the sequence
+   * @param blockSize number of numbers reserved each time a block run out
+   * @return the sequence
+   */
+  public Sequence getSequence(String name, int blockSize) {
+    return sequences.computeIfAbsent(name, n -> new Sequence(this, n.getBytes(StandardCharsets.UTF_8), blockSize));
+  }
+
   TransactionManager getTxManager() {
     return txManager;
   }
@@ -384,8 +1429,65 @@ public class Graphene {
     return bufAllocator;
   }
 
-  public Cursor openPrimaryCursor(org.fusesource.lmdbjni.Transaction tx) {
-    return primary.openCursor(tx);
+  public Cursor openPrimaryCursor(org.fusesource.lmdbjni.Transaction tx, Schema<?> schema) {
+    return getPrimary(schema).openCursor(tx);
+  }
+
+  /**
+   * @return database of the instances of a schema
+   */
+  Database getPrimary(Schema<?> schema) {
+    return getPrimary(txManager.peek(), schema);
+  }
+
+  /**
+   * @param tx transaction that the database is used in
+   * @return database of the instances of a schema
+   */
+  Database getPrimary(Transaction tx, Schema<?> schema) {
+    if (!databasePerSchema) {
+      return primary;
+    }
+    Database db = databases.get(schema.getSchemaId());
+    if (db == null) {
+      db = getDatabase(tx, schema.getSchemaId(), primaryName + "." + schema.getInterfaceClass().getName());
+    }
+    return getReadable(tx, db);
+  }
+
+  /**
+   * @param schema schema that the index belong to
+   * @param indexKey index key or prefix of an index, which start with the id of the index
+   * @return database of the index
+   */
+  private Database getIndex(Schema<?> schema, byte[] indexKey) {
+    if (!databasePerSchema) {
+      return secondary;
+    }
+    Transaction tx = txManager.peek();
+    int id = Bytes.getInt(indexKey);
+    Database db = databases.get(id);
+    if (db != null) {
+      return getReadable(tx, db);
+    }
+    for (IndexPart part : schema.getIndexSchema().getIndexParts()) {
+      if (Bytes.getInt(part.getPrefix()) == id) {
+        db = getDatabase(tx, id, secondaryName + "." + schema.getInterfaceClass().getName() + "#" + part.getName());
+        return getReadable(tx, db);
+      }
+    }
+    throw new IllegalArgumentException("No index with id " + id + " in " + schema.getInterfaceClass().getName());
+  }
+
+  /**
+   * Databases that were created after a read only transaction began did not exist in its
+   * snapshot and cannot be used by it, so it read an empty database instead.
+   */
+  private Database getReadable(Transaction tx, Database db) {
+    if (tx == null || !tx.isReadOnly() || tx.canRead(db)) {
+      return db;
+    }
+    return empty;
   }
 
   public <T> Schema<T> getSchema(Class<T> cls) {
@@ -396,10 +1498,53 @@ public class Graphene {
     return SCHEMA_REPOSITORY.list();
   }
 
+  /**
+   * Serialized instance with a value that is still in the buffers it was written to.
+   */
+  private static class Row {
+    private final Schema<?> schema;
+    private final byte[] key;
+    private final ValueWriter value;
+    private final List<byte[]> indexKeys;
+    /** keys of instances that the instance reference */
+    private final List<byte[]> references;
+    private final Buf[] buffers;
+    private boolean released;
+
+    private Row(Schema<?> schema, byte[] key, ValueWriter value, List<byte[]> indexKeys, List<byte[]> references, Buf... buffers) {
+      this.schema = schema;
+      this.key = key;
+      this.value = value;
+      this.indexKeys = indexKeys;
+      this.references = references;
+      this.buffers = buffers;
+    }
+
+    /**
+     * Give back the buffers, once, since a buffer that is released twice may be handed
+     * out to two writers.
+     */
+    private void release(BufAllocator bufAllocator) {
+      if (released) {
+        return;
+      }
+      released = true;
+      for (Buf buf : buffers) {
+        bufAllocator.release(buf);
+      }
+    }
+  }
+
   public static class Builder {
     private Optional<BufAllocator> bufAllocator = Optional.empty();
+    private Optional<Boolean> pooledBuffers = Optional.empty();
     private Optional<Long> dbSizeInBytes = Optional.empty();
     private Optional<File> dir = Optional.empty();
+    private Optional<Integer> maxBatchSize = Optional.empty();
+    private Optional<Integer> deleteChunkSize = Optional.empty();
+    private Optional<Integer> entityCacheSize = Optional.empty();
+    private Optional<Boolean> databasePerSchema = Optional.empty();
+    private Optional<Integer> maxDbs = Optional.empty();
 
     public Builder withDbSize(Long dbSizeInBytes) {
       this.dbSizeInBytes = Optional.ofNullable(dbSizeInBytes);
@@ -416,6 +1561,62 @@ public class Graphene {
       return this;
     }
 
+    /**
+     * @param pooledBuffers true if buffers that instances are serialized into are pooled and
+     *                      reused by later writes, see PooledBufAllocator, which is disabled
+     *                      by default. Ignored if an allocator is given.
+     */
+    public Builder withPooledBuffers(Boolean pooledBuffers) {
+      this.pooledBuffers = Optional.ofNullable(pooledBuffers);
+      return this;
+    }
+
+    /**
+     * @param maxBatchSize maximum number of asynchronous writes committed in the same transaction
+     */
+    public Builder withMaxBatchSize(Integer maxBatchSize) {
+      this.maxBatchSize = Optional.ofNullable(maxBatchSize);
+      return this;
+    }
+
+    /**
+     * @param deleteChunkSize maximum number of instances deleted in the same transaction
+     *                        by range deletes that are not part of a transaction
+     */
+    public Builder withDeleteChunkSize(Integer deleteChunkSize) {
+      this.deleteChunkSize = Optional.ofNullable(deleteChunkSize);
+      return this;
+    }
+
+    /**
+     * @param entityCacheSize maximum number of instances of each type that are cached
+     *                        by primary key, the cache is disabled by default
+     */
+    public Builder withEntityCacheSize(Integer entityCacheSize) {
+      this.entityCacheSize = Optional.ofNullable(entityCacheSize);
+      return this;
+    }
+
+    /**
+     * @param databasePerSchema true if instances of each schema and keys of each index are
+     *                          kept in a database of their own, instead of sharing the primary
+     *                          and secondary database, which is disabled by default. Must be
+     *                          the same every time an environment is opened.
+     */
+    public Builder withDatabasePerSchema(Boolean databasePerSchema) {
+      this.databasePerSchema = Optional.ofNullable(databasePerSchema);
+      return this;
+    }
+
+    /**
+     * @param maxDbs maximum number of databases in the environment, 10 by default or 1024
+     *               if each schema have a database of its own
+     */
+    public Builder withMaxDbs(Integer maxDbs) {
+      this.maxDbs = Optional.ofNullable(maxDbs);
+      return this;
+    }
+
     public synchronized Graphene build() {
       return new Graphene(this);
     }
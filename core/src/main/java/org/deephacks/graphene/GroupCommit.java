@@ -0,0 +1,136 @@
+package org.deephacks.graphene;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Group commit of writes from many threads. Lmdb only allow one write transaction
+ * at a time and each commit sync to disk, so threads that commit their own writes
+ * wait for the write lock and pay for a commit each.
+ *
+ * Writes are instead queued and a single writer thread take as many writes as there
+ * are in the queue, up to a maximum, and execute them in the same transaction. Each
+ * write execute in a nested transaction so a write that fail is aborted without
+ * aborting the others. Futures of writes are completed after the transaction commit.
+ */
+class GroupCommit {
+  private final TransactionManager txManager;
+  private final int maxBatchSize;
+  private final BlockingQueue<Write<?>> queue = new LinkedBlockingQueue<>();
+  private final Thread writer;
+  /** guarded by this, so that no write is queued after the writer thread has exited */
+  private volatile boolean running = true;
+
+  GroupCommit(TransactionManager txManager, int maxBatchSize) {
+    this.txManager = txManager;
+    this.maxBatchSize = maxBatchSize;
+    this.writer = new Thread(this::run, "graphene-group-commit");
+    this.writer.setDaemon(true);
+    this.writer.start();
+  }
+
+  /**
+   * @param function write that is executed by the writer thread
+   * @return completed with the result of the write after it has been committed
+   */
+  <T> CompletableFuture<T> submit(Function<Transaction, T> function) {
+    Write<T> write = new Write<>(function);
+    synchronized (this) {
+      if (!running) {
+        throw new IllegalStateException("Group commit is closed.");
+      }
+      queue.add(write);
+    }
+    return write.future;
+  }
+
+  /**
+   * Stop accepting writes and wait for queued writes to be committed.
+   */
+  void close() {
+    synchronized (this) {
+      running = false;
+    }
+    try {
+      writer.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    // writes are left if the writer thread was interrupted
+    List<Write<?>> left = new ArrayList<>();
+    queue.drainTo(left);
+    for (Write<?> write : left) {
+      write.future.completeExceptionally(new IllegalStateException("Group commit is closed."));
+    }
+  }
+
+  private void run() {
+    List<Write<?>> batch = new ArrayList<>();
+    while (running || !queue.isEmpty()) {
+      try {
+        Write<?> first = queue.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        queue.drainTo(batch, maxBatchSize - 1);
+        commit(batch);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } finally {
+        batch.clear();
+      }
+    }
+  }
+
+  private void commit(List<Write<?>> batch) {
+    try {
+      txManager.withTxWrite(tx -> {
+        for (Write<?> write : batch) {
+          write.execute();
+        }
+      });
+    } catch (Throwable e) {
+      for (Write<?> write : batch) {
+        write.future.completeExceptionally(e);
+      }
+      return;
+    }
+    for (Write<?> write : batch) {
+      write.complete();
+    }
+  }
+
+  private class Write<T> {
+    private final Function<Transaction, T> function;
+    private final CompletableFuture<T> future = new CompletableFuture<>();
+    private T result;
+    private Throwable error;
+
+    private Write(Function<Transaction, T> function) {
+      this.function = function;
+    }
+
+    private void execute() {
+      try {
+        result = txManager.withNestedTxWriteReturn(function);
+      } catch (Throwable e) {
+        error = e;
+      }
+    }
+
+    private void complete() {
+      if (error != null) {
+        future.completeExceptionally(error);
+      } else {
+        future.complete(result);
+      }
+    }
+  }
+}
@@ -0,0 +1,21 @@
+package org.deephacks.graphene;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Maintain an ordered index on the values of a field. Queries that filter the field
+ * with ==, >, >=, <, <= or startsWith may use the index instead of scanning every
+ * instance of the entity.
+ *
+ * Fields of an {@link Embedded} type are indexed for each entity that embed it,
+ * and are referenced by the path of the field, like 'address.city'.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.METHOD })
+@Inherited
+public @interface Index {
+}
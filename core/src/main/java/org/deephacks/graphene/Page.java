@@ -0,0 +1,50 @@
+package org.deephacks.graphene;
+
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A page of instances in key order and a token that the next page resume from.
+ *
+ * The token is the serialized key of the last instance in the page. The next page
+ * seek to the first key after it, in a new transaction if needed, so reading a page
+ * cost the same no matter how many pages come before it. Instances that are written
+ * or deleted between pages are seen or not depending on where their keys are.
+ */
+public class Page<T> {
+  private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+  private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+  private final List<T> instances;
+  private final Optional<String> token;
+
+  Page(List<T> instances, Optional<byte[]> lastKey) {
+    this.instances = instances;
+    this.token = lastKey.map(ENCODER::encodeToString);
+  }
+
+  /**
+   * @return instances of the page in key order
+   */
+  public List<T> getInstances() {
+    return instances;
+  }
+
+  /**
+   * @return token of the next page, absent if this is the last page
+   */
+  public Optional<String> getToken() {
+    return token;
+  }
+
+  /**
+   * @return the key of the last instance of the page that issued the token
+   */
+  static byte[] getKey(String token) {
+    try {
+      return DECODER.decode(token);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Not a page token [" + token + "]", e);
+    }
+  }
+}
@@ -0,0 +1,178 @@
+package org.deephacks.graphene;
+
+import org.deephacks.graphene.internal.serialization.BytesUtils;
+import org.fusesource.lmdbjni.Cursor;
+import org.fusesource.lmdbjni.Entry;
+import org.fusesource.lmdbjni.GetOp;
+import org.fusesource.lmdbjni.SeekOp;
+
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Spliterator that split a range of keys into sub ranges that are scanned by
+ * cursors of their own, which let parallel streams scan instances on many cores.
+ * Ranges are only split if the stream is made parallel.
+ *
+ * A range is split on the first key that follow the key half way between the first
+ * and last key in the range, so ranges are only split where there are instances.
+ * All cursors must be opened within the same read transaction in order for every
+ * sub range to see the same snapshot.
+ *
+ * Cursors of a read transaction are used from many threads, which lmdb allow for read
+ * transactions if the environment is opened with MDB_NOTLS and a transaction is not
+ * used by many threads at once. Opening a cursor may update the state of the transaction
+ * and is therefore synchronized by the transaction. Once opened, a cursor only read pages
+ * of the snapshot and every cursor is only used by the thread that scan its range. Ranges
+ * must never be split in write transactions, which are bound to the thread that begin
+ * them. Cursors are closed when the transaction end, also when a range is scanned.
+ *
+ * Ranges can also be scanned in reverse key order, where the upper half of a range
+ * come first in encounter order.
+ */
+class RangeSpliterator<T> implements Spliterator<T> {
+  private final Schema<T> schema;
+  private final Supplier<Cursor> cursors;
+  private final Optional<Predicate<? super T>> filter;
+  private final boolean reversed;
+  private RowKeyRange range;
+  private long estimate;
+  private Cursor cursor;
+  private Iterator<T> iterator;
+
+  /**
+   * @param schema schema of the instances
+   * @param range range of keys to scan
+   * @param cursors open a cursor on the primary database in the read transaction
+   * @param filter filter that instances must match
+   */
+  RangeSpliterator(Schema<T> schema, RowKeyRange range, Supplier<Cursor> cursors, Optional<Predicate<? super T>> filter) {
+    this(schema, range, cursors, filter, false);
+  }
+
+  /**
+   * @param reversed true if keys are scanned in reverse order
+   */
+  RangeSpliterator(Schema<T> schema, RowKeyRange range, Supplier<Cursor> cursors, Optional<Predicate<? super T>> filter, boolean reversed) {
+    this(schema, range == RowKeyRange.EMPTY_RANGE ? range : schema.getKeyRange().intersect(range), cursors, filter, reversed, Long.MAX_VALUE);
+  }
+
+  private RangeSpliterator(Schema<T> schema, RowKeyRange range, Supplier<Cursor> cursors, Optional<Predicate<? super T>> filter, boolean reversed, long estimate) {
+    this.schema = schema;
+    this.range = range;
+    this.cursors = cursors;
+    this.filter = filter;
+    this.reversed = reversed;
+    this.estimate = estimate;
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super T> action) {
+    if (iterator == null) {
+      StreamResultSet<T> resultSet = new StreamResultSet<>(schema, getCursor(), range);
+      if (filter.isPresent()) {
+        resultSet.filter(filter.get());
+      }
+      if (reversed) {
+        resultSet.reverse();
+      }
+      iterator = resultSet.iterator();
+    }
+    if (!iterator.hasNext()) {
+      return false;
+    }
+    action.accept(iterator.next());
+    return true;
+  }
+
+  @Override
+  public Spliterator<T> trySplit() {
+    if (iterator != null || range == RowKeyRange.EMPTY_RANGE) {
+      return null;
+    }
+    Cursor cursor = getCursor();
+    byte[] first = first(cursor);
+    byte[] last = last(cursor);
+    if (first == null || last == null || BytesUtils.compareTo(first, last) >= 0) {
+      return null;
+    }
+    Entry entry = cursor.seek(SeekOp.RANGE, RowKeyRange.midKey(first, last));
+    if (entry == null) {
+      return null;
+    }
+    byte[] split = entry.getKey();
+    if (BytesUtils.compareTo(split, first) <= 0 || BytesUtils.compareTo(split, last) > 0) {
+      return null;
+    }
+    RowKeyRange lower = RowKeyRange.getKeyRange(range.getLowerRange(), range.isLowerInclusive(), split, false);
+    RowKeyRange upper = RowKeyRange.getKeyRange(split, true, range.getUpperRange(), range.isUpperInclusive());
+    estimate = estimate >>> 1;
+    range = reversed ? lower : upper;
+    return new RangeSpliterator<>(schema, reversed ? upper : lower, cursors, filter, reversed, estimate);
+  }
+
+  @Override
+  public long estimateSize() {
+    return estimate;
+  }
+
+  @Override
+  public int characteristics() {
+    return ORDERED | NONNULL;
+  }
+
+  private Cursor getCursor() {
+    if (cursor == null) {
+      cursor = cursors.get();
+    }
+    return cursor;
+  }
+
+  /**
+   * @return the first key within the range or null if there are no keys in it
+   */
+  private byte[] first(Cursor cursor) {
+    Entry entry;
+    if (range.lowerUnbound()) {
+      entry = cursor.get(GetOp.FIRST);
+    } else {
+      entry = cursor.seek(SeekOp.RANGE, range.getLowerRange());
+      if (entry != null && !range.isLowerInclusive() && BytesUtils.compareTo(entry.getKey(), range.getLowerRange()) == 0) {
+        entry = cursor.get(GetOp.NEXT);
+      }
+    }
+    if (entry == null || !withinUpperBound(entry.getKey())) {
+      return null;
+    }
+    return entry.getKey();
+  }
+
+  /**
+   * @return the last key within the upper bound of the range
+   */
+  private byte[] last(Cursor cursor) {
+    if (range.upperUnbound()) {
+      Entry entry = cursor.get(GetOp.LAST);
+      return entry == null ? null : entry.getKey();
+    }
+    Entry entry = cursor.seek(SeekOp.RANGE, range.getUpperRange());
+    if (entry == null) {
+      entry = cursor.get(GetOp.LAST);
+    } else if (!withinUpperBound(entry.getKey())) {
+      entry = cursor.get(GetOp.PREV);
+    }
+    return entry == null ? null : entry.getKey();
+  }
+
+  private boolean withinUpperBound(byte[] key) {
+    if (range.upperUnbound()) {
+      return true;
+    }
+    int cmp = BytesUtils.compareTo(key, range.getUpperRange());
+    return cmp < 0 || (cmp == 0 && range.isUpperInclusive());
+  }
+}
@@ -0,0 +1,39 @@
+package org.deephacks.graphene;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * References between instances are stored as the primary key of the referenced instance
+ * and resolved when the field that hold them is read. Generated classes call these
+ * methods, which use the graphene instance that is open.
+ */
+public final class References {
+
+  private References() {
+  }
+
+  /**
+   * @param entity referenced instance
+   * @return primary key of the referenced instance
+   */
+  public static byte[] getKey(Object entity) {
+    return Graphene.getInstance().getReferenceKey(entity);
+  }
+
+  /**
+   * @return the referenced instance or null if it does not exist
+   */
+  public static <E> E get(byte[] key, Class<E> entityClass) {
+    return getAll(Collections.singletonList(key), entityClass).get(0);
+  }
+
+  /**
+   * Resolve the references of a list, set or map with one sorted walk over their keys.
+   *
+   * @return referenced instances in the order of the keys, null for instances that does not exist
+   */
+  public static <E> List<E> getAll(List<byte[]> keys, Class<E> entityClass) {
+    return Graphene.getInstance().resolve(keys, entityClass);
+  }
+}
@@ -0,0 +1,116 @@
+package org.deephacks.graphene;
+
+import org.deephacks.graphene.internal.serialization.DirectBuf;
+import org.deephacks.graphene.internal.serialization.ValueSerialization.ValueWriter;
+import org.fusesource.lmdbjni.Constants;
+import org.fusesource.lmdbjni.Database;
+import org.fusesource.lmdbjni.DirectBuffer;
+import org.fusesource.lmdbjni.LMDBException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+
+/**
+ * Put values by reserving their space in the database page (MDB_RESERVE) and copy
+ * serialized values from the value writer straight into it, so values are never
+ * assembled into byte arrays before they are written.
+ *
+ * lmdbjni write the key and value structs given to lmdb into a buffer of the
+ * transaction, where lmdb leave the address of the reserved space. The address of
+ * that buffer is package private, so it is looked up once and values are put as
+ * byte arrays if it cannot be found. The layout of the buffer is checked against the
+ * key and size given to lmdb before anything is written to the reserved address, and
+ * values are put as byte arrays from then on if it does not match.
+ */
+class ReservedPut {
+  private static final sun.misc.Unsafe UNSAFE = DirectBuffer.getUnsafe();
+  /** slots of the key and value structs in the transaction buffer */
+  private static final int KEY_SIZE_SLOT = 0;
+  private static final int KEY_ADDRESS_SLOT = 1;
+  private static final int VALUE_SIZE_SLOT = 2;
+  private static final int VALUE_ADDRESS_SLOT = 3;
+  private static final MethodHandle BUFFER_ADDRESS = getBufferAddress();
+  /** false if the transaction buffer has been found to have another layout */
+  private static volatile boolean reservable = BUFFER_ADDRESS != null;
+  private static final ThreadLocal<ReservedPut> INSTANCE = ThreadLocal.withInitial(ReservedPut::new);
+
+  /** direct memory that keys are copied into, since lmdb read keys by address */
+  private ByteBuffer keyMemory = ByteBuffer.allocateDirect(512);
+  private long keyAddress = new DirectBuffer(keyMemory).addressOffset();
+  private final DirectBuffer key = new DirectBuffer(0, 0);
+  private final DirectBuffer value = new DirectBuffer(0, 0);
+
+  private static MethodHandle getBufferAddress() {
+    try {
+      Method method = org.fusesource.lmdbjni.Transaction.class.getDeclaredMethod("getBufferAddress");
+      method.setAccessible(true);
+      return MethodHandles.lookup().unreflect(method);
+    } catch (Exception e) {
+      return null;
+    }
+  }
+
+  /**
+   * Put a value into the database.
+   *
+   * @return false if NOOVERWRITE is given and the key already exist, true otherwise
+   */
+  static boolean put(Database db, org.fusesource.lmdbjni.Transaction tx, byte[] key, ValueWriter value, int flags) {
+    if (!reservable) {
+      return db.put(tx, key, value.getBytes(), flags) == null;
+    }
+    return INSTANCE.get().reserve(db, tx, key, value, flags);
+  }
+
+  private boolean reserve(Database db, org.fusesource.lmdbjni.Transaction tx, byte[] keyBytes, ValueWriter writer, int flags) {
+    if (keyBytes.length > keyMemory.capacity()) {
+      keyMemory = ByteBuffer.allocateDirect(keyBytes.length);
+      keyAddress = new DirectBuffer(keyMemory).addressOffset();
+    }
+    DirectBuf.copyMemory(keyBytes, 0, keyAddress, keyBytes.length);
+    key.wrap(keyAddress, keyBytes.length);
+    int size = writer.size();
+    // lmdb ignore the address of values that are reserved
+    value.wrap(0, size);
+    try {
+      db.put(tx, key, value, flags | Constants.RESERVE);
+    } catch (LMDBException e) {
+      if (e.getErrorCode() == LMDBException.KEYEXIST) {
+        return false;
+      }
+      throw e;
+    }
+    long buffer = bufferAddress(tx);
+    long address = slot(buffer, VALUE_ADDRESS_SLOT);
+    if (slot(buffer, KEY_SIZE_SLOT) != keyBytes.length || slot(buffer, KEY_ADDRESS_SLOT) != keyAddress
+            || slot(buffer, VALUE_SIZE_SLOT) != size || address == 0) {
+      reservable = false;
+      // overwrite the reserved space that was not written, which already exist
+      db.put(tx, keyBytes, writer.getBytes(), flags & ~Constants.NOOVERWRITE);
+      return true;
+    }
+    writer.copyTo(address);
+    return true;
+  }
+
+  private static long slot(long buffer, int slot) {
+    return UNSAFE.getAddress(buffer + slot * UNSAFE.addressSize());
+  }
+
+  /**
+   * @return false if values are put as byte arrays
+   */
+  static boolean isReservable() {
+    return reservable;
+  }
+
+  private static long bufferAddress(org.fusesource.lmdbjni.Transaction tx) {
+    try {
+      return (long) BUFFER_ADDRESS.invokeExact(tx);
+    } catch (Throwable e) {
+      throw new IllegalStateException("Could not get address of reserved value", e);
+    }
+  }
+}
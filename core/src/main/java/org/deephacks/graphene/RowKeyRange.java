@@ -2,6 +2,7 @@ package org.deephacks.graphene;
 
 import org.deephacks.graphene.internal.serialization.BytesUtils;
 
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -72,6 +73,15 @@ public class RowKeyRange {
             upperRange, unboundUpper ? false : upperInclusive);
   }
 
+  /**
+   * @param prefix bytes shared by all keys in the range
+   * @return range of all keys that start with the prefix
+   */
+  public static RowKeyRange getPrefixRange(byte[] prefix) {
+    byte[] next = nextKey(prefix);
+    return getKeyRange(prefix, true, next == null ? UNBOUND : next, false);
+  }
+
   public RowKeyRange() {
     this.lowerRange = DEGENERATE_KEY;
     this.lowerInclusive = false;
@@ -425,7 +435,7 @@ public class RowKeyRange {
       lowerRange = nextKey(lowerRange);
       lowerInclusive = true;
     }
-    return getNextKeyRange(lowerRange, lowerInclusive, upperRange, upperInclusive);
+    return getKeyRange(lowerRange, lowerInclusive, upperRange, upperInclusive);
   }
 
   public static byte[] nextKey(byte[] key) {
@@ -437,6 +447,21 @@ public class RowKeyRange {
     return nextStartRow;
   }
 
+  /**
+   * Key that sort half way between two keys, where the shorter key is padded with
+   * zeros. Used for splitting a range of keys in two without knowing the keys in it.
+   */
+  public static byte[] midKey(byte[] lower, byte[] upper) {
+    int length = Math.max(lower.length, upper.length);
+    BigInteger sum = new BigInteger(1, Arrays.copyOf(lower, length))
+            .add(new BigInteger(1, Arrays.copyOf(upper, length)));
+    byte[] mid = sum.shiftRight(1).toByteArray();
+    byte[] key = new byte[length];
+    int len = Math.min(mid.length, length);
+    System.arraycopy(mid, mid.length - len, key, length - len, len);
+    return key;
+  }
+
   public static boolean nextKey(byte[] key, int length) {
     return nextKey(key, 0, length);
   }
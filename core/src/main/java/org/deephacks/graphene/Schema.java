@@ -1,23 +1,37 @@
 package org.deephacks.graphene;
 
+import org.deephacks.graphene.Schema.IndexSchema.IndexPart;
 import org.deephacks.graphene.Schema.KeySchema.KeyPart;
 import org.deephacks.graphene.internal.KeyInterface;
 import org.deephacks.graphene.internal.serialization.Buf;
 import org.deephacks.graphene.internal.serialization.BufAllocator;
+import org.deephacks.graphene.internal.serialization.Bytes;
+import org.deephacks.graphene.internal.serialization.DirectBuf;
 import org.deephacks.graphene.internal.serialization.KeySerialization.KeyReader;
 import org.deephacks.graphene.internal.serialization.KeySerialization.KeyWriter;
+import org.deephacks.graphene.internal.serialization.OrderedBytes;
 import org.deephacks.graphene.internal.serialization.ValueSerialization.ValueReader;
+import org.fusesource.lmdbjni.DirectBuffer;
 
 import java.io.IOException;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 public class Schema<T> {
 
   private KeySchema keySchema;
+  private IndexSchema indexSchema;
   private Class<?> generatedClass;
   private Class<?> interfaceClass;
   private BufAllocator bufAllocator;
@@ -27,8 +41,14 @@ public class Schema<T> {
   private byte[] minKey;
   private byte[] maxKey;
   private KeyWriter keyWriter;
+  /** true if instances have fields that reference other instances */
+  private boolean referencing;
 
   public Schema(Class<?> generatedClass, Class<?> interfaceClass, KeySchema keySchema, BufAllocator bufAllocator, UniqueIds uniqueIds) {
+    this(generatedClass, interfaceClass, keySchema, new String[0], bufAllocator, uniqueIds);
+  }
+
+  public Schema(Class<?> generatedClass, Class<?> interfaceClass, KeySchema keySchema, String[] indexes, BufAllocator bufAllocator, UniqueIds uniqueIds) {
     this.keySchema = keySchema;
     this.uniqueIds = uniqueIds;
     this.schemaId = uniqueIds.getSchemaId(generatedClass);
@@ -38,6 +58,13 @@ public class Schema<T> {
     this.bufAllocator = bufAllocator;
     this.minKey = appendSchemaId(getKeySchema().getMinKey(), getSchemaId());
     this.maxKey = appendSchemaId(getKeySchema().getMaxKey(), getSchemaId());
+    List<IndexPart> indexParts = new ArrayList<>();
+    for (String index : indexes) {
+      int indexId = uniqueIds.getSchemaId(generatedClass.getName() + "#" + index);
+      indexParts.add(new IndexPart(index, indexId, interfaceClass));
+    }
+    this.indexSchema = new IndexSchema(indexParts);
+    this.referencing = declaresMethod(generatedClass, "getReferences");
     try {
       this.constructor = generatedClass.getDeclaredConstructor(KeyReader.class, ValueReader.class);
       this.constructor.setAccessible(true);
@@ -46,6 +73,18 @@ public class Schema<T> {
     }
   }
 
+  /**
+   * getReferences is only generated for classes that have reference fields.
+   */
+  private static boolean declaresMethod(Class<?> cls, String name) {
+    try {
+      cls.getDeclaredMethod(name);
+      return true;
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
   private byte[] appendSchemaId(byte[] key, int schemaId) {
     try {
       Buf buf = bufAllocator.allocateOutput(key.length);
@@ -61,11 +100,37 @@ public class Schema<T> {
     return keySchema;
   }
 
+  public IndexSchema getIndexSchema() {
+    return indexSchema;
+  }
+
+  /**
+   * Index keys of an instance, one for each index that have a value.
+   *
+   * @param entity instance to index
+   * @param primaryKey serialized key of the instance
+   * @return index keys of the instance
+   */
+  public List<byte[]> getIndexKeys(Object entity, byte[] primaryKey) {
+    List<byte[]> indexKeys = new ArrayList<>();
+    for (IndexPart part : indexSchema.getIndexParts()) {
+      Optional<Object> value = part.getValue(entity);
+      if (value.isPresent()) {
+        indexKeys.add(part.getIndexKey(value.get(), primaryKey));
+      }
+    }
+    return indexKeys;
+  }
+
   @SuppressWarnings("unchecked")
   public Class<T> getGeneratedClass() {
     return (Class<T>) generatedClass;
   }
 
+  public boolean isReferencing() {
+    return referencing;
+  }
+
   public int getSchemaId() {
     return schemaId;
   }
@@ -78,6 +143,17 @@ public class Schema<T> {
     return maxKey;
   }
 
+  /**
+   * @return range that cover all keys of this schema.
+   */
+  public RowKeyRange getKeyRange() {
+    return RowKeyRange.getKeyRange(minKey, true, maxKey, true);
+  }
+
+  public Class<?> getInterfaceClass() {
+    return interfaceClass;
+  }
+
   @SuppressWarnings("unchecked")
   public T getEntity(byte[][] bytes) {
     KeyReader keyReader = new KeyReader(bufAllocator.allocateInput(bytes[0]), keySchema);
@@ -89,71 +165,176 @@ public class Schema<T> {
     }
   }
 
+  /**
+   * @return a probe that can evaluate filters against the bytes of many instances
+   */
+  @SuppressWarnings("unchecked")
+  public Probe<T> getProbe() {
+    DirectBuf keyBuf = new DirectBuf();
+    DirectBuf valueBuf = new DirectBuf();
+    KeyReader keyReader = new KeyReader(keyBuf, keySchema);
+    ValueReader valueReader = new ValueReader(valueBuf, uniqueIds);
+    try {
+      T entity = (T) constructor.newInstance(keyReader, valueReader);
+      return new Probe<>(entity, keyReader, valueReader, keyBuf, valueBuf);
+    } catch (Exception e) {
+      throw new IllegalArgumentException(e);
+    }
+  }
+
   public KeyInterface getKey(Object key) {
     if (key instanceof KeyInterface) {
       return (KeyInterface) key;
     }
     final KeyPart keyPart = keySchema.getFirstKeyPart();
-    final int size = keyPart.getSize();
-    final Class<?> cls = key.getClass();
     return (keyWriter, schemaId) -> {
-      keyWriter.writeInt(schemaId);
-      try {
-        keyWriter.start(keyPart.getName());
-      } catch (IOException e) {
-        throw new RuntimeException(e);
-      }
-      if (cls.isAssignableFrom(String.class)) {
-        keyWriter.writeStringBytes(key.toString(), size);
-      } else if (cls.isAssignableFrom(byte.class) || cls.isAssignableFrom(Byte.class)) {
-        keyWriter.writeByte((byte) key);
-      } else if (cls.isAssignableFrom(short.class) || cls.isAssignableFrom(Short.class)) {
-        keyWriter.writeShort((short) key);
-      } else if (cls.isAssignableFrom(int.class) || cls.isAssignableFrom(Integer.class)) {
-        keyWriter.writeInt((int) key);
-      } else if (cls.isAssignableFrom(long.class) || cls.isAssignableFrom(Long.class)) {
-        keyWriter.writeLong((long) key);
-      } else if (cls.isAssignableFrom(float.class) || cls.isAssignableFrom(Float.class)) {
-        keyWriter.writeFloat((float) key);
-      } else if (cls.isAssignableFrom(double.class) || cls.isAssignableFrom(Double.class)) {
-        keyWriter.writeDouble((double) key);
-      } else if (cls.isAssignableFrom(boolean.class) || cls.isAssignableFrom(Boolean.class)) {
-        keyWriter.writeBoolean((boolean) key);
-      } else if (cls.isAssignableFrom(char.class) || cls.isAssignableFrom(Character.class)) {
-        keyWriter.writeChar((char) key);
-      } else if (cls.isAssignableFrom(byte[].class)) {
-        keyWriter.writeBytes((byte[]) key, size);
-      } else {
-        keyWriter.writeObject(key);
-      }
+      keyWriter.writeSchemaId(schemaId);
+      writeKeyPart(keyWriter, keyPart, key);
       return keyWriter.getBytes();
     };
  }
 
+  /**
+   * Serialize the schema id followed by the leading key parts of this schema.
+   *
+   * @param values values of the leading key parts in key order
+   * @return key bytes that all keys starting with these values share
+   */
+  public byte[] getKeyPrefix(List<Object> values) {
+    return getKeyPrefix(values, Optional.empty());
+  }
+
+  /**
+   * Serialize the schema id followed by the leading key parts of this schema
+   * and the first bytes of the next key part, which must be a string.
+   *
+   * @param values values of the leading key parts in key order
+   * @param startsWith prefix of the key part that follow the values
+   * @return key bytes that all keys starting with these values share
+   */
+  public byte[] getKeyPrefix(List<Object> values, Optional<String> startsWith) {
+    List<KeyPart> parts = keySchema.getKeyParts();
+    KeyWriter keyWriter = getKeyWriter();
+    try {
+      keyWriter.writeSchemaId(schemaId);
+      for (int i = 0; i < values.size(); i++) {
+        writeKeyPart(keyWriter, parts.get(i), values.get(i));
+      }
+      if (startsWith.isPresent()) {
+        keyWriter.start(parts.get(values.size()).getName());
+        keyWriter.writeStringPrefix(startsWith.get());
+      }
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+    return keyWriter.getBytes();
+  }
+
+  private static void writeKeyPart(KeyWriter keyWriter, KeyPart keyPart, Object key) throws IOException {
+    keyWriter.start(keyPart.getName());
+    keyWriter.writeKey(toKeyType(keyPart.getType(), key));
+  }
+
+  /**
+   * Numbers from queries may not have the type of the key part, like an int literal
+   * compared with a long key, and are converted so that they are encoded the same way.
+   */
+  private static Object toKeyType(Class<?> type, Object key) {
+    if (!(key instanceof Number) || type.isInstance(key)) {
+      return key;
+    }
+    Number number = (Number) key;
+    Class<?> wrapped = MethodType.methodType(type).wrap().returnType();
+    if (wrapped == Long.class) {
+      return number.longValue();
+    } else if (wrapped == Integer.class) {
+      return number.intValue();
+    } else if (wrapped == Short.class) {
+      return number.shortValue();
+    } else if (wrapped == Byte.class) {
+      return number.byteValue();
+    } else if (wrapped == Double.class) {
+      return number.doubleValue();
+    } else if (wrapped == Float.class) {
+      return number.floatValue();
+    }
+    return key;
+  }
+
   public KeyWriter getKeyWriter() {
     return new KeyWriter(bufAllocator.allocateOutput(getKeySchema().size()), getKeySchema());
   }
 
+  /**
+   * A single instance that is pointed at the bytes of one instance at a time. Values
+   * are only read as filters access them, which avoid creating an instance for each
+   * row that is scanned. The instance change when reset and must not escape the
+   * evaluation of filters, instances that match should be created with getEntity.
+   *
+   * Bytes are read where lmdb keep them, without being copied, so the probe must
+   * only be used while the cursor that returned them stay on the same row.
+   */
+  public static class Probe<T> {
+    private final T entity;
+    private final KeyReader keyReader;
+    private final ValueReader valueReader;
+    private final DirectBuf keyBuf;
+    private final DirectBuf valueBuf;
+
+    private Probe(T entity, KeyReader keyReader, ValueReader valueReader, DirectBuf keyBuf, DirectBuf valueBuf) {
+      this.entity = entity;
+      this.keyReader = keyReader;
+      this.valueReader = valueReader;
+      this.keyBuf = keyBuf;
+      this.valueBuf = valueBuf;
+    }
+
+    public T reset(DirectBuffer key, DirectBuffer value) {
+      keyBuf.wrap(key.addressOffset(), key.capacity());
+      valueBuf.wrap(value.addressOffset(), value.capacity());
+      keyReader.reset();
+      valueReader.reset();
+      return entity;
+    }
+
+    public T reset(byte[] key, byte[] value) {
+      keyBuf.wrap(key);
+      valueBuf.wrap(value);
+      keyReader.reset();
+      valueReader.reset();
+      return entity;
+    }
+  }
+
   public static class KeySchema {
-    private static final int SCHEMA_ID_SIZE = 4;
+    public static final int SCHEMA_ID_SIZE = 4;
     private final Map<String, KeyPart> keyParts = new HashMap<>();
+    private final List<KeyPart> orderedKeyParts;
+    private final int size;
     private final byte[] minKey;
     private final byte[] maxKey;
 
     public KeySchema(List<KeyPart> parts) {
       int size = 0;
       for (KeyPart part : parts) {
-        size += part.getSize();
+        size += part.getMaxSize();
         keyParts.put(part.getName(), part);
       }
-      // 4 more bytes for the schema id
-      this.minKey = new byte[size];
-      this.maxKey = new byte[size];
+      this.size = size;
+      // the schema id alone sort before every key and a key longer than every key sort after them
+      this.minKey = new byte[0];
+      this.maxKey = new byte[size + 1];
       Arrays.fill(maxKey, (byte) 0xFF);
+      List<KeyPart> ordered = new ArrayList<>(parts);
+      ordered.sort(Comparator.comparing(KeyPart::getBytesPosition));
+      this.orderedKeyParts = Collections.unmodifiableList(ordered);
     }
 
+    /**
+     * @return maximum number of bytes of the key parts, without the schema id
+     */
     public int size() {
-      return minKey.length;
+      return size;
     }
 
     public byte[] getMinKey() {
@@ -169,7 +350,14 @@ public class Schema<T> {
     }
 
     public KeyPart getFirstKeyPart() {
-      return keyParts.values().iterator().next();
+      return orderedKeyParts.get(0);
+    }
+
+    /**
+     * @return key parts in the order they are laid out in the key.
+     */
+    public List<KeyPart> getKeyParts() {
+      return orderedKeyParts;
     }
 
     public static class KeyPart {
@@ -189,6 +377,10 @@ public class Schema<T> {
         return type;
       }
 
+      /**
+       * @return position that give the order of key parts, keys are encoded with
+       * variable length and key parts are found by skipping the parts before them
+       */
       public int getBytesPosition() {
         return bytesPosition;
       }
@@ -197,10 +389,137 @@ public class Schema<T> {
         return name;
       }
 
+      /**
+       * @return maximum number of bytes of strings and byte arrays, or the number of
+       * bytes of other types before they are encoded
+       */
       public int getSize() {
         return size;
       }
 
+      /**
+       * @return maximum number of bytes of the encoded key part
+       */
+      public int getMaxSize() {
+        return OrderedBytes.getMaxSize(type, size);
+      }
+
+    }
+  }
+
+  /**
+   * Indexes are stored as keys that start with the id of the index followed by
+   * the ordered bytes of the field value and the primary key of the instance.
+   */
+  public static class IndexSchema {
+    private final Map<String, IndexPart> indexParts = new LinkedHashMap<>();
+
+    public IndexSchema(List<IndexPart> parts) {
+      for (IndexPart part : parts) {
+        indexParts.put(part.getName(), part);
+      }
+    }
+
+    public boolean isEmpty() {
+      return indexParts.isEmpty();
+    }
+
+    public Optional<IndexPart> getIndexPart(String name) {
+      return Optional.ofNullable(indexParts.get(name));
+    }
+
+    public List<IndexPart> getIndexParts() {
+      return new ArrayList<>(indexParts.values());
+    }
+
+    public static class IndexPart {
+      private final String name;
+      private final byte[] prefix;
+      private final List<Method> getters = new ArrayList<>();
+      private final Class<?> type;
+
+      public IndexPart(String name, int indexId, Class<?> interfaceClass) {
+        this.name = name;
+        this.prefix = Bytes.fromInt(indexId);
+        Class<?> type = interfaceClass;
+        for (String id : name.split("\\.")) {
+          try {
+            Method method = type.getMethod("get" + Character.toUpperCase(id.charAt(0)) + id.substring(1));
+            getters.add(method);
+            type = getValueType(method);
+          } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException("No field " + name + " on " + interfaceClass.getName(), e);
+          }
+        }
+        this.type = MethodType.methodType(type).wrap().returnType();
+      }
+
+      private static Class<?> getValueType(Method method) {
+        if (Optional.class.equals(method.getReturnType())) {
+          ParameterizedType optional = (ParameterizedType) method.getGenericReturnType();
+          return (Class<?>) optional.getActualTypeArguments()[0];
+        }
+        return method.getReturnType();
+      }
+
+      public String getName() {
+        return name;
+      }
+
+      public Class<?> getType() {
+        return type;
+      }
+
+      /**
+       * @return true if the value is of the indexed type and the index can be used for it
+       */
+      public boolean isIndexed(Object value) {
+        return type.isInstance(value);
+      }
+
+      public Optional<Object> getValue(Object entity) {
+        Object value = entity;
+        try {
+          for (Method getter : getters) {
+            value = getter.invoke(value);
+            if (value instanceof Optional) {
+              value = ((Optional<?>) value).orElse(null);
+            }
+            if (value == null) {
+              return Optional.empty();
+            }
+          }
+        } catch (Exception e) {
+          throw new IllegalArgumentException("Could not read index " + name, e);
+        }
+        return Optional.of(value);
+      }
+
+      /**
+       * @return bytes that all keys of this index start with
+       */
+      public byte[] getPrefix() {
+        return prefix;
+      }
+
+      /**
+       * @return bytes that all keys of instances with this value start with
+       */
+      public byte[] getPrefix(Object value) {
+        return Bytes.concat(prefix, OrderedBytes.encode(value));
+      }
+
+      /**
+       * @return bytes that all keys of instances with a string value that start with
+       * the provided string start with
+       */
+      public byte[] getStringPrefix(String startsWith) {
+        return Bytes.concat(prefix, OrderedBytes.encodeStringPrefix(startsWith));
+      }
+
+      public byte[] getIndexKey(Object value, byte[] primaryKey) {
+        return Bytes.concat(prefix, OrderedBytes.encode(value), primaryKey);
+      }
     }
   }
 
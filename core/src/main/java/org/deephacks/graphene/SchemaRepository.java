@@ -17,6 +17,7 @@ public class SchemaRepository {
   public static final String SCHEMA_PATH = "META-INF/graphene/schema";
   private Map<Class<?>, Schema> interfaceSchemas = new HashMap<>();
   private Map<Class<?>, Schema> generatedSchemas = new HashMap<>();
+  private Map<Integer, Schema> idSchemas = new HashMap<>();
   private BufAllocator bufAllocator;
   private UniqueIds uniqueIds;
 
@@ -27,9 +28,11 @@ public class SchemaRepository {
       try {
         Class<?> generatedClass = TypeUtil.getGeneratedEntity(cls);
         KeySchema keySchema = TypeUtil.getKeySchema(cls);
-        Schema<?> schema = new Schema<>(generatedClass, cls, keySchema, bufAllocator, uniqueIds);
+        String[] indexes = TypeUtil.getIndexes(cls);
+        Schema<?> schema = new Schema<>(generatedClass, cls, keySchema, indexes, bufAllocator, uniqueIds);
         interfaceSchemas.put(cls, schema);
         generatedSchemas.put(generatedClass, schema);
+        idSchemas.put(schema.getSchemaId(), schema);
       } catch (Exception e) {
         throw new RuntimeException(e);
       }
@@ -50,6 +53,18 @@ public class SchemaRepository {
     return schema;
   }
 
+  /**
+   * @param schemaId id that the keys of instances of the schema start with
+   * @return schema of the id
+   */
+  public Schema<?> getSchema(int schemaId) {
+    Schema<?> schema = idSchemas.get(schemaId);
+    if (schema == null) {
+      throw new IllegalArgumentException("No schema found for id " + schemaId);
+    }
+    return schema;
+  }
+
   public List<String> list() {
     ArrayList<String> list = new ArrayList<>();
     for (Class<?> cls : interfaceSchemas.keySet()) {
@@ -0,0 +1,104 @@
+package org.deephacks.graphene;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Sequence of unique numbers that are handed out from blocks reserved in storage,
+ * also known as hi/lo. Only the last number of each block is written, so a write
+ * transaction is only needed once every block size numbers and numbers within a
+ * block are handed out from memory without locking.
+ *
+ * A block that is reserved in a write transaction is only used by that transaction
+ * until it commit, since the reservation is lost if it roll back. Numbers of blocks
+ * that are rolled back are never handed out again by the process, since the writes
+ * that used them may be visible outside of the transaction, like ids in memory.
+ *
+ * Numbers are unique but numbers that are left in a block when the process exit
+ * are never handed out, which leave gaps.
+ */
+public class Sequence {
+  private final Graphene graphene;
+  private final byte[] key;
+  private final int blockSize;
+  private final AtomicReference<Block> block = new AtomicReference<>(new Block(0, 0));
+  /** blocks reserved in write transactions that have not committed yet */
+  private final Map<Transaction, Block> uncommitted = new ConcurrentHashMap<>();
+  /** smallest number that a new block may start at, after blocks that rolled back */
+  private final AtomicLong first = new AtomicLong(0);
+
+  Sequence(Graphene graphene, byte[] key, int blockSize) {
+    Guavas.checkArgument(blockSize > 0, "blockSize must be positive");
+    this.graphene = graphene;
+    this.key = key;
+    this.blockSize = blockSize;
+  }
+
+  /**
+   * @return the next number of the sequence
+   */
+  public long next() {
+    while (true) {
+      Block current = block.get();
+      long number = current.next.getAndIncrement();
+      if (number < current.limit) {
+        return number;
+      }
+      Transaction tx = graphene.getTxManager().peek();
+      if (tx != null) {
+        return next(tx);
+      }
+      // no lock is held while waiting for the write lock of lmdb, which may be held by
+      // a thread that need a number. Blocks of threads that lose the race are wasted.
+      block.compareAndSet(current, graphene.withTxWriteReturn(t -> newBlock()));
+    }
+  }
+
+  /**
+   * Hand out a number from a block that is reserved in the current transaction and
+   * shared with other threads when the transaction commit.
+   */
+  private long next(Transaction tx) {
+    while (true) {
+      Block reserved = uncommitted.get(tx);
+      if (reserved != null) {
+        long number = reserved.next.getAndIncrement();
+        if (number < reserved.limit) {
+          return number;
+        }
+      }
+      Block created = newBlock();
+      if (reserved == null) {
+        tx.onCommit(() -> block.set(uncommitted.remove(tx)));
+        tx.onRollback(() -> discard(uncommitted.remove(tx)));
+      }
+      uncommitted.put(tx, created);
+    }
+  }
+
+  private Block newBlock() {
+    long last = graphene.reserve(key, blockSize, first.get());
+    return new Block(last - blockSize + 1, last + 1);
+  }
+
+  private void discard(Block discarded) {
+    if (discarded != null) {
+      first.accumulateAndGet(discarded.limit, Math::max);
+    }
+  }
+
+  /**
+   * Numbers from next, inclusive, to limit, exclusive.
+   */
+  private static class Block {
+    private final AtomicLong next;
+    private final long limit;
+
+    private Block(long next, long limit) {
+      this.next = new AtomicLong(next);
+      this.limit = limit;
+    }
+  }
+}
@@ -1,82 +1,174 @@
 package org.deephacks.graphene;
 
-import org.deephacks.graphene.internal.FastKeyComparator;
+import org.deephacks.graphene.Schema.Probe;
 import org.deephacks.graphene.internal.serialization.BytesUtils;
-import org.fusesource.lmdbjni.Constants;
 import org.fusesource.lmdbjni.Cursor;
-import org.fusesource.lmdbjni.Entry;
+import org.fusesource.lmdbjni.DirectBuffer;
+import org.fusesource.lmdbjni.GetOp;
+import org.fusesource.lmdbjni.LMDBException;
 import org.fusesource.lmdbjni.SeekOp;
 
 import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.function.Predicate;
 
+/**
+ * Iterate instances of a schema within a range of keys, in key order, or through
+ * the entries of an index within a range of index keys, in index order. Either order
+ * can be reversed, in which case iteration start at the upper bound of the range.
+ *
+ * Keys and values are read directly from the memory mapped pages of lmdb while
+ * filters are evaluated. Bytes are only copied for rows that match, since instances
+ * may be used after the transaction has ended.
+ */
 public class StreamResultSet<T> implements Iterable<T>, Closeable {
-  private int maxResult = Integer.MAX_VALUE;
-  private int matches = 0;
   private final Cursor cursor;
-  private byte[] key;
-  private byte[] value;
-  private byte[] firstKey;
-  private byte[] lastKey;
-  private boolean lastReached = false;
-  private Schema<T> schema;
+  private final Schema<T> schema;
+  private final RowKeyRange range;
+  private final Optional<Cursor> primary;
+  private Optional<Predicate<? super T>> filter = Optional.empty();
+  private boolean reversed = false;
 
   public StreamResultSet(Schema<T> schema, Cursor cursor) {
+    this(schema, cursor, schema.getKeyRange());
+  }
+
+  /**
+   * @param schema schema of the instances
+   * @param cursor cursor used for iterating the keys
+   * @param range range of keys to iterate, limited to the keys of the schema
+   */
+  public StreamResultSet(Schema<T> schema, Cursor cursor, RowKeyRange range) {
     this.schema = schema;
-    this.firstKey = schema.getMinKey();
-    this.lastKey = schema.getMaxKey();
-    this.key = this.firstKey;
     this.cursor = cursor;
-    Entry entry = cursor.seek(SeekOp.RANGE, key);
-    if (entry != null) {
-      this.value = entry.getValue();
-      this.key = entry.getKey();
-    }
+    this.range = range == RowKeyRange.EMPTY_RANGE ? range : schema.getKeyRange().intersect(range);
+    this.primary = Optional.empty();
+  }
+
+  private StreamResultSet(Schema<T> schema, Cursor indexCursor, RowKeyRange range, Cursor primary) {
+    this.schema = schema;
+    this.cursor = indexCursor;
+    this.range = range;
+    this.primary = Optional.of(primary);
+  }
+
+  /**
+   * @param schema schema of the instances
+   * @param indexCursor cursor used for iterating the index keys
+   * @param range range of index keys to iterate
+   * @param primary cursor used for looking up the primary key that is the value of each index entry
+   */
+  public static <T> StreamResultSet<T> indexScan(Schema<T> schema, Cursor indexCursor, RowKeyRange range, Cursor primary) {
+    return new StreamResultSet<>(schema, indexCursor, range, primary);
+  }
+
+  /**
+   * Only return instances that match the filter. The filter is evaluated against
+   * the bytes of each row and instances are only created for rows that match.
+   */
+  public StreamResultSet<T> filter(Predicate<? super T> filter) {
+    this.filter = Optional.of(filter);
+    return this;
+  }
+
+  /**
+   * Iterate from the upper bound of the range towards the lower bound.
+   */
+  public StreamResultSet<T> reverse() {
+    this.reversed = true;
+    return this;
   }
 
   @Override
   public Iterator<T> iterator() {
-    return new ByteIteratorWrapper<>(schema, new ByteIterator().iterator());
+    return new ByteIteratorWrapper<>(schema, new ByteIterator().iterator(), filter);
+  }
+
+  /**
+   * Collect at most size instances into a page, where the key of the last instance
+   * is the token of the next page. The token is absent if there are no more instances
+   * in the range. Only key scans can be paged since the token is a primary key.
+   */
+  public Page<T> page(int size) {
+    if (primary.isPresent()) {
+      throw new IllegalStateException("Index scans cannot be paged");
+    }
+    ByteIteratorWrapper<T> iterator = new ByteIteratorWrapper<>(schema, new ByteIterator().iterator(), filter);
+    List<T> instances = new ArrayList<>();
+    while (instances.size() < size && iterator.hasNext()) {
+      instances.add(iterator.next());
+    }
+    if (instances.isEmpty() || !iterator.hasNext()) {
+      return new Page<>(instances, Optional.empty());
+    }
+    return new Page<>(instances, Optional.of(iterator.lastKey));
   }
 
   @Override
   public void close() {
     cursor.close();
+    if (primary.isPresent()) {
+      primary.get().close();
+    }
   }
 
-  class ByteIterator implements Iterable<byte[][]> {
+  /**
+   * Iterate keys and values within the range. The same pair of buffers is returned
+   * for every row and is only valid until the iterator is moved.
+   */
+  class ByteIterator implements Iterable<DirectBuffer[]> {
+    private final DirectBuffer key = new DirectBuffer(0, 0);
+    private final DirectBuffer value = new DirectBuffer(0, 0);
+    private final DirectBuffer indexKey = new DirectBuffer(0, 0);
+    private final DirectBuffer[] next = new DirectBuffer[] { key, value };
+    private boolean hasNext = false;
+    private boolean started = false;
+    private boolean lastReached = false;
 
     @Override
-    public Iterator<byte[][]> iterator() {
+    public Iterator<DirectBuffer[]> iterator() {
 
-      return new Iterator<byte[][]>() {
+      return new Iterator<DirectBuffer[]>() {
         @Override
         public boolean hasNext() {
-          if (matches == 0 && value != null) {
-            // the firstKey value may already be fetched if
-            // cursor.getSearchKeyRange found a key
-            return FastKeyComparator.withinKeyRange(key, firstKey, lastKey);
-          }
-          Entry entry = cursor.get(Constants.NEXT);
-          if (entry == null) {
-            return false;
+          if (hasNext) {
+            return true;
           }
-          key = entry.getKey();
-          value = entry.getValue();
-          if (!FastKeyComparator.withinKeyRange(key, firstKey, lastKey)) {
+          if (lastReached) {
             return false;
           }
-          if (lastKey != null && BytesUtils.compareTo(key, 0, key.length, lastKey, 0, lastKey.length) > 0) {
-            lastReached = true;
+          while (true) {
+            DirectBuffer current = primary.isPresent() ? indexKey : key;
+            boolean found;
+            if (!started) {
+              started = true;
+              found = reversed ? seekUpperBound(current) : seekLowerBound(current);
+            } else {
+              found = cursor.position(current, value, reversed ? GetOp.PREV : GetOp.NEXT) != LMDBException.NOTFOUND;
+            }
+            if (!found || !(reversed ? withinLowerBound(current) : withinUpperBound(current))) {
+              lastReached = true;
+              return false;
+            }
+            if (getKeyValue()) {
+              hasNext = true;
+              return true;
+            }
           }
-          return matches < maxResult && !lastReached;
         }
 
         @Override
-        public byte[][] next() {
-          byte[][] bytes = { key, value };
-          value = null;
-          return bytes;
+        public DirectBuffer[] next() {
+          if (!hasNext()) {
+            throw new NoSuchElementException();
+          }
+          hasNext = false;
+          return next;
         }
 
         @Override
@@ -85,25 +177,132 @@ public class StreamResultSet<T> implements Iterable<T>, Closeable {
         }
       };
     }
+
+    /**
+     * Index entries have the primary key as value, which is looked up in place.
+     */
+    private boolean getKeyValue() {
+      if (!primary.isPresent()) {
+        return true;
+      }
+      key.wrap(value);
+      return primary.get().seekPosition(key, value, SeekOp.KEY) != LMDBException.NOTFOUND;
+    }
+
+    private boolean seekLowerBound(DirectBuffer current) {
+      if (range == RowKeyRange.EMPTY_RANGE) {
+        return false;
+      }
+      if (range.lowerUnbound()) {
+        return cursor.position(current, value, GetOp.FIRST) != LMDBException.NOTFOUND;
+      }
+      byte[] lowerKey = range.getLowerRange();
+      if (!seek(current, lowerKey)) {
+        return false;
+      }
+      if (!range.isLowerInclusive() && compareTo(current, lowerKey) == 0) {
+        return cursor.position(current, value, GetOp.NEXT) != LMDBException.NOTFOUND;
+      }
+      return true;
+    }
+
+    /**
+     * Position the cursor at the last key within the upper bound, which is the key
+     * before the first key that is bigger than the upper bound.
+     */
+    private boolean seekUpperBound(DirectBuffer current) {
+      if (range == RowKeyRange.EMPTY_RANGE) {
+        return false;
+      }
+      if (range.upperUnbound() || !seek(current, range.getUpperRange())) {
+        return cursor.position(current, value, GetOp.LAST) != LMDBException.NOTFOUND;
+      }
+      if (!withinUpperBound(current)) {
+        return cursor.position(current, value, GetOp.PREV) != LMDBException.NOTFOUND;
+      }
+      return true;
+    }
+
+    private boolean seek(DirectBuffer current, byte[] key) {
+      // lmdb read the key from its address so it cannot be backed by a byte array
+      ByteBuffer buffer = ByteBuffer.allocateDirect(key.length);
+      buffer.put(key);
+      current.wrap(buffer);
+      return cursor.seekPosition(current, value, SeekOp.RANGE) != LMDBException.NOTFOUND;
+    }
+
+    private boolean withinUpperBound(DirectBuffer key) {
+      if (range.upperUnbound()) {
+        return true;
+      }
+      int cmp = compareTo(key, range.getUpperRange());
+      return cmp < 0 || (cmp == 0 && range.isUpperInclusive());
+    }
+
+    private boolean withinLowerBound(DirectBuffer key) {
+      if (range.lowerUnbound()) {
+        return true;
+      }
+      int cmp = compareTo(key, range.getLowerRange());
+      return cmp > 0 || (cmp == 0 && range.isLowerInclusive());
+    }
   }
 
-  class ByteIteratorWrapper<E> implements Iterator<E> {
+  private static int compareTo(DirectBuffer buffer, byte[] bytes) {
+    return BytesUtils.compareTo(buffer.addressOffset(), buffer.capacity(), bytes);
+  }
 
-    private final Iterator<byte[][]> iterator;
-    private Schema<E> schema;
-    public ByteIteratorWrapper(Schema<E> schema, Iterator<byte[][]> iterator) {
+  static byte[] toBytes(DirectBuffer buffer) {
+    byte[] bytes = new byte[buffer.capacity()];
+    buffer.getBytes(0, bytes);
+    return bytes;
+  }
+
+  /**
+   * Create instances of the rows that match the filter, which are the only rows that
+   * are copied out of the buffers.
+   */
+  static class ByteIteratorWrapper<E> implements Iterator<E> {
+
+    private final Iterator<DirectBuffer[]> iterator;
+    private final Schema<E> schema;
+    private final Optional<Predicate<? super E>> filter;
+    private final Optional<Probe<E>> probe;
+    private byte[][] next;
+    /** key of the instance last returned by next */
+    private byte[] lastKey;
+
+    public ByteIteratorWrapper(Schema<E> schema, Iterator<DirectBuffer[]> iterator, Optional<Predicate<? super E>> filter) {
       this.iterator = iterator;
       this.schema = schema;
+      this.filter = filter;
+      this.probe = filter.isPresent() ? Optional.of(schema.getProbe()) : Optional.empty();
     }
 
     @Override
     public boolean hasNext() {
-      return iterator.hasNext() && matches++ < maxResult;
+      if (next != null) {
+        return true;
+      }
+      while (iterator.hasNext()) {
+        DirectBuffer[] data = iterator.next();
+        if (!filter.isPresent() || filter.get().test(probe.get().reset(data[0], data[1]))) {
+          // the buffers point into lmdb and change as the cursor move
+          next = new byte[][] { toBytes(data[0]), toBytes(data[1]) };
+          return true;
+        }
+      }
+      return false;
     }
 
     @Override
     public E next() {
-      byte[][] data = iterator.next();
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      byte[][] data = next;
+      next = null;
+      lastKey = data[0];
       return schema.getEntity(data);
     }
 
@@ -1,9 +1,16 @@
 package org.deephacks.graphene;
 
+import org.deephacks.graphene.internal.gql.Aggregate;
 import org.deephacks.graphene.internal.gql.Query;
 import org.fusesource.lmdbjni.Cursor;
+import org.fusesource.lmdbjni.Database;
+import org.fusesource.lmdbjni.LMDBException;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Spliterator;
 import java.util.Spliterators;
@@ -12,15 +19,32 @@ import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 public class Transaction {
+  /** error of lmdb when a transaction use a database that was opened after it began */
+  private static final int EINVAL = 22;
   private final Stack<Cursor> cursors = new Stack<>();
+  private final List<Runnable> rollbackHooks = new ArrayList<>();
+  private final List<Runnable> commitHooks = new ArrayList<>();
+  private final List<Runnable> beforeCommitHooks = new ArrayList<>();
   private final org.fusesource.lmdbjni.Transaction tx;
   private final Graphene graphene;
   private boolean readOnly;
+  /** the transaction this transaction is nested in */
+  private final Optional<Transaction> parent;
+  /** version of the entity cache before the lmdb transaction began */
+  private final long cacheVersion;
+  /** databases that this read only transaction have checked if it can use */
+  private final Map<Database, Boolean> readable = new IdentityHashMap<>();
 
-  Transaction(Graphene graphene, org.fusesource.lmdbjni.Transaction tx, boolean readOnly) {
+  Transaction(Graphene graphene, org.fusesource.lmdbjni.Transaction tx, boolean readOnly, long cacheVersion) {
+    this(graphene, tx, readOnly, Optional.empty(), cacheVersion);
+  }
+
+  Transaction(Graphene graphene, org.fusesource.lmdbjni.Transaction tx, boolean readOnly, Optional<Transaction> parent, long cacheVersion) {
     this.tx = tx;
     this.graphene = graphene;
     this.readOnly = readOnly;
+    this.parent = parent;
+    this.cacheVersion = cacheVersion;
   }
 
   org.fusesource.lmdbjni.Transaction getTx() {
@@ -35,6 +59,10 @@ public class Transaction {
     return graphene.get(key, entityClass);
   }
 
+  public <E> List<Optional<E>> getAll(Collection<?> keys, Class<E> entityClass) {
+    return graphene.getAll(keys, entityClass);
+  }
+
   public <E> boolean putNoOverwrite(E entity) {
     return graphene.putNoOverwrite(entity);
   }
@@ -51,6 +79,14 @@ public class Transaction {
     graphene.deleteAll(entityClass);
   }
 
+  public <E> long deleteRange(RowKeyRange range, Class<E> entityClass) {
+    return graphene.deleteRange(range, entityClass);
+  }
+
+  public <E> long deleteWhere(String query, Class<E> entityClass) {
+    return graphene.deleteWhere(query, entityClass);
+  }
+
   /**
    * Stream instances.
    *
@@ -59,46 +95,179 @@ public class Transaction {
    * @return stream of instances.
    */
   public <E> Stream<E> stream(Class<E> cls) {
+    return stream(cls, false);
+  }
+
+  /**
+   * Stream instances in key order or in reverse key order. Streams are sequential. Streams
+   * of read only transactions that are made parallel split the keys into ranges that are
+   * scanned by cursors of their own, see RangeSpliterator. Streams of write transactions
+   * must not be made parallel since write transactions are bound to their thread.
+   *
+   * @param cls the type which is target for selection
+   * @param reversed true if instances are streamed from the biggest key to the smallest
+   * @param <E>         instance type
+   * @return stream of instances.
+   */
+  public <E> Stream<E> stream(Class<E> cls, boolean reversed) {
     Schema<E> schema = graphene.getSchema(cls);
-    final Cursor cursor = graphene.openPrimaryCursor(tx);
+    if (readOnly) {
+      // split the keys into ranges that are scanned in parallel if the stream is made parallel
+      RangeSpliterator<E> spliterator = new RangeSpliterator<>(schema, schema.getKeyRange(), () -> openPrimaryCursor(schema), Optional.empty(), reversed);
+      return StreamSupport.stream(spliterator, false);
+    }
+    final Cursor cursor = graphene.openPrimaryCursor(tx, schema);
     StreamResultSet<E> objects = new StreamResultSet<>(schema, cursor);
+    if (reversed) {
+      objects.reverse();
+    }
     Spliterator<E> spliterator = Spliterators.spliterator(objects.iterator(), Long.MAX_VALUE, Spliterator.CONCURRENT);
-    Stream<E> stream = StreamSupport.stream(spliterator, true);
+    Stream<E> stream = StreamSupport.stream(spliterator, false);
     if (graphene.getTxManager().peek() != null) {
       push(cursor);
     }
     return stream;
   }
 
+  /**
+   * Get a page of instances in key order. The first page is read without a token and
+   * following pages are read with the token of the page before, which may be read in
+   * another transaction. Pages are read by seeking to the key after the token, so
+   * reading a page does not scan the instances of the pages before it.
+   *
+   * @param cls the type which is target for selection
+   * @param size maximum number of instances in the page
+   * @param token token of the previous page or absent for the first page
+   * @param <E>         instance type
+   * @return page of instances
+   */
+  public <E> Page<E> page(Class<E> cls, int size, Optional<String> token) {
+    Schema<E> schema = graphene.getSchema(cls);
+    RowKeyRange range = schema.getKeyRange();
+    if (token.isPresent()) {
+      range = RowKeyRange.getKeyRange(Page.getKey(token.get()), false, range.getUpperRange(), range.isUpperInclusive());
+    }
+    try (StreamResultSet<E> resultSet = new StreamResultSet<>(schema, openPrimaryCursor(schema), range)) {
+      return resultSet.page(size);
+    }
+  }
+
   @SuppressWarnings("unchecked")
   public <T> List<T> query(String query, Schema<T> schema) {
-    final Cursor cursor = graphene.openPrimaryCursor(tx);
     Query<T> q = Query.parse(query, schema.getGeneratedClass());
-    StreamResultSet objects = new StreamResultSet<>(schema, cursor);
-    Spliterator spliterator = objects.spliterator();
-    try (Stream stream = StreamSupport.stream(spliterator, false)) {
-      stream.onClose(cursor::close);
-      if (graphene.getTxManager().peek() != null) {
-        push(cursor);
-      }
-      return q.collect(stream);
-    }
+    return graphene.collect(this, q, schema, false);
+  }
+
+  public <T> List<Aggregate> aggregate(String query, Schema<T> schema) {
+    Query<T> q = Query.parse(query, schema.getGeneratedClass());
+    return graphene.aggregate(this, q, schema, false);
   }
 
+  /**
+   * Hooks of nested transactions are handed over to the parent, since their writes
+   * are only committed, or rolled back, with the parent.
+   */
   public void commit() {
     closeCursors();
-    tx.commit();
+    if (parent.isPresent()) {
+      tx.commit();
+      parent.get().beforeCommitHooks.addAll(beforeCommitHooks);
+      parent.get().commitHooks.addAll(commitHooks);
+      parent.get().rollbackHooks.addAll(rollbackHooks);
+      return;
+    }
+    beforeCommitHooks.forEach(Runnable::run);
+    try {
+      tx.commit();
+    } catch (RuntimeException e) {
+      rollbackHooks.forEach(Runnable::run);
+      throw e;
+    }
+    commitHooks.forEach(Runnable::run);
   }
 
   public void rollback() {
     closeCursors();
     tx.abort();
+    rollbackHooks.forEach(Runnable::run);
+  }
+
+  /**
+   * Run a hook if the transaction roll back, for state outside of storage that is
+   * only valid if the writes of the transaction commit.
+   */
+  void onRollback(Runnable hook) {
+    rollbackHooks.add(hook);
+  }
+
+  /**
+   * Run a hook right before the writes of the transaction are committed. Rollback hooks
+   * run if the commit fail.
+   */
+  void beforeCommit(Runnable hook) {
+    beforeCommitHooks.add(hook);
+  }
+
+  /**
+   * Run a hook when the writes of the transaction have been committed.
+   */
+  void onCommit(Runnable hook) {
+    commitHooks.add(hook);
+  }
+
+  /**
+   * @return true if the transaction, or a transaction it is nested in, have writes
+   * that are not committed
+   */
+  boolean hasWrites() {
+    return !commitHooks.isEmpty() || (parent.isPresent() && parent.get().hasWrites());
+  }
+
+  long getCacheVersion() {
+    return cacheVersion;
   }
 
   public void push(Cursor cursor) {
     cursors.push(cursor);
   }
 
+  /**
+   * Open a cursor on the database of a schema that is closed when the transaction end.
+   */
+  Cursor openPrimaryCursor(Schema<?> schema) {
+    return openCursor(graphene.getPrimary(this, schema));
+  }
+
+  /**
+   * Open a cursor on a database that is closed when the transaction end.
+   * Threads of parallel streams open cursors concurrently, hence synchronized, since
+   * opening a cursor may update the state of the transaction.
+   */
+  synchronized Cursor openCursor(Database db) {
+    Cursor cursor = db.openCursor(tx);
+    push(cursor);
+    return cursor;
+  }
+
+  /**
+   * Check if a database existed in the snapshot of a read only transaction, since lmdb
+   * reject databases that were opened after a transaction began. Threads of parallel
+   * streams check databases concurrently, hence synchronized.
+   */
+  synchronized boolean canRead(Database db) {
+    return readable.computeIfAbsent(db, d -> {
+      try {
+        d.openCursor(tx).close();
+        return true;
+      } catch (LMDBException e) {
+        if (e.getErrorCode() == EINVAL) {
+          return false;
+        }
+        throw e;
+      }
+    });
+  }
+
   private void closeCursors() {
     for (Cursor cursor : cursors) {
       try {
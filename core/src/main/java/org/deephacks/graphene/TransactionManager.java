@@ -4,6 +4,7 @@ import org.deephacks.graphene.Transaction.Transactional;
 import org.fusesource.lmdbjni.Cursor;
 import org.fusesource.lmdbjni.Env;
 
+import java.util.Optional;
 import java.util.Stack;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -136,14 +137,39 @@ class TransactionManager {
 
 
   Transaction beginTransaction(boolean readOnly) {
-    Transaction tx = new Transaction(graphene, env.createTransaction(readOnly), readOnly);
+    // the cache version is read before the snapshot of the transaction is taken, see EntityCache
+    long cacheVersion = graphene.getEntityCache().getVersion();
+    Transaction tx = new Transaction(graphene, env.createTransaction(readOnly), readOnly, cacheVersion);
     push(tx);
     return tx;
   }
 
+  /**
+   * Execute a function in a transaction that is nested in the current write transaction.
+   * Writes of the function are aborted if it fail, without aborting the current transaction.
+   */
+  <T> T withNestedTxWriteReturn(Function<Transaction, T> function) {
+    Transaction parent = peek();
+    if (parent == null || parent.isReadOnly()) {
+      throw new IllegalStateException("Nested transactions require a write transaction.");
+    }
+    long cacheVersion = graphene.getEntityCache().getVersion();
+    Transaction tx = new Transaction(graphene, env.createTransaction(parent.getTx(), false), false, Optional.of(parent), cacheVersion);
+    push(tx);
+    try {
+      T result = function.apply(tx);
+      commit();
+      return result;
+    } catch (Throwable e) {
+      rollback();
+      throw e;
+    }
+  }
+
   Transaction joinReadWithWriteTransaction(org.fusesource.lmdbjni.Transaction readTx) {
+    long cacheVersion = graphene.getEntityCache().getVersion();
     org.fusesource.lmdbjni.Transaction writeTx = env.createTransaction(readTx, false);
-    Transaction tx = new Transaction(graphene, writeTx, false);
+    Transaction tx = new Transaction(graphene, writeTx, false, cacheVersion);
     push(tx);
     return tx;
   }
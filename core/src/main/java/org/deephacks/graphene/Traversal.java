@@ -0,0 +1,288 @@
+package org.deephacks.graphene;
+
+import org.deephacks.graphene.Schema.Probe;
+import org.deephacks.graphene.internal.EntityInterface;
+import org.deephacks.graphene.internal.serialization.BytesUtils;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Traversal of instances that reference each other, starting from one or more instances
+ * and following their references hop by hop.
+ *
+ * Instances are visited one level at a time in a single read transaction. The keys of a
+ * level are read with a cursor walked through them in sorted order, like getAll, and the
+ * references of an instance are read from its value as the keys of the instances they
+ * point to, through a probe of its schema, so referenced instances are not resolved.
+ * Instances are only created for filters of their type and for the instances returned.
+ * Keys that have been visited are not visited again, which ends cycles and visits every
+ * instance once, at the smallest number of hops from where the traversal starts.
+ *
+ * Levels with many keys can be split into ranges of keys that are read and decoded in
+ * parallel by cursors of their own, if the traversal does not join a write transaction.
+ */
+public class Traversal {
+  /** number of keys that each cursor reads when a level is visited in parallel */
+  private static final int PARALLEL_CHUNK_SIZE = 128;
+
+  public static enum Order {
+    /** instances are returned level by level */
+    BREADTH_FIRST,
+    /** every instance is followed by the instances that were first reached through it */
+    DEPTH_FIRST
+  }
+
+  private final Graphene graphene;
+  private final List<byte[]> keys;
+  private final List<Filter<?>> filters = new ArrayList<>();
+  private int maxDepth = Integer.MAX_VALUE;
+  private Order order = Order.BREADTH_FIRST;
+  private boolean parallel = false;
+
+  Traversal(Graphene graphene, List<byte[]> keys) {
+    this.graphene = graphene;
+    this.keys = keys;
+  }
+
+  /**
+   * @param maxDepth maximum number of hops from the instances where the traversal starts
+   */
+  public Traversal maxDepth(int maxDepth) {
+    if (maxDepth < 0) {
+      throw new IllegalArgumentException("maxDepth must not be negative " + maxDepth);
+    }
+    this.maxDepth = maxDepth;
+    return this;
+  }
+
+  /**
+   * @param order order of the instances returned, breadth first by default
+   */
+  public Traversal order(Order order) {
+    this.order = order;
+    return this;
+  }
+
+  /**
+   * Visit levels in parallel. Filters must then be safe to evaluate on many threads.
+   * Levels are only visited in parallel in read only transactions, where cursors may be
+   * used by many threads, see RangeSpliterator.
+   */
+  public Traversal parallel() {
+    this.parallel = true;
+    return this;
+  }
+
+  /**
+   * Only visit instances of a type that match a predicate, on every hop. Instances that
+   * do not match are neither returned nor followed. Instances of other types are not
+   * affected.
+   */
+  public <T> Traversal filter(Class<T> type, Predicate<? super T> predicate) {
+    filters.add(new Filter<>(Optional.empty(), type, predicate));
+    return this;
+  }
+
+  /**
+   * Only visit instances of a type that match a predicate, on a certain hop where the
+   * instances where the traversal starts are on hop 0.
+   */
+  public <T> Traversal filter(int hop, Class<T> type, Predicate<? super T> predicate) {
+    filters.add(new Filter<>(Optional.of(hop), type, predicate));
+    return this;
+  }
+
+  /**
+   * @return instances visited, including those where the traversal starts
+   */
+  public List<Object> toList() {
+    return nodes().stream().map(Node::getEntity).collect(Collectors.toList());
+  }
+
+  /**
+   * @return instances visited of a type
+   */
+  public <T> List<T> toList(Class<T> type) {
+    // instances of other types are never created
+    return nodes().stream()
+            .filter(node -> type.isAssignableFrom(node.schema.getGeneratedClass()))
+            .map(node -> type.cast(node.getEntity()))
+            .collect(Collectors.toList());
+  }
+
+  /**
+   * @return nodes visited in the order they are returned
+   */
+  private List<Node> nodes() {
+    return graphene.joinTxReadReturn(tx -> {
+      List<Node> roots = new ArrayList<>();
+      List<Node> visitedNodes = new ArrayList<>();
+      Set<ByteBuffer> visited = new HashSet<>();
+      List<byte[]> frontier = new ArrayList<>();
+      List<Node> parents = new ArrayList<>();
+      for (byte[] key : keys) {
+        if (visited.add(ByteBuffer.wrap(key))) {
+          frontier.add(key);
+          parents.add(null);
+        }
+      }
+      for (int hop = 0; !frontier.isEmpty(); hop++) {
+        List<Node> nodes = visit(tx, frontier, hop);
+        List<byte[]> next = new ArrayList<>();
+        List<Node> nextParents = new ArrayList<>();
+        for (int i = 0; i < nodes.size(); i++) {
+          Node node = nodes.get(i);
+          if (node == null) {
+            continue;
+          }
+          if (parents.get(i) == null) {
+            roots.add(node);
+          } else {
+            parents.get(i).children.add(node);
+          }
+          visitedNodes.add(node);
+          for (byte[] reference : node.references) {
+            if (visited.add(ByteBuffer.wrap(reference))) {
+              next.add(reference);
+              nextParents.add(node);
+            }
+          }
+        }
+        frontier = next;
+        parents = nextParents;
+      }
+      if (order == Order.BREADTH_FIRST) {
+        return visitedNodes;
+      }
+      return depthFirst(roots);
+    });
+  }
+
+  /**
+   * @return nodes in the order of the keys, null for keys that do not exist or
+   * instances that do not match the filters
+   */
+  private List<Node> visit(Transaction tx, List<byte[]> frontier, int hop) {
+    if (!parallel || !tx.isReadOnly() || frontier.size() <= PARALLEL_CHUNK_SIZE) {
+      return visit(frontier, graphene.getValues(tx, frontier), hop);
+    }
+    // split sorted keys into chunks so that every cursor reads a range of its own
+    List<byte[]> sorted = new ArrayList<>(frontier);
+    sorted.sort(BytesUtils::compareTo);
+    int chunks = (sorted.size() + PARALLEL_CHUNK_SIZE - 1) / PARALLEL_CHUNK_SIZE;
+    List<List<Node>> visitedChunks = IntStream.range(0, chunks).parallel().mapToObj(chunk -> {
+      List<byte[]> chunkKeys = sorted.subList(chunk * PARALLEL_CHUNK_SIZE, Math.min(sorted.size(), (chunk + 1) * PARALLEL_CHUNK_SIZE));
+      return visit(chunkKeys, graphene.getValues(tx, chunkKeys), hop);
+    }).collect(Collectors.toList());
+    // put nodes back in the order of the frontier
+    List<Node> nodes = new ArrayList<>(frontier.size());
+    for (byte[] key : frontier) {
+      int position = Collections.binarySearch(sorted, key, BytesUtils::compareTo);
+      nodes.add(visitedChunks.get(position / PARALLEL_CHUNK_SIZE).get(position % PARALLEL_CHUNK_SIZE));
+    }
+    return nodes;
+  }
+
+  private List<Node> visit(List<byte[]> keys, List<byte[]> values, int hop) {
+    // probes are reused for every key of a schema and not shared between threads
+    Map<Schema<?>, Probe<?>> probes = new HashMap<>();
+    List<Node> nodes = new ArrayList<>(keys.size());
+    for (int i = 0; i < keys.size(); i++) {
+      nodes.add(visit(keys.get(i), values.get(i), hop, probes));
+    }
+    return nodes;
+  }
+
+  private Node visit(byte[] key, byte[] value, int hop, Map<Schema<?>, Probe<?>> probes) {
+    if (value == null) {
+      return null;
+    }
+    Schema<?> schema = graphene.getSchema(key);
+    Node node = new Node(schema, key, value);
+    for (Filter<?> filter : filters) {
+      if (filter.isApplicable(hop, schema) && !filter.test(node.getEntity())) {
+        return null;
+      }
+    }
+    if (hop < maxDepth && schema.isReferencing()) {
+      Object probe = probes.computeIfAbsent(schema, Schema::getProbe).reset(key, value);
+      node.references = ((EntityInterface) probe).getReferences();
+    }
+    return node;
+  }
+
+  private static List<Node> depthFirst(List<Node> roots) {
+    List<Node> result = new ArrayList<>();
+    Deque<Node> stack = new ArrayDeque<>();
+    for (int i = roots.size() - 1; i >= 0; i--) {
+      stack.push(roots.get(i));
+    }
+    while (!stack.isEmpty()) {
+      Node node = stack.pop();
+      result.add(node);
+      for (int i = node.children.size() - 1; i >= 0; i--) {
+        stack.push(node.children.get(i));
+      }
+    }
+    return result;
+  }
+
+  private static class Node {
+    private final Schema<?> schema;
+    private final byte[] key;
+    private final byte[] value;
+    /** created when first needed */
+    private Object entity;
+    private List<byte[]> references = Collections.emptyList();
+    private final List<Node> children = new ArrayList<>();
+
+    private Node(Schema<?> schema, byte[] key, byte[] value) {
+      this.schema = schema;
+      this.key = key;
+      this.value = value;
+    }
+
+    private Object getEntity() {
+      if (entity == null) {
+        entity = schema.getEntity(new byte[][]{key, value});
+      }
+      return entity;
+    }
+  }
+
+  private static class Filter<T> {
+    private final Optional<Integer> hop;
+    private final Class<T> type;
+    private final Predicate<? super T> predicate;
+
+    private Filter(Optional<Integer> hop, Class<T> type, Predicate<? super T> predicate) {
+      this.hop = hop;
+      this.type = type;
+      this.predicate = predicate;
+    }
+
+    private boolean isApplicable(int hop, Schema<?> schema) {
+      if (this.hop.isPresent() && this.hop.get() != hop) {
+        return false;
+      }
+      return type.isAssignableFrom(schema.getGeneratedClass());
+    }
+
+    private boolean test(Object entity) {
+      return predicate.test(type.cast(entity));
+    }
+  }
+}
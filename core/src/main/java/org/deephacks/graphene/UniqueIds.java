@@ -1,8 +1,12 @@
 package org.deephacks.graphene;
 
+import org.deephacks.graphene.internal.BoundedCache;
 import org.deephacks.graphene.internal.serialization.Bytes;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
@@ -24,23 +28,37 @@ public class UniqueIds {
   private static final String INSTANCE_DATABASE_NAME = "graphene.instances";
   private final KeyValueStore instances;
   private final KeyValueStore schemas;
-  private final Graphene graphene;
   private final byte NAME_PREFIX = 0;
   private final byte ID_PREFIX = 1;
   protected boolean shouldCacheInstance = true;
+  private final Sequence schemaIds;
+  private final Sequence instanceIds;
 
-  private static final ConcurrentHashMap<String, Long> instanceIdCache = new ConcurrentHashMap<>();
+  /** maximum number of instance ids that are cached in each direction */
+  private static final int MAX_CACHED_INSTANCES = 100_000;
 
-  private static final ConcurrentHashMap<Long, String> instanceNameCache = new ConcurrentHashMap<>();
+  private static final BoundedCache<String, Long> instanceIdCache = new BoundedCache<>(MAX_CACHED_INSTANCES);
+
+  private static final BoundedCache<Long, String> instanceNameCache = new BoundedCache<>(MAX_CACHED_INSTANCES);
 
   private static final ConcurrentHashMap<String, Integer> schemaIdCache = new ConcurrentHashMap<>();
 
   private static final ConcurrentHashMap<Integer, String> schemaNameCache = new ConcurrentHashMap<>();
 
+  private static final ConcurrentHashMap<String[], int[]> fieldSlotCache = new ConcurrentHashMap<>();
+
+  /** slot of ids that were not known when the slots were mapped */
+  public static final int UNKNOWN_SLOT = -1;
+
+  /** slot of ids of names that are not fields */
+  public static final int NO_SLOT = -2;
+
   public UniqueIds(Graphene graphene, KeyValueStore instances, KeyValueStore schemas) {
     this.schemas = schemas;
     this.instances = instances;
-    this.graphene = graphene;
+    // schema ids size the slot tables of fields so their blocks are kept small
+    this.schemaIds = graphene.getSequence(SCHEMA_DATABASE_NAME, 8);
+    this.instanceIds = graphene.getSequence(INSTANCE_DATABASE_NAME, 1000);
     for (Entry<String, byte[]> entry : listSchemas().entrySet()) {
       schemaIdCache.put(entry.getKey(), (int) Bytes.getLong(entry.getValue()));
       schemaNameCache.put((int) Bytes.getLong(entry.getValue()), entry.getKey());
@@ -79,6 +97,54 @@ public class UniqueIds {
     return id;
   }
 
+  /**
+   * Map field ids to the slot of each field, which is the index of its name in the
+   * provided array. Ids of other names map to NO_SLOT and ids that were not known
+   * when the slots were mapped, like ids created concurrently, map to UNKNOWN_SLOT.
+   * The array is identified by reference and is expected to be a constant of a
+   * generated class.
+   *
+   * @param fieldNames names of fields in slot order
+   * @return slots indexed by field id, covering every id known when created
+   */
+  public int[] getFieldSlots(final String[] fieldNames) {
+    int[] slots = fieldSlotCache.get(fieldNames);
+    if (slots == null) {
+      slots = createFieldSlots(fieldNames);
+      fieldSlotCache.put(fieldNames, slots);
+    }
+    return slots;
+  }
+
+  /**
+   * Map field ids to slots again since an id was created after the slots were mapped.
+   */
+  public int[] getFieldSlots(final String[] fieldNames, int unknownId) {
+    getSchemaName(unknownId);
+    int[] slots = createFieldSlots(fieldNames);
+    fieldSlotCache.put(fieldNames, slots);
+    return slots;
+  }
+
+  private int[] createFieldSlots(String[] fieldNames) {
+    Map<String, Integer> fieldSlots = new HashMap<>();
+    for (int i = 0; i < fieldNames.length; i++) {
+      fieldSlots.put(fieldNames[i], i);
+    }
+    // a single snapshot of the cache, so that every id in range is either mapped or unknown
+    List<Entry<String, Integer>> ids = new ArrayList<>(schemaIdCache.entrySet());
+    int maxId = 0;
+    for (Entry<String, Integer> entry : ids) {
+      maxId = Math.max(maxId, entry.getValue());
+    }
+    int[] slots = new int[maxId + 1];
+    Arrays.fill(slots, UNKNOWN_SLOT);
+    for (Entry<String, Integer> entry : ids) {
+      slots[entry.getValue()] = fieldSlots.getOrDefault(entry.getKey(), NO_SLOT);
+    }
+    return slots;
+  }
+
   public String getSchemaName(final int id) {
     String name = schemaNameCache.get(id);
     if (name != null) {
@@ -140,8 +206,7 @@ public class UniqueIds {
     if (optionalId.isPresent()) {
       return Long.valueOf(Bytes.getLong(optionalId.get())).intValue();
     }
-    byte[] key = SCHEMA_DATABASE_NAME.getBytes(UTF_8);
-    long id = graphene.increment(key);
+    long id = schemaIds.next();
     byte[] idKey = getIdKey(id);
     schemas.put(nameKey, Bytes.fromLong(id));
     schemas.put(idKey, nameBytes);
@@ -162,8 +227,7 @@ public class UniqueIds {
     if (optionalId.isPresent()) {
       return Bytes.getLong(optionalId.get());
     }
-    byte[] key = INSTANCE_DATABASE_NAME.getBytes(UTF_8);
-    long id = graphene.increment(key);
+    long id = instanceIds.next();
     byte[] nameKey = getNameKey(nameBytes);
     byte[] idKey = getIdKey(id);
     instances.put(nameKey, Bytes.fromLong(id));
@@ -184,43 +248,41 @@ public class UniqueIds {
   }
 
   public Map<String, byte[]> listSchemas() {
-    Map<byte[], byte[]> map = schemas.listAll();
-    TreeMap<String, byte[]> result = new TreeMap<>();
-
-    for (byte[] key : map.keySet()) {
-      if (key[0] == NAME_PREFIX) {
-        byte[] name = new byte[key.length - 1];
-        System.arraycopy(key, 1, name, 0, key.length - 1);
-        for (byte[] key2 : map.keySet()) {
-          byte[] name2 = map.get(key2);
-          if (Arrays.equals(name2, map.get(key))) {
-            result.put(new String(name), map.get(key));
-          }
-        }
-      }
-    }
-    return result;
+    return listNames(schemas);
   }
 
   public Map<String, byte[]> listInstances() {
-    Map<byte[], byte[]> map = instances.listAll();
-    TreeMap<String, byte[]> result = new TreeMap<>();
+    return listNames(instances);
+  }
 
-    for (byte[] key : map.keySet()) {
+  /**
+   * @return names mapped to their ids, read from the name keys of the store
+   */
+  private Map<String, byte[]> listNames(KeyValueStore store) {
+    TreeMap<String, byte[]> result = new TreeMap<>();
+    for (Entry<byte[], byte[]> entry : store.listAll().entrySet()) {
+      byte[] key = entry.getKey();
       if (key[0] == NAME_PREFIX) {
-        byte[] name = new byte[key.length - 1];
-        System.arraycopy(key, 1, name, 0, key.length - 1);
-        for (byte[] key2 : map.keySet()) {
-          byte[] name2 = map.get(key2);
-          if (Arrays.equals(name2, map.get(key))) {
-            result.put(new String(name), map.get(key));
-          }
-        }
+        result.put(new String(key, 1, key.length - 1, UTF_8), entry.getValue());
       }
     }
     return result;
   }
 
+  /**
+   * @return cache of instance ids keyed by instance name, with hit and miss counts
+   */
+  public BoundedCache<String, Long> getInstanceIdCache() {
+    return instanceIdCache;
+  }
+
+  /**
+   * @return cache of instance names keyed by instance id, with hit and miss counts
+   */
+  public BoundedCache<Long, String> getInstanceNameCache() {
+    return instanceNameCache;
+  }
+
   public void printAllSchemaAndInstances() {
     System.out.println("Schemas:");
     Map<String, byte[]> map = listSchemas();
@@ -239,5 +301,6 @@ public class UniqueIds {
     instanceNameCache.clear();
     schemaIdCache.clear();
     schemaNameCache.clear();
+    fieldSlotCache.clear();
   }
 }
\ No newline at end of file
@@ -0,0 +1,171 @@
+package org.deephacks.graphene.internal;
+
+import java.util.LinkedHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrent cache that hold at most a maximum number of entries.
+ *
+ * Entries are evicted in the order they were added, but only if the entry that is
+ * added have been requested more often than the entry that would be evicted, known
+ * as TinyLFU admission. Otherwise the added entry is dropped and the eldest entry
+ * get another round. This keep entries that are requested often even if many entries
+ * are requested once, which a plain FIFO or LRU cache would let flush the cache.
+ *
+ * How often keys are requested is counted in a small count-min sketch where counters
+ * are halved periodically so that old requests are forgotten. Counters are updated
+ * without synchronization and may lose counts when threads race, which only make
+ * the estimates a bit less accurate. Reads never lock, writes are synchronized since
+ * keys are kept in the order they were added, which removed keys leave as well.
+ */
+public class BoundedCache<K, V> {
+  private final int maxSize;
+  private final ConcurrentHashMap<K, V> entries = new ConcurrentHashMap<>();
+  /** keys of the entries in the order they were added */
+  private final LinkedHashMap<K, Boolean> order = new LinkedHashMap<>();
+  private final FrequencySketch sketch;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  public BoundedCache(int maxSize) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("maxSize must be positive");
+    }
+    this.maxSize = maxSize;
+    this.sketch = new FrequencySketch(maxSize);
+  }
+
+  /**
+   * @return the value of the key or null if it is not cached
+   */
+  public V get(K key) {
+    sketch.increment(key);
+    V value = entries.get(key);
+    if (value == null) {
+      misses.increment();
+    } else {
+      hits.increment();
+    }
+    return value;
+  }
+
+  public synchronized void put(K key, V value) {
+    if (entries.put(key, value) == null) {
+      order.put(key, Boolean.TRUE);
+      if (entries.size() > maxSize) {
+        evict(key);
+      }
+    }
+  }
+
+  public synchronized void remove(K key) {
+    if (entries.remove(key) != null) {
+      order.remove(key);
+    }
+  }
+
+  public synchronized void clear() {
+    entries.clear();
+    order.clear();
+  }
+
+  private void evict(K candidate) {
+    while (entries.size() > maxSize) {
+      K victim = order.keySet().iterator().next();
+      order.remove(victim);
+      if (victim.equals(candidate) || sketch.frequency(candidate) > sketch.frequency(victim)) {
+        entries.remove(victim);
+      } else {
+        // the eldest entry get another round at the end of the order
+        entries.remove(candidate);
+        order.remove(candidate);
+        order.put(victim, Boolean.TRUE);
+      }
+      evictions.increment();
+    }
+  }
+
+  /**
+   * @return number of keys kept in the order they were added
+   */
+  synchronized int orderSize() {
+    return order.size();
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  public long hitCount() {
+    return hits.sum();
+  }
+
+  public long missCount() {
+    return misses.sum();
+  }
+
+  public long evictionCount() {
+    return evictions.sum();
+  }
+
+  /**
+   * Count-min sketch with four counters per key, each of which count up to 15.
+   */
+  private static class FrequencySketch {
+    private static final int MAX_COUNT = 15;
+    private static final int[] SEEDS = { 0x97cb3127, 0x2b9d3d4f, 0x7f4a7c15, 0x61c88647 };
+    private final byte[] counters;
+    private final int mask;
+    /** counters are halved when this many increments have been made */
+    private final int sampleSize;
+    private int increments = 0;
+
+    private FrequencySketch(int maxSize) {
+      int size = Integer.highestOneBit(Math.max(16, Math.min(maxSize, 1 << 24)) - 1) << 1;
+      this.counters = new byte[size];
+      this.mask = size - 1;
+      this.sampleSize = 10 * size;
+    }
+
+    void increment(Object key) {
+      int hash = spread(key.hashCode());
+      for (int seed : SEEDS) {
+        int index = index(hash, seed);
+        if (counters[index] < MAX_COUNT) {
+          counters[index]++;
+        }
+      }
+      if (++increments >= sampleSize) {
+        reset();
+      }
+    }
+
+    int frequency(Object key) {
+      int hash = spread(key.hashCode());
+      int frequency = MAX_COUNT;
+      for (int seed : SEEDS) {
+        frequency = Math.min(frequency, counters[index(hash, seed)]);
+      }
+      return frequency;
+    }
+
+    private void reset() {
+      for (int i = 0; i < counters.length; i++) {
+        counters[i] = (byte) (counters[i] >>> 1);
+      }
+      increments = increments >>> 1;
+    }
+
+    private int index(int hash, int seed) {
+      int h = (hash ^ seed) * 0x9e3779b9;
+      return (h ^ (h >>> 16)) & mask;
+    }
+
+    private static int spread(int hash) {
+      hash = (hash ^ (hash >>> 16)) * 0x45d9f3b;
+      return hash ^ (hash >>> 16);
+    }
+  }
+}
@@ -4,6 +4,8 @@ import org.deephacks.graphene.internal.serialization.KeySerialization.KeyWriter;
 import org.deephacks.graphene.internal.serialization.ValueSerialization.ValueWriter;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
 
 public interface EntityInterface {
 
@@ -14,4 +16,16 @@ public interface EntityInterface {
   public byte[] serializeKey(KeyWriter keyWriter, int schemaId) throws IOException;
 
   public byte[] serializeValue(ValueWriter valueWriter) throws IOException;
+
+  /**
+   * Write values without copying them out of the value writer, which is left to the caller.
+   */
+  public void writeValue(ValueWriter valueWriter) throws IOException;
+
+  /**
+   * Primary keys of the instances that this instance reference, without resolving them.
+   */
+  public default List<byte[]> getReferences() {
+    return Collections.emptyList();
+  }
 }
@@ -0,0 +1,80 @@
+package org.deephacks.graphene.internal.gql;
+
+import java.util.List;
+
+/**
+ * Result of aggregate functions over a group of instances that have equal values on
+ * the fields that the query group on. Queries that does not group have a single
+ * group of every instance that match the query.
+ *
+ * <pre>
+ * List&lt;Aggregate&gt; result = graphene.aggregate("group city count, avg age", User.class);
+ * result.get(0).getGroup();      // [london]
+ * result.get(0).get("count");    // 3
+ * result.get(0).get("avg age");  // 41.5
+ * </pre>
+ */
+public class Aggregate {
+  private final List<Object> group;
+  private final List<String> names;
+  private final List<Object> values;
+
+  Aggregate(List<Object> group, List<String> names, List<Object> values) {
+    this.group = group;
+    this.names = names;
+    this.values = values;
+  }
+
+  /**
+   * @return values of the group fields in the order they appear in the query
+   */
+  public List<Object> getGroup() {
+    return group;
+  }
+
+  /**
+   * @return results of the aggregate functions in the order they appear in the query
+   */
+  public List<Object> getValues() {
+    return values;
+  }
+
+  /**
+   * @param index position of the function in the query
+   * @return result of the function, null if no instance had a value for the field
+   */
+  public Object get(int index) {
+    return values.get(index);
+  }
+
+  /**
+   * @param function function as written in the query, like count or sum age
+   * @return result of the function, null if no instance had a value for the field
+   */
+  public Object get(String function) {
+    int index = names.indexOf(function);
+    if (index < 0) {
+      throw new IllegalArgumentException("No function [" + function + "] in " + names + ".");
+    }
+    return values.get(index);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (!(o instanceof Aggregate)) {
+      return false;
+    }
+    Aggregate that = (Aggregate) o;
+    return group.equals(that.group) && names.equals(that.names) && values.equals(that.values);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * group.hashCode() + values.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return "Aggregate{group=" + group + ", " + names + "=" + values + "}";
+  }
+}
@@ -0,0 +1,383 @@
+package org.deephacks.graphene.internal.gql;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+
+/**
+ * Aggregate functions over groups of instances, computed by accumulators that are
+ * updated as instances stream past so that instances are never buffered. Streams that
+ * are split in parallel accumulate each part separately and merge the accumulators.
+ *
+ * Groups are returned in the order of their values if every value is comparable,
+ * otherwise in the order they were first seen. Null values are ignored by every
+ * function except count, which count instances.
+ */
+class Aggregates<T> {
+  private final List<ValueAccessor> groupBy;
+  private final List<Function> functions;
+  private final Map<List<Object>, Accumulator[]> groups = new LinkedHashMap<>();
+
+  Aggregates(List<ValueAccessor> groupBy, List<Function> functions) {
+    this.groupBy = groupBy;
+    this.functions = functions;
+  }
+
+  /**
+   * @return a collector of the aggregate of each group
+   */
+  static <T> Collector<T, ?, List<Aggregate>> collector(List<ValueAccessor> groupBy, List<Function> functions) {
+    return Collector.of(() -> new Aggregates<T>(groupBy, functions), Aggregates::add, Aggregates::merge, Aggregates::toList);
+  }
+
+  void add(T instance) {
+    List<Object> group = Collections.emptyList();
+    if (!groupBy.isEmpty()) {
+      Object[] values = new Object[groupBy.size()];
+      for (int i = 0; i < values.length; i++) {
+        values[i] = groupBy.get(i).getValue(instance);
+      }
+      group = Arrays.asList(values);
+    }
+    for (Accumulator accumulator : getAccumulators(group)) {
+      accumulator.add(instance);
+    }
+  }
+
+  Aggregates<T> merge(Aggregates<T> other) {
+    for (Entry<List<Object>, Accumulator[]> entry : other.groups.entrySet()) {
+      Accumulator[] accumulators = getAccumulators(entry.getKey());
+      for (int i = 0; i < accumulators.length; i++) {
+        accumulators[i].merge(entry.getValue()[i]);
+      }
+    }
+    return this;
+  }
+
+  List<Aggregate> toList() {
+    if (groupBy.isEmpty() && groups.isEmpty()) {
+      // aggregates over no instances, like a count of zero
+      getAccumulators(Collections.emptyList());
+    }
+    List<String> names = functions.stream().map(Function::getName).collect(Collectors.toList());
+    List<Entry<List<Object>, Accumulator[]>> entries = new ArrayList<>(groups.entrySet());
+    if (isComparable()) {
+      entries.sort((o1, o2) -> compare(o1.getKey(), o2.getKey()));
+    }
+    List<Aggregate> result = new ArrayList<>();
+    for (Entry<List<Object>, Accumulator[]> entry : entries) {
+      List<Object> values = new ArrayList<>();
+      for (Accumulator accumulator : entry.getValue()) {
+        values.add(accumulator.get());
+      }
+      result.add(new Aggregate(entry.getKey(), names, values));
+    }
+    return result;
+  }
+
+  private Accumulator[] getAccumulators(List<Object> group) {
+    return groups.computeIfAbsent(group, g -> {
+      Accumulator[] accumulators = new Accumulator[functions.size()];
+      for (int i = 0; i < accumulators.length; i++) {
+        accumulators[i] = functions.get(i).newAccumulator();
+      }
+      return accumulators;
+    });
+  }
+
+  private boolean isComparable() {
+    for (List<Object> group : groups.keySet()) {
+      for (Object value : group) {
+        if (value != null && !(value instanceof Comparable)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Compare groups value by value, where null sort first.
+   */
+  private static int compare(List<Object> left, List<Object> right) {
+    for (int i = 0; i < left.size(); i++) {
+      Object l = left.get(i);
+      Object r = right.get(i);
+      int cmp;
+      if (l == null || r == null) {
+        cmp = l == null ? (r == null ? 0 : -1) : 1;
+      } else {
+        cmp = Comparators.compare(l, r);
+      }
+      if (cmp != 0) {
+        return cmp;
+      }
+    }
+    return 0;
+  }
+
+  static Function count() {
+    return new Count();
+  }
+
+  static Function sum(ValueAccessor valueAccessor) {
+    return new Sum(valueAccessor);
+  }
+
+  static Function avg(ValueAccessor valueAccessor) {
+    return new Avg(valueAccessor);
+  }
+
+  static Function min(ValueAccessor valueAccessor) {
+    return new MinMax("min", valueAccessor, Comparator.naturalOrder());
+  }
+
+  static Function max(ValueAccessor valueAccessor) {
+    return new MinMax("max", valueAccessor, Comparator.reverseOrder());
+  }
+
+  /**
+   * Accumulated value of a function for a group, or part of a group if the stream is
+   * split, that is not thread safe.
+   */
+  interface Accumulator {
+    void add(Object instance);
+
+    /**
+     * @param other accumulator of the same function over instances of another part
+     */
+    void merge(Accumulator other);
+
+    Object get();
+  }
+
+  static abstract class Function {
+    private final String name;
+
+    Function(String name) {
+      this.name = name;
+    }
+
+    /**
+     * @return the function as written in the query
+     */
+    String getName() {
+      return name;
+    }
+
+    abstract Accumulator newAccumulator();
+
+    /**
+     * @return true if the function only count instances
+     */
+    boolean isCount() {
+      return false;
+    }
+  }
+
+  static class Count extends Function {
+    Count() {
+      super("count");
+    }
+
+    @Override
+    Accumulator newAccumulator() {
+      return new Accumulator() {
+        private long count = 0;
+
+        @Override
+        public void add(Object instance) {
+          count++;
+        }
+
+        @Override
+        public void merge(Accumulator other) {
+          count += (Long) other.get();
+        }
+
+        @Override
+        public Object get() {
+          return count;
+        }
+      };
+    }
+
+    @Override
+    boolean isCount() {
+      return true;
+    }
+  }
+
+  /**
+   * Numeric functions read primitive values without boxing. Values of byte, short,
+   * int and long fields are summed as longs, other numbers as doubles.
+   */
+  static abstract class NumericFunction extends Function {
+    protected final ValueAccessor valueAccessor;
+    protected final boolean integral;
+
+    NumericFunction(String name, ValueAccessor valueAccessor) {
+      super(name + " " + valueAccessor.getId().orElse(""));
+      Class<?> type = valueAccessor.getType();
+      if (!valueAccessor.isIntegral() && !valueAccessor.isFloatingPoint() && !Number.class.isAssignableFrom(type)) {
+        throw new IllegalQueryException("Cannot " + name + " values of type [" + type.getName() + "].");
+      }
+      this.valueAccessor = valueAccessor;
+      this.integral = valueAccessor.isIntegral() || type == Long.class || type == Integer.class
+              || type == Short.class || type == Byte.class;
+    }
+
+    /**
+     * @return the value of the instance, null if it does not have a value
+     */
+    protected Number getNumber(Object instance) {
+      return (Number) valueAccessor.getValue(instance);
+    }
+  }
+
+  static class Sum extends NumericFunction {
+    Sum(ValueAccessor valueAccessor) {
+      super("sum", valueAccessor);
+    }
+
+    @Override
+    Accumulator newAccumulator() {
+      return new SumAccumulator();
+    }
+
+    class SumAccumulator implements Accumulator {
+      long longSum = 0;
+      double doubleSum = 0;
+      long count = 0;
+
+      @Override
+      public void add(Object instance) {
+        if (valueAccessor.isIntegral()) {
+          longSum += valueAccessor.getLong(instance);
+        } else if (valueAccessor.isFloatingPoint()) {
+          doubleSum += valueAccessor.getDouble(instance);
+        } else {
+          Number number = getNumber(instance);
+          if (number == null) {
+            return;
+          } else if (integral) {
+            longSum += number.longValue();
+          } else {
+            doubleSum += number.doubleValue();
+          }
+        }
+        count++;
+      }
+
+      @Override
+      public void merge(Accumulator other) {
+        SumAccumulator that = (SumAccumulator) other;
+        longSum += that.longSum;
+        doubleSum += that.doubleSum;
+        count += that.count;
+      }
+
+      @Override
+      public Object get() {
+        if (count == 0) {
+          return null;
+        }
+        return integral ? (Object) longSum : (Object) doubleSum;
+      }
+    }
+  }
+
+  static class Avg extends NumericFunction {
+    private final Sum sum;
+
+    Avg(ValueAccessor valueAccessor) {
+      super("avg", valueAccessor);
+      this.sum = new Sum(valueAccessor);
+    }
+
+    @Override
+    Accumulator newAccumulator() {
+      return new AvgAccumulator((Sum.SumAccumulator) sum.newAccumulator());
+    }
+
+    class AvgAccumulator implements Accumulator {
+      private final Sum.SumAccumulator sum;
+
+      AvgAccumulator(Sum.SumAccumulator sum) {
+        this.sum = sum;
+      }
+
+      @Override
+      public void add(Object instance) {
+        sum.add(instance);
+      }
+
+      @Override
+      public void merge(Accumulator other) {
+        sum.merge(((AvgAccumulator) other).sum);
+      }
+
+      @Override
+      public Object get() {
+        if (sum.count == 0) {
+          return null;
+        }
+        double total = integral ? sum.longSum : sum.doubleSum;
+        return total / sum.count;
+      }
+    }
+  }
+
+  static class MinMax extends Function {
+    private final ValueAccessor valueAccessor;
+    private final Comparator<Comparable<Object>> order;
+
+    @SuppressWarnings("unchecked")
+    MinMax(String name, ValueAccessor valueAccessor, Comparator<?> order) {
+      super(name + " " + valueAccessor.getId().orElse(""));
+      Class<?> type = valueAccessor.getType();
+      if (!type.isPrimitive() && !Comparable.class.isAssignableFrom(type)) {
+        throw new IllegalQueryException("Cannot " + name + " values of type [" + type.getName() + "] that are not comparable.");
+      }
+      this.valueAccessor = valueAccessor;
+      this.order = (Comparator<Comparable<Object>>) order;
+    }
+
+    @Override
+    Accumulator newAccumulator() {
+      return new Accumulator() {
+        private Comparable<Object> value;
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void add(Object instance) {
+          accept((Comparable<Object>) valueAccessor.getValue(instance));
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void merge(Accumulator other) {
+          accept((Comparable<Object>) other.get());
+        }
+
+        private void accept(Comparable<Object> candidate) {
+          if (candidate != null && (value == null || order.compare(candidate, value) < 0)) {
+            value = candidate;
+          }
+        }
+
+        @Override
+        public Object get() {
+          return value;
+        }
+      };
+    }
+  }
+}
@@ -8,6 +8,11 @@ class Comparators {
 
   @SuppressWarnings("unchecked")
   public static Comparator<Object> comparableComparator(ValueAccessor value) {
+    if (value.isIntegral()) {
+      return (a, b) -> Long.compare(value.getLong(a), value.getLong(b));
+    } else if (value.isFloatingPoint()) {
+      return (a, b) -> Double.compare(value.getDouble(a), value.getDouble(b));
+    }
     return (a, b) -> {
       Object v = value.getValue(a);
       if (v == null && value.getId().isPresent()) {
@@ -134,7 +134,7 @@ public final class Conversion {
   }
 
   private Object parsePrimitive(String value, Class<?> targetclass) {
-    if (value != null || value.length() == 0) {
+    if (value == null || value.length() == 0) {
       throw new IllegalArgumentException("Cannot parse a primitive from empty string.");
     }
 
@@ -2,9 +2,12 @@ package org.deephacks.graphene.internal.gql;
 
 import org.antlr.v4.runtime.misc.NotNull;
 import org.antlr.v4.runtime.tree.TerminalNode;
+import org.deephacks.graphene.internal.gql.GqlParser.AggregationContext;
 import org.deephacks.graphene.internal.gql.GqlParser.AndContext;
 import org.deephacks.graphene.internal.gql.GqlParser.ExpressionContext;
 import org.deephacks.graphene.internal.gql.GqlParser.FilterContext;
+import org.deephacks.graphene.internal.gql.GqlParser.FunctionContext;
+import org.deephacks.graphene.internal.gql.GqlParser.IdContext;
 import org.deephacks.graphene.internal.gql.GqlParser.LimitContext;
 import org.deephacks.graphene.internal.gql.GqlParser.NotContext;
 import org.deephacks.graphene.internal.gql.GqlParser.OrContext;
@@ -22,7 +25,9 @@ import org.deephacks.graphene.internal.gql.Predicates.NotEq;
 import org.deephacks.graphene.internal.gql.Predicates.RegExp;
 import org.deephacks.graphene.internal.gql.Predicates.StartsWith;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -30,9 +35,33 @@ import static org.deephacks.graphene.internal.gql.Query.QueryBuilder;
 
 class Gql<T> extends GqlBaseVisitor<QueryBuilder<T>> {
     private QueryBuilder<T> queryBuilder;
+    /** position of each bind parameter keyed by the index of its token */
+    private final Map<Integer, Integer> positions;
+    private final Object[] params;
 
     public Gql(QueryBuilder<T> queryBuilder) {
+      this(queryBuilder, Collections.emptyMap(), new Object[0]);
+    }
+
+    public Gql(QueryBuilder<T> queryBuilder, Map<Integer, Integer> positions, Object[] params) {
       this.queryBuilder = queryBuilder;
+      this.positions = positions;
+      this.params = params;
+    }
+
+    private Object getParam(TerminalNode node) {
+      return params[positions.get(node.getSymbol().getTokenIndex())];
+    }
+
+    private long getNumber(TerminalNode number, TerminalNode param) {
+      if (param != null) {
+        Object value = getParam(param);
+        if (!(value instanceof Number)) {
+          throw new IllegalQueryException("Expected a number but got [" + value + "].");
+        }
+        return ((Number) value).longValue();
+      }
+      return Long.parseLong(number.getText());
     }
 
     @Override
@@ -56,32 +85,60 @@ class Gql<T> extends GqlBaseVisitor<QueryBuilder<T>> {
 
     @Override
     public QueryBuilder<T> visitLimit(@NotNull LimitContext ctx) {
-      return queryBuilder.setLimit(Long.parseLong(ctx.NUMBER(0).getText()));
+      return queryBuilder.setLimit(getNumber(ctx.NUMBER().isEmpty() ? null : ctx.NUMBER(0), ctx.PARAM()));
     }
 
     @Override
     public QueryBuilder<T> visitSkip(@NotNull SkipContext ctx) {
-      return queryBuilder.setSkip(Long.parseLong(ctx.NUMBER().getText()));
+      return queryBuilder.setSkip(getNumber(ctx.NUMBER(), ctx.PARAM()));
     }
 
     @Override
     public QueryBuilder<T> visitOrdering(@NotNull OrderingContext ctx) {
       if (ctx.ordered() != null) {
-        if (ctx.ordered().ID() == null || ctx.ordered().ID().isEmpty()) {
+        if (ctx.ordered().id().isEmpty()) {
           return queryBuilder.setOrdered();
         }
-        List<String> ids = ctx.ordered().ID().stream().map(TerminalNode::getText).collect(Collectors.toList());
+        List<String> ids = ctx.ordered().id().stream().map(IdContext::getText).collect(Collectors.toList());
         return queryBuilder.setOrdered(ids);
       } else if (ctx.reversed() != null) {
-        if (ctx.reversed().ID() == null || ctx.reversed().ID().isEmpty()) {
+        if (ctx.reversed().id().isEmpty()) {
           return queryBuilder.setReversed();
         }
-        List<String> ids = ctx.reversed().ID().stream().map(TerminalNode::getText).collect(Collectors.toList());
+        List<String> ids = ctx.reversed().id().stream().map(IdContext::getText).collect(Collectors.toList());
         return queryBuilder.setReversed(ids);
       }
       return queryBuilder;
     }
 
+    @Override
+    public QueryBuilder<T> visitAggregation(@NotNull AggregationContext ctx) {
+      if (ctx.group() != null) {
+        List<String> ids = ctx.group().id().stream().map(IdContext::getText).collect(Collectors.toList());
+        queryBuilder.setGroupBy(ids);
+      }
+      ctx.function().forEach(this::visit);
+      return queryBuilder;
+    }
+
+    @Override
+    public QueryBuilder<T> visitFunction(@NotNull FunctionContext ctx) {
+      if (ctx.COUNT() != null) {
+        return queryBuilder.addFunction(Aggregates.count());
+      }
+      ValueAccessor valueAccessor = queryBuilder.getValueAccessor(Optional.of(ctx.id().getText()));
+      if (ctx.SUM() != null) {
+        return queryBuilder.addFunction(Aggregates.sum(valueAccessor));
+      } else if (ctx.AVG() != null) {
+        return queryBuilder.addFunction(Aggregates.avg(valueAccessor));
+      } else if (ctx.MIN() != null) {
+        return queryBuilder.addFunction(Aggregates.min(valueAccessor));
+      } else if (ctx.MAX() != null) {
+        return queryBuilder.addFunction(Aggregates.max(valueAccessor));
+      }
+      throw new IllegalStateException("Did not recognize function ["+ctx.getText()+"]");
+    }
+
     @Override
     public QueryBuilder<T> visitOr(@NotNull OrContext ctx) {
       ctx.and().forEach(this::visit);
@@ -102,8 +159,8 @@ class Gql<T> extends GqlBaseVisitor<QueryBuilder<T>> {
 
     @Override
     public QueryBuilder<T> visitFilter(@NotNull FilterContext ctx) {
-      Optional<String> id = ctx.ID() == null ? Optional.empty() : Optional.of(ctx.ID().getText());
-      ValueAccessor valueAccessor = new ValueAccessor(id, queryBuilder.getType());
+      Optional<String> id = ctx.id() == null ? Optional.empty() : Optional.of(ctx.id().getText());
+      ValueAccessor valueAccessor = queryBuilder.getValueAccessor(id);
       GrammarValue value = getValue(ctx.value(), valueAccessor);
       if (ctx.operator().EQ() != null) {
         return queryBuilder.addPredicate(new Eq<>(valueAccessor, value));
@@ -141,6 +198,8 @@ class Gql<T> extends GqlBaseVisitor<QueryBuilder<T>> {
         return new GrammarValue(false, valueAccessor);
       } else if (context.NULL() != null) {
         return new GrammarValue(null, valueAccessor);
+      } else if (context.PARAM() != null) {
+        return new GrammarValue(getParam(context.PARAM()), valueAccessor);
       }
       return new GrammarValue(value.substring(1, value.length() - 1), valueAccessor);
     }
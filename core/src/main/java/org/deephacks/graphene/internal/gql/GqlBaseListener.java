@@ -79,6 +79,19 @@ public class GqlBaseListener implements GqlListener {
 	 */
 	@Override public void exitSkip(@NotNull GqlParser.SkipContext ctx) { }
 
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>The default implementation does nothing.</p>
+	 */
+	@Override public void enterAggregation(@NotNull GqlParser.AggregationContext ctx) { }
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>The default implementation does nothing.</p>
+	 */
+	@Override public void exitAggregation(@NotNull GqlParser.AggregationContext ctx) { }
+
 	/**
 	 * {@inheritDoc}
 	 *
@@ -144,6 +157,19 @@ public class GqlBaseListener implements GqlListener {
 	 */
 	@Override public void exitAnd(@NotNull GqlParser.AndContext ctx) { }
 
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>The default implementation does nothing.</p>
+	 */
+	@Override public void enterFunction(@NotNull GqlParser.FunctionContext ctx) { }
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>The default implementation does nothing.</p>
+	 */
+	@Override public void exitFunction(@NotNull GqlParser.FunctionContext ctx) { }
+
 	/**
 	 * {@inheritDoc}
 	 *
@@ -157,6 +183,19 @@ public class GqlBaseListener implements GqlListener {
 	 */
 	@Override public void exitLimit(@NotNull GqlParser.LimitContext ctx) { }
 
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>The default implementation does nothing.</p>
+	 */
+	@Override public void enterId(@NotNull GqlParser.IdContext ctx) { }
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>The default implementation does nothing.</p>
+	 */
+	@Override public void exitId(@NotNull GqlParser.IdContext ctx) { }
+
 	/**
 	 * {@inheritDoc}
 	 *
@@ -183,6 +222,19 @@ public class GqlBaseListener implements GqlListener {
 	 */
 	@Override public void exitReversed(@NotNull GqlParser.ReversedContext ctx) { }
 
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>The default implementation does nothing.</p>
+	 */
+	@Override public void enterGroup(@NotNull GqlParser.GroupContext ctx) { }
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>The default implementation does nothing.</p>
+	 */
+	@Override public void exitGroup(@NotNull GqlParser.GroupContext ctx) { }
+
 	/**
 	 * {@inheritDoc}
 	 *
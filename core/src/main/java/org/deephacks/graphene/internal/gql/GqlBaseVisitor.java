@@ -54,6 +54,14 @@ public class GqlBaseVisitor<T> extends AbstractParseTreeVisitor<T> implements Gq
 	 */
 	@Override public T visitSkip(@NotNull GqlParser.SkipContext ctx) { return visitChildren(ctx); }
 
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>The default implementation returns the result of calling
+	 * {@link #visitChildren} on {@code ctx}.</p>
+	 */
+	@Override public T visitAggregation(@NotNull GqlParser.AggregationContext ctx) { return visitChildren(ctx); }
+
 	/**
 	 * {@inheritDoc}
 	 *
@@ -94,6 +102,14 @@ public class GqlBaseVisitor<T> extends AbstractParseTreeVisitor<T> implements Gq
 	 */
 	@Override public T visitAnd(@NotNull GqlParser.AndContext ctx) { return visitChildren(ctx); }
 
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>The default implementation returns the result of calling
+	 * {@link #visitChildren} on {@code ctx}.</p>
+	 */
+	@Override public T visitFunction(@NotNull GqlParser.FunctionContext ctx) { return visitChildren(ctx); }
+
 	/**
 	 * {@inheritDoc}
 	 *
@@ -102,6 +118,14 @@ public class GqlBaseVisitor<T> extends AbstractParseTreeVisitor<T> implements Gq
 	 */
 	@Override public T visitLimit(@NotNull GqlParser.LimitContext ctx) { return visitChildren(ctx); }
 
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>The default implementation returns the result of calling
+	 * {@link #visitChildren} on {@code ctx}.</p>
+	 */
+	@Override public T visitId(@NotNull GqlParser.IdContext ctx) { return visitChildren(ctx); }
+
 	/**
 	 * {@inheritDoc}
 	 *
@@ -117,4 +141,12 @@ public class GqlBaseVisitor<T> extends AbstractParseTreeVisitor<T> implements Gq
 	 * {@link #visitChildren} on {@code ctx}.</p>
 	 */
 	@Override public T visitReversed(@NotNull GqlParser.ReversedContext ctx) { return visitChildren(ctx); }
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>The default implementation returns the result of calling
+	 * {@link #visitChildren} on {@code ctx}.</p>
+	 */
+	@Override public T visitGroup(@NotNull GqlParser.GroupContext ctx) { return visitChildren(ctx); }
 }
\ No newline at end of file
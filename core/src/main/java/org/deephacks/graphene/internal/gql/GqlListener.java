@@ -65,6 +65,17 @@ public interface GqlListener extends ParseTreeListener {
 	 */
 	void exitSkip(@NotNull GqlParser.SkipContext ctx);
 
+	/**
+	 * Enter a parse tree produced by {@link GqlParser#aggregation}.
+	 * @param ctx the parse tree
+	 */
+	void enterAggregation(@NotNull GqlParser.AggregationContext ctx);
+	/**
+	 * Exit a parse tree produced by {@link GqlParser#aggregation}.
+	 * @param ctx the parse tree
+	 */
+	void exitAggregation(@NotNull GqlParser.AggregationContext ctx);
+
 	/**
 	 * Enter a parse tree produced by {@link GqlParser#parse}.
 	 * @param ctx the parse tree
@@ -120,6 +131,17 @@ public interface GqlListener extends ParseTreeListener {
 	 */
 	void exitAnd(@NotNull GqlParser.AndContext ctx);
 
+	/**
+	 * Enter a parse tree produced by {@link GqlParser#function}.
+	 * @param ctx the parse tree
+	 */
+	void enterFunction(@NotNull GqlParser.FunctionContext ctx);
+	/**
+	 * Exit a parse tree produced by {@link GqlParser#function}.
+	 * @param ctx the parse tree
+	 */
+	void exitFunction(@NotNull GqlParser.FunctionContext ctx);
+
 	/**
 	 * Enter a parse tree produced by {@link GqlParser#limit}.
 	 * @param ctx the parse tree
@@ -131,6 +153,17 @@ public interface GqlListener extends ParseTreeListener {
 	 */
 	void exitLimit(@NotNull GqlParser.LimitContext ctx);
 
+	/**
+	 * Enter a parse tree produced by {@link GqlParser#id}.
+	 * @param ctx the parse tree
+	 */
+	void enterId(@NotNull GqlParser.IdContext ctx);
+	/**
+	 * Exit a parse tree produced by {@link GqlParser#id}.
+	 * @param ctx the parse tree
+	 */
+	void exitId(@NotNull GqlParser.IdContext ctx);
+
 	/**
 	 * Enter a parse tree produced by {@link GqlParser#value}.
 	 * @param ctx the parse tree
@@ -152,4 +185,15 @@ public interface GqlListener extends ParseTreeListener {
 	 * @param ctx the parse tree
 	 */
 	void exitReversed(@NotNull GqlParser.ReversedContext ctx);
+
+	/**
+	 * Enter a parse tree produced by {@link GqlParser#group}.
+	 * @param ctx the parse tree
+	 */
+	void enterGroup(@NotNull GqlParser.GroupContext ctx);
+	/**
+	 * Exit a parse tree produced by {@link GqlParser#group}.
+	 * @param ctx the parse tree
+	 */
+	void exitGroup(@NotNull GqlParser.GroupContext ctx);
 }
\ No newline at end of file
@@ -25,22 +25,26 @@ public class GqlParser extends Parser {
 		new PredictionContextCache();
 	public static final int
 		T__7=1, T__6=2, T__5=3, T__4=4, T__3=5, T__2=6, T__1=7, T__0=8, STRING=9,
-		NUMBER=10, DECIMAL=11, NULL=12, TRUE=13, FALSE=14, AND=15, OR=16, NOT=17,
-		EQ=18, NT_EQ=19, LT_EQ=20, GT_EQ=21, GT=22, LT=23, CONTAINS=24, STARTS_WITH=25,
-		ENDS_WITH=26, REGEXP=27, ID=28, WS=29;
+		NUMBER=10, DECIMAL=11, PARAM=12, NULL=13, TRUE=14, FALSE=15, AND=16, OR=17,
+		NOT=18, EQ=19, NT_EQ=20, LT_EQ=21, GT_EQ=22, GT=23, LT=24, CONTAINS=25,
+		STARTS_WITH=26, ENDS_WITH=27, REGEXP=28, COUNT=29, SUM=30, MIN=31, MAX=32,
+		AVG=33, GROUP=34, ID=35, WS=36;
 	public static final String[] tokenNames = {
 		"<INVALID>", "'ordered'", "'reversed'", "'limit'", "'('", "'filter'",
-		"')'", "','", "'skip'", "STRING", "NUMBER", "DECIMAL", "'null'", "'true'",
-		"'false'", "'&&'", "'||'", "'!'", "'=='", "'!='", "'<='", "'>='", "'>'",
-		"'<'", "'contains'", "'startsWith'", "'endsWith'", "'regExp'", "ID", "WS"
+		"')'", "','", "'skip'", "STRING", "NUMBER", "DECIMAL", "'?'", "'null'",
+		"'true'", "'false'", "'&&'", "'||'", "'!'", "'=='", "'!='", "'<='", "'>='",
+		"'>'", "'<'", "'contains'", "'startsWith'", "'endsWith'", "'regExp'",
+		"'count'", "'sum'", "'min'", "'max'", "'avg'", "'group'", "ID", "WS"
 	};
 	public static final int
 		RULE_parse = 0, RULE_expression = 1, RULE_or = 2, RULE_and = 3, RULE_not = 4,
 		RULE_limit = 5, RULE_skip = 6, RULE_ordering = 7, RULE_ordered = 8, RULE_reversed = 9,
-		RULE_filter = 10, RULE_value = 11, RULE_operator = 12;
+		RULE_aggregation = 10, RULE_group = 11, RULE_function = 12, RULE_filter = 13,
+		RULE_id = 14, RULE_value = 15, RULE_operator = 16;
 	public static final String[] ruleNames = {
 		"parse", "expression", "or", "and", "not", "limit", "skip", "ordering",
-		"ordered", "reversed", "filter", "value", "operator"
+		"ordered", "reversed", "aggregation", "group", "function", "filter", "id",
+		"value", "operator"
 	};
 
 	@Override
@@ -91,7 +95,7 @@ public class GqlParser extends Parser {
 		try {
 			enterOuterAlt(_localctx, 1);
 			{
-			setState(26); expression();
+			setState(34); expression();
 			}
 		}
 		catch (RecognitionException re) {
@@ -107,6 +111,9 @@ public class GqlParser extends Parser {
 
 	public static class ExpressionContext extends ParserRuleContext {
 		public TerminalNode ID() { return getToken(GqlParser.ID, 0); }
+		public AggregationContext aggregation() {
+			return getRuleContext(AggregationContext.class,0);
+		}
 		public SkipContext skip() {
 			return getRuleContext(SkipContext.class,0);
 		}
@@ -143,51 +150,59 @@ public class GqlParser extends Parser {
 		enterRule(_localctx, 2, RULE_expression);
 		int _la;
 		try {
-			setState(100);
-			switch ( getInterpreter().adaptivePredict(_input,20,_ctx) ) {
+			setState(120);
+			switch ( getInterpreter().adaptivePredict(_input,24,_ctx) ) {
 			case 1:
 				enterOuterAlt(_localctx, 1);
 				{
-				setState(29);
+				setState(37);
 				_la = _input.LA(1);
 				if (_la==ID) {
 					{
-					setState(28); match(ID);
+					setState(36); match(ID);
 					}
 				}
 
-				setState(33);
+				setState(41);
 				_la = _input.LA(1);
 				if (_la==5) {
 					{
-					setState(31); match(5);
-					setState(32); or();
+					setState(39); match(5);
+					setState(40); or();
 					}
 				}
 
-				setState(37);
+				setState(44);
+				_la = _input.LA(1);
+				if ((((_la) & ~0x3f) == 0 && ((1L << _la) & ((1L << COUNT) | (1L << SUM) | (1L << MIN) | (1L << MAX) | (1L << AVG) | (1L << GROUP))) != 0)) {
+					{
+					setState(43); aggregation();
+					}
+				}
+
+				setState(48);
 				_la = _input.LA(1);
 				if (_la==8) {
 					{
-					setState(35); match(8);
-					setState(36); skip();
+					setState(46); match(8);
+					setState(47); skip();
 					}
 				}
 
-				setState(41);
+				setState(52);
 				_la = _input.LA(1);
 				if (_la==3) {
 					{
-					setState(39); match(3);
-					setState(40); limit();
+					setState(50); match(3);
+					setState(51); limit();
 					}
 				}
 
-				setState(44);
-				switch ( getInterpreter().adaptivePredict(_input,4,_ctx) ) {
+				setState(55);
+				switch ( getInterpreter().adaptivePredict(_input,5,_ctx) ) {
 				case 1:
 					{
-					setState(43); ordering();
+					setState(54); ordering();
 					}
 					break;
 				}
@@ -197,46 +212,54 @@ public class GqlParser extends Parser {
 			case 2:
 				enterOuterAlt(_localctx, 2);
 				{
-				setState(47);
+				setState(58);
 				_la = _input.LA(1);
 				if (_la==ID) {
 					{
-					setState(46); match(ID);
+					setState(57); match(ID);
 					}
 				}
 
-				setState(51);
+				setState(62);
 				_la = _input.LA(1);
 				if (_la==5) {
 					{
-					setState(49); match(5);
-					setState(50); or();
+					setState(60); match(5);
+					setState(61); or();
 					}
 				}
 
-				setState(55);
+				setState(65);
+				_la = _input.LA(1);
+				if ((((_la) & ~0x3f) == 0 && ((1L << _la) & ((1L << COUNT) | (1L << SUM) | (1L << MIN) | (1L << MAX) | (1L << AVG) | (1L << GROUP))) != 0)) {
+					{
+					setState(64); aggregation();
+					}
+				}
+
+				setState(69);
 				_la = _input.LA(1);
 				if (_la==3) {
 					{
-					setState(53); match(3);
-					setState(54); limit();
+					setState(67); match(3);
+					setState(68); limit();
 					}
 				}
 
-				setState(59);
+				setState(73);
 				_la = _input.LA(1);
 				if (_la==8) {
 					{
-					setState(57); match(8);
-					setState(58); skip();
+					setState(71); match(8);
+					setState(72); skip();
 					}
 				}
 
-				setState(62);
-				switch ( getInterpreter().adaptivePredict(_input,9,_ctx) ) {
+				setState(76);
+				switch ( getInterpreter().adaptivePredict(_input,11,_ctx) ) {
 				case 1:
 					{
-					setState(61); ordering();
+					setState(75); ordering();
 					}
 					break;
 				}
@@ -246,46 +269,54 @@ public class GqlParser extends Parser {
 			case 3:
 				enterOuterAlt(_localctx, 3);
 				{
-				setState(65);
+				setState(79);
 				_la = _input.LA(1);
 				if (_la==ID) {
 					{
-					setState(64); match(ID);
+					setState(78); match(ID);
 					}
 				}
 
-				setState(69);
+				setState(83);
 				_la = _input.LA(1);
 				if (_la==5) {
 					{
-					setState(67); match(5);
-					setState(68); or();
+					setState(81); match(5);
+					setState(82); or();
+					}
+				}
+
+				setState(86);
+				_la = _input.LA(1);
+				if ((((_la) & ~0x3f) == 0 && ((1L << _la) & ((1L << COUNT) | (1L << SUM) | (1L << MIN) | (1L << MAX) | (1L << AVG) | (1L << GROUP))) != 0)) {
+					{
+					setState(85); aggregation();
 					}
 				}
 
-				setState(72);
-				switch ( getInterpreter().adaptivePredict(_input,12,_ctx) ) {
+				setState(89);
+				switch ( getInterpreter().adaptivePredict(_input,15,_ctx) ) {
 				case 1:
 					{
-					setState(71); ordering();
+					setState(88); ordering();
 					}
 					break;
 				}
-				setState(76);
+				setState(93);
 				_la = _input.LA(1);
 				if (_la==3) {
 					{
-					setState(74); match(3);
-					setState(75); limit();
+					setState(91); match(3);
+					setState(92); limit();
 					}
 				}
 
-				setState(80);
+				setState(97);
 				_la = _input.LA(1);
 				if (_la==8) {
 					{
-					setState(78); match(8);
-					setState(79); skip();
+					setState(95); match(8);
+					setState(96); skip();
 					}
 				}
 
@@ -295,46 +326,54 @@ public class GqlParser extends Parser {
 			case 4:
 				enterOuterAlt(_localctx, 4);
 				{
-				setState(83);
+				setState(100);
 				_la = _input.LA(1);
 				if (_la==ID) {
 					{
-					setState(82); match(ID);
+					setState(99); match(ID);
 					}
 				}
 
-				setState(87);
+				setState(104);
 				_la = _input.LA(1);
 				if (_la==5) {
 					{
-					setState(85); match(5);
-					setState(86); or();
+					setState(102); match(5);
+					setState(103); or();
+					}
+				}
+
+				setState(107);
+				_la = _input.LA(1);
+				if ((((_la) & ~0x3f) == 0 && ((1L << _la) & ((1L << COUNT) | (1L << SUM) | (1L << MIN) | (1L << MAX) | (1L << AVG) | (1L << GROUP))) != 0)) {
+					{
+					setState(106); aggregation();
 					}
 				}
 
-				setState(90);
-				switch ( getInterpreter().adaptivePredict(_input,17,_ctx) ) {
+				setState(110);
+				switch ( getInterpreter().adaptivePredict(_input,21,_ctx) ) {
 				case 1:
 					{
-					setState(89); ordering();
+					setState(109); ordering();
 					}
 					break;
 				}
-				setState(94);
+				setState(114);
 				_la = _input.LA(1);
 				if (_la==8) {
 					{
-					setState(92); match(8);
-					setState(93); skip();
+					setState(112); match(8);
+					setState(113); skip();
 					}
 				}
 
-				setState(98);
+				setState(118);
 				_la = _input.LA(1);
 				if (_la==3) {
 					{
-					setState(96); match(3);
-					setState(97); limit();
+					setState(116); match(3);
+					setState(117); limit();
 					}
 				}
 
@@ -390,18 +429,18 @@ public class GqlParser extends Parser {
 		try {
 			enterOuterAlt(_localctx, 1);
 			{
-			setState(102); and();
-			setState(107);
+			setState(122); and();
+			setState(127);
 			_errHandler.sync(this);
 			_la = _input.LA(1);
 			while (_la==OR) {
 				{
 				{
-				setState(103); match(OR);
-				setState(104); and();
+				setState(123); match(OR);
+				setState(124); and();
 				}
 				}
-				setState(109);
+				setState(129);
 				_errHandler.sync(this);
 				_la = _input.LA(1);
 			}
@@ -455,18 +494,18 @@ public class GqlParser extends Parser {
 		try {
 			enterOuterAlt(_localctx, 1);
 			{
-			setState(110); not();
-			setState(115);
+			setState(130); not();
+			setState(135);
 			_errHandler.sync(this);
 			_la = _input.LA(1);
 			while (_la==AND) {
 				{
 				{
-				setState(111); match(AND);
-				setState(112); not();
+				setState(131); match(AND);
+				setState(132); not();
 				}
 				}
-				setState(117);
+				setState(137);
 				_errHandler.sync(this);
 				_la = _input.LA(1);
 			}
@@ -511,13 +550,13 @@ public class GqlParser extends Parser {
 		NotContext _localctx = new NotContext(_ctx, getState());
 		enterRule(_localctx, 8, RULE_not);
 		try {
-			setState(121);
+			setState(141);
 			switch (_input.LA(1)) {
 			case NOT:
 				enterOuterAlt(_localctx, 1);
 				{
-				setState(118); match(NOT);
-				setState(119); filter();
+				setState(138); match(NOT);
+				setState(139); filter();
 				}
 				break;
 			case 4:
@@ -531,10 +570,16 @@ public class GqlParser extends Parser {
 			case STARTS_WITH:
 			case ENDS_WITH:
 			case REGEXP:
+			case COUNT:
+			case SUM:
+			case MIN:
+			case MAX:
+			case AVG:
+			case GROUP:
 			case ID:
 				enterOuterAlt(_localctx, 2);
 				{
-				setState(120); filter();
+				setState(140); filter();
 				}
 				break;
 			default:
@@ -556,6 +601,7 @@ public class GqlParser extends Parser {
 		public TerminalNode NUMBER(int i) {
 			return getToken(GqlParser.NUMBER, i);
 		}
+		public TerminalNode PARAM() { return getToken(GqlParser.PARAM, 0); }
 		public List<TerminalNode> NUMBER() { return getTokens(GqlParser.NUMBER); }
 		public LimitContext(ParserRuleContext parent, int invokingState) {
 			super(parent, invokingState);
@@ -583,13 +629,18 @@ public class GqlParser extends Parser {
 		try {
 			enterOuterAlt(_localctx, 1);
 			{
-			setState(123); match(NUMBER);
-			setState(126);
+			setState(143);
+			_la = _input.LA(1);
+			if ( !(_la==NUMBER || _la==PARAM) ) {
+			_errHandler.recoverInline(this);
+			}
+			consume();
+			setState(146);
 			_la = _input.LA(1);
 			if (_la==7) {
 				{
-				setState(124); match(7);
-				setState(125); match(NUMBER);
+				setState(144); match(7);
+				setState(145); match(NUMBER);
 				}
 			}
 
@@ -607,6 +658,7 @@ public class GqlParser extends Parser {
 	}
 
 	public static class SkipContext extends ParserRuleContext {
+		public TerminalNode PARAM() { return getToken(GqlParser.PARAM, 0); }
 		public TerminalNode NUMBER() { return getToken(GqlParser.NUMBER, 0); }
 		public SkipContext(ParserRuleContext parent, int invokingState) {
 			super(parent, invokingState);
@@ -630,10 +682,16 @@ public class GqlParser extends Parser {
 	public final SkipContext skip() throws RecognitionException {
 		SkipContext _localctx = new SkipContext(_ctx, getState());
 		enterRule(_localctx, 12, RULE_skip);
+		int _la;
 		try {
 			enterOuterAlt(_localctx, 1);
 			{
-			setState(128); match(NUMBER);
+			setState(148);
+			_la = _input.LA(1);
+			if ( !(_la==NUMBER || _la==PARAM) ) {
+			_errHandler.recoverInline(this);
+			}
+			consume();
 			}
 		}
 		catch (RecognitionException re) {
@@ -679,21 +737,21 @@ public class GqlParser extends Parser {
 		try {
 			enterOuterAlt(_localctx, 1);
 			{
-			setState(134);
+			setState(154);
 			switch (_input.LA(1)) {
 			case 1:
 				{
 				{
-				setState(130); match(1);
-				setState(131); ordered();
+				setState(150); match(1);
+				setState(151); ordered();
 				}
 				}
 				break;
 			case 2:
 				{
 				{
-				setState(132); match(2);
-				setState(133); reversed();
+				setState(152); match(2);
+				setState(153); reversed();
 				}
 				}
 				break;
@@ -718,9 +776,11 @@ public class GqlParser extends Parser {
 	}
 
 	public static class OrderedContext extends ParserRuleContext {
-		public List<TerminalNode> ID() { return getTokens(GqlParser.ID); }
-		public TerminalNode ID(int i) {
-			return getToken(GqlParser.ID, i);
+		public IdContext id(int i) {
+			return getRuleContext(IdContext.class,i);
+		}
+		public List<IdContext> id() {
+			return getRuleContexts(IdContext.class);
 		}
 		public OrderedContext(ParserRuleContext parent, int invokingState) {
 			super(parent, invokingState);
@@ -748,22 +808,22 @@ public class GqlParser extends Parser {
 		try {
 			enterOuterAlt(_localctx, 1);
 			{
-			setState(144);
+			setState(164);
 			_la = _input.LA(1);
-			if (_la==ID) {
+			if ((((_la) & ~0x3f) == 0 && ((1L << _la) & ((1L << COUNT) | (1L << SUM) | (1L << MIN) | (1L << MAX) | (1L << AVG) | (1L << GROUP) | (1L << ID))) != 0)) {
 				{
-				setState(136); match(ID);
-				setState(141);
+				setState(156); id();
+				setState(161);
 				_errHandler.sync(this);
 				_la = _input.LA(1);
 				while (_la==7) {
 					{
 					{
-					setState(137); match(7);
-					setState(138); match(ID);
+					setState(157); match(7);
+					setState(158); id();
 					}
 					}
-					setState(143);
+					setState(163);
 					_errHandler.sync(this);
 					_la = _input.LA(1);
 				}
@@ -784,9 +844,11 @@ public class GqlParser extends Parser {
 	}
 
 	public static class ReversedContext extends ParserRuleContext {
-		public List<TerminalNode> ID() { return getTokens(GqlParser.ID); }
-		public TerminalNode ID(int i) {
-			return getToken(GqlParser.ID, i);
+		public IdContext id(int i) {
+			return getRuleContext(IdContext.class,i);
+		}
+		public List<IdContext> id() {
+			return getRuleContexts(IdContext.class);
 		}
 		public ReversedContext(ParserRuleContext parent, int invokingState) {
 			super(parent, invokingState);
@@ -814,22 +876,22 @@ public class GqlParser extends Parser {
 		try {
 			enterOuterAlt(_localctx, 1);
 			{
-			setState(154);
+			setState(174);
 			_la = _input.LA(1);
-			if (_la==ID) {
+			if ((((_la) & ~0x3f) == 0 && ((1L << _la) & ((1L << COUNT) | (1L << SUM) | (1L << MIN) | (1L << MAX) | (1L << AVG) | (1L << GROUP) | (1L << ID))) != 0)) {
 				{
-				setState(146); match(ID);
-				setState(151);
+				setState(166); id();
+				setState(171);
 				_errHandler.sync(this);
 				_la = _input.LA(1);
 				while (_la==7) {
 					{
 					{
-					setState(147); match(7);
-					setState(148); match(ID);
+					setState(167); match(7);
+					setState(168); id();
 					}
 					}
-					setState(153);
+					setState(173);
 					_errHandler.sync(this);
 					_la = _input.LA(1);
 				}
@@ -849,8 +911,213 @@ public class GqlParser extends Parser {
 		return _localctx;
 	}
 
+	public static class AggregationContext extends ParserRuleContext {
+		public GroupContext group() {
+			return getRuleContext(GroupContext.class,0);
+		}
+		public FunctionContext function(int i) {
+			return getRuleContext(FunctionContext.class,i);
+		}
+		public TerminalNode GROUP() { return getToken(GqlParser.GROUP, 0); }
+		public List<FunctionContext> function() {
+			return getRuleContexts(FunctionContext.class);
+		}
+		public AggregationContext(ParserRuleContext parent, int invokingState) {
+			super(parent, invokingState);
+		}
+		@Override public int getRuleIndex() { return RULE_aggregation; }
+		@Override
+		public void enterRule(ParseTreeListener listener) {
+			if ( listener instanceof GqlListener ) ((GqlListener)listener).enterAggregation(this);
+		}
+		@Override
+		public void exitRule(ParseTreeListener listener) {
+			if ( listener instanceof GqlListener ) ((GqlListener)listener).exitAggregation(this);
+		}
+		@Override
+		public <T> T accept(ParseTreeVisitor<? extends T> visitor) {
+			if ( visitor instanceof GqlVisitor ) return ((GqlVisitor<? extends T>)visitor).visitAggregation(this);
+			else return visitor.visitChildren(this);
+		}
+	}
+
+	public final AggregationContext aggregation() throws RecognitionException {
+		AggregationContext _localctx = new AggregationContext(_ctx, getState());
+		enterRule(_localctx, 20, RULE_aggregation);
+		int _la;
+		try {
+			enterOuterAlt(_localctx, 1);
+			{
+			setState(178);
+			_la = _input.LA(1);
+			if (_la==GROUP) {
+				{
+				setState(176); match(GROUP);
+				setState(177); group();
+				}
+			}
+
+			setState(180); function();
+			setState(185);
+			_errHandler.sync(this);
+			_la = _input.LA(1);
+			while (_la==7) {
+				{
+				{
+				setState(181); match(7);
+				setState(182); function();
+				}
+				}
+				setState(187);
+				_errHandler.sync(this);
+				_la = _input.LA(1);
+			}
+			}
+		}
+		catch (RecognitionException re) {
+			_localctx.exception = re;
+			_errHandler.reportError(this, re);
+			_errHandler.recover(this, re);
+		}
+		finally {
+			exitRule();
+		}
+		return _localctx;
+	}
+
+	public static class GroupContext extends ParserRuleContext {
+		public IdContext id(int i) {
+			return getRuleContext(IdContext.class,i);
+		}
+		public List<IdContext> id() {
+			return getRuleContexts(IdContext.class);
+		}
+		public GroupContext(ParserRuleContext parent, int invokingState) {
+			super(parent, invokingState);
+		}
+		@Override public int getRuleIndex() { return RULE_group; }
+		@Override
+		public void enterRule(ParseTreeListener listener) {
+			if ( listener instanceof GqlListener ) ((GqlListener)listener).enterGroup(this);
+		}
+		@Override
+		public void exitRule(ParseTreeListener listener) {
+			if ( listener instanceof GqlListener ) ((GqlListener)listener).exitGroup(this);
+		}
+		@Override
+		public <T> T accept(ParseTreeVisitor<? extends T> visitor) {
+			if ( visitor instanceof GqlVisitor ) return ((GqlVisitor<? extends T>)visitor).visitGroup(this);
+			else return visitor.visitChildren(this);
+		}
+	}
+
+	public final GroupContext group() throws RecognitionException {
+		GroupContext _localctx = new GroupContext(_ctx, getState());
+		enterRule(_localctx, 22, RULE_group);
+		int _la;
+		try {
+			enterOuterAlt(_localctx, 1);
+			{
+			setState(188); id();
+			setState(193);
+			_errHandler.sync(this);
+			_la = _input.LA(1);
+			while (_la==7) {
+				{
+				{
+				setState(189); match(7);
+				setState(190); id();
+				}
+				}
+				setState(195);
+				_errHandler.sync(this);
+				_la = _input.LA(1);
+			}
+			}
+		}
+		catch (RecognitionException re) {
+			_localctx.exception = re;
+			_errHandler.reportError(this, re);
+			_errHandler.recover(this, re);
+		}
+		finally {
+			exitRule();
+		}
+		return _localctx;
+	}
+
+	public static class FunctionContext extends ParserRuleContext {
+		public TerminalNode COUNT() { return getToken(GqlParser.COUNT, 0); }
+		public TerminalNode MIN() { return getToken(GqlParser.MIN, 0); }
+		public TerminalNode MAX() { return getToken(GqlParser.MAX, 0); }
+		public IdContext id() {
+			return getRuleContext(IdContext.class,0);
+		}
+		public TerminalNode AVG() { return getToken(GqlParser.AVG, 0); }
+		public TerminalNode SUM() { return getToken(GqlParser.SUM, 0); }
+		public FunctionContext(ParserRuleContext parent, int invokingState) {
+			super(parent, invokingState);
+		}
+		@Override public int getRuleIndex() { return RULE_function; }
+		@Override
+		public void enterRule(ParseTreeListener listener) {
+			if ( listener instanceof GqlListener ) ((GqlListener)listener).enterFunction(this);
+		}
+		@Override
+		public void exitRule(ParseTreeListener listener) {
+			if ( listener instanceof GqlListener ) ((GqlListener)listener).exitFunction(this);
+		}
+		@Override
+		public <T> T accept(ParseTreeVisitor<? extends T> visitor) {
+			if ( visitor instanceof GqlVisitor ) return ((GqlVisitor<? extends T>)visitor).visitFunction(this);
+			else return visitor.visitChildren(this);
+		}
+	}
+
+	public final FunctionContext function() throws RecognitionException {
+		FunctionContext _localctx = new FunctionContext(_ctx, getState());
+		enterRule(_localctx, 24, RULE_function);
+		int _la;
+		try {
+			setState(199);
+			switch (_input.LA(1)) {
+			case COUNT:
+				enterOuterAlt(_localctx, 1);
+				{
+				setState(196); match(COUNT);
+				}
+				break;
+			case SUM:
+			case MIN:
+			case MAX:
+			case AVG:
+				enterOuterAlt(_localctx, 2);
+				{
+				setState(197);
+				_la = _input.LA(1);
+				if ( !((((_la) & ~0x3f) == 0 && ((1L << _la) & ((1L << SUM) | (1L << MIN) | (1L << MAX) | (1L << AVG))) != 0)) ) {
+				_errHandler.recoverInline(this);
+				}
+				consume();
+				setState(198); id();
+				}
+				break;
+			default:
+				throw new NoViableAltException(this);
+			}
+		}
+		catch (RecognitionException re) {
+			_localctx.exception = re;
+			_errHandler.reportError(this, re);
+			_errHandler.recover(this, re);
+		}
+		finally {
+			exitRule();
+		}
+		return _localctx;
+	}
+
 	public static class FilterContext extends ParserRuleContext {
-		public TerminalNode ID() { return getToken(GqlParser.ID, 0); }
 		public ValueContext value() {
 			return getRuleContext(ValueContext.class,0);
 		}
@@ -860,6 +1127,9 @@ public class GqlParser extends Parser {
 		public OrContext or() {
 			return getRuleContext(OrContext.class,0);
 		}
+		public IdContext id() {
+			return getRuleContext(IdContext.class,0);
+		}
 		public FilterContext(ParserRuleContext parent, int invokingState) {
 			super(parent, invokingState);
 		}
@@ -881,10 +1151,10 @@ public class GqlParser extends Parser {
 
 	public final FilterContext filter() throws RecognitionException {
 		FilterContext _localctx = new FilterContext(_ctx, getState());
-		enterRule(_localctx, 20, RULE_filter);
+		enterRule(_localctx, 26, RULE_filter);
 		int _la;
 		try {
-			setState(166);
+			setState(211);
 			switch (_input.LA(1)) {
 			case EQ:
 			case NT_EQ:
@@ -896,27 +1166,33 @@ public class GqlParser extends Parser {
 			case STARTS_WITH:
 			case ENDS_WITH:
 			case REGEXP:
+			case COUNT:
+			case SUM:
+			case MIN:
+			case MAX:
+			case AVG:
+			case GROUP:
 			case ID:
 				enterOuterAlt(_localctx, 1);
 				{
-				setState(157);
+				setState(202);
 				_la = _input.LA(1);
-				if (_la==ID) {
+				if ((((_la) & ~0x3f) == 0 && ((1L << _la) & ((1L << COUNT) | (1L << SUM) | (1L << MIN) | (1L << MAX) | (1L << AVG) | (1L << GROUP) | (1L << ID))) != 0)) {
 					{
-					setState(156); match(ID);
+					setState(201); id();
 					}
 				}
 
-				setState(159); operator();
-				setState(160); value();
+				setState(204); operator();
+				setState(205); value();
 				}
 				break;
 			case 4:
 				enterOuterAlt(_localctx, 2);
 				{
-				setState(162); match(4);
-				setState(163); or();
-				setState(164); match(6);
+				setState(207); match(4);
+				setState(208); or();
+				setState(209); match(6);
 				}
 				break;
 			default:
@@ -934,11 +1210,65 @@ public class GqlParser extends Parser {
 		return _localctx;
 	}
 
+	public static class IdContext extends ParserRuleContext {
+		public TerminalNode COUNT() { return getToken(GqlParser.COUNT, 0); }
+		public TerminalNode MIN() { return getToken(GqlParser.MIN, 0); }
+		public TerminalNode ID() { return getToken(GqlParser.ID, 0); }
+		public TerminalNode MAX() { return getToken(GqlParser.MAX, 0); }
+		public TerminalNode GROUP() { return getToken(GqlParser.GROUP, 0); }
+		public TerminalNode AVG() { return getToken(GqlParser.AVG, 0); }
+		public TerminalNode SUM() { return getToken(GqlParser.SUM, 0); }
+		public IdContext(ParserRuleContext parent, int invokingState) {
+			super(parent, invokingState);
+		}
+		@Override public int getRuleIndex() { return RULE_id; }
+		@Override
+		public void enterRule(ParseTreeListener listener) {
+			if ( listener instanceof GqlListener ) ((GqlListener)listener).enterId(this);
+		}
+		@Override
+		public void exitRule(ParseTreeListener listener) {
+			if ( listener instanceof GqlListener ) ((GqlListener)listener).exitId(this);
+		}
+		@Override
+		public <T> T accept(ParseTreeVisitor<? extends T> visitor) {
+			if ( visitor instanceof GqlVisitor ) return ((GqlVisitor<? extends T>)visitor).visitId(this);
+			else return visitor.visitChildren(this);
+		}
+	}
+
+	public final IdContext id() throws RecognitionException {
+		IdContext _localctx = new IdContext(_ctx, getState());
+		enterRule(_localctx, 28, RULE_id);
+		int _la;
+		try {
+			enterOuterAlt(_localctx, 1);
+			{
+			setState(213);
+			_la = _input.LA(1);
+			if ( !((((_la) & ~0x3f) == 0 && ((1L << _la) & ((1L << COUNT) | (1L << SUM) | (1L << MIN) | (1L << MAX) | (1L << AVG) | (1L << GROUP) | (1L << ID))) != 0)) ) {
+			_errHandler.recoverInline(this);
+			}
+			consume();
+			}
+		}
+		catch (RecognitionException re) {
+			_localctx.exception = re;
+			_errHandler.reportError(this, re);
+			_errHandler.recover(this, re);
+		}
+		finally {
+			exitRule();
+		}
+		return _localctx;
+	}
+
 	public static class ValueContext extends ParserRuleContext {
 		public TerminalNode DECIMAL() { return getToken(GqlParser.DECIMAL, 0); }
 		public TerminalNode NULL() { return getToken(GqlParser.NULL, 0); }
 		public TerminalNode FALSE() { return getToken(GqlParser.FALSE, 0); }
 		public TerminalNode TRUE() { return getToken(GqlParser.TRUE, 0); }
+		public TerminalNode PARAM() { return getToken(GqlParser.PARAM, 0); }
 		public TerminalNode STRING() { return getToken(GqlParser.STRING, 0); }
 		public TerminalNode NUMBER() { return getToken(GqlParser.NUMBER, 0); }
 		public ValueContext(ParserRuleContext parent, int invokingState) {
@@ -962,14 +1292,14 @@ public class GqlParser extends Parser {
 
 	public final ValueContext value() throws RecognitionException {
 		ValueContext _localctx = new ValueContext(_ctx, getState());
-		enterRule(_localctx, 22, RULE_value);
+		enterRule(_localctx, 30, RULE_value);
 		int _la;
 		try {
 			enterOuterAlt(_localctx, 1);
 			{
-			setState(168);
+			setState(215);
 			_la = _input.LA(1);
-			if ( !((((_la) & ~0x3f) == 0 && ((1L << _la) & ((1L << STRING) | (1L << NUMBER) | (1L << DECIMAL) | (1L << NULL) | (1L << TRUE) | (1L << FALSE))) != 0)) ) {
+			if ( !((((_la) & ~0x3f) == 0 && ((1L << _la) & ((1L << STRING) | (1L << NUMBER) | (1L << DECIMAL) | (1L << PARAM) | (1L << NULL) | (1L << TRUE) | (1L << FALSE))) != 0)) ) {
 			_errHandler.recoverInline(this);
 			}
 			consume();
@@ -1018,12 +1348,12 @@ public class GqlParser extends Parser {
 
 	public final OperatorContext operator() throws RecognitionException {
 		OperatorContext _localctx = new OperatorContext(_ctx, getState());
-		enterRule(_localctx, 24, RULE_operator);
+		enterRule(_localctx, 32, RULE_operator);
 		int _la;
 		try {
 			enterOuterAlt(_localctx, 1);
 			{
-			setState(170);
+			setState(217);
 			_la = _input.LA(1);
 			if ( !((((_la) & ~0x3f) == 0 && ((1L << _la) & ((1L << EQ) | (1L << NT_EQ) | (1L << LT_EQ) | (1L << GT_EQ) | (1L << GT) | (1L << LT) | (1L << CONTAINS) | (1L << STARTS_WITH) | (1L << ENDS_WITH) | (1L << REGEXP))) != 0)) ) {
 			_errHandler.recoverInline(this);
@@ -1043,59 +1373,78 @@ public class GqlParser extends Parser {
 	}
 
 	public static final String _serializedATN =
-		"\3\u0430\ud6d1\u8206\uad2d\u4417\uaef1\u8d80\uaadd\3\37\u00af\4\2\t\2"+
-		"\4\3\t\3\4\4\t\4\4\5\t\5\4\6\t\6\4\7\t\7\4\b\t\b\4\t\t\t\4\n\t\n\4\13"+
-		"\t\13\4\f\t\f\4\r\t\r\4\16\t\16\3\2\3\2\3\3\5\3 \n\3\3\3\3\3\5\3$\n\3"+
-		"\3\3\3\3\5\3(\n\3\3\3\3\3\5\3,\n\3\3\3\5\3/\n\3\3\3\5\3\62\n\3\3\3\3\3"+
-		"\5\3\66\n\3\3\3\3\3\5\3:\n\3\3\3\3\3\5\3>\n\3\3\3\5\3A\n\3\3\3\5\3D\n"+
-		"\3\3\3\3\3\5\3H\n\3\3\3\5\3K\n\3\3\3\3\3\5\3O\n\3\3\3\3\3\5\3S\n\3\3\3"+
-		"\5\3V\n\3\3\3\3\3\5\3Z\n\3\3\3\5\3]\n\3\3\3\3\3\5\3a\n\3\3\3\3\3\5\3e"+
-		"\n\3\5\3g\n\3\3\4\3\4\3\4\7\4l\n\4\f\4\16\4o\13\4\3\5\3\5\3\5\7\5t\n\5"+
-		"\f\5\16\5w\13\5\3\6\3\6\3\6\5\6|\n\6\3\7\3\7\3\7\5\7\u0081\n\7\3\b\3\b"+
-		"\3\t\3\t\3\t\3\t\5\t\u0089\n\t\3\n\3\n\3\n\7\n\u008e\n\n\f\n\16\n\u0091"+
-		"\13\n\5\n\u0093\n\n\3\13\3\13\3\13\7\13\u0098\n\13\f\13\16\13\u009b\13"+
-		"\13\5\13\u009d\n\13\3\f\5\f\u00a0\n\f\3\f\3\f\3\f\3\f\3\f\3\f\3\f\5\f"+
-		"\u00a9\n\f\3\r\3\r\3\16\3\16\3\16\2\2\17\2\4\6\b\n\f\16\20\22\24\26\30"+
-		"\32\2\4\3\2\13\20\3\2\24\35\u00c4\2\34\3\2\2\2\4f\3\2\2\2\6h\3\2\2\2\b"+
-		"p\3\2\2\2\n{\3\2\2\2\f}\3\2\2\2\16\u0082\3\2\2\2\20\u0088\3\2\2\2\22\u0092"+
-		"\3\2\2\2\24\u009c\3\2\2\2\26\u00a8\3\2\2\2\30\u00aa\3\2\2\2\32\u00ac\3"+
-		"\2\2\2\34\35\5\4\3\2\35\3\3\2\2\2\36 \7\36\2\2\37\36\3\2\2\2\37 \3\2\2"+
-		"\2 #\3\2\2\2!\"\7\7\2\2\"$\5\6\4\2#!\3\2\2\2#$\3\2\2\2$\'\3\2\2\2%&\7"+
-		"\n\2\2&(\5\16\b\2\'%\3\2\2\2\'(\3\2\2\2(+\3\2\2\2)*\7\5\2\2*,\5\f\7\2"+
-		"+)\3\2\2\2+,\3\2\2\2,.\3\2\2\2-/\5\20\t\2.-\3\2\2\2./\3\2\2\2/g\3\2\2"+
-		"\2\60\62\7\36\2\2\61\60\3\2\2\2\61\62\3\2\2\2\62\65\3\2\2\2\63\64\7\7"+
-		"\2\2\64\66\5\6\4\2\65\63\3\2\2\2\65\66\3\2\2\2\669\3\2\2\2\678\7\5\2\2"+
-		"8:\5\f\7\29\67\3\2\2\29:\3\2\2\2:=\3\2\2\2;<\7\n\2\2<>\5\16\b\2=;\3\2"+
-		"\2\2=>\3\2\2\2>@\3\2\2\2?A\5\20\t\2@?\3\2\2\2@A\3\2\2\2Ag\3\2\2\2BD\7"+
-		"\36\2\2CB\3\2\2\2CD\3\2\2\2DG\3\2\2\2EF\7\7\2\2FH\5\6\4\2GE\3\2\2\2GH"+
-		"\3\2\2\2HJ\3\2\2\2IK\5\20\t\2JI\3\2\2\2JK\3\2\2\2KN\3\2\2\2LM\7\5\2\2"+
-		"MO\5\f\7\2NL\3\2\2\2NO\3\2\2\2OR\3\2\2\2PQ\7\n\2\2QS\5\16\b\2RP\3\2\2"+
-		"\2RS\3\2\2\2Sg\3\2\2\2TV\7\36\2\2UT\3\2\2\2UV\3\2\2\2VY\3\2\2\2WX\7\7"+
-		"\2\2XZ\5\6\4\2YW\3\2\2\2YZ\3\2\2\2Z\\\3\2\2\2[]\5\20\t\2\\[\3\2\2\2\\"+
-		"]\3\2\2\2]`\3\2\2\2^_\7\n\2\2_a\5\16\b\2`^\3\2\2\2`a\3\2\2\2ad\3\2\2\2"+
-		"bc\7\5\2\2ce\5\f\7\2db\3\2\2\2de\3\2\2\2eg\3\2\2\2f\37\3\2\2\2f\61\3\2"+
-		"\2\2fC\3\2\2\2fU\3\2\2\2g\5\3\2\2\2hm\5\b\5\2ij\7\22\2\2jl\5\b\5\2ki\3"+
-		"\2\2\2lo\3\2\2\2mk\3\2\2\2mn\3\2\2\2n\7\3\2\2\2om\3\2\2\2pu\5\n\6\2qr"+
-		"\7\21\2\2rt\5\n\6\2sq\3\2\2\2tw\3\2\2\2us\3\2\2\2uv\3\2\2\2v\t\3\2\2\2"+
-		"wu\3\2\2\2xy\7\23\2\2y|\5\26\f\2z|\5\26\f\2{x\3\2\2\2{z\3\2\2\2|\13\3"+
-		"\2\2\2}\u0080\7\f\2\2~\177\7\t\2\2\177\u0081\7\f\2\2\u0080~\3\2\2\2\u0080"+
-		"\u0081\3\2\2\2\u0081\r\3\2\2\2\u0082\u0083\7\f\2\2\u0083\17\3\2\2\2\u0084"+
-		"\u0085\7\3\2\2\u0085\u0089\5\22\n\2\u0086\u0087\7\4\2\2\u0087\u0089\5"+
-		"\24\13\2\u0088\u0084\3\2\2\2\u0088\u0086\3\2\2\2\u0088\u0089\3\2\2\2\u0089"+
-		"\21\3\2\2\2\u008a\u008f\7\36\2\2\u008b\u008c\7\t\2\2\u008c\u008e\7\36"+
-		"\2\2\u008d\u008b\3\2\2\2\u008e\u0091\3\2\2\2\u008f\u008d\3\2\2\2\u008f"+
-		"\u0090\3\2\2\2\u0090\u0093\3\2\2\2\u0091\u008f\3\2\2\2\u0092\u008a\3\2"+
-		"\2\2\u0092\u0093\3\2\2\2\u0093\23\3\2\2\2\u0094\u0099\7\36\2\2\u0095\u0096"+
-		"\7\t\2\2\u0096\u0098\7\36\2\2\u0097\u0095\3\2\2\2\u0098\u009b\3\2\2\2"+
-		"\u0099\u0097\3\2\2\2\u0099\u009a\3\2\2\2\u009a\u009d\3\2\2\2\u009b\u0099"+
-		"\3\2\2\2\u009c\u0094\3\2\2\2\u009c\u009d\3\2\2\2\u009d\25\3\2\2\2\u009e"+
-		"\u00a0\7\36\2\2\u009f\u009e\3\2\2\2\u009f\u00a0\3\2\2\2\u00a0\u00a1\3"+
-		"\2\2\2\u00a1\u00a2\5\32\16\2\u00a2\u00a3\5\30\r\2\u00a3\u00a9\3\2\2\2"+
-		"\u00a4\u00a5\7\6\2\2\u00a5\u00a6\5\6\4\2\u00a6\u00a7\7\b\2\2\u00a7\u00a9"+
-		"\3\2\2\2\u00a8\u009f\3\2\2\2\u00a8\u00a4\3\2\2\2\u00a9\27\3\2\2\2\u00aa"+
-		"\u00ab\t\2\2\2\u00ab\31\3\2\2\2\u00ac\u00ad\t\3\2\2\u00ad\33\3\2\2\2\""+
-		"\37#\'+.\61\659=@CGJNRUY\\`dfmu{\u0080\u0088\u008f\u0092\u0099\u009c\u009f"+
-		"\u00a8";
+		"\3\u0430\ud6d1\u8206\uad2d\u4417\uaef1\u8d80\uaadd\3&\u00de\4\2\t\2\4"+
+		"\3\t\3\4\4\t\4\4\5\t\5\4\6\t\6\4\7\t\7\4\b\t\b\4\t\t\t\4\n\t\n\4\13\t"+
+		"\13\4\f\t\f\4\r\t\r\4\16\t\16\4\17\t\17\4\20\t\20\4\21\t\21\4\22\t\22"+
+		"\3\2\3\2\3\3\5\3(\n\3\3\3\3\3\5\3,\n\3\3\3\5\3/\n\3\3\3\3\3\5\3\63\n\3"+
+		"\3\3\3\3\5\3\67\n\3\3\3\5\3:\n\3\3\3\5\3=\n\3\3\3\3\3\5\3A\n\3\3\3\5\3"+
+		"D\n\3\3\3\3\3\5\3H\n\3\3\3\3\3\5\3L\n\3\3\3\5\3O\n\3\3\3\5\3R\n\3\3\3"+
+		"\3\3\5\3V\n\3\3\3\5\3Y\n\3\3\3\5\3\\\n\3\3\3\3\3\5\3`\n\3\3\3\3\3\5\3"+
+		"d\n\3\3\3\5\3g\n\3\3\3\3\3\5\3k\n\3\3\3\5\3n\n\3\3\3\5\3q\n\3\3\3\3\3"+
+		"\5\3u\n\3\3\3\3\3\5\3y\n\3\5\3{\n\3\3\4\3\4\3\4\7\4\u0080\n\4\f\4\16\4"+
+		"\u0083\13\4\3\5\3\5\3\5\7\5\u0088\n\5\f\5\16\5\u008b\13\5\3\6\3\6\3\6"+
+		"\5\6\u0090\n\6\3\7\3\7\3\7\5\7\u0095\n\7\3\b\3\b\3\t\3\t\3\t\3\t\5\t\u009d"+
+		"\n\t\3\n\3\n\3\n\7\n\u00a2\n\n\f\n\16\n\u00a5\13\n\5\n\u00a7\n\n\3\13"+
+		"\3\13\3\13\7\13\u00ac\n\13\f\13\16\13\u00af\13\13\5\13\u00b1\n\13\3\f"+
+		"\3\f\5\f\u00b5\n\f\3\f\3\f\3\f\7\f\u00ba\n\f\f\f\16\f\u00bd\13\f\3\r\3"+
+		"\r\3\r\7\r\u00c2\n\r\f\r\16\r\u00c5\13\r\3\16\3\16\3\16\5\16\u00ca\n\16"+
+		"\3\17\5\17\u00cd\n\17\3\17\3\17\3\17\3\17\3\17\3\17\3\17\5\17\u00d6\n"+
+		"\17\3\20\3\20\3\21\3\21\3\22\3\22\3\22\2\2\23\2\4\6\b\n\f\16\20\22\24"+
+		"\26\30\32\34\36 \"\2\7\4\2\f\f\16\16\3\2 #\3\2\37%\3\2\13\21\3\2\25\36"+
+		"\u00f7\2$\3\2\2\2\4z\3\2\2\2\6|\3\2\2\2\b\u0084\3\2\2\2\n\u008f\3\2\2"+
+		"\2\f\u0091\3\2\2\2\16\u0096\3\2\2\2\20\u009c\3\2\2\2\22\u00a6\3\2\2\2"+
+		"\24\u00b0\3\2\2\2\26\u00b4\3\2\2\2\30\u00be\3\2\2\2\32\u00c9\3\2\2\2\34"+
+		"\u00d5\3\2\2\2\36\u00d7\3\2\2\2 \u00d9\3\2\2\2\"\u00db\3\2\2\2$%\5\4\3"+
+		"\2%\3\3\2\2\2&(\7%\2\2\'&\3\2\2\2\'(\3\2\2\2(+\3\2\2\2)*\7\7\2\2*,\5\6"+
+		"\4\2+)\3\2\2\2+,\3\2\2\2,.\3\2\2\2-/\5\26\f\2.-\3\2\2\2./\3\2\2\2/\62"+
+		"\3\2\2\2\60\61\7\n\2\2\61\63\5\16\b\2\62\60\3\2\2\2\62\63\3\2\2\2\63\66"+
+		"\3\2\2\2\64\65\7\5\2\2\65\67\5\f\7\2\66\64\3\2\2\2\66\67\3\2\2\2\679\3"+
+		"\2\2\28:\5\20\t\298\3\2\2\29:\3\2\2\2:{\3\2\2\2;=\7%\2\2<;\3\2\2\2<=\3"+
+		"\2\2\2=@\3\2\2\2>?\7\7\2\2?A\5\6\4\2@>\3\2\2\2@A\3\2\2\2AC\3\2\2\2BD\5"+
+		"\26\f\2CB\3\2\2\2CD\3\2\2\2DG\3\2\2\2EF\7\5\2\2FH\5\f\7\2GE\3\2\2\2GH"+
+		"\3\2\2\2HK\3\2\2\2IJ\7\n\2\2JL\5\16\b\2KI\3\2\2\2KL\3\2\2\2LN\3\2\2\2"+
+		"MO\5\20\t\2NM\3\2\2\2NO\3\2\2\2O{\3\2\2\2PR\7%\2\2QP\3\2\2\2QR\3\2\2\2"+
+		"RU\3\2\2\2ST\7\7\2\2TV\5\6\4\2US\3\2\2\2UV\3\2\2\2VX\3\2\2\2WY\5\26\f"+
+		"\2XW\3\2\2\2XY\3\2\2\2Y[\3\2\2\2Z\\\5\20\t\2[Z\3\2\2\2[\\\3\2\2\2\\_\3"+
+		"\2\2\2]^\7\5\2\2^`\5\f\7\2_]\3\2\2\2_`\3\2\2\2`c\3\2\2\2ab\7\n\2\2bd\5"+
+		"\16\b\2ca\3\2\2\2cd\3\2\2\2d{\3\2\2\2eg\7%\2\2fe\3\2\2\2fg\3\2\2\2gj\3"+
+		"\2\2\2hi\7\7\2\2ik\5\6\4\2jh\3\2\2\2jk\3\2\2\2km\3\2\2\2ln\5\26\f\2ml"+
+		"\3\2\2\2mn\3\2\2\2np\3\2\2\2oq\5\20\t\2po\3\2\2\2pq\3\2\2\2qt\3\2\2\2"+
+		"rs\7\n\2\2su\5\16\b\2tr\3\2\2\2tu\3\2\2\2ux\3\2\2\2vw\7\5\2\2wy\5\f\7"+
+		"\2xv\3\2\2\2xy\3\2\2\2y{\3\2\2\2z\'\3\2\2\2z<\3\2\2\2zQ\3\2\2\2zf\3\2"+
+		"\2\2{\5\3\2\2\2|\u0081\5\b\5\2}~\7\23\2\2~\u0080\5\b\5\2\177}\3\2\2\2"+
+		"\u0080\u0083\3\2\2\2\u0081\177\3\2\2\2\u0081\u0082\3\2\2\2\u0082\7\3\2"+
+		"\2\2\u0083\u0081\3\2\2\2\u0084\u0089\5\n\6\2\u0085\u0086\7\22\2\2\u0086"+
+		"\u0088\5\n\6\2\u0087\u0085\3\2\2\2\u0088\u008b\3\2\2\2\u0089\u0087\3\2"+
+		"\2\2\u0089\u008a\3\2\2\2\u008a\t\3\2\2\2\u008b\u0089\3\2\2\2\u008c\u008d"+
+		"\7\24\2\2\u008d\u0090\5\34\17\2\u008e\u0090\5\34\17\2\u008f\u008c\3\2"+
+		"\2\2\u008f\u008e\3\2\2\2\u0090\13\3\2\2\2\u0091\u0094\t\2\2\2\u0092\u0093"+
+		"\7\t\2\2\u0093\u0095\7\f\2\2\u0094\u0092\3\2\2\2\u0094\u0095\3\2\2\2\u0095"+
+		"\r\3\2\2\2\u0096\u0097\t\2\2\2\u0097\17\3\2\2\2\u0098\u0099\7\3\2\2\u0099"+
+		"\u009d\5\22\n\2\u009a\u009b\7\4\2\2\u009b\u009d\5\24\13\2\u009c\u0098"+
+		"\3\2\2\2\u009c\u009a\3\2\2\2\u009c\u009d\3\2\2\2\u009d\21\3\2\2\2\u009e"+
+		"\u00a3\5\36\20\2\u009f\u00a0\7\t\2\2\u00a0\u00a2\5\36\20\2\u00a1\u009f"+
+		"\3\2\2\2\u00a2\u00a5\3\2\2\2\u00a3\u00a1\3\2\2\2\u00a3\u00a4\3\2\2\2\u00a4"+
+		"\u00a7\3\2\2\2\u00a5\u00a3\3\2\2\2\u00a6\u009e\3\2\2\2\u00a6\u00a7\3\2"+
+		"\2\2\u00a7\23\3\2\2\2\u00a8\u00ad\5\36\20\2\u00a9\u00aa\7\t\2\2\u00aa"+
+		"\u00ac\5\36\20\2\u00ab\u00a9\3\2\2\2\u00ac\u00af\3\2\2\2\u00ad\u00ab\3"+
+		"\2\2\2\u00ad\u00ae\3\2\2\2\u00ae\u00b1\3\2\2\2\u00af\u00ad\3\2\2\2\u00b0"+
+		"\u00a8\3\2\2\2\u00b0\u00b1\3\2\2\2\u00b1\25\3\2\2\2\u00b2\u00b3\7$\2\2"+
+		"\u00b3\u00b5\5\30\r\2\u00b4\u00b2\3\2\2\2\u00b4\u00b5\3\2\2\2\u00b5\u00b6"+
+		"\3\2\2\2\u00b6\u00bb\5\32\16\2\u00b7\u00b8\7\t\2\2\u00b8\u00ba\5\32\16"+
+		"\2\u00b9\u00b7\3\2\2\2\u00ba\u00bd\3\2\2\2\u00bb\u00b9\3\2\2\2\u00bb\u00bc"+
+		"\3\2\2\2\u00bc\27\3\2\2\2\u00bd\u00bb\3\2\2\2\u00be\u00c3\5\36\20\2\u00bf"+
+		"\u00c0\7\t\2\2\u00c0\u00c2\5\36\20\2\u00c1\u00bf\3\2\2\2\u00c2\u00c5\3"+
+		"\2\2\2\u00c3\u00c1\3\2\2\2\u00c3\u00c4\3\2\2\2\u00c4\31\3\2\2\2\u00c5"+
+		"\u00c3\3\2\2\2\u00c6\u00ca\7\37\2\2\u00c7\u00c8\t\3\2\2\u00c8\u00ca\5"+
+		"\36\20\2\u00c9\u00c6\3\2\2\2\u00c9\u00c7\3\2\2\2\u00ca\33\3\2\2\2\u00cb"+
+		"\u00cd\5\36\20\2\u00cc\u00cb\3\2\2\2\u00cc\u00cd\3\2\2\2\u00cd\u00ce\3"+
+		"\2\2\2\u00ce\u00cf\5\"\22\2\u00cf\u00d0\5 \21\2\u00d0\u00d6\3\2\2\2\u00d1"+
+		"\u00d2\7\6\2\2\u00d2\u00d3\5\6\4\2\u00d3\u00d4\7\b\2\2\u00d4\u00d6\3\2"+
+		"\2\2\u00d5\u00cc\3\2\2\2\u00d5\u00d1\3\2\2\2\u00d6\35\3\2\2\2\u00d7\u00d8"+
+		"\t\4\2\2\u00d8\37\3\2\2\2\u00d9\u00da\t\5\2\2\u00da!\3\2\2\2\u00db\u00dc"+
+		"\t\6\2\2\u00dc#\3\2\2\2*\'+.\62\669<@CGKNQUX[_cfjmptxz\u0081\u0089\u008f"+
+		"\u0094\u009c\u00a3\u00a6\u00ad\u00b0\u00b4\u00bb\u00c3\u00c9\u00cc\u00d5";
 	public static final ATN _ATN =
 		new ATNDeserializer().deserialize(_serializedATN.toCharArray());
 	static {
@@ -48,6 +48,13 @@ public interface GqlVisitor<T> extends ParseTreeVisitor<T> {
 	 */
 	T visitSkip(@NotNull GqlParser.SkipContext ctx);
 
+	/**
+	 * Visit a parse tree produced by {@link GqlParser#aggregation}.
+	 * @param ctx the parse tree
+	 * @return the visitor result
+	 */
+	T visitAggregation(@NotNull GqlParser.AggregationContext ctx);
+
 	/**
 	 * Visit a parse tree produced by {@link GqlParser#parse}.
 	 * @param ctx the parse tree
@@ -83,6 +90,13 @@ public interface GqlVisitor<T> extends ParseTreeVisitor<T> {
 	 */
 	T visitAnd(@NotNull GqlParser.AndContext ctx);
 
+	/**
+	 * Visit a parse tree produced by {@link GqlParser#function}.
+	 * @param ctx the parse tree
+	 * @return the visitor result
+	 */
+	T visitFunction(@NotNull GqlParser.FunctionContext ctx);
+
 	/**
 	 * Visit a parse tree produced by {@link GqlParser#limit}.
 	 * @param ctx the parse tree
@@ -90,6 +104,13 @@ public interface GqlVisitor<T> extends ParseTreeVisitor<T> {
 	 */
 	T visitLimit(@NotNull GqlParser.LimitContext ctx);
 
+	/**
+	 * Visit a parse tree produced by {@link GqlParser#id}.
+	 * @param ctx the parse tree
+	 * @return the visitor result
+	 */
+	T visitId(@NotNull GqlParser.IdContext ctx);
+
 	/**
 	 * Visit a parse tree produced by {@link GqlParser#value}.
 	 * @param ctx the parse tree
@@ -103,4 +124,11 @@ public interface GqlVisitor<T> extends ParseTreeVisitor<T> {
 	 * @return the visitor result
 	 */
 	T visitReversed(@NotNull GqlParser.ReversedContext ctx);
+
+	/**
+	 * Visit a parse tree produced by {@link GqlParser#group}.
+	 * @param ctx the parse tree
+	 * @return the visitor result
+	 */
+	T visitGroup(@NotNull GqlParser.GroupContext ctx);
 }
\ No newline at end of file
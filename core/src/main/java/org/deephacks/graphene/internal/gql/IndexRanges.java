@@ -0,0 +1,123 @@
+package org.deephacks.graphene.internal.gql;
+
+import org.deephacks.graphene.RowKeyRange;
+import org.deephacks.graphene.RowKeyRange.CompareOp;
+import org.deephacks.graphene.Schema;
+import org.deephacks.graphene.Schema.IndexSchema;
+import org.deephacks.graphene.Schema.IndexSchema.IndexPart;
+import org.deephacks.graphene.internal.gql.Predicates.AbstractPredicate;
+import org.deephacks.graphene.internal.gql.Predicates.StartsWith;
+import org.deephacks.graphene.internal.serialization.OrderedBytes;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * Translate filters on indexed fields into the range of index keys that need to be scanned.
+ *
+ * Like key ranges, only filters that are part of a top level conjunction are considered.
+ * A single index is used, preferably one that is compared with ==, otherwise the first
+ * indexed field that is compared with >, >=, <, <= or startsWith. The resulting range
+ * may contain instances that does not match, so filters must still be evaluated.
+ */
+class IndexRanges {
+
+  static <T> Optional<RowKeyRange> getIndexRange(Schema<?> schema, Optional<Predicate<T>> predicate) {
+    Map<IndexPart, List<AbstractPredicate<T>>> indexPredicates = getIndexPredicates(schema, predicate);
+    Optional<IndexPart> selected = selectIndex(indexPredicates);
+    if (!selected.isPresent()) {
+      return Optional.empty();
+    }
+    IndexPart part = selected.get();
+    RowKeyRange range = RowKeyRange.getPrefixRange(part.getPrefix());
+    for (AbstractPredicate<T> p : indexPredicates.get(part)) {
+      range = range.intersect(getIndexRange(part, p));
+    }
+    return Optional.of(range);
+  }
+
+  /**
+   * @return the index that is scanned for instances that match the predicate, if any
+   */
+  static <T> Optional<IndexPart> getIndexPart(Schema<?> schema, Optional<Predicate<T>> predicate) {
+    return selectIndex(getIndexPredicates(schema, predicate));
+  }
+
+  private static <T> Optional<IndexPart> selectIndex(Map<IndexPart, List<AbstractPredicate<T>>> indexPredicates) {
+    for (Entry<IndexPart, List<AbstractPredicate<T>>> entry : indexPredicates.entrySet()) {
+      if (entry.getValue().stream().anyMatch(p -> p.getCompareOp().orElse(null) == CompareOp.EQUAL)) {
+        return Optional.of(entry.getKey());
+      }
+    }
+    return indexPredicates.keySet().stream().findFirst();
+  }
+
+  private static <T> Map<IndexPart, List<AbstractPredicate<T>>> getIndexPredicates(Schema<?> schema, Optional<Predicate<T>> predicate) {
+    IndexSchema indexSchema = schema.getIndexSchema();
+    Map<IndexPart, List<AbstractPredicate<T>>> indexPredicates = new LinkedHashMap<>();
+    if (!predicate.isPresent() || indexSchema.isEmpty()) {
+      return indexPredicates;
+    }
+    for (Predicate<T> p : KeyRanges.getConjunction(predicate.get())) {
+      if (!(p instanceof AbstractPredicate)) {
+        continue;
+      }
+      AbstractPredicate<T> abstractPredicate = (AbstractPredicate<T>) p;
+      Optional<String> id = abstractPredicate.getValueAccessor().getId();
+      if (!id.isPresent()) {
+        continue;
+      }
+      Optional<IndexPart> part = indexSchema.getIndexPart(id.get());
+      if (part.isPresent() && isIndexed(part.get(), abstractPredicate)) {
+        indexPredicates.computeIfAbsent(part.get(), k -> new ArrayList<>()).add(abstractPredicate);
+      }
+    }
+    return indexPredicates;
+  }
+
+  private static <T> boolean isIndexed(IndexPart part, AbstractPredicate<T> p) {
+    Optional<Object> value = p.getGrammarValue().getValue();
+    if (!value.isPresent()) {
+      return false;
+    }
+    if (p instanceof StartsWith) {
+      return String.class.equals(part.getType()) && value.get() instanceof String;
+    }
+    if (!p.getCompareOp().isPresent() || !part.isIndexed(value.get())) {
+      return false;
+    }
+    return p.getCompareOp().get() == CompareOp.EQUAL || OrderedBytes.isOrderPreserving(part.getType());
+  }
+
+  private static <T> RowKeyRange getIndexRange(IndexPart part, AbstractPredicate<T> p) {
+    Object value = p.getGrammarValue().getValue().get();
+    if (p instanceof StartsWith) {
+      return RowKeyRange.getPrefixRange(part.getStringPrefix(value.toString()));
+    }
+    byte[] prefix = part.getPrefix();
+    byte[] key = part.getPrefix(value);
+    switch (p.getCompareOp().get()) {
+      case EQUAL:
+        return RowKeyRange.getPrefixRange(key);
+      case GREATER:
+        byte[] next = RowKeyRange.nextKey(key);
+        if (next == null) {
+          return RowKeyRange.EMPTY_RANGE;
+        }
+        return RowKeyRange.getKeyRange(next, true, KeyRanges.upperBound(prefix), false);
+      case GREATER_OR_EQUAL:
+        return RowKeyRange.getKeyRange(key, true, KeyRanges.upperBound(prefix), false);
+      case LESS:
+        return RowKeyRange.getKeyRange(prefix, true, key, false);
+      case LESS_OR_EQUAL:
+        return RowKeyRange.getKeyRange(prefix, true, KeyRanges.upperBound(key), false);
+      default:
+        return RowKeyRange.EVERYTHING_RANGE;
+    }
+  }
+}
@@ -0,0 +1,165 @@
+package org.deephacks.graphene.internal.gql;
+
+import org.deephacks.graphene.Key;
+import org.deephacks.graphene.RowKeyRange;
+import org.deephacks.graphene.RowKeyRange.CompareOp;
+import org.deephacks.graphene.Schema;
+import org.deephacks.graphene.Schema.KeySchema.KeyPart;
+import org.deephacks.graphene.internal.gql.Predicates.AbstractPredicate;
+import org.deephacks.graphene.internal.gql.Predicates.And;
+import org.deephacks.graphene.internal.gql.Predicates.StartsWith;
+import org.deephacks.graphene.internal.serialization.KeySerialization;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * Translate filters on key fields into the range of keys that need to be scanned.
+ *
+ * Only filters that are part of a top level conjunction are considered. Key parts
+ * are narrowed in key order, equality on leading parts followed by at most one
+ * part compared with ==, >, >=, <, <= or startsWith. The resulting range may
+ * contain instances that does not match, so filters must still be evaluated.
+ */
+class KeyRanges {
+
+  static <T> RowKeyRange getKeyRange(Schema<?> schema, Optional<Predicate<T>> predicate) {
+    RowKeyRange everything = schema.getKeyRange();
+    if (!predicate.isPresent()) {
+      return everything;
+    }
+    Map<String, List<AbstractPredicate<T>>> keyPredicates = new HashMap<>();
+    for (Predicate<T> p : getConjunction(predicate.get())) {
+      if (!(p instanceof AbstractPredicate)) {
+        continue;
+      }
+      AbstractPredicate<T> abstractPredicate = (AbstractPredicate<T>) p;
+      Optional<KeyPart> keyPart = getKeyPart(schema, abstractPredicate.getValueAccessor());
+      if (keyPart.isPresent()) {
+        keyPredicates.computeIfAbsent(keyPart.get().getName(), k -> new ArrayList<>()).add(abstractPredicate);
+      }
+    }
+    List<Object> equalParts = new ArrayList<>();
+    try {
+      for (KeyPart part : schema.getKeySchema().getKeyParts()) {
+        List<AbstractPredicate<T>> predicates = keyPredicates.getOrDefault(part.getName(), Collections.emptyList());
+        Object equalTo = null;
+        for (AbstractPredicate<T> p : predicates) {
+          Optional<Object> value = p.getGrammarValue().getValue();
+          if (p.getCompareOp().orElse(null) != CompareOp.EQUAL || !value.isPresent()) {
+            continue;
+          }
+          if (equalTo == null) {
+            equalTo = value.get();
+          } else if (!equalTo.equals(value.get())) {
+            return RowKeyRange.EMPTY_RANGE;
+          }
+        }
+        if (equalTo != null) {
+          equalParts.add(equalTo);
+          continue;
+        }
+        RowKeyRange range = RowKeyRange.getPrefixRange(schema.getKeyPrefix(equalParts));
+        if (KeySerialization.isOrderPreserving(part.getType())) {
+          for (AbstractPredicate<T> p : predicates) {
+            range = range.intersect(getKeyRange(schema, equalParts, p));
+          }
+        }
+        return range.intersect(everything);
+      }
+      return RowKeyRange.getPrefixRange(schema.getKeyPrefix(equalParts)).intersect(everything);
+    } catch (IllegalArgumentException e) {
+      // values that cannot be serialized into a key, like strings that are
+      // bigger than the key size, fall back on evaluating all instances
+      return everything;
+    }
+  }
+
+  private static <T> RowKeyRange getKeyRange(Schema<?> schema, List<Object> equalParts, AbstractPredicate<T> p) {
+    Optional<Object> value = p.getGrammarValue().getValue();
+    if (!value.isPresent()) {
+      return RowKeyRange.EVERYTHING_RANGE;
+    }
+    if (p instanceof StartsWith) {
+      return RowKeyRange.getPrefixRange(schema.getKeyPrefix(equalParts, Optional.of(value.get().toString())));
+    }
+    if (!p.getCompareOp().isPresent()) {
+      return RowKeyRange.EVERYTHING_RANGE;
+    }
+    List<Object> values = new ArrayList<>(equalParts);
+    values.add(value.get());
+    byte[] prefix = schema.getKeyPrefix(equalParts);
+    byte[] key = schema.getKeyPrefix(values);
+    switch (p.getCompareOp().get()) {
+      case EQUAL:
+        return RowKeyRange.getPrefixRange(key);
+      case GREATER:
+        byte[] next = RowKeyRange.nextKey(key);
+        if (next == null) {
+          return RowKeyRange.EMPTY_RANGE;
+        }
+        return RowKeyRange.getKeyRange(next, true, upperBound(prefix), false);
+      case GREATER_OR_EQUAL:
+        return RowKeyRange.getKeyRange(key, true, upperBound(prefix), false);
+      case LESS:
+        return RowKeyRange.getKeyRange(prefix, true, key, false);
+      case LESS_OR_EQUAL:
+        return RowKeyRange.getKeyRange(prefix, true, upperBound(key), false);
+      default:
+        return RowKeyRange.EVERYTHING_RANGE;
+    }
+  }
+
+  static byte[] upperBound(byte[] prefix) {
+    byte[] next = RowKeyRange.nextKey(prefix);
+    return next == null ? RowKeyRange.UNBOUND : next;
+  }
+
+  static <T> List<Predicate<T>> getConjunction(Predicate<T> predicate) {
+    if (!(predicate instanceof And)) {
+      return Collections.singletonList(predicate);
+    }
+    List<Predicate<T>> result = new ArrayList<>();
+    for (Predicate<T> p : ((And<T>) predicate).getPredicates()) {
+      result.addAll(getConjunction(p));
+    }
+    return result;
+  }
+
+  /**
+   * Key parts are either referenced by the name of a simple key, like 'id',
+   * or through the key class of a composite key, like 'key.partition'.
+   */
+  static Optional<KeyPart> getKeyPart(Schema<?> schema, ValueAccessor valueAccessor) {
+    if (!valueAccessor.getId().isPresent()) {
+      return Optional.empty();
+    }
+    return getKeyPart(schema, valueAccessor.getId().get());
+  }
+
+  static Optional<KeyPart> getKeyPart(Schema<?> schema, String id) {
+    String[] ids = id.split("\\.");
+    try {
+      Method method = schema.getInterfaceClass().getMethod(getMethodName(ids[0]));
+      boolean isKeyClass = method.getReturnType().isAnnotationPresent(Key.class);
+      if (ids.length == 1 && !isKeyClass && method.isAnnotationPresent(Key.class)) {
+        return Optional.ofNullable(schema.getKeySchema().getKeyPart(ids[0]));
+      } else if (ids.length == 2 && isKeyClass) {
+        return Optional.ofNullable(schema.getKeySchema().getKeyPart(ids[1]));
+      }
+    } catch (NoSuchMethodException e) {
+      // not a key
+    }
+    return Optional.empty();
+  }
+
+  private static String getMethodName(String id) {
+    return "get" + Character.toUpperCase(id.charAt(0)) + id.substring(1, id.length());
+  }
+}
@@ -0,0 +1,74 @@
+package org.deephacks.graphene.internal.gql;
+
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of parsed queries keyed by query text and target class.
+ *
+ * Lookups are lock free reads of a concurrent map. When the cache is full, queries
+ * are evicted in the order they were added, which is good enough for applications
+ * that issue the same few query shapes over and over again.
+ */
+class PlanCache<V> {
+  private final int maxSize;
+  private final ConcurrentHashMap<Key, V> plans = new ConcurrentHashMap<>();
+  /** keys in the order they were added */
+  private final Queue<Key> order = new ConcurrentLinkedQueue<>();
+
+  PlanCache(int maxSize) {
+    this.maxSize = maxSize;
+  }
+
+  V get(String query, Class<?> type, Function<Key, V> parser) {
+    Key key = new Key(query, type);
+    V plan = plans.get(key);
+    if (plan != null) {
+      return plan;
+    }
+    plan = parser.apply(key);
+    V existing = plans.putIfAbsent(key, plan);
+    if (existing != null) {
+      return existing;
+    }
+    order.add(key);
+    while (plans.size() > maxSize) {
+      Key eldest = order.poll();
+      if (eldest == null) {
+        break;
+      }
+      plans.remove(eldest);
+    }
+    return plan;
+  }
+
+  int size() {
+    return plans.size();
+  }
+
+  static class Key {
+    final String query;
+    final Class<?> type;
+
+    private Key(String query, Class<?> type) {
+      this.query = query;
+      this.type = type;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      Key key = (Key) o;
+      return query.equals(key.query) && type.equals(key.type);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(query, type);
+    }
+  }
+}
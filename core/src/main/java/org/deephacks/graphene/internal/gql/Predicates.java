@@ -1,6 +1,9 @@
 package org.deephacks.graphene.internal.gql;
 
+import org.deephacks.graphene.RowKeyRange.CompareOp;
+
 import java.io.Serializable;
+import java.util.List;
 import java.util.Optional;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
@@ -9,10 +12,98 @@ public class Predicates {
   public static abstract class AbstractPredicate<T> implements Predicate<T>, Serializable {
     protected final ValueAccessor valueAccessor;
     protected final GrammarValue grammarValue;
+    /** true if values are primitives that are compared without boxing */
+    protected final boolean primitive;
+    private final long longValue;
+    private final double doubleValue;
 
     public AbstractPredicate(ValueAccessor valueAccessor, GrammarValue grammarValue) {
       this.valueAccessor = valueAccessor;
       this.grammarValue = grammarValue;
+      Object value = grammarValue.getValue().orElse(null);
+      this.primitive = value != null && (valueAccessor.isIntegral() || valueAccessor.isFloatingPoint());
+      if (value instanceof Character) {
+        this.longValue = (Character) value;
+        this.doubleValue = (Character) value;
+      } else if (value instanceof Number) {
+        this.longValue = ((Number) value).longValue();
+        this.doubleValue = ((Number) value).doubleValue();
+      } else {
+        this.longValue = 0;
+        this.doubleValue = 0;
+      }
+    }
+
+    /**
+     * Compare the value of the target with the value of the predicate.
+     */
+    protected int compare(T target) {
+      if (primitive && valueAccessor.isIntegral()) {
+        return Long.compare(valueAccessor.getLong(target), longValue);
+      } else if (primitive) {
+        return Double.compare(valueAccessor.getDouble(target), doubleValue);
+      }
+      return Comparators.compare(valueAccessor.getValue(target), grammarValue.getValue().get());
+    }
+
+    public ValueAccessor getValueAccessor() {
+      return valueAccessor;
+    }
+
+    public GrammarValue getGrammarValue() {
+      return grammarValue;
+    }
+
+    /**
+     * @return the comparison this predicate perform, absent if it cannot be
+     * expressed as a comparison against a single value.
+     */
+    public Optional<CompareOp> getCompareOp() {
+      return Optional.empty();
+    }
+  }
+
+  public static class And<T> implements Predicate<T>, Serializable {
+    private final List<Predicate<T>> predicates;
+
+    public And(List<Predicate<T>> predicates) {
+      this.predicates = predicates;
+    }
+
+    public List<Predicate<T>> getPredicates() {
+      return predicates;
+    }
+
+    @Override
+    public boolean test(T target) {
+      for (Predicate<T> predicate : predicates) {
+        if (!predicate.test(target)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  public static class Or<T> implements Predicate<T>, Serializable {
+    private final List<Predicate<T>> predicates;
+
+    public Or(List<Predicate<T>> predicates) {
+      this.predicates = predicates;
+    }
+
+    public List<Predicate<T>> getPredicates() {
+      return predicates;
+    }
+
+    @Override
+    public boolean test(T target) {
+      for (Predicate<T> predicate : predicates) {
+        if (predicate.test(target)) {
+          return true;
+        }
+      }
+      return false;
     }
   }
 
@@ -22,8 +113,16 @@ public class Predicates {
       super(valueAccessor, grammarValue);
     }
 
+    @Override
+    public Optional<CompareOp> getCompareOp() {
+      return Optional.of(CompareOp.EQUAL);
+    }
+
     @Override
     public boolean test(T target) {
+      if (primitive) {
+        return compare(target) == 0;
+      }
       Object targetValue = valueAccessor.getValue(target);
       Optional<Object> value = grammarValue.getValue();
       if (!value.isPresent() && targetValue == null) {
@@ -45,6 +144,9 @@ public class Predicates {
 
     @Override
     public boolean test(T target) {
+      if (primitive) {
+        return compare(target) != 0;
+      }
       Object targetValue = valueAccessor.getValue(target);
       Optional<Object> value = grammarValue.getValue();
       if (!value.isPresent() && targetValue == null) {
@@ -64,11 +166,14 @@ public class Predicates {
       super(valueAccessor, grammarValue);
     }
 
+    @Override
+    public Optional<CompareOp> getCompareOp() {
+      return Optional.of(CompareOp.GREATER);
+    }
+
     @Override
     public boolean test(T target) {
-      Object targetValue = valueAccessor.getValue(target);
-      Optional<Object> value = grammarValue.getValue();
-      return Comparators.greaterThan(targetValue, value.get());
+      return compare(target) > 0;
     }
   }
 
@@ -78,11 +183,14 @@ public class Predicates {
       super(valueAccessor, grammarValue);
     }
 
+    @Override
+    public Optional<CompareOp> getCompareOp() {
+      return Optional.of(CompareOp.GREATER_OR_EQUAL);
+    }
+
     @Override
     public boolean test(T target) {
-      Object targetValue = valueAccessor.getValue(target);
-      Optional<Object> value = grammarValue.getValue();
-      return Comparators.greaterEqual(targetValue, value.get());
+      return compare(target) >= 0;
     }
   }
 
@@ -91,11 +199,14 @@ public class Predicates {
       super(valueAccessor, grammarValue);
     }
 
+    @Override
+    public Optional<CompareOp> getCompareOp() {
+      return Optional.of(CompareOp.LESS);
+    }
+
     @Override
     public boolean test(T target) {
-      Object targetValue = valueAccessor.getValue(target);
-      Optional<Object> value = grammarValue.getValue();
-      return Comparators.lessThan(targetValue, value.get());
+      return compare(target) < 0;
     }
   }
   public static class LtEq<T> extends AbstractPredicate<T> {
@@ -104,11 +215,14 @@ public class Predicates {
       super(valueAccessor, grammarValue);
     }
 
+    @Override
+    public Optional<CompareOp> getCompareOp() {
+      return Optional.of(CompareOp.LESS_OR_EQUAL);
+    }
+
     @Override
     public boolean test(T target) {
-      Object targetValue = valueAccessor.getValue(target);
-      Optional<Object> value = grammarValue.getValue();
-      return Comparators.lessEqual(targetValue, value.get());
+      return compare(target) <= 0;
     }
   }
   public static class Contains<T> extends AbstractPredicate<T> {
@@ -0,0 +1,85 @@
+package org.deephacks.graphene.internal.gql;
+
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.deephacks.graphene.internal.gql.Query.QueryBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A query that is parsed once and executed many times, with values of bind
+ * parameters, written as ?, given in the order they appear in the query.
+ *
+ * <pre>
+ * PreparedQuery&lt;User&gt; query = Query.prepare("filter name == ? limit ?", User.class);
+ * query.bind("bob", 10);
+ * </pre>
+ *
+ * The parse tree and the value accessors of the query are kept, so binding only
+ * convert the values of parameters and create the predicates of the query. Queries
+ * without parameters are only created once. Prepared queries are thread safe.
+ */
+public class PreparedQuery<T> {
+  private final String query;
+  private final Class<T> type;
+  private final ParseTree tree;
+  /** position of each parameter keyed by the index of its token */
+  private final Map<Integer, Integer> positions = new HashMap<>();
+  private final Map<String, ValueAccessor> accessors = new ConcurrentHashMap<>();
+  /** the query if there are no parameters */
+  private volatile Query<T> unbound;
+
+  PreparedQuery(String query, Class<T> type) {
+    this.query = query;
+    this.type = type;
+    CommonTokenStream tokens = new CommonTokenStream(new GqlLexer(new ANTLRInputStream(query)));
+    this.tree = new GqlParser(tokens).parse();
+    for (Token token : tokens.getTokens()) {
+      if (token.getType() == GqlLexer.PARAM) {
+        positions.put(token.getTokenIndex(), positions.size());
+      }
+    }
+  }
+
+  /**
+   * @return number of bind parameters in the query
+   */
+  public int getParameterCount() {
+    return positions.size();
+  }
+
+  /**
+   * Create a query where parameters have the given values.
+   *
+   * @param params values of parameters in the order they appear in the query
+   * @return the query
+   */
+  public Query<T> bind(Object... params) throws IllegalQueryException {
+    if (params.length != positions.size()) {
+      throw new IllegalQueryException("Query [" + query + "] have " + positions.size() + " parameters, got " + params.length + ".");
+    }
+    if (unbound != null) {
+      return unbound;
+    }
+    QueryBuilder<T> builder = QueryBuilder.builder(type, this::getValueAccessor);
+    Query<T> result = new Gql<>(builder, positions, params).visit(tree).build();
+    if (positions.isEmpty()) {
+      unbound = result;
+    }
+    return result;
+  }
+
+  private ValueAccessor getValueAccessor(Optional<String> id, Class<?> cls) {
+    String key = cls.getName() + "#" + id.orElse("");
+    return accessors.computeIfAbsent(key, k -> new ValueAccessor(id, cls));
+  }
+
+  public String getQuery() {
+    return query;
+  }
+}
@@ -1,17 +1,23 @@
 package org.deephacks.graphene.internal.gql;
 
-import org.antlr.v4.runtime.ANTLRInputStream;
-import org.antlr.v4.runtime.CommonTokenStream;
-import org.antlr.v4.runtime.tree.ParseTree;
+import org.deephacks.graphene.RowKeyRange;
+import org.deephacks.graphene.Schema;
+import org.deephacks.graphene.Schema.IndexSchema.IndexPart;
+import org.deephacks.graphene.Schema.KeySchema.KeyPart;
+import org.deephacks.graphene.internal.gql.Aggregates.Function;
+import org.deephacks.graphene.internal.gql.Predicates.And;
+import org.deephacks.graphene.internal.gql.Predicates.Or;
+import org.deephacks.graphene.internal.serialization.KeySerialization;
+import org.deephacks.graphene.internal.serialization.OrderedBytes;
 
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Optional;
+import java.util.function.BiFunction;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -20,16 +26,25 @@ import java.util.stream.Stream;
  * Ordering requires values to be Comparable.
  */
 public class Query<T> {
+  private static final PlanCache<PreparedQuery<?>> PLAN_CACHE = new PlanCache<>(1024);
   private final Class<T> type;
   private final Optional<Predicate<T>> predicate;
   private final Optional<Long> skip;
   private final Optional<Long> limit;
   private final Optional<Comparator<Object>> comparator;
+  private final List<String> orderBy;
+  private final boolean reversed;
+  private final List<ValueAccessor> groupBy;
+  private final List<Function> functions;
 
 
   private Query(QueryBuilder<T> builder) {
     this.type = builder.type;
+    this.groupBy = builder.groupBy;
+    this.functions = builder.functions;
     this.comparator = builder.comparator;
+    this.orderBy = builder.orderBy;
+    this.reversed = builder.reversed;
     if (builder.predicates.size() == 1) {
       this.predicate = Optional.of(builder.predicates.pollLast());
     } else {
@@ -40,28 +55,24 @@ public class Query<T> {
   }
 
   public static <T> Query<T> parse(String query, Class<T> cls) throws IllegalQueryException {
-    ParseTree tree = getParseTree(query);
-    QueryBuilder<T> builder = new Gql<>(QueryBuilder.builder(cls)).visit(tree);
-    return builder.build();
+    return prepare(query, cls).bind();
   }
 
   public static Query<Object> parse(String query) throws IllegalQueryException {
-    ParseTree tree = getParseTree(query);
-    QueryBuilder<Object> builder = new Gql<>(QueryBuilder.builder(Object.class)).visit(tree);
-    return builder.build();
+    return prepare(query, Object.class).bind();
   }
 
-  private static ParseTree getParseTree(String query) {
-    ByteArrayInputStream is = new ByteArrayInputStream(query.getBytes());
-    try {
-      ANTLRInputStream input = new ANTLRInputStream(is);
-      GqlLexer lexer = new GqlLexer(input);
-      CommonTokenStream tokens = new CommonTokenStream(lexer);
-      GqlParser parser = new GqlParser(tokens);
-      return parser.parse();
-    } catch (IOException e) {
-      throw new RuntimeException(e);
-    }
+  /**
+   * Prepared queries are cached by query text and class, so queries that are parsed
+   * again are not lexed and parsed again.
+   *
+   * @param query query with bind parameters written as ?
+   * @param cls class of instances queried
+   * @return a prepared query
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> PreparedQuery<T> prepare(String query, Class<T> cls) throws IllegalQueryException {
+    return (PreparedQuery<T>) PLAN_CACHE.get(query, cls, key -> new PreparedQuery<>(key.query, key.type));
   }
 
   public Class<?> getType() {
@@ -80,16 +91,157 @@ public class Query<T> {
     return predicate;
   }
 
+  /**
+   * @return true if instances are returned in the order of some of their fields
+   */
+  public boolean isOrdered() {
+    return comparator.isPresent();
+  }
+
+  /**
+   * @return true if the query compute aggregate functions instead of returning instances
+   */
+  public boolean isAggregate() {
+    return !functions.isEmpty();
+  }
+
+  /**
+   * @return true if the query only count instances, in a single group, which can be
+   * done without creating instances
+   */
+  public boolean isCount() {
+    return isAggregate() && groupBy.isEmpty() && functions.stream().allMatch(Function::isCount);
+  }
+
+  /**
+   * Narrow the range of keys that need to be scanned using filters on key fields.
+   * The range may still contain instances that does not match the query.
+   *
+   * @param schema schema of the instances queried
+   * @return range of keys that may match the query
+   */
+  public RowKeyRange getKeyRange(Schema<?> schema) {
+    return KeyRanges.getKeyRange(schema, predicate);
+  }
+
+  /**
+   * Narrow the range of index keys that need to be scanned using filters on indexed fields.
+   * The range may still contain instances that does not match the query.
+   *
+   * @param schema schema of the instances queried
+   * @return range of index keys that may match the query, absent if no index can be used
+   */
+  public Optional<RowKeyRange> getIndexRange(Schema<?> schema) {
+    return IndexRanges.getIndexRange(schema, predicate);
+  }
+
+  /**
+   * @param schema schema of the instances queried
+   * @return the index scanned for instances that may match the query, absent if no index can be used
+   */
+  public Optional<IndexPart> getIndexPart(Schema<?> schema) {
+    return IndexRanges.getIndexPart(schema, predicate);
+  }
+
+  /**
+   * Instances that are scanned in key order are already ordered if the query is
+   * ordered by leading key fields whose serialized keys sort like their values.
+   *
+   * @param schema schema of the instances queried
+   * @return true if instances in key order are in the order of the query
+   */
+  public boolean isKeyOrdered(Schema<?> schema) {
+    if (!comparator.isPresent() || reversed) {
+      return false;
+    }
+    return isOrderedByKey(schema);
+  }
+
+  /**
+   * Instances that are scanned in reverse key order are already ordered if the query
+   * is reversed by every key field. Reversing on leading key fields only is not enough,
+   * since instances that are equal on those fields would come in reverse key order
+   * instead of the key order that a stable sort keep them in.
+   *
+   * @param schema schema of the instances queried
+   * @return true if instances in reverse key order are in the order of the query
+   */
+  public boolean isKeyReversed(Schema<?> schema) {
+    if (!comparator.isPresent() || !reversed) {
+      return false;
+    }
+    return orderBy.size() == schema.getKeySchema().getKeyParts().size() && isOrderedByKey(schema);
+  }
+
+  private boolean isOrderedByKey(Schema<?> schema) {
+    if (orderBy.isEmpty()) {
+      return false;
+    }
+    List<KeyPart> keyParts = schema.getKeySchema().getKeyParts();
+    if (orderBy.size() > keyParts.size()) {
+      return false;
+    }
+    for (int i = 0; i < orderBy.size(); i++) {
+      Optional<KeyPart> part = KeyRanges.getKeyPart(schema, orderBy.get(i));
+      if (!part.isPresent() || part.get() != keyParts.get(i) || !KeySerialization.isOrderPreserving(part.get().getType())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Entries of an index are ordered by value and then by key, so instances scanned
+   * through an index are already ordered if the query is ordered by the indexed field
+   * alone, which is the same order a stable sort of instances in key order give.
+   *
+   * @param part index that instances are scanned through
+   * @return true if instances in index order are in the order of the query
+   */
+  public boolean isIndexOrdered(IndexPart part) {
+    if (!comparator.isPresent() || orderBy.size() != 1 || reversed) {
+      return false;
+    }
+    return orderBy.get(0).equals(part.getName()) && OrderedBytes.isOrderPreserving(part.getType());
+  }
+
   public static Object execute(String query, Stream<?> stream) throws IllegalQueryException {
     return null;
   }
 
   public List<T> collect(Stream<T> stream) throws IllegalQueryException {
-    if (getPredicate().isPresent()) {
+    return collect(stream, true);
+  }
+
+  /**
+   * @param stream instances to collect
+   * @param filter false if the stream is already filtered by the predicate of the query
+   * @return instances matching the query
+   */
+  public List<T> collect(Stream<T> stream, boolean filter) throws IllegalQueryException {
+    return collect(stream, filter, false);
+  }
+
+  /**
+   * Ordered queries with a limit keep only the first skip + limit instances in a
+   * bounded heap rather than sorting every instance.
+   *
+   * @param stream instances to collect
+   * @param filter false if the stream is already filtered by the predicate of the query
+   * @param ordered true if the stream is already in the order of the query
+   * @return instances matching the query
+   */
+  public List<T> collect(Stream<T> stream, boolean filter, boolean ordered) throws IllegalQueryException {
+    if (filter && getPredicate().isPresent()) {
       stream = stream.filter(getPredicate().get());
     }
-    if (comparator.isPresent()) {
-      stream = stream.sorted(comparator.get());
+    if (comparator.isPresent() && !ordered) {
+      long k = getSkip().orElse(0L) + getLimit().orElse(Long.MAX_VALUE);
+      if (getLimit().isPresent() && k >= 0 && k < Integer.MAX_VALUE) {
+        stream = stream.collect(TopK.collector(comparator.get(), (int) k)).stream();
+      } else {
+        stream = stream.sorted(comparator.get());
+      }
     }
     if (getSkip().isPresent()) {
       stream = stream.skip(getSkip().get());
@@ -100,6 +252,47 @@ public class Query<T> {
     return stream.collect(Collectors.toList());
   }
 
+  /**
+   * Compute the aggregate functions of the query over each group of instances. Instances
+   * are not buffered and parallel streams are aggregated in parallel. Skip and limit
+   * apply to groups.
+   *
+   * @param stream instances to aggregate
+   * @param filter false if the stream is already filtered by the predicate of the query
+   * @return the aggregate of each group
+   */
+  public List<Aggregate> aggregate(Stream<T> stream, boolean filter) throws IllegalQueryException {
+    if (!isAggregate()) {
+      throw new IllegalQueryException("Query does not have aggregate functions.");
+    }
+    if (filter && getPredicate().isPresent()) {
+      stream = stream.filter(getPredicate().get());
+    }
+    List<Aggregate> result = stream.collect(Aggregates.collector(groupBy, functions));
+    Stream<Aggregate> groups = result.stream();
+    if (getSkip().isPresent()) {
+      groups = groups.skip(getSkip().get());
+    }
+    if (getLimit().isPresent()) {
+      groups = groups.limit(getLimit().get());
+    }
+    return groups.collect(Collectors.toList());
+  }
+
+  /**
+   * @param count number of instances that match the query
+   * @return the result of a query that only count instances
+   */
+  public List<Aggregate> count(long count) {
+    if (!isCount()) {
+      throw new IllegalQueryException("Query does not only count instances.");
+    }
+    List<String> names = functions.stream().map(Function::getName).collect(Collectors.toList());
+    List<Object> values = functions.stream().map(f -> (Object) count).collect(Collectors.toList());
+    Aggregate aggregate = new Aggregate(Collections.emptyList(), names, values);
+    return getSkip().orElse(0L) > 0 || getLimit().orElse(1L) < 1 ? Collections.emptyList() : Collections.singletonList(aggregate);
+  }
+
   public static <T> List<T> collect(String query, Class<T> cls, Stream<T> stream) throws IllegalQueryException {
     Query<T> q = parse(query, cls);
     return q.collect(stream);
@@ -109,22 +302,42 @@ public class Query<T> {
     private Class<T> type;
     private LinkedList<Predicate<T>> predicates = new LinkedList<>();
     private Optional<Comparator<Object>> comparator = Optional.empty();
+    private List<String> orderBy = new ArrayList<>();
+    private boolean reversed = false;
     private Optional<Long> skip = Optional.empty();
     private Optional<Long> limit = Optional.empty();
+    private List<ValueAccessor> groupBy = new ArrayList<>();
+    private List<Function> functions = new ArrayList<>();
+    private final BiFunction<Optional<String>, Class<?>, ValueAccessor> accessors;
 
-    private QueryBuilder(Class<T> type) {
+    private QueryBuilder(Class<T> type, BiFunction<Optional<String>, Class<?>, ValueAccessor> accessors) {
       this.type = type;
+      this.accessors = accessors;
     }
 
     public static <T> QueryBuilder<T> builder(Class<T> cls) {
-      return new QueryBuilder<>(cls);
+      return new QueryBuilder<>(cls, ValueAccessor::new);
+    }
+
+    /**
+     * @param accessors create or reuse value accessors for an id on a class
+     */
+    public static <T> QueryBuilder<T> builder(Class<T> cls, BiFunction<Optional<String>, Class<?>, ValueAccessor> accessors) {
+      return new QueryBuilder<>(cls, accessors);
     }
 
     public static QueryBuilder<Object> builder() {
-      return new QueryBuilder<>(null);
+      return new QueryBuilder<>(null, ValueAccessor::new);
+    }
+
+    public ValueAccessor getValueAccessor(Optional<String> id) {
+      return accessors.apply(id, type);
     }
 
     public Query<T> build() {
+      if (!functions.isEmpty() && comparator.isPresent()) {
+        throw new IllegalQueryException("Aggregate functions cannot be ordered, groups are ordered by their values.");
+      }
       return new Query<>(this);
     }
 
@@ -148,23 +361,26 @@ public class Query<T> {
     }
 
     public QueryBuilder<T> or(int num) {
-      Predicate<T> predicate = predicates.pollLast();
-      for (int i = 1; i < num; i++) {
-        predicate = predicate.or(predicates.pollLast());
-      }
-      predicates.add(predicate);
+      predicates.add(new Or<>(pollLast(num)));
       return this;
     }
 
     public QueryBuilder<T> and(int num) {
-      Predicate<T> predicate = predicates.pollLast();
-      for (int i = 1; i < num; i++) {
-        predicate = predicate.and(predicates.pollLast());
-      }
-      predicates.add(predicate);
+      predicates.add(new And<>(pollLast(num)));
       return this;
     }
 
+    /**
+     * Operands are evaluated right to left.
+     */
+    private List<Predicate<T>> pollLast(int num) {
+      List<Predicate<T>> result = new ArrayList<>();
+      for (int i = 0; i < num; i++) {
+        result.add(predicates.pollLast());
+      }
+      return result;
+    }
+
     public QueryBuilder<T> negate() {
       if (predicates.size() == 1) {
         predicates.get(0).negate();
@@ -174,6 +390,7 @@ public class Query<T> {
 
     public QueryBuilder<T> setOrdered(List<String> byIds) {
       this.comparator = Optional.of(getComparator(byIds));
+      this.orderBy = byIds;
       return this;
     }
 
@@ -184,11 +401,14 @@ public class Query<T> {
 
     public QueryBuilder<T> setReversed(List<String> byIds) {
       this.comparator = Optional.of(getComparator(byIds).reversed());
+      this.orderBy = byIds;
+      this.reversed = true;
       return this;
     }
 
     public QueryBuilder<T> setReversed() {
       this.comparator = Optional.of(getComparator(new ArrayList<>()).reversed());
+      this.reversed = true;
       return this;
     }
 
@@ -199,10 +419,10 @@ public class Query<T> {
       Comparator<Object> comparator;
       if (byIds != null && byIds.size() > 0) {
         ListIterator<String> it = byIds.listIterator();
-        ValueAccessor valueAccessor = new ValueAccessor(Optional.ofNullable(it.next()), type);
+        ValueAccessor valueAccessor = getValueAccessor(Optional.ofNullable(it.next()));
         comparator = Comparators.getComparator(valueAccessor);
         while (it.hasNext()) {
-          valueAccessor = new ValueAccessor(Optional.ofNullable(it.next()), type);
+          valueAccessor = getValueAccessor(Optional.ofNullable(it.next()));
           comparator = comparator.thenComparing(Comparators.getComparator(valueAccessor));
         }
         return comparator;
@@ -210,6 +430,16 @@ public class Query<T> {
       return Comparators.comparableComparator();
     }
 
+    public QueryBuilder<T> setGroupBy(List<String> byIds) {
+      this.groupBy = byIds.stream().map(id -> getValueAccessor(Optional.of(id))).collect(Collectors.toList());
+      return this;
+    }
+
+    public QueryBuilder<T> addFunction(Function function) {
+      this.functions.add(function);
+      return this;
+    }
+
     public QueryBuilder<T> setSkip(Long skip) {
       this.skip = Optional.of(skip);
       return this;
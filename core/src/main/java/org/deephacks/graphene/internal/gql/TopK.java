@@ -0,0 +1,79 @@
+package org.deephacks.graphene.internal.gql;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Collector;
+
+/**
+ * Keep the first k instances in the order of a comparator in a bounded heap, which
+ * avoid buffering and sorting every instance when a query only return the first few.
+ *
+ * Instances that compare as equal keep their encounter order, like a stable sort.
+ * Each instance is numbered in the order it was added and when two heaps are merged,
+ * the instances of the right heap are numbered after every instance of the left heap.
+ */
+class TopK<T> {
+  private final int k;
+  private final Comparator<Ranked<T>> order;
+  /** the head is the last instance in order, which is the first to be evicted */
+  private final PriorityQueue<Ranked<T>> heap;
+  /** number of instances added, including those evicted */
+  private long count = 0;
+
+  TopK(Comparator<? super T> comparator, int k) {
+    this.k = k;
+    Comparator<Ranked<T>> byValue = (o1, o2) -> comparator.compare(o1.value, o2.value);
+    this.order = byValue.thenComparing((o1, o2) -> Long.compare(o1.seq, o2.seq));
+    this.heap = new PriorityQueue<>(Math.max(1, Math.min(k, 1024)), order.reversed());
+  }
+
+  /**
+   * @return a collector of the first k instances, in order
+   */
+  static <T> Collector<T, ?, List<T>> collector(Comparator<? super T> comparator, int k) {
+    return Collector.of(() -> new TopK<T>(comparator, k), TopK::add, TopK::merge, TopK::toList);
+  }
+
+  void add(T value) {
+    offer(new Ranked<>(value, count++));
+  }
+
+  TopK<T> merge(TopK<T> right) {
+    for (Ranked<T> ranked : right.heap) {
+      offer(new Ranked<>(ranked.value, count + ranked.seq));
+    }
+    count += right.count;
+    return this;
+  }
+
+  List<T> toList() {
+    List<Ranked<T>> sorted = new ArrayList<>(heap);
+    sorted.sort(order);
+    List<T> result = new ArrayList<>(sorted.size());
+    for (Ranked<T> ranked : sorted) {
+      result.add(ranked.value);
+    }
+    return result;
+  }
+
+  private void offer(Ranked<T> ranked) {
+    if (heap.size() < k) {
+      heap.add(ranked);
+    } else if (k > 0 && order.compare(ranked, heap.peek()) < 0) {
+      heap.poll();
+      heap.add(ranked);
+    }
+  }
+
+  private static class Ranked<T> {
+    private final T value;
+    private final long seq;
+
+    private Ranked(T value, long seq) {
+      this.value = value;
+      this.seq = seq;
+    }
+  }
+}
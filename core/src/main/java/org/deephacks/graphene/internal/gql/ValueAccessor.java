@@ -1,17 +1,41 @@
 package org.deephacks.graphene.internal.gql;
 
 import java.io.Serializable;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
 
+/**
+ * Access the value of an id, which may be nested like a.b.c, on instances of a class.
+ *
+ * Getters are compiled into functions with LambdaMetafactory when the accessor is
+ * created, which the JIT can inline like any other lambda, instead of being called
+ * through Method.invoke for every instance. Getters of classes that are not public
+ * cannot be called from a generated lambda and are called through method handles.
+ *
+ * Values of getters that return integral or floating point primitives can also be
+ * read as a long or double, without boxing them.
+ */
 public class ValueAccessor implements Serializable {
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
 
-  private Optional<Method> method;
-  private List<Method> nestedMethods = new ArrayList<>();
+  private final Optional<Method> method;
+  private final List<Method> nestedMethods = new ArrayList<>();
   private final Class<?> targetClass;
-  private Optional<String> id;
+  private final Optional<String> id;
+  private final Function<Object, Object> getter;
+  private final Optional<ToLongFunction<Object>> longGetter;
+  private final Optional<ToDoubleFunction<Object>> doubleGetter;
 
   public ValueAccessor(Optional<String> id, Class<?> targetClass) {
     this.id = id;
@@ -25,21 +49,35 @@ public class ValueAccessor implements Serializable {
     } else {
       this.targetClass = targetClass;
     }
+    this.getter = compileGetter();
+    this.longGetter = compileLongGetter();
+    this.doubleGetter = compileDoubleGetter();
   }
 
   public Object getValue(Object object) {
-    if (method.isPresent()) {
-      try {
-        Object result = method.get().invoke(object);
-        for (Method next : nestedMethods) {
-          result = next.invoke(result);
-        }
-        return result;
-      } catch (Exception e) {
-        throw new RuntimeException(e);
-      }
-    }
-    return object;
+    return getter.apply(object);
+  }
+
+  /**
+   * @return true if the value is a byte, short, char, int or long that can be read with getLong
+   */
+  public boolean isIntegral() {
+    return longGetter.isPresent();
+  }
+
+  /**
+   * @return true if the value is a float or double that can be read with getDouble
+   */
+  public boolean isFloatingPoint() {
+    return doubleGetter.isPresent();
+  }
+
+  public long getLong(Object object) {
+    return longGetter.get().applyAsLong(object);
+  }
+
+  public double getDouble(Object object) {
+    return doubleGetter.get().applyAsDouble(object);
   }
 
   private Optional<Method> getMethod(Optional<String> id, Class<?> targetClass) {
@@ -66,6 +104,130 @@ public class ValueAccessor implements Serializable {
     return Optional.empty();
   }
 
+  /**
+   * @return a function that call every getter but the last
+   */
+  private Function<Object, Object> compilePath() {
+    List<Method> methods = new ArrayList<>();
+    methods.add(method.get());
+    methods.addAll(nestedMethods.subList(0, nestedMethods.size() - 1));
+    Function<Object, Object> path = compile(methods.get(0));
+    for (int i = 1; i < methods.size(); i++) {
+      path = path.andThen(compile(methods.get(i)));
+    }
+    return path;
+  }
+
+  private Method getLastMethod() {
+    return nestedMethods.isEmpty() ? method.get() : nestedMethods.get(nestedMethods.size() - 1);
+  }
+
+  private Function<Object, Object> compileGetter() {
+    if (!method.isPresent()) {
+      return Function.identity();
+    }
+    Function<Object, Object> last = compile(getLastMethod());
+    if (nestedMethods.isEmpty()) {
+      return last;
+    }
+    return compilePath().andThen(last);
+  }
+
+  private Optional<ToLongFunction<Object>> compileLongGetter() {
+    if (!method.isPresent() || !isIntegral(targetClass)) {
+      return Optional.empty();
+    }
+    ToLongFunction<Object> last = compile(getLastMethod(), ToLongFunction.class, "applyAsLong", long.class);
+    if (nestedMethods.isEmpty()) {
+      return Optional.of(last);
+    }
+    Function<Object, Object> path = compilePath();
+    return Optional.of(object -> last.applyAsLong(path.apply(object)));
+  }
+
+  private Optional<ToDoubleFunction<Object>> compileDoubleGetter() {
+    if (!method.isPresent() || (targetClass != float.class && targetClass != double.class)) {
+      return Optional.empty();
+    }
+    ToDoubleFunction<Object> last = compile(getLastMethod(), ToDoubleFunction.class, "applyAsDouble", double.class);
+    if (nestedMethods.isEmpty()) {
+      return Optional.of(last);
+    }
+    Function<Object, Object> path = compilePath();
+    return Optional.of(object -> last.applyAsDouble(path.apply(object)));
+  }
+
+  private static boolean isIntegral(Class<?> type) {
+    return type == byte.class || type == short.class || type == char.class || type == int.class || type == long.class;
+  }
+
+  private static Function<Object, Object> compile(Method method) {
+    return compile(method, Function.class, "apply", Object.class);
+  }
+
+  /**
+   * Compile a getter into a functional interface that take an Object and return the
+   * value as the given type, which is boxed or widened from the type of the getter.
+   */
+  @SuppressWarnings("unchecked")
+  private static <F> F compile(Method method, Class<? super F> functionClass, String functionName, Class<?> valueType) {
+    try {
+      if (isPublic(method.getDeclaringClass())) {
+        MethodHandle handle = LOOKUP.unreflect(method);
+        Class<?> returnType = valueType == Object.class ? MethodType.methodType(method.getReturnType()).wrap().returnType() : valueType;
+        CallSite site = LambdaMetafactory.metafactory(LOOKUP, functionName, MethodType.methodType(functionClass),
+                MethodType.methodType(valueType, Object.class), handle, MethodType.methodType(returnType, method.getDeclaringClass()));
+        return (F) site.getTarget().invoke();
+      }
+      method.setAccessible(true);
+      MethodHandle handle = LOOKUP.unreflect(method).asType(MethodType.methodType(valueType, Object.class));
+      if (valueType == long.class) {
+        return (F) (ToLongFunction<Object>) object -> invokeLong(handle, object);
+      } else if (valueType == double.class) {
+        return (F) (ToDoubleFunction<Object>) object -> invokeDouble(handle, object);
+      }
+      return (F) (Function<Object, Object>) object -> invoke(handle, object);
+    } catch (Throwable e) {
+      throw new IllegalQueryException("Could not access [" + method + "].", e);
+    }
+  }
+
+  /**
+   * @return true if the class and the classes it is nested in are public
+   */
+  private static boolean isPublic(Class<?> cls) {
+    for (Class<?> c = cls; c != null; c = c.getEnclosingClass()) {
+      if (!Modifier.isPublic(c.getModifiers())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static Object invoke(MethodHandle handle, Object object) {
+    try {
+      return handle.invokeExact(object);
+    } catch (Throwable e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static long invokeLong(MethodHandle handle, Object object) {
+    try {
+      return (long) handle.invokeExact(object);
+    } catch (Throwable e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static double invokeDouble(MethodHandle handle, Object object) {
+    try {
+      return (double) handle.invokeExact(object);
+    } catch (Throwable e) {
+      throw new RuntimeException(e);
+    }
+  }
+
   public Class<?> getType() {
     return targetClass;
   }
@@ -14,6 +14,7 @@ abstract class GrapheneField implements Comparable<GrapheneField> {
   public static final String KEY_WRITER = "keyWriter";
   public static final String VALUE_READER = "valueReader";
   public static final String VALUE_WRITER = "valueWriter";
+  protected static final String REFERENCES = "org.deephacks.graphene.References";
   private final boolean hasDefaultValue;
 
   protected String name;
@@ -21,6 +22,10 @@ abstract class GrapheneField implements Comparable<GrapheneField> {
   protected TypeInfo typeInfo;
   protected String readBuf = VALUE_READER;
   protected String writeBuf = VALUE_WRITER;
+  /**
+   * index of value fields in the FIELDS constant of generated classes, -1 for keys.
+   */
+  protected int slot = -1;
 
   protected GrapheneField(String name, TypeInfo typeInfo, boolean hasDefaultValue) {
     this.getMethod = name;
@@ -47,18 +52,25 @@ abstract class GrapheneField implements Comparable<GrapheneField> {
     this.readBuf = field.readBuf;
     this.writeBuf = field.writeBuf;
     this.hasDefaultValue = field.hasDefaultValue;
+    this.slot = field.slot;
+  }
+
+  public void setSlot(int slot) {
+    this.slot = slot;
   }
 
   public void startRead(JavaWriter writer) throws IOException {
-    writer.beginControlFlow("if (" + readBuf + " != null && !" + readBuf + ".hasRead(\"" + getName() + "\"))");
+    // value fields are addressed by slot, keys by name
+    String field = slot >= 0 ? Integer.toString(slot) : "\"" + getName() + "\"";
+    writer.beginControlFlow("if (" + readBuf + " != null && !" + readBuf + ".hasRead(" + field + "))");
     if (!(this instanceof KeyField && ((KeyField) this).isKeyClass())) {
       if (isOptional()) {
-        writer.beginControlFlow("if (!" + readBuf + ".position(\"" + getName() + "\"))");
+        writer.beginControlFlow("if (!" + readBuf + ".position(" + field + "))");
         writer.emitStatement(getName() + " = java.util.Optional.empty()");
         writer.emitStatement("return " + getName());
         writer.endControlFlow();
       } else {
-        writer.emitStatement(readBuf + ".position(\"" + getName() + "\")");
+        writer.emitStatement(readBuf + ".position(" + field + ")");
       }
     }
   }
@@ -109,6 +121,78 @@ abstract class GrapheneField implements Comparable<GrapheneField> {
     return getMethod;
   }
 
+  public boolean isReference() {
+    return typeInfo.isReference();
+  }
+
+  /**
+   * Add the keys of instances that a reference field refer to, to a list. Keys are read
+   * as they are stored, without resolving references, if the instance was read from
+   * storage.
+   *
+   * @param list name of the list
+   */
+  public void readReferenceKeys(JavaWriter writer, String list) throws IOException {
+    boolean map = typeInfo.isMap() || typeInfo.isImmutableMap();
+    boolean collection = typeInfo.isList() || typeInfo.isImmutableList() || typeInfo.isSet() || typeInfo.isImmutableSet();
+    String readKey = readBuf + ".readBytes(" + readBuf + ".readInt())";
+    writer.beginControlFlow("if (" + readBuf + " != null)");
+    writer.beginControlFlow("if (" + readBuf + ".position(" + slot + "))");
+    if (map || collection) {
+      writer.emitStatement("int " + getName() + "Size = " + readBuf + ".readInt()");
+      writer.beginControlFlow("for (int i = 0; i < " + getName() + "Size; i++)");
+      if (map) {
+        // map keys are read past
+        writer.emitStatement(readMapKey(getTypeArgStrings().get(0)));
+      }
+      writer.emitStatement(list + ".add(" + readKey + ")");
+      writer.endControlFlow();
+    } else {
+      writer.emitStatement(list + ".add(" + readKey + ")");
+    }
+    writer.endControlFlow();
+    writer.nextControlFlow("else");
+    if (isOptional()) {
+      writer.beginControlFlow("if (" + getName() + ".isPresent())");
+    }
+    String value = map ? getGetName() + ".values()" : getGetName();
+    if (map || collection) {
+      writer.beginControlFlow("for (" + getValueType() + " e : " + value + ")");
+      writer.emitStatement(list + ".add(" + REFERENCES + ".getKey(e))");
+      writer.endControlFlow();
+    } else {
+      writer.emitStatement(list + ".add(" + REFERENCES + ".getKey(" + value + "))");
+    }
+    if (isOptional()) {
+      writer.endControlFlow();
+    }
+    writer.endControlFlow();
+  }
+
+  /**
+   * Read the elements of a list or set, named val, and add them with a statement.
+   */
+  protected void readElements(JavaWriter writer, GrapheneField field, String size, String add) throws IOException {
+    if (field instanceof ReferenceField) {
+      ((ReferenceField) field).readAll(writer, size, Optional.empty(), add);
+      return;
+    }
+    writer.beginControlFlow("for (int i = 0; i < " + size + "; i++)");
+    field.read(writer, getTypeArgStrings().get(0) + " val");
+    writer.emitStatement(add);
+    writer.endControlFlow();
+  }
+
+  /**
+   * @return expression that read a key of a map with the provided type
+   */
+  protected String readMapKey(String keyType) {
+    if (getCapitalizedBufType(keyType).equalsIgnoreCase("object")) {
+      return readBuf + ".read" + getCapitalizedBufType(keyType) + "(" + keyType + ".class)";
+    }
+    return readBuf + ".read" + getCapitalizedBufType(keyType) + "()";
+  }
+
   public String getGeneratedGrapheneType() {
     return typeInfo.getGeneratedGrapheneType();
   }
@@ -298,21 +382,65 @@ abstract class GrapheneField implements Comparable<GrapheneField> {
   }
 
 
+  /**
+   * References are stored as the primary key of the referenced instance and are
+   * resolved when the field is read. References of lists, sets and maps are resolved
+   * together with one lookup of all their keys.
+   */
   public static class ReferenceField extends GrapheneField {
-
     public ReferenceField(String name, TypeInfo typeInfo) {
       super(name, typeInfo, false);
     }
 
     @Override
     public void read(JavaWriter writer, String... name) throws IOException {
-      // FIXME
-      writer.emitStatement(name[0] + " = null");
+      writer.emitStatement(name[0] + " = " + REFERENCES + ".get(" + readKey() + ", " + getGeneratedGrapheneType() + ".class)");
+    }
+
+    /**
+     * Read the keys of many references, resolve them and add each instance that exist,
+     * named val, with a statement. Keys of maps are read before each reference and are
+     * named key.
+     *
+     * @param size number of references
+     * @param mapKey type and expression that read the key of a map or absent
+     * @param add statement that add val
+     */
+    public void readAll(JavaWriter writer, String size, Optional<String[]> mapKey, String add) throws IOException {
+      String type = getValueType();
+      writer.emitStatement("java.util.List<byte[]> refKeys = new java.util.ArrayList<>(" + size + ")");
+      if (mapKey.isPresent()) {
+        writer.emitStatement("java.util.List<" + mapKey.get()[0] + "> mapKeys = new java.util.ArrayList<>(" + size + ")");
+      }
+      writer.beginControlFlow("for (int i = 0; i < " + size + "; i++)");
+      if (mapKey.isPresent()) {
+        writer.emitStatement("mapKeys.add(" + mapKey.get()[1] + ")");
+      }
+      writer.emitStatement("refKeys.add(" + readKey() + ")");
+      writer.endControlFlow();
+      writer.emitStatement("java.util.List<? extends " + type + "> refs = " + REFERENCES + ".getAll(refKeys, " + getGeneratedGrapheneType() + ".class)");
+      writer.beginControlFlow("for (int i = 0; i < " + size + "; i++)");
+      writer.emitStatement(type + " val = refs.get(i)");
+      // instances that does not exist anymore are left out
+      writer.beginControlFlow("if (val != null)");
+      if (mapKey.isPresent()) {
+        writer.emitStatement(mapKey.get()[0] + " key = mapKeys.get(i)");
+      }
+      writer.emitStatement(add);
+      writer.endControlFlow();
+      writer.endControlFlow();
+    }
+
+    private String readKey() {
+      return readBuf + ".readBytes(" + readBuf + ".readInt())";
     }
 
     @Override
     public void write(JavaWriter writer, String... name) throws IOException {
-
+      String var = getName() + "Key";
+      writer.emitStatement("byte[] " + var + " = " + REFERENCES + ".getKey(" + name[0] + ")");
+      writer.emitStatement(writeBuf + ".writeInt(" + var + ".length)");
+      writer.emitStatement(writeBuf + ".writeBytes(" + var + ")");
     }
   }
 
@@ -359,9 +487,10 @@ abstract class GrapheneField implements Comparable<GrapheneField> {
       if (isKeyClass()) {
         writer.emitStatement("return ((" + field.getGeneratedGrapheneType() + ") " + getGetMethod() + "()).serializeKey(" + writeBuf + ", schemaId)");
       } else if (typeInfo.isArray() && typeInfo.getFullTypeString().startsWith("byte")) {
-        writer.emitStatement(writeBuf + ".writeBytes(" + field.getName() + ", " + field.size.get() + ")");
+        writer.emitStatement(writeBuf + ".writeBytes(" + getGetMethod() + "(), " + field.size.get() + ")");
       } else {
-        field.write(writer, getName());
+        // through the getter, so that keys of instances read from storage can be written
+        field.write(writer, getGetMethod() + "()");
       }
     }
 
@@ -472,10 +601,7 @@ abstract class GrapheneField implements Comparable<GrapheneField> {
       }
 
       writer.emitStatement("int listSize = " + readBuf + ".readInt()");
-      writer.beginControlFlow("for (int i = 0; i < listSize; i++)");
-      field.read(writer, getTypeArgStrings().get(0) + " val");
-      writer.emitStatement(getGetName() + ".add(val)");
-      writer.endControlFlow();
+      readElements(writer, field, "listSize", getGetName() + ".add(val)");
     }
 
     @Override
@@ -519,10 +645,7 @@ abstract class GrapheneField implements Comparable<GrapheneField> {
     public void read(JavaWriter writer, String... name) throws IOException {
       writer.emitStatement("com.google.common.collect.ImmutableList.Builder<" + getTypeArgStrings().get(0) + "> builder = com.google.common.collect.ImmutableList.builder()");
       writer.emitStatement("int listSize = " + readBuf + ".readInt()");
-      writer.beginControlFlow("for (int i = 0; i < listSize; i++)");
-      field.read(writer, getTypeArgStrings().get(0) + " val");
-      writer.emitStatement("builder.add(val)");
-      writer.endControlFlow();
+      readElements(writer, field, "listSize", "builder.add(val)");
       setField(writer, "builder.build()");
     }
   }
@@ -545,10 +668,7 @@ abstract class GrapheneField implements Comparable<GrapheneField> {
       }
 
       writer.emitStatement("int setSize = " + readBuf + ".readInt()");
-      writer.beginControlFlow("for (int i = 0; i < setSize; i++)");
-      field.read(writer, getTypeArgStrings().get(0) + " val");
-      writer.emitStatement(getGetName() + ".add(val)");
-      writer.endControlFlow();
+      readElements(writer, field, "setSize", getGetName() + ".add(val)");
     }
 
     @Override
@@ -578,10 +698,7 @@ abstract class GrapheneField implements Comparable<GrapheneField> {
     public void read(JavaWriter writer, String... name) throws IOException {
       writer.emitStatement("com.google.common.collect.ImmutableSet.Builder<" + getTypeArgStrings().get(0) + "> builder = com.google.common.collect.ImmutableSet.builder()");
       writer.emitStatement("int setSize = " + readBuf + ".readInt()");
-      writer.beginControlFlow("for (int i = 0; i < setSize; i++)");
-      field.read(writer, getTypeArgStrings().get(0) + " val");
-      writer.emitStatement("builder.add(val)");
-      writer.endControlFlow();
+      readElements(writer, field, "setSize", "builder.add(val)");
       setField(writer, "builder.build()");
 
     }
@@ -648,12 +765,13 @@ abstract class GrapheneField implements Comparable<GrapheneField> {
         writer.emitStatement(getName() + " = new java.util.HashMap<>()");
       }
       writer.emitStatement("int mapSize = " + readBuf + ".readInt()");
-      writer.beginControlFlow("for (int i = 0; i < mapSize; i++)");
-      if (getCapitalizedBufType(keyType).equalsIgnoreCase("object")) {
-        writer.emitStatement(keyType + " key = " + readBuf + ".read" + getCapitalizedBufType(keyType) + "(" + keyType + ".class)");
-      } else {
-        writer.emitStatement(keyType + " key = " + readBuf + ".read" + getCapitalizedBufType(keyType) + "()");
+      if (field instanceof ReferenceField) {
+        String[] mapKey = new String[]{keyType, readMapKey(keyType)};
+        ((ReferenceField) field).readAll(writer, "mapSize", Optional.of(mapKey), getGetName() + ".put(key, val)");
+        return;
       }
+      writer.beginControlFlow("for (int i = 0; i < mapSize; i++)");
+      writer.emitStatement(keyType + " key = " + readMapKey(keyType));
       field.read(writer, getTypeArgStrings().get(1) + " val");
       writer.emitStatement(getGetName() + ".put(key, val)");
       writer.endControlFlow();
@@ -697,12 +815,13 @@ abstract class GrapheneField implements Comparable<GrapheneField> {
               ", " + getTypeArgStrings().get(1) + "> builder = com.google.common.collect.ImmutableMap.builder();");
 
       writer.emitStatement("int mapSize = " + readBuf + ".readInt()");
-      writer.beginControlFlow("for (int i = 0; i < mapSize; i++)");
-      if (getCapitalizedBufType(keyType).equalsIgnoreCase("object")) {
-        writer.emitStatement(keyType + " key = " + readBuf + ".read" + getCapitalizedBufType(keyType) + "(" + keyType + ".class)");
-      } else {
-        writer.emitStatement(keyType + " key = " + readBuf + ".read" + getCapitalizedBufType(keyType) + "()");
+      if (field instanceof ReferenceField) {
+        String[] mapKey = new String[]{keyType, readMapKey(keyType)};
+        ((ReferenceField) field).readAll(writer, "mapSize", Optional.of(mapKey), "builder.put(key, val)");
+        return;
       }
+      writer.beginControlFlow("for (int i = 0; i < mapSize; i++)");
+      writer.emitStatement(keyType + " key = " + readMapKey(keyType));
       field.read(writer, getTypeArgStrings().get(1) + " val");
       writer.emitStatement("builder.put(key, val)");
       writer.endControlFlow();
@@ -1,5 +1,6 @@
 package org.deephacks.graphene.internal.processor;
 
+import org.deephacks.graphene.Index;
 import org.deephacks.graphene.Key;
 import org.deephacks.graphene.internal.processor.GrapheneField.ArrayField;
 import org.deephacks.graphene.internal.processor.GrapheneField.EmbeddedField;
@@ -42,11 +43,20 @@ abstract class GrapheneType {
           "synchronized", "this", "throw", "throws", "transient", "try", "void", "volatile", "while",
           "true", "false", "null");
 
+  static final List<String> INDEX_TYPES = Arrays.asList(
+          "boolean", "byte", "short", "char", "int", "long", "float", "double",
+          "java.lang.Boolean", "java.lang.Byte", "java.lang.Short", "java.lang.Character", "java.lang.Integer",
+          "java.lang.Long", "java.lang.Float", "java.lang.Double", "java.lang.String",
+          "java.time.LocalDate", "java.time.LocalTime", "java.time.LocalDateTime");
+  static final String INDEX_TYPES_MSG = "@Index can only be used on single valued fields of primitive, String, "
+          + "byte[], enum, LocalDate, LocalTime or LocalDateTime type.";
+
   private ProcessingEnvironment processingEnv;
   private String packageName;
   private String className;
   private LinkedHashMap<String, GrapheneField> fields = new LinkedHashMap<>();
   private LinkedHashMap<String, KeyField> keys = new LinkedHashMap<>();
+  private List<String> indexes = new ArrayList<>();
   private boolean hasToString = false;
   private boolean hasHashCode = false;
   private boolean hasEquals = false;
@@ -102,6 +112,9 @@ abstract class GrapheneType {
       if (KEYWORDS.contains(fieldName)) {
         compileException.add("Field names with Java keyword are not allowed.", m);
       }
+      if (m.getAnnotation(Index.class) != null && (typeInfo.isKey() || isSimpleKey)) {
+        compileException.add("@Index is not needed on keys, instances are already ordered by key.", m);
+      }
       GrapheneField field;
       if (typeInfo.isEmbedded()) {
         field = new EmbeddedField(fieldName, typeInfo);
@@ -146,10 +159,55 @@ abstract class GrapheneType {
       if (!getAllFields().contains(f)) {
         fields.put(f.getName(), f);
       }
+      if (m.getAnnotation(Index.class) != null) {
+        if (f instanceof SingleField && isIndexable(typeInfo)) {
+          indexes.add(f.getName());
+        } else {
+          compileException.add(INDEX_TYPES_MSG, m);
+        }
+      }
+      if (f instanceof SingleField && typeInfo.isEmbedded() && typeInfo.getDeclaredElement().isPresent()) {
+        findEmbeddedIndexes(f.getName(), typeInfo.getDeclaredElement().get());
+      }
+    }
+    int slot = 0;
+    for (GrapheneField field : fields.values()) {
+      field.setSlot(slot++);
     }
     reportCompileException();
   }
 
+  /**
+   * Fields of embedded types annotated with @Index are indexed by their path
+   * from this type, like 'address.city'.
+   */
+  private void findEmbeddedIndexes(String fieldName, TypeElement embedded) {
+    Types typeUtils = processingEnv.getTypeUtils();
+    List<ExecutableElement> methods = new ArrayList<>();
+    findMethods(embedded, methods);
+    for (ExecutableElement m : findGetters(methods)) {
+      if (m.getAnnotation(Index.class) == null) {
+        continue;
+      }
+      TypeElement returnType = (TypeElement) typeUtils.asElement(m.getReturnType());
+      TypeInfo typeInfo = new TypeInfo(m.getReturnType(), returnType, typeUtils);
+      if (isIndexable(typeInfo)) {
+        String name = m.getSimpleName().toString().substring(3);
+        indexes.add(fieldName + "." + Character.toLowerCase(name.charAt(0)) + name.substring(1));
+      }
+    }
+  }
+
+  private static boolean isIndexable(TypeInfo typeInfo) {
+    if (typeInfo.isArray()) {
+      return "byte[]".equals(typeInfo.getFullTypeString());
+    }
+    if (typeInfo.isEnum()) {
+      return true;
+    }
+    return INDEX_TYPES.contains(typeInfo.getFullTypeString());
+  }
+
   private boolean fieldsContains(GrapheneField field) {
     if (fields.keySet().contains(field.getName())) {
       return true;
@@ -173,6 +231,13 @@ abstract class GrapheneType {
     return new ArrayList<>(keys.values());
   }
 
+  /**
+   * @return names of indexed fields, including fields of embedded types.
+   */
+  public List<String> getIndexes() {
+    return indexes;
+  }
+
   public List<GrapheneField> getAllFields() {
     return concat(getKeys().stream(), getFields().stream()).collect(toList());
   }
@@ -50,6 +50,14 @@ class GrapheneTypeGenerator extends SourceGenerator {
     }
 
     writer.emitField(KeySchema.class.getCanonicalName(), "keySchema", PRIVATE_STATIC);
+    if (type instanceof EntityType || type instanceof EmbeddedType) {
+      // value fields in slot order
+      StringBuilder names = new StringBuilder();
+      for (GrapheneField field : type.getFields()) {
+        names.append(names.length() == 0 ? "" : ", ").append('"').append(field.getName()).append('"');
+      }
+      writer.emitField("String[]", "FIELDS", PRIVATE_STATIC_FINAL, "new String[] { " + names + " }");
+    }
 
     // fields for builder
     for (GrapheneField field : type.getAllFields()) {
@@ -74,7 +82,9 @@ class GrapheneTypeGenerator extends SourceGenerator {
     // constructor for builder
     writer.beginConstructor(PUBLIC, type.getAllFieldsAsStrings(), Collections.emptyList());
     for (GrapheneField field : type.getAllFields()) {
-      if (!field.isPrimitive()) {
+      if (field.isPrimitive()) {
+        writer.emitStatement("this." + field.getName() + " = " + field.getName());
+      } else {
         if (field.hasDefaultValue()) {
           writer.emitStatement("this." + field.getName() + " = java.util.Optional.ofNullable(" + field.getName() + ").orElse(" + type.getClassName() + ".super." + field.getGetMethod() + "())");
         } else {
@@ -93,12 +103,14 @@ class GrapheneTypeGenerator extends SourceGenerator {
       writer.beginConstructor(PUBLIC, "KeyReader", "keyReader", "ValueReader", "valueReader");
       writer.emitStatement("this.keyReader = keyReader");
       writer.emitStatement("this.valueReader = valueReader");
+      writer.emitStatement("valueReader.setFields(FIELDS)");
     } else if (type instanceof KeyType) {
       writer.beginConstructor(PUBLIC, "KeyReader", "keyReader");
       writer.emitStatement("this.keyReader = keyReader");
     } else if (type instanceof EmbeddedType) {
       writer.beginConstructor(PUBLIC, "ValueReader", "valueReader");
       writer.emitStatement("this.valueReader = valueReader");
+      writer.emitStatement("valueReader.setFields(FIELDS)");
     }
     writer.endConstructor();
     writer.emitEmptyLine();
@@ -134,6 +146,12 @@ class GrapheneTypeGenerator extends SourceGenerator {
       writer.emitEmptyLine();
     }
 
+    if (type instanceof EntityType) {
+      writeIndexes();
+      writer.emitEmptyLine();
+      writeGetReferences();
+    }
+
     writeEquals();
     writer.emitEmptyLine();
 
@@ -175,6 +193,16 @@ class GrapheneTypeGenerator extends SourceGenerator {
     writer.endMethod();
   }
 
+  private void writeIndexes() throws IOException {
+    writer.beginMethod("String[]", "indexes", PUBLIC_STATIC);
+    StringBuilder names = new StringBuilder();
+    for (String index : type.getIndexes()) {
+      names.append(names.length() == 0 ? "" : ", ").append('"').append(index).append('"');
+    }
+    writer.emitStatement("return new String[] { " + names + " }");
+    writer.endMethod();
+  }
+
   private void writeSerializeMethod() throws IOException {
     List<String> params = Arrays.asList(KeyWriter.class.getSimpleName(), "keyWriter",
             ValueWriter.class.getSimpleName(), "valueWriter", "int", "schemaId");
@@ -191,7 +219,7 @@ class GrapheneTypeGenerator extends SourceGenerator {
     List<String> throwz = Arrays.asList(IOException.class.getName());
     writer.beginMethod("byte[]", "serializeKey", SourceGenerator.PUBLIC, params, throwz);
     if (type.getKeys().size() >= 1 && !type.getKeys().get(0).isKeyClass()) {
-      writer.emitStatement("keyWriter.writeInt(schemaId)");
+      writer.emitStatement("keyWriter.writeSchemaId(schemaId)");
     }
     for (KeyField key : type.getKeys()) {
       if (key.isKeyClass()) {
@@ -218,13 +246,42 @@ class GrapheneTypeGenerator extends SourceGenerator {
     List<String> params = Arrays.asList(ValueWriter.class.getSimpleName(), "valueWriter");
     List<String> throwz = Arrays.asList(IOException.class.getName());
     writer.beginMethod("byte[]", "serializeValue", SourceGenerator.PUBLIC, params, throwz);
+    writer.emitStatement("writeValue(valueWriter)");
+    writer.emitStatement("return valueWriter.getBytes()");
+    writer.endMethod();
+    writer.emitEmptyLine();
+
+    writer.beginMethod("void", "writeValue", SourceGenerator.PUBLIC, params, throwz);
     for (GrapheneField field : type.getFields()) {
       field.startWrite(writer);
       field.write(writer);
       field.endWrite(writer);
       writer.emitEmptyLine();
     }
-    writer.emitStatement("return valueWriter.getBytes()");
+    writer.endMethod();
+    writer.emitEmptyLine();
+  }
+
+  /**
+   * Only entities with reference fields implement getReferences.
+   */
+  private void writeGetReferences() throws IOException {
+    List<GrapheneField> references = new ArrayList<>();
+    for (GrapheneField field : type.getFields()) {
+      if (field.isReference()) {
+        references.add(field);
+      }
+    }
+    if (references.isEmpty()) {
+      return;
+    }
+    writer.emitAnnotation("Override");
+    writer.beginMethod("java.util.List<byte[]>", "getReferences", PUBLIC);
+    writer.emitStatement("java.util.List<byte[]> references = new java.util.ArrayList<>()");
+    for (GrapheneField field : references) {
+      field.readReferenceKeys(writer, "references");
+    }
+    writer.emitStatement("return references");
     writer.endMethod();
     writer.emitEmptyLine();
   }
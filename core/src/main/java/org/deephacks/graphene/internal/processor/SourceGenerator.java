@@ -18,6 +18,7 @@ abstract class SourceGenerator {
   static final EnumSet<Modifier> PUBLIC_STATIC = EnumSet.of(Modifier.PUBLIC, Modifier.STATIC);
   static final EnumSet<Modifier> PRIVATE = EnumSet.of(Modifier.PRIVATE);
   static final EnumSet<Modifier> PRIVATE_STATIC = EnumSet.of(Modifier.PRIVATE, Modifier.STATIC);
+  static final EnumSet<Modifier> PRIVATE_STATIC_FINAL = EnumSet.of(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL);
 
   public SourceGenerator(GrapheneType type, String className) {
     this.type = type;
@@ -18,6 +18,7 @@ import javax.lang.model.util.SimpleTypeVisitor8;
 import javax.lang.model.util.Types;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.atomic.AtomicReference;
 
 class TypeInfo {
@@ -171,6 +172,20 @@ class TypeInfo {
     return declaredType != null && declaredType.asElement().getAnnotation(Key.class) != null;
   }
 
+  public boolean isEnum() {
+    return declaredType != null && declaredType.asElement().getKind() == ElementKind.ENUM;
+  }
+
+  /**
+   * @return element of the declared type, absent for primitives and arrays
+   */
+  public Optional<TypeElement> getDeclaredElement() {
+    if (declaredType == null || isPrimitive() || isArray()) {
+      return Optional.empty();
+    }
+    return Optional.of((TypeElement) declaredType.asElement());
+  }
+
   public boolean isReference() {
     if (declaredType != null && declaredType.asElement().getAnnotation(Entity.class) != null) {
       return true;
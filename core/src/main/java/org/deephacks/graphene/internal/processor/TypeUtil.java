@@ -76,6 +76,17 @@ public class TypeUtil {
     }
   }
 
+  public static String[] getIndexes(Class<?> cls) {
+    try {
+      Class<?> generatedClass = getGeneratedEntity(cls);
+      Method method = generatedClass.getDeclaredMethod("indexes");
+      method.setAccessible(true);
+      return (String[]) method.invoke(null);
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+  }
+
   @SuppressWarnings("unchecked")
   public static Class<?> getGeneratedEntity(Class<?> cls) {
     String generatedClassName;
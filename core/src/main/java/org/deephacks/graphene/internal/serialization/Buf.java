@@ -57,4 +57,43 @@ public abstract class Buf implements AutoCloseable {
   public abstract Buf copy(byte[] bytes);
 
   public abstract Buf copy();
+
+  /**
+   * Discard bytes written so that the buffer can be written again.
+   */
+  public Buf reset() {
+    throw new UnsupportedOperationException("Buffer cannot be reset " + getClass().getName());
+  }
+
+  /**
+   * @return number of bytes written to the buffer
+   */
+  public int size() {
+    return getByteArray().length;
+  }
+
+  /**
+   * Copy bytes written to the buffer into an array.
+   *
+   * @param dest array to copy into
+   * @param offset position in the array to copy to
+   * @return number of bytes copied
+   */
+  public int copyTo(byte[] dest, int offset) {
+    byte[] bytes = getByteArray();
+    System.arraycopy(bytes, 0, dest, offset, bytes.length);
+    return bytes.length;
+  }
+
+  /**
+   * Copy bytes written to the buffer into memory at an absolute address.
+   *
+   * @param address address to copy to, with room for all bytes written
+   * @return number of bytes copied
+   */
+  public int copyTo(long address) {
+    byte[] bytes = getByteArray();
+    DirectBuf.copyMemory(bytes, 0, address, bytes.length);
+    return bytes.length;
+  }
 }
\ No newline at end of file
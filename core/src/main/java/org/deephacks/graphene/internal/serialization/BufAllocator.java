@@ -7,4 +7,12 @@ public interface BufAllocator {
   public Buf allocateOutput();
 
   public Buf allocateOutput(int size);
+
+  /**
+   * Give back an output buffer that is no longer used, which allocators that pool
+   * buffers may hand out again. Buffers may be released by another thread than the
+   * one that allocated them.
+   */
+  public default void release(Buf buf) {
+  }
 }
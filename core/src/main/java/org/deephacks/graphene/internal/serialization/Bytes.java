@@ -335,4 +335,23 @@ public class Bytes {
         return memcmp(a, b) == 0;
     }
 
-}
\ No newline at end of file
+    /**
+    * Concatenates byte arrays into a new byte array.
+    * @param arrays Non-{@code null} byte arrays to concatenate.
+    * @return A new byte array containing the bytes of all arrays, in order.
+    */
+    public static byte[] concat(final byte[]... arrays) {
+        int length = 0;
+        for (final byte[] array : arrays) {
+            length += array.length;
+        }
+        final byte[] result = new byte[length];
+        int offset = 0;
+        for (final byte[] array : arrays) {
+            System.arraycopy(array, 0, result, offset, array.length);
+            offset += array.length;
+        }
+        return result;
+    }
+
+}
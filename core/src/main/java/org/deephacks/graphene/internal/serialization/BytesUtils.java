@@ -784,10 +784,27 @@ public class BytesUtils {
             length1 == length2) {
       return 0;
     }
+    return compareMemory(buffer1, offset1 + BYTE_ARRAY_BASE_OFFSET, length1,
+            buffer2, offset2 + BYTE_ARRAY_BASE_OFFSET, length2);
+  }
+
+  /**
+   * Lexicographically compare memory at an address, like a key in a memory
+   * mapped lmdb page, with an array.
+   *
+   * @param address1 address of the left operand
+   * @param length1 How much to compare from the left operand
+   * @param buffer2 right operand
+   * @return 0 if equal, less 0 if left is less than right, etc.
+   */
+  public static int compareTo(long address1, int length1, byte[] buffer2) {
+    return compareMemory(null, address1, length1, buffer2, BYTE_ARRAY_BASE_OFFSET, buffer2.length);
+  }
+
+  private static int compareMemory(Object buffer1, long offset1Adj, int length1,
+                                   Object buffer2, long offset2Adj, int length2) {
     int minLength = Math.min(length1, length2);
     int minWords = minLength / LONG_BYTES;
-    int offset1Adj = offset1 + BYTE_ARRAY_BASE_OFFSET;
-    int offset2Adj = offset2 + BYTE_ARRAY_BASE_OFFSET;
 
     /*
      * Compare 8 bytes at a time. Benchmarking shows comparing 8 bytes at a
@@ -831,8 +848,8 @@ public class BytesUtils {
     // The epilogue to cover the last (minLength % 8) elements.
     for (int i = minWords * LONG_BYTES; i < minLength; i++) {
       int result = compare(
-              buffer1[offset1 + i],
-              buffer2[offset2 + i]);
+              theUnsafe.getByte(buffer1, offset1Adj + i),
+              theUnsafe.getByte(buffer2, offset2Adj + i));
       if (result != 0) {
         return result;
       }
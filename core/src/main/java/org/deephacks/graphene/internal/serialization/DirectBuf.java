@@ -0,0 +1,285 @@
+package org.deephacks.graphene.internal.serialization;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.Period;
+import java.time.ZonedDateTime;
+import java.util.Date;
+
+import static org.deephacks.graphene.internal.serialization.BytesUtils.*;
+
+/**
+ * Read only buffer that use Unsafe to read directly from an address in memory, like
+ * the memory mapped pages that lmdb return keys and values from, or from a byte array.
+ *
+ * The buffer can be pointed at new memory with wrap, which make it possible to read
+ * many rows without copying or allocating anything for their bytes. Memory returned by
+ * lmdb is only valid until the transaction end or the cursor is moved, so bytes that
+ * must live longer than that need to be copied with getByteArray.
+ *
+ * Values are read with the same byte order as UnsafeByteArrayBuf write them.
+ */
+public class DirectBuf extends Buf {
+  private static final sun.misc.Unsafe UNSAFE;
+  static {
+    try {
+      Field field = sun.misc.Unsafe.class.getDeclaredField("theUnsafe");
+      field.setAccessible(true);
+      UNSAFE = (sun.misc.Unsafe) field.get(null);
+    } catch (Exception e) {
+      throw new RuntimeException("DirectBuf: Failed to get unsafe", e);
+    }
+  }
+  private static final long BYTE_ARRAY_OFFSET = UNSAFE.arrayBaseOffset(byte[].class);
+
+  /** array to read from or null if the address is absolute */
+  private Object base;
+  private long address;
+  private int length;
+  private int pos;
+
+  public DirectBuf() {
+  }
+
+  public DirectBuf(long address, int length) {
+    wrap(address, length);
+  }
+
+  public DirectBuf(byte[] bytes) {
+    wrap(bytes);
+  }
+
+  /**
+   * Read from memory at an absolute address.
+   */
+  public DirectBuf wrap(long address, int length) {
+    this.base = null;
+    this.address = address;
+    this.length = length;
+    this.pos = 0;
+    return this;
+  }
+
+  /**
+   * Read from a byte array.
+   */
+  public DirectBuf wrap(byte[] bytes) {
+    this.base = bytes;
+    this.address = BYTE_ARRAY_OFFSET;
+    this.length = bytes.length;
+    this.pos = 0;
+    return this;
+  }
+
+  public int length() {
+    return length;
+  }
+
+  private long ensureRemaining(int requiredBytes) throws IOException {
+    if (length - pos < requiredBytes) {
+      throw new IOException("ensureRemaining: Only " + (length - pos) +
+          " bytes remaining, trying to read " + requiredBytes);
+    }
+    long offset = address + pos;
+    pos += requiredBytes;
+    return offset;
+  }
+
+  @Override
+  public Buf setPosition(int position) throws IOException {
+    this.pos = position;
+    return this;
+  }
+
+  @Override
+  public int getPosition() throws IOException {
+    return pos;
+  }
+
+  @Override
+  public Buf writeBoolean(boolean o) throws IOException {
+    throw new UnsupportedOperationException("read only");
+  }
+
+  @Override
+  public Buf writeByte(byte o) throws IOException {
+    throw new UnsupportedOperationException("read only");
+  }
+
+  @Override
+  public Buf writeShort(short o) throws IOException {
+    throw new UnsupportedOperationException("read only");
+  }
+
+  @Override
+  public Buf writeChar(char c) throws IOException {
+    throw new UnsupportedOperationException("read only");
+  }
+
+  @Override
+  public Buf writeInt(int o) throws IOException {
+    throw new UnsupportedOperationException("read only");
+  }
+
+  @Override
+  public Buf writeLong(long o) throws IOException {
+    throw new UnsupportedOperationException("read only");
+  }
+
+  @Override
+  public Buf writeFloat(float o) throws IOException {
+    throw new UnsupportedOperationException("read only");
+  }
+
+  @Override
+  public Buf writeDouble(double o) throws IOException {
+    throw new UnsupportedOperationException("read only");
+  }
+
+  @Override
+  public Buf writeBytes(byte[] o) throws IOException {
+    throw new UnsupportedOperationException("read only");
+  }
+
+  @Override
+  public Buf writeString(String o) throws IOException {
+    throw new UnsupportedOperationException("read only");
+  }
+
+  @Override
+  public Buf writeObject(Object o) throws IOException {
+    throw new UnsupportedOperationException("read only");
+  }
+
+  @Override
+  public boolean readBoolean() throws IOException {
+    return UNSAFE.getBoolean(base, ensureRemaining(UnsafeByteArrayOutputStream.SIZE_OF_BOOLEAN));
+  }
+
+  @Override
+  public byte readByte() throws IOException {
+    return UNSAFE.getByte(base, ensureRemaining(UnsafeByteArrayOutputStream.SIZE_OF_BYTE));
+  }
+
+  @Override
+  public short readShort() throws IOException {
+    return UNSAFE.getShort(base, ensureRemaining(UnsafeByteArrayOutputStream.SIZE_OF_SHORT));
+  }
+
+  @Override
+  public int readInt() throws IOException {
+    return UNSAFE.getInt(base, ensureRemaining(UnsafeByteArrayOutputStream.SIZE_OF_INT));
+  }
+
+  @Override
+  public long readLong() throws IOException {
+    return UNSAFE.getLong(base, ensureRemaining(UnsafeByteArrayOutputStream.SIZE_OF_LONG));
+  }
+
+  @Override
+  public float readFloat() throws IOException {
+    return UNSAFE.getFloat(base, ensureRemaining(UnsafeByteArrayOutputStream.SIZE_OF_FLOAT));
+  }
+
+  @Override
+  public double readDouble() throws IOException {
+    return UNSAFE.getDouble(base, ensureRemaining(UnsafeByteArrayOutputStream.SIZE_OF_DOUBLE));
+  }
+
+  @Override
+  public char readChar() throws IOException {
+    return UNSAFE.getChar(base, ensureRemaining(UnsafeByteArrayOutputStream.SIZE_OF_CHAR));
+  }
+
+  @Override
+  public String readString() throws IOException {
+    int size = readInt();
+    return new String(readBytes(size), StandardCharsets.UTF_8);
+  }
+
+  @Override
+  public byte[] readBytes(int num) throws IOException {
+    byte[] bytes = new byte[num];
+    UNSAFE.copyMemory(base, ensureRemaining(num), bytes, BYTE_ARRAY_OFFSET, num);
+    return bytes;
+  }
+
+  @Override
+  public Object readObject(Class<?> type) throws IOException {
+    if (type == Date.class) {
+      return new Date(readLong());
+    } else if (type == BigDecimal.class) {
+      return new BigDecimal(readString());
+    } else if (type == BigInteger.class) {
+      return new BigInteger(readString());
+    } else if (type.isEnum()) {
+      return Enum.valueOf((Class) type, readString());
+    } else if (type == LocalDateTime.class) {
+      return BytesUtils.getLocalDateTime(readBytes(LOCAL_DATE_TIME_BYTES));
+    } else if (type == ZonedDateTime.class) {
+      return BytesUtils.getZonedDateTime(readBytes(ZONED_DATE_TIME_BYTES));
+    } else if (type == LocalDate.class) {
+      return BytesUtils.getLocalDate(readBytes(LOCAL_DATE_BYTES), 0);
+    } else if (type == LocalTime.class) {
+      return BytesUtils.getLocalTime(readBytes(LOCAL_TIME_BYTES), 0);
+    } else if (type == Instant.class) {
+      return BytesUtils.getInstant(readBytes(INSTANT_BYTES));
+    } else if (type == Period.class) {
+      return BytesUtils.getPeriod(readBytes(PERIOD_BYTES));
+    } else if (type == Duration.class) {
+      return BytesUtils.getDuration(readBytes(DURATION_BYTES));
+    } else {
+      throw new IllegalArgumentException("Did not recognize type " + type);
+    }
+  }
+
+  /**
+   * @return a copy of all bytes that the buffer point at
+   */
+  @Override
+  public byte[] getByteArray() {
+    byte[] bytes = new byte[length];
+    UNSAFE.copyMemory(base, address, bytes, BYTE_ARRAY_OFFSET, length);
+    return bytes;
+  }
+
+  /**
+   * Copy bytes of an array to memory at an absolute address.
+   */
+  public static void copyMemory(byte[] src, int offset, long address, int length) {
+    UNSAFE.copyMemory(src, BYTE_ARRAY_OFFSET + offset, null, address, length);
+  }
+
+  /**
+   * Write a big-endian int, like Bytes.setInt, to memory at an absolute address.
+   */
+  public static void putInt(long address, int value) {
+    UNSAFE.putByte(address, (byte) (value >>> 24));
+    UNSAFE.putByte(address + 1, (byte) (value >>> 16));
+    UNSAFE.putByte(address + 2, (byte) (value >>> 8));
+    UNSAFE.putByte(address + 3, (byte) value);
+  }
+
+  @Override
+  public Buf copy(byte[] bytes) {
+    return new DirectBuf(bytes);
+  }
+
+  @Override
+  public Buf copy() {
+    return new DirectBuf(getByteArray());
+  }
+
+  @Override
+  public void close() throws Exception {
+
+  }
+}
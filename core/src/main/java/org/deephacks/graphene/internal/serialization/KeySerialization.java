@@ -8,10 +8,17 @@ import org.deephacks.graphene.internal.serialization.ValueSerialization.ValueWri
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 
+/**
+ * Keys start with the schema id followed by each key part encoded with OrderedBytes,
+ * so that keys sort in the order of their values. Strings and byte arrays are only
+ * as long as their values, so key parts does not have fixed positions and are found
+ * by skipping the key parts before them.
+ */
 public class KeySerialization {
 
   public static class KeyReader extends ValueReader {
     private KeySchema schema;
+    private KeyPart part;
 
     public KeyReader(Buf buf, KeySchema schema) {
       super(buf);
@@ -25,33 +32,86 @@ public class KeySerialization {
         return false;
       }
       try {
-        buf.setPosition(part.getBytesPosition());
+        buf.setPosition(KeySchema.SCHEMA_ID_SIZE);
+        for (KeyPart before : schema.getKeyParts()) {
+          if (before == part) {
+            break;
+          }
+          OrderedBytes.skip(buf, before.getType());
+        }
+        this.part = part;
         return true;
       } catch (IOException e) {
         throw new RuntimeException(e);
       }
     }
 
-    public String readStringBytes(int size) {
+    private Object read() {
       try {
-        byte[] bytes = buf.readBytes(size);
-        int lastNullByteFromEnd = getLastNullByteFromEnd(bytes);
-        return new String(bytes, 0, size - (size - lastNullByteFromEnd), StandardCharsets.UTF_8);
+        return OrderedBytes.read(buf, part.getType());
       } catch (IOException e) {
         throw new RuntimeException(e);
       }
     }
 
-    public int getLastNullByteFromEnd(byte[] bytes) {
-      int pos = bytes.length - 1;
-      for (int i = pos; i >= 0; i--) {
-        if (bytes[i] == 0) {
-          pos = i;
-        } else {
-          return pos;
-        }
-      }
-      return pos;
+    public String readStringBytes(int size) {
+      return (String) read();
+    }
+
+    @Override
+    public byte[] readBytes(int size) {
+      return (byte[]) read();
+    }
+
+    @Override
+    public boolean readBoolean() {
+      return (Boolean) read();
+    }
+
+    @Override
+    public byte readByte() {
+      return (Byte) read();
+    }
+
+    @Override
+    public short readShort() {
+      return (Short) read();
+    }
+
+    @Override
+    public int readInt() {
+      return (Integer) read();
+    }
+
+    @Override
+    public long readLong() {
+      return (Long) read();
+    }
+
+    @Override
+    public float readFloat() {
+      return (Float) read();
+    }
+
+    @Override
+    public double readDouble() {
+      return (Double) read();
+    }
+
+    @Override
+    public char readChar() {
+      return (Character) read();
+    }
+
+    @Override
+    public String readString() {
+      return (String) read();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T readObject(Class<T> cls) {
+      return (T) read();
     }
   }
 
@@ -69,43 +129,119 @@ public class KeySerialization {
       return values.getByteArray();
     }
 
+    /**
+     * Write the schema id that every key start with, before any key part.
+     */
+    public void writeSchemaId(int schemaId) throws IOException {
+      values.writeInt(schemaId);
+    }
+
     @Override
     public void start(String name) throws IOException {
       keyPartPosition = schema.getKeyPart(name);
-      int position = keyPartPosition.getBytesPosition();
-      values.setPosition(position);
     }
 
     @Override
     public void end(String name) throws IOException {
     }
 
+    /**
+     * Write the value of the current key part.
+     */
+    public void writeKey(Object value) {
+      if (value instanceof String) {
+        checkSize(((String) value).getBytes(StandardCharsets.UTF_8).length, value);
+      } else if (value instanceof byte[]) {
+        checkSize(((byte[]) value).length, "byte[]");
+      }
+      OrderedBytes.write(values, value);
+    }
+
+    private void checkSize(int length, Object value) {
+      if (length > keyPartPosition.getSize()) {
+        throw new IllegalArgumentException("Key " + keyPartPosition.getName() + " is bigger than max size " + keyPartPosition.getSize() + " " + value);
+      }
+    }
+
+    @Override
+    public void writeBoolean(boolean value) throws IOException {
+      writeKey(value);
+    }
+
+    @Override
+    public void writeChar(char value) throws IOException {
+      writeKey(value);
+    }
+
+    @Override
+    public void writeByte(byte value) throws IOException {
+      writeKey(value);
+    }
+
     @Override
     public void writeBytes(byte[] value) throws IOException {
-      if (value.length > keyPartPosition.getSize()) {
-        throw new IllegalArgumentException("Key " + keyPartPosition.getName() + " is to big " + value.length);
-      }
-      values.writeBytes(value);
+      writeKey(value);
     }
 
     public void writeBytes(byte[] value, int size) throws IOException {
-      if (value.length > keyPartPosition.getSize()) {
-        throw new IllegalArgumentException("Key " + keyPartPosition.getName() + " is to big " + value.length);
-      }
-      values.writeBytes(value);
-      if (value.length < size) {
-        values.writeBytes(new byte[size - value.length]);
-      }
+      writeKey(value);
+    }
+
+    @Override
+    public void writeShort(short value) throws IOException {
+      writeKey(value);
+    }
+
+    @Override
+    public void writeInt(int value) throws IOException {
+      writeKey(value);
+    }
+
+    @Override
+    public void writeLong(long value) throws IOException {
+      writeKey(value);
+    }
+
+    @Override
+    public void writeFloat(float value) throws IOException {
+      writeKey(value);
+    }
+
+    @Override
+    public void writeDouble(double value) throws IOException {
+      writeKey(value);
+    }
+
+    @Override
+    public void writeString(String value) throws IOException {
+      writeKey(value);
+    }
+
+    @Override
+    public void writeObject(Object value) throws IOException {
+      writeKey(value);
     }
 
     public void writeStringBytes(String value, int size) throws IOException {
-      byte[] bytes = new byte[size];
+      writeKey(value);
+    }
+
+    /**
+     * Write the bytes that every key part starting with the value share,
+     * without terminating the string.
+     */
+    public void writeStringPrefix(String value) throws IOException {
       byte[] stringBytes = value.getBytes(StandardCharsets.UTF_8);
-      if (stringBytes.length > size) {
-        throw new IllegalArgumentException("String is bigger than max size " + size + " " + value);
-      }
-      System.arraycopy(stringBytes, 0, bytes, 0, stringBytes.length);
-      values.writeBytes(bytes);
+      checkSize(stringBytes.length, value);
+      values.writeBytes(OrderedBytes.encodeStringPrefix(value));
     }
   }
+
+  /**
+   * Check if the byte order of serialized key parts of a certain type is the
+   * same as the natural order of its values, which is needed for range scans.
+   */
+  public static boolean isOrderPreserving(Class<?> type) {
+    return OrderedBytes.isOrderPreserving(type);
+  }
 }
@@ -0,0 +1,282 @@
+package org.deephacks.graphene.internal.serialization;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Encode values into bytes that sort in the same order as the values themselves
+ * when compared as unsigned bytes, which is the order that lmdb keep keys in.
+ *
+ * Numbers are written big-endian with the sign bit flipped, floating point numbers
+ * have their bits flipped so that negative numbers sort before positive numbers.
+ * Strings and byte arrays have 0x00 escaped as 0x00 0xFF and are terminated with
+ * 0x00 0x00, which keep shorter values before longer values that start with the
+ * same bytes. Strings are ordered by code point. Enums are written as their name
+ * and does only preserve equality.
+ *
+ * Every encoding can be read back, and skipped, without knowing its length in
+ * advance, which let keys consist of many variable length parts.
+ */
+public class OrderedBytes {
+  private static final byte TERMINATOR = 0x00;
+  private static final byte ESCAPE = (byte) 0xFF;
+
+  private static final Set<Class<?>> SUPPORTED = new HashSet<>(Arrays.asList(
+          String.class, byte[].class, boolean.class, Boolean.class, byte.class, Byte.class,
+          short.class, Short.class, char.class, Character.class, int.class, Integer.class,
+          long.class, Long.class, float.class, Float.class, double.class, Double.class,
+          LocalDate.class, LocalTime.class, LocalDateTime.class));
+
+  /**
+   * @return true if values of the class can be encoded
+   */
+  public static boolean isSupported(Class<?> cls) {
+    return SUPPORTED.contains(cls) || cls.isEnum();
+  }
+
+  /**
+   * @return true if the encoded bytes of the class sort in the same order as its values
+   */
+  public static boolean isOrderPreserving(Class<?> cls) {
+    return SUPPORTED.contains(cls);
+  }
+
+  /**
+   * @return number of bytes that values of the class are encoded into, or -1 if
+   * values are encoded into a variable number of bytes
+   */
+  public static int getFixedSize(Class<?> cls) {
+    if (cls == boolean.class || cls == Boolean.class || cls == byte.class || cls == Byte.class) {
+      return 1;
+    } else if (cls == short.class || cls == Short.class || cls == char.class || cls == Character.class) {
+      return 2;
+    } else if (cls == int.class || cls == Integer.class || cls == float.class || cls == Float.class) {
+      return 4;
+    } else if (cls == long.class || cls == Long.class || cls == double.class || cls == Double.class
+            || cls == LocalDate.class || cls == LocalTime.class) {
+      return 8;
+    } else if (cls == LocalDateTime.class) {
+      return 12;
+    }
+    return -1;
+  }
+
+  /**
+   * @param cls class of the value
+   * @param size maximum number of bytes of variable length values before they are encoded
+   * @return maximum number of bytes that values of the class are encoded into
+   */
+  public static int getMaxSize(Class<?> cls, int size) {
+    int fixedSize = getFixedSize(cls);
+    // every byte may be escaped, followed by the terminator
+    return fixedSize < 0 ? size * 2 + 2 : fixedSize;
+  }
+
+  public static byte[] encode(Object value) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    write(out, value);
+    return out.toByteArray();
+  }
+
+  /**
+   * Encode the first characters of a string without terminating it. All strings that
+   * start with these characters have encoded bytes that start with the returned bytes.
+   */
+  public static byte[] encodeStringPrefix(String value) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    writeEscaped(out::write, value.getBytes(BytesUtils.UTF_8));
+    return out.toByteArray();
+  }
+
+  /**
+   * Encode the first bytes of a byte array without terminating it. All byte arrays
+   * that start with these bytes have encoded bytes that start with the returned bytes.
+   */
+  public static byte[] encodeBytesPrefix(byte[] value) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    writeEscaped(out::write, value);
+    return out.toByteArray();
+  }
+
+  public static void write(ByteArrayOutputStream out, Object value) {
+    write(out::write, value);
+  }
+
+  public static void write(Buf out, Object value) {
+    write(b -> {
+      try {
+        out.writeByte((byte) b);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }, value);
+  }
+
+  private static void write(Sink out, Object value) {
+    if (value instanceof String) {
+      writeEscaped(out, ((String) value).getBytes(BytesUtils.UTF_8));
+      writeTerminator(out);
+    } else if (value instanceof byte[]) {
+      writeEscaped(out, (byte[]) value);
+      writeTerminator(out);
+    } else if (value instanceof Boolean) {
+      out.write((Boolean) value ? 1 : 0);
+    } else if (value instanceof Byte) {
+      out.write((Byte) value ^ 0x80);
+    } else if (value instanceof Short) {
+      writeShort(out, (short) ((Short) value ^ Short.MIN_VALUE));
+    } else if (value instanceof Character) {
+      writeShort(out, (short) ((Character) value).charValue());
+    } else if (value instanceof Integer) {
+      writeInt(out, (Integer) value ^ Integer.MIN_VALUE);
+    } else if (value instanceof Long) {
+      writeLong(out, (Long) value ^ Long.MIN_VALUE);
+    } else if (value instanceof Float) {
+      int bits = Float.floatToIntBits((Float) value);
+      writeInt(out, bits < 0 ? ~bits : bits ^ Integer.MIN_VALUE);
+    } else if (value instanceof Double) {
+      long bits = Double.doubleToLongBits((Double) value);
+      writeLong(out, bits < 0 ? ~bits : bits ^ Long.MIN_VALUE);
+    } else if (value instanceof LocalDate) {
+      writeLong(out, ((LocalDate) value).toEpochDay() ^ Long.MIN_VALUE);
+    } else if (value instanceof LocalTime) {
+      writeLong(out, ((LocalTime) value).toNanoOfDay());
+    } else if (value instanceof LocalDateTime) {
+      LocalDateTime dateTime = (LocalDateTime) value;
+      writeLong(out, dateTime.toEpochSecond(ZoneOffset.UTC) ^ Long.MIN_VALUE);
+      writeInt(out, dateTime.getNano());
+    } else if (value instanceof Enum) {
+      writeEscaped(out, ((Enum<?>) value).name().getBytes(BytesUtils.UTF_8));
+      writeTerminator(out);
+    } else {
+      throw new IllegalArgumentException("Cannot encode " + value.getClass().getName());
+    }
+  }
+
+  /**
+   * Decode a value of a class from the current position of a buffer.
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  public static Object read(Buf in, Class<?> cls) throws IOException {
+    if (cls == String.class) {
+      return new String(readEscaped(in), BytesUtils.UTF_8);
+    } else if (cls == byte[].class) {
+      return readEscaped(in);
+    } else if (cls == boolean.class || cls == Boolean.class) {
+      return in.readByte() != 0;
+    } else if (cls == byte.class || cls == Byte.class) {
+      return (byte) (in.readByte() ^ 0x80);
+    } else if (cls == short.class || cls == Short.class) {
+      return (short) (readShort(in) ^ Short.MIN_VALUE);
+    } else if (cls == char.class || cls == Character.class) {
+      return (char) readShort(in);
+    } else if (cls == int.class || cls == Integer.class) {
+      return readInt(in) ^ Integer.MIN_VALUE;
+    } else if (cls == long.class || cls == Long.class) {
+      return readLong(in) ^ Long.MIN_VALUE;
+    } else if (cls == float.class || cls == Float.class) {
+      int bits = readInt(in);
+      return Float.intBitsToFloat(bits < 0 ? bits ^ Integer.MIN_VALUE : ~bits);
+    } else if (cls == double.class || cls == Double.class) {
+      long bits = readLong(in);
+      return Double.longBitsToDouble(bits < 0 ? bits ^ Long.MIN_VALUE : ~bits);
+    } else if (cls == LocalDate.class) {
+      return LocalDate.ofEpochDay(readLong(in) ^ Long.MIN_VALUE);
+    } else if (cls == LocalTime.class) {
+      return LocalTime.ofNanoOfDay(readLong(in));
+    } else if (cls == LocalDateTime.class) {
+      long seconds = readLong(in) ^ Long.MIN_VALUE;
+      return LocalDateTime.ofEpochSecond(seconds, readInt(in), ZoneOffset.UTC);
+    } else if (cls.isEnum()) {
+      return Enum.valueOf((Class<Enum>) cls, new String(readEscaped(in), BytesUtils.UTF_8));
+    }
+    throw new IllegalArgumentException("Cannot decode " + cls.getName());
+  }
+
+  /**
+   * Move the position of a buffer past an encoded value of a class.
+   */
+  public static void skip(Buf in, Class<?> cls) throws IOException {
+    int fixedSize = getFixedSize(cls);
+    if (fixedSize >= 0) {
+      in.setPosition(in.getPosition() + fixedSize);
+      return;
+    }
+    while (true) {
+      if (in.readByte() == TERMINATOR && in.readByte() == TERMINATOR) {
+        return;
+      }
+    }
+  }
+
+  private static void writeEscaped(Sink out, byte[] bytes) {
+    for (byte b : bytes) {
+      out.write(b);
+      if (b == TERMINATOR) {
+        out.write(ESCAPE);
+      }
+    }
+  }
+
+  private static void writeTerminator(Sink out) {
+    out.write(TERMINATOR);
+    out.write(TERMINATOR);
+  }
+
+  private static void writeShort(Sink out, short value) {
+    out.write(value >>> 8);
+    out.write(value);
+  }
+
+  private static void writeInt(Sink out, int value) {
+    out.write(value >>> 24);
+    out.write(value >>> 16);
+    out.write(value >>> 8);
+    out.write(value);
+  }
+
+  private static void writeLong(Sink out, long value) {
+    writeInt(out, (int) (value >>> 32));
+    writeInt(out, (int) value);
+  }
+
+  private static byte[] readEscaped(Buf in) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    while (true) {
+      byte b = in.readByte();
+      if (b == TERMINATOR) {
+        if (in.readByte() == TERMINATOR) {
+          return out.toByteArray();
+        }
+        // escaped 0x00
+      }
+      out.write(b);
+    }
+  }
+
+  private static short readShort(Buf in) throws IOException {
+    return (short) (((in.readByte() & 0xFF) << 8) | (in.readByte() & 0xFF));
+  }
+
+  private static int readInt(Buf in) throws IOException {
+    return ((in.readByte() & 0xFF) << 24) | ((in.readByte() & 0xFF) << 16)
+            | ((in.readByte() & 0xFF) << 8) | (in.readByte() & 0xFF);
+  }
+
+  private static long readLong(Buf in) throws IOException {
+    return ((long) readInt(in) << 32) | (readInt(in) & 0xFFFFFFFFL);
+  }
+
+  /** destination of encoded bytes */
+  private interface Sink {
+    void write(int b);
+  }
+}
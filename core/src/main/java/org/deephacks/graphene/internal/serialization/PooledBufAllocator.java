@@ -0,0 +1,76 @@
+package org.deephacks.graphene.internal.serialization;
+
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Allocator that keep output buffers that are released and hand them out again,
+ * so that writing an instance does not allocate and grow new buffers every time.
+ * Buffers may be released by another thread than the one that allocated them, like
+ * the writer thread of a group commit, so a single pool is shared by all threads.
+ * The most recently released buffer is handed out first. Buffers that have grown
+ * very large are not kept.
+ */
+public class PooledBufAllocator extends UnsafeBufAllocator {
+  /** default maximum number of buffers pooled */
+  public static final int DEFAULT_MAX_POOLED = 64;
+  /** default maximum size of a pooled buffer */
+  public static final int DEFAULT_MAX_CAPACITY = 1024 * 1024;
+
+  private final int maxPooled;
+  private final int maxCapacity;
+  private final ConcurrentLinkedDeque<UnsafeByteArrayBuf> pool = new ConcurrentLinkedDeque<>();
+  /** number of buffers in the pool, or about to be added, since the size of the deque is not constant time */
+  private final AtomicInteger pooled = new AtomicInteger();
+
+  public PooledBufAllocator() {
+    this(DEFAULT_MAX_POOLED, DEFAULT_MAX_CAPACITY);
+  }
+
+  public PooledBufAllocator(int maxPooled, int maxCapacity) {
+    this.maxPooled = maxPooled;
+    this.maxCapacity = maxCapacity;
+  }
+
+  @Override
+  public Buf allocateOutput() {
+    UnsafeByteArrayBuf buf = poll();
+    if (buf == null) {
+      return super.allocateOutput();
+    }
+    return buf.reset();
+  }
+
+  @Override
+  public Buf allocateOutput(int size) {
+    UnsafeByteArrayBuf buf = poll();
+    if (buf == null) {
+      return super.allocateOutput(size);
+    }
+    return buf.reset();
+  }
+
+  private UnsafeByteArrayBuf poll() {
+    UnsafeByteArrayBuf buf = pool.pollFirst();
+    if (buf != null) {
+      pooled.decrementAndGet();
+    }
+    return buf;
+  }
+
+  @Override
+  public void release(Buf buf) {
+    if (!(buf instanceof UnsafeByteArrayBuf)) {
+      return;
+    }
+    UnsafeByteArrayBuf unsafeBuf = (UnsafeByteArrayBuf) buf;
+    if (unsafeBuf.isInput() || unsafeBuf.capacity() > maxCapacity) {
+      return;
+    }
+    if (pooled.incrementAndGet() > maxPooled) {
+      pooled.decrementAndGet();
+      return;
+    }
+    pool.addFirst(unsafeBuf);
+  }
+}
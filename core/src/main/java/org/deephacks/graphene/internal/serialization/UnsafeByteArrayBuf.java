@@ -229,6 +229,47 @@ public class UnsafeByteArrayBuf extends Buf {
     return out.toByteArray();
   }
 
+  @Override
+  public Buf reset() {
+    if (in != null) {
+      in.position(0);
+    } else {
+      out.reset();
+    }
+    return this;
+  }
+
+  @Override
+  public int size() {
+    return out.getPos();
+  }
+
+  /**
+   * Copy written bytes straight from the underlying array, without the copy of getByteArray.
+   */
+  @Override
+  public int copyTo(byte[] dest, int offset) {
+    System.arraycopy(out.getByteArray(), 0, dest, offset, out.getPos());
+    return out.getPos();
+  }
+
+  @Override
+  public int copyTo(long address) {
+    DirectBuf.copyMemory(out.getByteArray(), 0, address, out.getPos());
+    return out.getPos();
+  }
+
+  boolean isInput() {
+    return in != null;
+  }
+
+  /**
+   * @return size of the underlying array of an output buffer
+   */
+  int capacity() {
+    return out.getByteArray().length;
+  }
+
   @Override
   public Buf copy(byte[] bytes) {
     if (in != null) {
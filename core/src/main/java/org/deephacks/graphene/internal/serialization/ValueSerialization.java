@@ -3,17 +3,24 @@ package org.deephacks.graphene.internal.serialization;
 import org.deephacks.graphene.UniqueIds;
 
 import java.io.IOException;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.HashSet;
 
 public class ValueSerialization {
 
   public static class ValueReader {
+    private static final String[] NO_FIELDS = new String[0];
     protected Buf buf;
     protected UniqueIds uniqueIds;
     private int headerLength = -1;
-    private HashSet<String> readValues = new HashSet<>();
-    private HashMap<String, Integer> valuePositions = new HashMap<>();
+    private HashSet<String> readValues;
+    /** names of fields in slot order */
+    private String[] fields = NO_FIELDS;
+    /** slot of each field id */
+    private int[] slots;
+    /** offset of each slot, -1 if the value was not written */
+    private int[] offsets = new int[0];
+    private boolean[] readSlots = new boolean[0];
 
     protected ValueReader(Buf buf) {
       this.buf = buf;
@@ -24,41 +31,103 @@ public class ValueSerialization {
       this.buf = buf;
     }
 
+    /**
+     * Set the fields that can be read, which are addressed by their index in the array.
+     * The array is expected to be a constant since field ids are mapped to slots only
+     * once per array.
+     */
+    public void setFields(String[] fields) {
+      this.fields = fields;
+      this.slots = uniqueIds.getFieldSlots(fields);
+      this.offsets = new int[fields.length];
+      this.readSlots = new boolean[fields.length];
+    }
+
     private void readHeader() {
       if (headerLength != -1) {
         return;
       }
       try {
-        this.headerLength = Bytes.getInt(buf.readBytes(4));
-        int numValues = Bytes.getInt(buf.readBytes(4));
+        this.headerLength = readHeaderInt();
+        int numValues = readHeaderInt();
+        Arrays.fill(offsets, -1);
         for (int i = 0; i < numValues; i++) {
           int id = buf.readInt();
           int pos = buf.readInt();
-          String name = uniqueIds.getSchemaName(id);
-          valuePositions.put(name, pos);
+          if (id >= slots.length || slots[id] == UniqueIds.UNKNOWN_SLOT) {
+            // id created after the slots were mapped
+            slots = uniqueIds.getFieldSlots(fields, id);
+          }
+          int slot = slots[id];
+          if (slot >= 0) {
+            offsets[slot] = pos;
+          }
         }
       } catch (IOException e) {
         throw new RuntimeException(e);
       }
     }
 
+    /**
+     * Read the header length and number of values, which are written in big endian order
+     * like Bytes.setInt, byte by byte so that no array is allocated.
+     */
+    private int readHeaderInt() throws IOException {
+      return (buf.readByte() & 0xFF) << 24 | (buf.readByte() & 0xFF) << 16
+              | (buf.readByte() & 0xFF) << 8 | (buf.readByte() & 0xFF);
+    }
+
+    /**
+     * Read another value with this reader, forgetting everything read so far.
+     */
+    public void reset(byte[] bytes) {
+      this.buf = buf.copy(bytes);
+      reset();
+    }
+
+    /**
+     * Forget everything read so far, used when the buffer itself is pointed at another value.
+     */
+    public void reset() {
+      this.headerLength = -1;
+      Arrays.fill(readSlots, false);
+      if (readValues != null) {
+        readValues.clear();
+      }
+    }
+
     public ValueReader copy(byte[] bytes) {
       return new ValueReader(this.buf.copy(bytes), uniqueIds);
     }
 
     public boolean hasRead(String value) {
-      boolean hasRead = readValues.contains(value);
-      if (!hasRead) {
-        readValues.add(value);
-        return false;
+      if (readValues == null) {
+        readValues = new HashSet<>();
+      }
+      return !readValues.add(value);
+    }
+
+    public boolean hasRead(int slot) {
+      if (readSlots[slot]) {
+        return true;
       }
-      return true;
+      readSlots[slot] = true;
+      return false;
     }
 
     public boolean position(String value) {
+      for (int i = 0; i < fields.length; i++) {
+        if (fields[i].equals(value)) {
+          return position(i);
+        }
+      }
+      return false;
+    }
+
+    public boolean position(int slot) {
       readHeader();
-      Integer position = valuePositions.get(value);
-      if (position == null) {
+      int position = offsets[slot];
+      if (position < 0) {
         return false;
       }
       try {
@@ -203,14 +272,37 @@ public class ValueSerialization {
       numValues++;
     }
 
+    /**
+     * @return number of bytes of the serialized value
+     */
+    public int size() {
+      return 4 + 4 + header.size() + values.size();
+    }
+
+    /**
+     * Copy the serialized value, laid out like getBytes, into memory at an absolute
+     * address that has room for size bytes.
+     */
+    public void copyTo(long address) {
+      int headerSize = header.size();
+      DirectBuf.putInt(address, 4 + 4 + headerSize);
+      DirectBuf.putInt(address + 4, numValues);
+      header.copyTo(address + 8);
+      values.copyTo(address + 8 + headerSize);
+    }
+
+    /**
+     * Header and values are copied straight into the result, which is the only array
+     * that is allocated.
+     */
     public byte[] getBytes() {
-      byte[] valuesBytes = values.getByteArray();
-      byte[] headerBytes = header.getByteArray();
-      byte[] result = new byte[4 + 4 + headerBytes.length + valuesBytes.length];
-      Bytes.setInt(result, result.length - valuesBytes.length);
+      int headerSize = header.size();
+      int valuesSize = values.size();
+      byte[] result = new byte[4 + 4 + headerSize + valuesSize];
+      Bytes.setInt(result, result.length - valuesSize);
       Bytes.setInt(result, numValues, 4);
-      System.arraycopy(headerBytes, 0, result, 8, headerBytes.length);
-      System.arraycopy(valuesBytes, 0, result, 8 + headerBytes.length, valuesBytes.length);
+      header.copyTo(result, 8);
+      values.copyTo(result, 8 + headerSize);
       return result;
     }
 
@@ -12,7 +12,11 @@ public class BaseTest {
     CompilerUtils.compile(OtherPackageValue.class, TopEntity.class, Entities.class);
   }
 
-  protected static final Graphene graphene = Graphene.builder().build();
+  protected static final Graphene graphene = Graphene.builder()
+          .withEntityCacheSize(1000)
+          .withDatabasePerSchema(Boolean.getBoolean("graphene.databasePerSchema"))
+          .withPooledBuffers(Boolean.getBoolean("graphene.pooledBuffers"))
+          .build();
 
   static {
     ShutdownHook.install(new Thread("ShutdownHook") {
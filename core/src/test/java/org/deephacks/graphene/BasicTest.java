@@ -4,13 +4,28 @@ package org.deephacks.graphene;
 import org.deephacks.graphene.BuilderProxy.Builder;
 import org.deephacks.graphene.Entities.A;
 import org.deephacks.graphene.Entities.DefaultValues;
+import org.deephacks.graphene.Entities.FirstWrite;
 import org.deephacks.graphene.Entities.Identity;
+import org.deephacks.graphene.Entities.Person;
+import org.deephacks.graphene.internal.gql.Query;
+import org.deephacks.graphene.internal.serialization.BufAllocator;
+import org.deephacks.graphene.internal.serialization.UnsafeBufAllocator;
+import org.deephacks.graphene.internal.serialization.ValueSerialization.ValueReader;
+import org.deephacks.graphene.internal.serialization.ValueSerialization.ValueWriter;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.deephacks.graphene.Entities.buildA;
 import static org.hamcrest.core.Is.is;
@@ -36,6 +51,276 @@ public class BasicTest extends BaseTest {
     assertThat(value.getValue(), is("value"));
   }
 
+  @Test
+  public void test_load() {
+    // keys are loaded in reverse order so that chunks are both appended and put
+    List<A> instances = IntStream.range(0, 100).mapToObj(i -> buildA(String.format("a%03d", 99 - i))).collect(Collectors.toList());
+    graphene.put(buildA("a050"));
+    List<Long> progress = new ArrayList<>();
+    assertThat(graphene.load(instances.iterator(), 30, progress::add), is(100L));
+    assertThat(progress, is(Arrays.asList(30L, 60L, 90L, 100L)));
+    List<String> ids = graphene.list(A.class).stream().map(A::getId).collect(Collectors.toList());
+    assertThat(ids, is(IntStream.range(0, 100).mapToObj(i -> String.format("a%03d", i)).collect(Collectors.toList())));
+  }
+
+  @Test
+  public void test_delete_range() {
+    List<A> instances = IntStream.range(0, 100).mapToObj(i -> buildA(String.format("a%03d", i))).collect(Collectors.toList());
+    graphene.putAll(instances);
+    Schema<A> schema = graphene.getSchema(A.class);
+    RowKeyRange range = Query.parse("filter id >= 'a020' && id < 'a080'", A.class).getKeyRange(schema);
+    // deleted in chunks that does not divide the range evenly
+    assertThat(graphene.deleteRange(schema, range, Optional.empty(), 7), is(60L));
+    assertThat(graphene.deleteWhere("filter id > 'a089'", A.class), is(10L));
+    List<String> ids = graphene.list(A.class).stream().map(A::getId).collect(Collectors.toList());
+    assertThat(ids, is(IntStream.range(0, 90).filter(i -> i < 20 || i >= 80)
+            .mapToObj(i -> String.format("a%03d", i)).collect(Collectors.toList())));
+    graphene.deleteAll(A.class);
+    assertThat(graphene.list(A.class).size(), is(0));
+  }
+
+  @Test
+  public void test_get_all() {
+    // every third key exist, so the cursor both step and seek between keys
+    List<A> instances = IntStream.range(0, 100).filter(i -> i % 3 == 0)
+            .mapToObj(i -> buildA(String.format("a%03d", i))).collect(Collectors.toList());
+    graphene.putAll(instances);
+    List<String> keys = IntStream.range(0, 120).mapToObj(i -> String.format("a%03d", i)).collect(Collectors.toList());
+    Collections.shuffle(keys);
+    keys.add(keys.get(0));
+    List<Optional<A>> result = graphene.getAll(keys, A.class);
+    assertThat(result.size(), is(keys.size()));
+    for (int i = 0; i < keys.size(); i++) {
+      assertThat(result.get(i), is(graphene.get(keys.get(i), A.class)));
+    }
+    Map<String, A> map = graphene.getAllAsMap(Arrays.asList("a003", "a004", "a000"), A.class);
+    assertThat(new ArrayList<>(map.keySet()), is(Arrays.asList("a003", "a000")));
+    assertThat(map.get("a000"), is(instances.get(0)));
+  }
+
+  @Test
+  public void test_entity_cache() {
+    graphene.deleteAll(Person.class);
+    graphene.put(person("1", "a"));
+    Person person = graphene.get("1", Person.class).get();
+    long hits = graphene.getEntityCache().getCache(graphene.getSchema(Person.class)).hitCount();
+    // every reader get an instance of its own created from the cached value
+    Person cached = graphene.get("1", Person.class).get();
+    assertNotSame(person, cached);
+    assertThat(cached, is(person));
+    assertThat(graphene.getEntityCache().getCache(graphene.getSchema(Person.class)).hitCount(), is(hits + 1));
+    // evicted when the write commit
+    graphene.put(person("1", "b"));
+    assertThat(graphene.get("1", Person.class).get().getForeName(), is("b"));
+    try {
+      graphene.withTxWrite(tx -> {
+        tx.put(person("1", "c"));
+        // uncommitted writes are not read from the cache
+        assertThat(tx.get("1", Person.class).get().getForeName(), is("c"));
+        throw new IllegalStateException("rollback");
+      });
+      fail("rollback");
+    } catch (IllegalStateException e) {
+      // expected
+    }
+    assertThat(graphene.get("1", Person.class).get().getForeName(), is("b"));
+    graphene.delete("1", Person.class);
+    assertFalse(graphene.get("1", Person.class).isPresent());
+    graphene.put(person("2", "d"));
+    assertTrue(graphene.get("2", Person.class).isPresent());
+    graphene.deleteWhere("filter foreName == 'd'", Person.class);
+    assertFalse(graphene.get("2", Person.class).isPresent());
+  }
+
+  // Test that instances read from the cache by many threads at once are decoded correctly,
+  // since generated instances decode their fields lazily and are not shared.
+  @Test
+  public void test_entity_cache_concurrent_reads() throws Exception {
+    graphene.put(buildA("cached"));
+    // decoded once here, since instances must not be shared between threads
+    String expected = graphene.get("cached", A.class).get().toString();
+    List<Thread> threads = new ArrayList<>();
+    List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+    for (int i = 0; i < 8; i++) {
+      Thread thread = new Thread(() -> {
+        try {
+          for (int j = 0; j < 1000; j++) {
+            A a = graphene.get("cached", A.class).get();
+            if (!a.toString().equals(expected)) {
+              errors.add(new AssertionError(a + " != " + expected));
+            }
+          }
+        } catch (Throwable e) {
+          errors.add(e);
+        }
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertTrue(errors.toString(), errors.isEmpty());
+    graphene.delete("cached", A.class);
+  }
+
+  // Test that a transaction does not read instances from the cache that were cached
+  // by transactions that began after it, which see a newer snapshot.
+  @Test
+  public void test_entity_cache_snapshot() throws Exception {
+    graphene.put(person("1", "a"));
+    graphene.withTxRead(tx -> {
+      assertThat(tx.get("1", Person.class).get().getForeName(), is("a"));
+      Thread thread = new Thread(() -> {
+        graphene.put(person("1", "b"));
+        graphene.get("1", Person.class);
+      });
+      thread.start();
+      try {
+        thread.join();
+      } catch (InterruptedException e) {
+        throw new RuntimeException(e);
+      }
+      assertThat(tx.get("1", Person.class).get().getForeName(), is("a"));
+    });
+    assertThat(graphene.get("1", Person.class).get().getForeName(), is("b"));
+    graphene.delete("1", Person.class);
+  }
+
+  private static Person person(String id, String foreName) {
+    return new Builder<>(Person.class)
+            .set(Person::getId, id)
+            .set(Person::getForeName, foreName)
+            .set(Person::getSureName, foreName)
+            .build().get();
+  }
+
+  @Test
+  public void test_sequence() throws Exception {
+    Sequence sequence = graphene.getSequence("test.sequence", 10);
+    assertSame(sequence, graphene.getSequence("test.sequence"));
+    Set<Long> numbers = ConcurrentHashMap.newKeySet();
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      threads.add(new Thread(() -> {
+        long previous = -1;
+        for (int j = 0; j < 100; j++) {
+          long number = sequence.next();
+          assertTrue(number > previous);
+          assertTrue(numbers.add(number));
+          previous = number;
+        }
+      }));
+    }
+    threads.forEach(Thread::start);
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertThat(numbers.size(), is(400));
+  }
+
+  // Test that a type that is written the first time while a read transaction is open,
+  // which create its database if each type have a database of its own, does not exist
+  // in the snapshot of the read transaction.
+  // Test that ids of fields that were not known when slots were mapped are remapped,
+  // even if they are smaller than ids that were known.
+  @Test
+  public void test_field_slots_of_unknown_ids() {
+    UniqueIds uniqueIds = graphene.getUniqueIds();
+    String prefix = "slots." + UUID.randomUUID() + ".";
+    String[] fields = {prefix + "known", prefix + "unknown"};
+    int known = uniqueIds.getSchemaId(fields[0]);
+    int[] slots = uniqueIds.getFieldSlots(fields);
+    assertThat(slots[known], is(0));
+    int unknown = uniqueIds.getSchemaId(fields[1]);
+    int other = uniqueIds.getSchemaId(prefix + "other");
+    slots = uniqueIds.getFieldSlots(fields, unknown);
+    assertThat(slots[known], is(0));
+    assertThat(slots[unknown], is(1));
+    assertThat(slots[other], is(UniqueIds.NO_SLOT));
+  }
+
+  // Test that values are read by slot, also values of fields whose ids were created
+  // after the reader mapped its slots.
+  @Test
+  public void test_read_values_by_slot() throws Exception {
+    UniqueIds uniqueIds = graphene.getUniqueIds();
+    String prefix = "slots." + UUID.randomUUID() + ".";
+    String[] fields = {prefix + "first", prefix + "second", prefix + "missing"};
+    uniqueIds.getSchemaId(fields[0]);
+    BufAllocator allocator = new UnsafeBufAllocator();
+    ValueReader reader = new ValueReader(allocator.allocateInput(new byte[0]), uniqueIds);
+    reader.setFields(fields);
+
+    ValueWriter writer = new ValueWriter(allocator.allocateOutput(), allocator.allocateOutput(), uniqueIds);
+    writer.start(fields[1]);
+    writer.writeInt(7);
+    writer.end(fields[1]);
+    writer.start(fields[0]);
+    writer.writeString("a");
+    writer.end(fields[0]);
+    reader.reset(writer.getBytes());
+
+    assertTrue(reader.position(1));
+    assertThat(reader.readInt(), is(7));
+    assertTrue(reader.position(0));
+    assertThat(reader.readString(), is("a"));
+    assertFalse(reader.position(2));
+  }
+
+  @Test
+  public void test_first_write_after_read_began() throws Exception {
+    FirstWrite instance = new Builder<>(FirstWrite.class).set(FirstWrite::getId, "f").build().get();
+    try {
+      graphene.withTxRead(tx -> {
+        Thread writer = new Thread(() -> graphene.put(instance));
+        writer.start();
+        try {
+          writer.join();
+        } catch (InterruptedException e) {
+          throw new RuntimeException(e);
+        }
+        assertFalse(tx.get("f", FirstWrite.class).isPresent());
+        assertTrue(tx.list(FirstWrite.class).isEmpty());
+      });
+      assertThat(graphene.get("f", FirstWrite.class).get(), is(instance));
+    } finally {
+      graphene.delete("f", FirstWrite.class);
+    }
+  }
+
+  // Test that numbers of blocks reserved in a transaction that roll back are not handed out again.
+  @Test
+  public void test_sequence_rollback() throws Exception {
+    Sequence sequence = graphene.getSequence("test.sequence.rollback", 10);
+    Set<Long> numbers = new HashSet<>();
+    for (int i = 0; i < 5; i++) {
+      assertTrue(numbers.add(sequence.next()));
+    }
+    try {
+      graphene.withTxWrite(tx -> {
+        for (int i = 0; i < 25; i++) {
+          assertTrue(numbers.add(sequence.next()));
+        }
+        throw new IllegalStateException("rollback");
+      });
+      fail("rollback");
+    } catch (IllegalStateException e) {
+      // expected
+    }
+    Thread thread = new Thread(() -> {
+      for (int i = 0; i < 15; i++) {
+        numbers.add(sequence.next());
+      }
+    });
+    thread.start();
+    thread.join();
+    for (int i = 0; i < 15; i++) {
+      assertTrue(numbers.add(sequence.next()));
+    }
+    assertThat(numbers.size(), is(60));
+  }
+
   @Test
   public void test_select() {
     graphene.put(buildA("a1"));
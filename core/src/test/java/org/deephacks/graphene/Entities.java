@@ -244,6 +244,35 @@ public class Entities {
     Long getKey();
   }
 
+  /** only written by a single test, which check types that are written the first time */
+  @Entity
+  public static interface FirstWrite {
+    @Key
+    String getId();
+  }
+
+  @Entity
+  public static interface IndexedPerson {
+    @Key
+    String getId();
+
+    @Index
+    String getName();
+
+    @Index
+    int getAge();
+
+    Address getAddress();
+  }
+
+  @Embedded
+  public static interface Address {
+    @Index
+    String getCity();
+
+    String getStreet();
+  }
+
 
   public static A buildA(String id, String... value) {
     return new Builder<>(A.class)
@@ -423,6 +452,17 @@ public class Entities {
   }
 
   public static B buildB(String id, String... value) {
+    return builderBWithDefaults(id, value).build().get();
+  }
+
+  public static B buildB(String id, Set<A> setOfA, Map<String, A> mapOfA) {
+    return builderBWithDefaults(id)
+            .set(B::getSetOfA, Optional.of(setOfA))
+            .set(B::getMapOfA, Optional.of(mapOfA))
+            .build().get();
+  }
+
+  private static Builder<B> builderBWithDefaults(String id, String... value) {
     return builderB(id)
             .set(B::getId, id)
             .set(B::getBytePrimitive, (byte) 1)
@@ -506,7 +546,7 @@ public class Entities {
             .set(B::getPeriod, Period.parse("P1Y2M3D"))
             .set(B::getPeriods, Arrays.asList(Period.parse("P1Y2M3D"), Period.parse("P1Y2M3D")))
             .set(B::getDuration, Duration.parse("PT15M"))
-            .set(B::getDurations, Arrays.asList(Duration.parse("PT15M"), Duration.parse("PT15M"))).build().get();
+            .set(B::getDurations, Arrays.asList(Duration.parse("PT15M"), Duration.parse("PT15M")));
   }
 
   public static Builder<B> builderB(String id, String... value) {
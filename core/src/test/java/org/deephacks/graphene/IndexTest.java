@@ -0,0 +1,104 @@
+package org.deephacks.graphene;
+
+import org.deephacks.graphene.BuilderProxy.Builder;
+import org.deephacks.graphene.Entities.Address;
+import org.deephacks.graphene.Entities.IndexedPerson;
+import org.deephacks.graphene.internal.gql.Query;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.*;
+
+public class IndexTest extends BaseTest {
+  List<IndexedPerson> persons = new ArrayList<>();
+
+  @Before
+  public void before() {
+    graphene.withTxWrite(tx -> {
+      tx.deleteAll(IndexedPerson.class);
+      int num = 0;
+      for (String city : new String[]{"stockholm", "london", "paris"}) {
+        for (int age = 10; age <= 50; age += 10) {
+          IndexedPerson p = create(String.valueOf(num++), "name" + age, age, city);
+          tx.put(p);
+          persons.add(p);
+        }
+      }
+    });
+  }
+
+  @Test
+  public void test_index_eq() {
+    Schema<IndexedPerson> schema = graphene.getSchema(IndexedPerson.class);
+    assertTrue(Query.parse("filter name == 'name20'", IndexedPerson.class).getIndexRange(schema).isPresent());
+    List<IndexedPerson> result = graphene.query("filter name == 'name20'", IndexedPerson.class);
+    assertThat(result.size(), is(3));
+    result.forEach(p -> assertThat(p.getAge(), is(20)));
+  }
+
+  @Test
+  public void test_index_range() {
+    List<IndexedPerson> result = graphene.query("filter age > 10 && age <= 30", IndexedPerson.class);
+    assertThat(result.size(), is(6));
+    // index order
+    assertThat(result.get(0).getAge(), is(20));
+    assertThat(result.get(5).getAge(), is(30));
+  }
+
+  @Test
+  public void test_delete_where() {
+    assertThat(graphene.deleteWhere("filter age > 30", IndexedPerson.class), is(6L));
+    // index entries of deleted instances are deleted as well
+    List<IndexedPerson> result = graphene.query("filter age > 20", IndexedPerson.class);
+    assertThat(result.size(), is(3));
+    result.forEach(p -> assertThat(p.getAge(), is(30)));
+    assertThat(graphene.query("filter name == 'name40'", IndexedPerson.class).size(), is(0));
+  }
+
+  @Test
+  public void test_index_ordered() {
+    Schema<IndexedPerson> schema = graphene.getSchema(IndexedPerson.class);
+    Query<IndexedPerson> query = Query.parse("filter age >= 20 ordered age limit 4", IndexedPerson.class);
+    assertTrue(query.isIndexOrdered(query.getIndexPart(schema).get()));
+    List<IndexedPerson> result = graphene.query("filter age >= 20 ordered age limit 4", IndexedPerson.class);
+    assertThat(result.size(), is(4));
+    assertThat(result.get(0).getAge(), is(20));
+    assertThat(result.get(3).getAge(), is(30));
+    assertFalse(Query.parse("filter age >= 20 reversed age", IndexedPerson.class).isIndexOrdered(query.getIndexPart(schema).get()));
+  }
+
+  @Test
+  public void test_index_embedded_startsWith() {
+    List<IndexedPerson> result = graphene.query("filter address.city startsWith 'lon' && age < 30", IndexedPerson.class);
+    assertThat(result.size(), is(2));
+    result.forEach(p -> assertThat(p.getAddress().getCity(), is("london")));
+  }
+
+  @Test
+  public void test_index_overwrite_and_delete() {
+    graphene.put(create("0", "renamed", 10, "stockholm"));
+    assertThat(graphene.query("filter name == 'name10'", IndexedPerson.class).size(), is(2));
+    assertThat(graphene.query("filter name == 'renamed'", IndexedPerson.class).size(), is(1));
+    graphene.delete("0", IndexedPerson.class);
+    assertThat(graphene.query("filter name == 'renamed'", IndexedPerson.class).size(), is(0));
+    graphene.deleteAll(IndexedPerson.class);
+    assertThat(graphene.query("filter age >= 0", IndexedPerson.class).size(), is(0));
+  }
+
+  static IndexedPerson create(String id, String name, int age, String city) {
+    Address address = new Builder<>(Address.class)
+            .set(Address::getCity, city)
+            .set(Address::getStreet, "street")
+            .build().get();
+    return new Builder<>(IndexedPerson.class)
+            .set(IndexedPerson::getId, id)
+            .set(IndexedPerson::getName, name)
+            .set(IndexedPerson::getAge, age)
+            .set(IndexedPerson::getAddress, address)
+            .build().get();
+  }
+}
@@ -10,6 +10,7 @@ import org.junit.Test;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import static org.hamcrest.core.Is.is;
@@ -20,11 +21,11 @@ public class PrimaryKeyTest extends BaseTest {
   @Before
   public void before() {
     graphene.deleteAll(ObjectKeyEntity.class);
+    graphene.deleteAll(LongKey.class);
+    graphene.deleteAll(ByteArrayKey.class);
   }
 
-  // the entity specify a key that is exactly 3 bytes wide.
-  // if the key stored key would be shorter, null bytes would be
-  // appended to end of key (when fetched) and the test would fail!
+  // the entity specify a key that is at most 3 bytes wide.
   @Test
   public void test_byte_array_key_and_without_values() {
     ByteArrayKey object = new Builder<>(ByteArrayKey.class)
@@ -51,6 +52,30 @@ public class PrimaryKeyTest extends BaseTest {
     assertThat(result.get(2), is(list.get(1)));
   }
 
+  @Test
+  public void test_byte_array_key_shorter_than_size() {
+    ByteArrayKey object = new Builder<>(ByteArrayKey.class)
+            .set(ByteArrayKey::getKey, new byte[]{0, 1}).build().get();
+    graphene.put(object);
+    ByteArrayKey result = graphene.get(new byte[]{0, 1}, ByteArrayKey.class).get();
+    assertArrayEquals(result.getKey(), new byte[]{0, 1});
+    assertFalse(graphene.get(new byte[]{0, 1, 0}, ByteArrayKey.class).isPresent());
+  }
+
+  @Test
+  public void test_negative_long_key_in_sorted_order() {
+    List<LongKey> list = new ArrayList<>();
+    for (long key : new long[]{Long.MIN_VALUE, -100, -1, 0, 1, 100, Long.MAX_VALUE}) {
+      list.add(new Builder<>(LongKey.class).set(LongKey::getKey, key).build().get());
+    }
+    List<LongKey> shuffled = new ArrayList<>(list);
+    Collections.shuffle(shuffled);
+    graphene.putAll(shuffled);
+    assertThat(graphene.list(LongKey.class), is(list));
+    List<LongKey> result = graphene.query("filter key >= 1", LongKey.class);
+    assertThat(result, is(list.subList(4, 7)));
+  }
+
   @Test
   public void test_get_object_key_without_values() {
     ObjectKeyEntity object = create("1", "2014-01-01T10:00");
@@ -74,6 +99,37 @@ public class PrimaryKeyTest extends BaseTest {
     assertThat(result.get(2), is(list.get(0)));
   }
 
+  @Test
+  public void test_query_object_key_range() {
+    List<ObjectKeyEntity> list = new ArrayList<>();
+    list.add(create("1", "2014-01-01T10:00"));
+    list.add(create("2", "2014-01-01T10:00"));
+    list.add(create("2", "2015-01-01T10:00"));
+    list.add(create("2", "2016-01-01T10:00"));
+    list.add(create("3", "2015-01-01T10:00"));
+    graphene.putAll(list);
+
+    List<ObjectKeyEntity> result = graphene.query("filter key.partition == '2' && key.time > '2014-01-01T10:00'", ObjectKeyEntity.class);
+    assertThat(result.size(), is(2));
+    assertThat(result.get(0), is(list.get(2)));
+    assertThat(result.get(1), is(list.get(3)));
+
+    result = graphene.query("filter key.partition <= '2' && key.time == '2015-01-01T10:00'", ObjectKeyEntity.class);
+    assertThat(result.size(), is(1));
+    assertThat(result.get(0), is(list.get(2)));
+  }
+
+  @Test
+  public void test_shorter_string_key_part_sort_first() {
+    List<ObjectKeyEntity> list = new ArrayList<>();
+    list.add(create("2", "2016-01-01T10:00"));
+    list.add(create("20", "2014-01-01T10:00"));
+    list.add(create("2a", "2015-01-01T10:00"));
+    graphene.putAll(list);
+    assertThat(graphene.list(ObjectKeyEntity.class), is(list));
+    List<ObjectKeyEntity> result = graphene.query("filter key.partition == '2'", ObjectKeyEntity.class);
+    assertThat(result, is(list.subList(0, 1)));
+  }
 
   private ObjectKeyEntity create(String partition, String time) {
     LocalDateTime localDateTime = LocalDateTime.parse(time);
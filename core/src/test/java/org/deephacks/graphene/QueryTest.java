@@ -2,11 +2,18 @@ package org.deephacks.graphene;
 
 import org.deephacks.graphene.BuilderProxy.Builder;
 import org.deephacks.graphene.Entities.Person;
+import org.deephacks.graphene.internal.gql.Aggregate;
+import org.deephacks.graphene.internal.gql.IllegalQueryException;
+import org.deephacks.graphene.internal.gql.PreparedQuery;
+import org.deephacks.graphene.internal.gql.Query;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.*;
@@ -95,6 +102,79 @@ public class QueryTest extends BaseTest {
     assertThat(result.get(0), is(persons.get(1)));
   }
 
+  @Test
+  public void test_ordering_limit_skip() {
+    List<Person> result = graphene.query("limit 3 skip 2 reversed foreName", Person.class);
+    assertThat(result.size(), is(3));
+    for (int i = 0; i < 3; i++) {
+      assertThat(result.get(i), is(persons.get(persons.size() - 3 - i)));
+    }
+    result = graphene.query("filter foreName > 'b' limit 2 ordered foreName", Person.class);
+    assertThat(result.size(), is(2));
+    assertThat(result.get(0).getForeName(), is("baa"));
+    assertThat(result.get(1).getForeName(), is("bab"));
+  }
+
+  @Test
+  public void test_reversed_key() {
+    List<String> ids = persons.stream().map(Person::getId).sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+    List<Person> result = graphene.query("limit 5 reversed id", Person.class);
+    assertThat(result.stream().map(Person::getId).collect(Collectors.toList()), is(ids.subList(0, 5)));
+    result = graphene.query("filter id < '2' reversed id", Person.class);
+    List<String> expected = ids.stream().filter(id -> id.compareTo("2") < 0).collect(Collectors.toList());
+    assertThat(result.stream().map(Person::getId).collect(Collectors.toList()), is(expected));
+  }
+
+  @Test
+  public void test_prepared() {
+    PreparedQuery<Person> query = graphene.prepare("filter foreName >= ? limit ? ordered foreName", Person.class);
+    assertSame(query, graphene.prepare("filter foreName >= ? limit ? ordered foreName", Person.class));
+    assertThat(query.getParameterCount(), is(2));
+    List<Person> result = graphene.query(query, "bbb", 2);
+    assertThat(result.size(), is(2));
+    assertThat(result.get(0).getForeName(), is("bbb"));
+    assertThat(result.get(1).getForeName(), is("bbc"));
+    result = graphene.query(query, "cca", 5L);
+    assertThat(result.size(), is(3));
+    assertThat(result.get(0).getForeName(), is("cca"));
+    try {
+      graphene.query(query, "cca");
+      fail("missing parameter");
+    } catch (IllegalQueryException e) {
+      // expected
+    }
+  }
+
+  // Test that queries asked to scan in parallel give the same result as a single
+  // cursor, also when they are ordered or limited and therefore not scanned in parallel.
+  @Test
+  public void test_parallel() {
+    assertThat(graphene.query("filter foreName > 'b'", Person.class, true), is(graphene.query("filter foreName > 'b'", Person.class)));
+    List<Person> result = graphene.query("filter foreName > 'b' limit 2 skip 1 reversed foreName", Person.class, true);
+    assertThat(result, is(Arrays.asList(persons.get(25), persons.get(24))));
+    assertThat(graphene.aggregate("group sureName count", Person.class, true).size(), is(27));
+  }
+
+  @Test
+  public void test_aggregate() {
+    assertThat(graphene.aggregate("count", Person.class).get(0).get("count"), is(27L));
+    // ids 0, 1 and 10 to 19
+    assertThat(graphene.aggregate("filter id < '2' count", Person.class).get(0).get("count"), is(12L));
+    assertThat(graphene.aggregate("filter foreName startsWith 'a' count", Person.class).get(0).get("count"), is(9L));
+    Aggregate aggregate = graphene.aggregate("min foreName, max sureName", Person.class).get(0);
+    assertThat(aggregate.getValues(), is(Arrays.<Object>asList("aaa", "ccc")));
+    List<Aggregate> groups = graphene.aggregate("filter foreName startsWith 'b' group foreName count", Person.class);
+    assertThat(groups.size(), is(9));
+    assertThat(groups.get(0).getGroup(), is(Arrays.<Object>asList("baa")));
+    assertThat(groups.get(0).get("count"), is(1L));
+    try {
+      graphene.query("count", Person.class);
+      fail("aggregate query");
+    } catch (IllegalQueryException e) {
+      // expected
+    }
+  }
+
   @Test
   public void test_startsWith() {
     List<Person> result = graphene.query("filter foreName startsWith 'a' ordered id", Person.class);
@@ -119,4 +199,49 @@ public class QueryTest extends BaseTest {
     result.forEach(field -> assertThat(field.getForeName().charAt(1), is('a')));
   }
 
+  @Test
+  public void test_key_range() {
+    Schema<Person> schema = graphene.getSchema(Person.class);
+    RowKeyRange range = Query.parse("filter id >= '1' && id < '2'", Person.class).getKeyRange(schema);
+    assertFalse(range.equals(schema.getKeyRange()));
+    List<Person> result = graphene.query("filter id >= '1' && id < '2'", Person.class);
+    // 1, 10, 11 ... 19
+    assertThat(result.size(), is(11));
+    result.forEach(p -> assertThat(p.getId().charAt(0), is('1')));
+  }
+
+  @Test
+  public void test_key_range_exclusive() {
+    List<Person> result = graphene.query("filter id > '25'", Person.class);
+    // 26, 3, 4 ... 9
+    assertThat(result.size(), is(8));
+    assertThat(result.get(0), is(persons.get(26)));
+  }
+
+  @Test
+  public void test_key_startsWith() {
+    List<Person> result = graphene.query("filter id startsWith '2' && foreName != 'ccc'", Person.class);
+    // 2, 20, 21 ... 25
+    assertThat(result.size(), is(7));
+    result.forEach(p -> assertThat(p.getId().charAt(0), is('2')));
+  }
+
+  @Test
+  public void test_key_eq_with_value_filter() {
+    List<Person> result = graphene.query("filter id == '1' && foreName == 'aab'", Person.class);
+    assertThat(result.size(), is(1));
+    assertThat(result.get(0), is(persons.get(1)));
+    result = graphene.query("filter id == '1' && id == '2'", Person.class);
+    assertThat(result.size(), is(0));
+  }
+
+  @Test
+  public void test_filtered_instances_are_not_shared() {
+    // filters are evaluated on a single probe instance, matching instances must still be distinct
+    List<Person> result = graphene.query("filter foreName startsWith 'a' && sureName != 'abc'", Person.class);
+    assertThat(result.size(), is(8));
+    assertThat(result.stream().map(Person::getForeName).distinct().count(), is(8L));
+    assertFalse(result.stream().anyMatch(p -> p.getSureName().equals("abc")));
+  }
+
 }
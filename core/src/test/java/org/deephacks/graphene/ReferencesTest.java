@@ -1,115 +1,151 @@
 package org.deephacks.graphene;
 
-import org.junit.Ignore;
+import com.google.common.collect.Sets;
+import org.deephacks.graphene.Entities.A;
+import org.deephacks.graphene.Entities.B;
+import org.deephacks.graphene.Entities.C;
+import org.deephacks.graphene.Entities.StandardFields;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+
+import static org.deephacks.graphene.Entities.buildA;
+import static org.deephacks.graphene.Entities.buildB;
+import static org.deephacks.graphene.Entities.defaultReferences;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.*;
 
-@Ignore
 public class ReferencesTest extends BaseTest {
-/*
-   // Test that references (single and collection) are fetched eagerly
-   // through multiple levels.
+
+  // Test that references (single and collection) are resolved through multiple levels.
   @Test
   public void test_references_with_multiple_levels() {
     LinkedHashMap<String, StandardFields> map = defaultReferences();
-    withTx(tx -> {
-      map.values().forEach(repository::put);
-      Optional result = repository.get("b1", B.class);
-      assertEquals(map.get("b1"), result.get());
+    graphene.withTxWrite(tx -> map.values().forEach(tx::put));
 
-      result = repository.get("b2", B.class);
-      assertEquals(map.get("b2"), result.get());
+    B b1 = graphene.get("b1", B.class).get();
+    assertEquals(map.get("b1"), b1);
+    assertThat(b1.getA().get(), is(map.get("a1")));
+    assertThat(b1.getListOfA().get(), is(Arrays.asList(map.get("a2"), map.get("a3"))));
+    assertEquals(map.get("b2"), graphene.get("b2", B.class).get());
 
-      result = repository.get("c1", C.class);
-      assertEquals(map.get("c1"), result.get());
-    });
+    C c1 = graphene.get("c1", C.class).get();
+    assertEquals(map.get("c1"), c1);
+    assertThat(c1.getListOfB().get().get(1).getA().get(), is(map.get("a1")));
+  }
+
+  // Test that references of sets and maps are resolved.
+  @Test
+  public void test_set_and_map_references() {
+    A a1 = buildA("a1");
+    A a2 = buildA("a2");
+    LinkedHashMap<String, A> mapOfA = new LinkedHashMap<>();
+    mapOfA.put("first", a1);
+    mapOfA.put("second", a2);
+    B b = buildB("b", Sets.newHashSet(a1, a2), mapOfA);
+    graphene.putAll(Arrays.asList(a1, a2, b));
+    B result = graphene.get("b", B.class).get();
+    assertThat(result.getSetOfA().get(), is(Sets.newHashSet(a1, a2)));
+    assertThat(result.getMapOfA().get(), is(mapOfA));
+    assertFalse(result.getA().isPresent());
   }
 
-   // Test that instance that have references to non-existing instance cannot
-   // be created.
+  // Test that instance that have references to non-existing instance cannot
+  // be created.
   @Test
   public void test_missing_references() {
     LinkedHashMap<String, StandardFields> map = defaultReferences();
-    withTx(tx -> {
-      try {
-        repository.put(map.get("b2"));
-        fail("Should violate constraint");
-      } catch (ForeignKeyConstraintException e) {
-        assertTrue(true);
-      }
-    });
-    assertFalse(repository.get(map.get("b2").getId(), B.class).isPresent());
+    try {
+      graphene.put(map.get("b2"));
+      fail("Should violate constraint");
+    } catch (ForeignKeyConstraintException e) {
+      assertTrue(true);
+    }
+    assertFalse(graphene.get("b2", B.class).isPresent());
+  }
+
+  // Test that instances can reference instances that are written after them
+  // in the same batch.
+  @Test
+  public void test_references_written_in_same_batch() {
+    LinkedHashMap<String, StandardFields> map = defaultReferences();
+    graphene.putAll(Arrays.asList(map.get("b1"), map.get("a1"), map.get("a2"), map.get("a3")));
+    assertEquals(map.get("b1"), graphene.get("b1", B.class).get());
   }
 
-   // Test that instances that other have references to cannot be deleted.
+  // Test that instances that other have references to cannot be deleted.
   @Test
   public void test_referential_integrity_delete_constraint() {
-    withTx(tx -> {
-      LinkedHashMap<String, StandardFields> map = defaultReferences();
-      map.values().forEach(repository::put);
-      try {
-        repository.delete(map.get("a2").getId(), A.class);
-        fail("Should not be possible to delete instance that are referenced by others");
-      } catch (DeleteConstraintException e) {
-        assertTrue(true);
-      }
-    });
+    LinkedHashMap<String, StandardFields> map = defaultReferences();
+    graphene.putAll(Arrays.asList(map.values().toArray()));
+    try {
+      graphene.delete("a2", A.class);
+      fail("Should not be possible to delete instance that are referenced by others");
+    } catch (DeleteConstraintException e) {
+      assertTrue(true);
+    }
+    try {
+      graphene.deleteAll(A.class);
+      fail("Should not be possible to delete instances that are referenced by others");
+    } catch (DeleteConstraintException e) {
+      assertTrue(true);
+    }
+    try {
+      graphene.deleteWhere("filter id == 'b1'", B.class);
+      fail("Should not be possible to delete instances that are referenced by others");
+    } catch (DeleteConstraintException e) {
+      assertTrue(true);
+    }
+    assertThat(graphene.list(A.class).size(), is(3));
+    assertTrue(graphene.get("b1", B.class).isPresent());
+  }
+
+  // Test that references of an instance that is overwritten are removed.
+  @Test
+  public void test_overwrite_references() {
+    LinkedHashMap<String, StandardFields> map = defaultReferences();
+    graphene.putAll(Arrays.asList(map.get("a1"), map.get("a2"), map.get("a3"), map.get("b1")));
+    A a1 = (A) map.get("a1");
+    graphene.put(buildB("b1", a1, Arrays.asList(a1)));
+    assertTrue(graphene.delete("a2", A.class).isPresent());
+    assertTrue(graphene.delete("a3", A.class).isPresent());
   }
 
-   // Test that an existing delete constraint can be fixed by deleting instances
-   // that reference others.
+  // Test that an existing delete constraint can be fixed by deleting instances
+  // that reference others.
   @Test
   public void test_fixing_delete_constraint() {
     LinkedHashMap<String, StandardFields> map = defaultReferences();
-    withTx(tx -> {
+    graphene.withTxWrite(tx -> {
       // create instance without references and create
       // instances that reference them afterwards in order
       // to not violate referential integrity
-      map.values().forEach(repository::put);
-
-      StandardFields instance = map.get("c1");
-      repository.delete(instance.getId(), instance.getClass());
-      // make sure to commit! otherwise the following
-      // DeleteConstraintException will rollback this delete
-    });
-
-    withTx(tx -> {
-      try {
-        StandardFields instance = map.get("b1");
-        repository.delete(instance.getId(), B.class);
-        fail("c2 should have a reference to b1");
-      } catch (DeleteConstraintException e) {
-        tx.rollback();
-      }
+      map.values().forEach(tx::put);
+      tx.delete("c1", C.class);
     });
-    withTx(tx -> {
-      StandardFields instance = map.get("c2");
-      repository.delete(instance.getId(), instance.getClass());
 
-      instance = map.get("b1");
-      repository.delete(instance.getId(), instance.getClass());
-      // make sure to commit! otherwise the following
-      // DeleteConstraintException will rollback this delete
+    try {
+      graphene.delete("b1", B.class);
+      fail("c2 should have a reference to b1");
+    } catch (DeleteConstraintException e) {
+      assertTrue(true);
+    }
+    graphene.withTxWrite(tx -> {
+      tx.delete("c2", C.class);
+      tx.delete("b1", B.class);
     });
-    withTx(tx -> {
-      try {
-        StandardFields instance = map.get("a1");
-        repository.delete(instance.getId(), A.class);
-        fail("b2 should have a reference to a1");
-      } catch (DeleteConstraintException e) {
-        tx.rollback();
-      }
-    });
-    withTx(tx -> {
-      StandardFields instance = map.get("b2");
-      repository.delete(instance.getId(), instance.getClass());
-      instance = map.get("a1");
-      repository.delete(instance.getId(), instance.getClass());
-      instance = map.get("a2");
-      repository.delete(instance.getId(), instance.getClass());
-      repository.delete(instance.getId(), instance.getClass());
-      instance = map.get("a3");
-      repository.delete(instance.getId(), instance.getClass());
+    try {
+      graphene.delete("a1", A.class);
+      fail("b2 should have a reference to a1");
+    } catch (DeleteConstraintException e) {
+      assertTrue(true);
+    }
+    graphene.withTxWrite(tx -> {
+      tx.delete("b2", B.class);
+      assertTrue(tx.delete("a1", A.class).isPresent());
+      assertTrue(tx.delete("a2", A.class).isPresent());
+      assertTrue(tx.delete("a3", A.class).isPresent());
     });
   }
-  */
-
 }
@@ -0,0 +1,104 @@
+package org.deephacks.graphene;
+
+import org.deephacks.graphene.Entities.A;
+import org.deephacks.graphene.internal.EntityInterface;
+import org.deephacks.graphene.internal.serialization.BufAllocator;
+import org.deephacks.graphene.internal.serialization.Bytes;
+import org.deephacks.graphene.internal.serialization.UnsafeBufAllocator;
+import org.deephacks.graphene.internal.serialization.ValueSerialization.ValueWriter;
+import org.fusesource.lmdbjni.Constants;
+import org.fusesource.lmdbjni.Database;
+import org.fusesource.lmdbjni.LMDBException;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.deephacks.graphene.Entities.buildA;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ReservedPutTest extends BaseTest {
+  /** MDB_BAD_VALSIZE */
+  private static final int BAD_VALSIZE = -30781;
+  private static final BufAllocator ALLOCATOR = new UnsafeBufAllocator();
+
+  @Test
+  public void test_put() throws Exception {
+    Database db = graphene.getPrimary(graphene.getSchema(A.class));
+    byte[] key = key(8);
+    ValueWriter first = valueOf(buildA("first", "v1"));
+    ValueWriter second = valueOf(buildA("second", "v2"));
+    graphene.withTxWrite(tx -> {
+      assertTrue(ReservedPut.put(db, tx.getTx(), key, first, 0));
+      assertArrayEquals(first.getBytes(), db.get(tx.getTx(), key));
+      assertTrue(ReservedPut.put(db, tx.getTx(), key, second, 0));
+      assertArrayEquals(second.getBytes(), db.get(tx.getTx(), key));
+      db.delete(tx.getTx(), key);
+    });
+    assertTrue(ReservedPut.isReservable());
+  }
+
+  // Test that a key that already exist is reported and left as it is.
+  @Test
+  public void test_put_no_overwrite() throws Exception {
+    Database db = graphene.getPrimary(graphene.getSchema(A.class));
+    byte[] key = key(8);
+    ValueWriter first = valueOf(buildA("first", "v1"));
+    ValueWriter second = valueOf(buildA("second", "v2"));
+    graphene.withTxWrite(tx -> {
+      assertTrue(ReservedPut.put(db, tx.getTx(), key, first, Constants.NOOVERWRITE));
+      assertFalse(ReservedPut.put(db, tx.getTx(), key, second, Constants.NOOVERWRITE));
+      assertArrayEquals(first.getBytes(), db.get(tx.getTx(), key));
+      db.delete(tx.getTx(), key);
+    });
+    assertTrue(ReservedPut.isReservable());
+  }
+
+  // Test keys that do not fit in the direct memory that keys are first copied into,
+  // which lmdb reject since it accept keys up to 511 bytes, and that smaller keys are
+  // put as usual afterwards.
+  @Test
+  public void test_put_large_key() throws Exception {
+    Database db = graphene.getPrimary(graphene.getSchema(A.class));
+    ValueWriter value = valueOf(buildA("large", "v1"));
+    graphene.withTxWrite(tx -> {
+      byte[] large = key(600);
+      try {
+        ReservedPut.put(db, tx.getTx(), large, value, 0);
+        fail("key too large");
+      } catch (LMDBException e) {
+        assertThat(e.getErrorCode(), is(BAD_VALSIZE));
+      }
+      assertNull(db.get(tx.getTx(), large));
+      byte[] small = key(511);
+      assertTrue(ReservedPut.put(db, tx.getTx(), small, value, 0));
+      assertArrayEquals(value.getBytes(), db.get(tx.getTx(), small));
+      db.delete(tx.getTx(), small);
+    });
+    assertTrue(ReservedPut.isReservable());
+  }
+
+  /**
+   * Keys in a range of their own that no schema use.
+   */
+  private static byte[] key(int size) {
+    byte[] key = new byte[size];
+    Arrays.fill(key, (byte) size);
+    int id = graphene.getUniqueIds().getSchemaId(ReservedPutTest.class);
+    System.arraycopy(Bytes.fromInt(id), 0, key, 0, 4);
+    return key;
+  }
+
+  private static ValueWriter valueOf(Object entity) throws IOException {
+    ValueWriter writer = new ValueWriter(ALLOCATOR.allocateOutput(), ALLOCATOR.allocateOutput(), graphene.getUniqueIds());
+    ((EntityInterface) entity).writeValue(writer);
+    assertThat(writer.size(), is(writer.getBytes().length));
+    return writer;
+  }
+}
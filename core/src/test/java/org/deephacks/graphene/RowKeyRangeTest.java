@@ -28,6 +28,13 @@ public class RowKeyRangeTest {
     assertThat(r2.intersect(r1), is(expected));
   }
 
+  @Test
+  public void testMidKey() {
+    assertArrayEquals(new byte[] {1, 1}, RowKeyRange.midKey(new byte[] {0, 2}, new byte[] {2, 0}));
+    assertArrayEquals(new byte[] {0x7f, (byte) 0xff}, RowKeyRange.midKey(new byte[] {0}, new byte[] {(byte) 0xff, (byte) 0xff}));
+    assertArrayEquals(new byte[] {(byte) 0xff}, RowKeyRange.midKey(new byte[] {(byte) 0xff}, new byte[] {(byte) 0xff}));
+  }
+
   public static RowKeyRange getKeyRange(String k1, boolean lowerInclusive, String k2, boolean upperInclusive) {
     return RowKeyRange.getKeyRange(toBytes(k1), lowerInclusive, toBytes(k2), upperInclusive);
   }
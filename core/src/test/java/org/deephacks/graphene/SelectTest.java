@@ -1,13 +1,24 @@
 package org.deephacks.graphene;
 
 import org.deephacks.graphene.Entities.*;
+import org.deephacks.graphene.internal.serialization.BytesUtils;
+import org.fusesource.lmdbjni.Cursor;
+import org.fusesource.lmdbjni.DirectBuffer;
+import org.fusesource.lmdbjni.Entry;
+import org.fusesource.lmdbjni.GetOp;
+import org.fusesource.lmdbjni.SeekOp;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import static org.deephacks.graphene.Entities.*;
@@ -31,6 +42,147 @@ public class SelectTest extends BaseTest {
     });
   }
 
+  // Test that rows rejected by a filter are read in place and never copied.
+  @Test
+  public void test_filtered_scan_copies_matching_rows_only() {
+    graphene.withTxWrite(tx -> {
+      for (int i = 0; i < 5; i++) {
+        tx.put(buildA("a" + i));
+      }
+    });
+    Schema<A> schema = graphene.getSchema(A.class);
+    List<DirectBuffer[]> rows = new ArrayList<>();
+    AtomicInteger copied = new AtomicInteger();
+    graphene.withTxRead(tx -> {
+      try (Cursor cursor = graphene.getPrimary(schema).openCursor(tx.getTx())) {
+        for (Entry entry = cursor.seek(SeekOp.RANGE, schema.getMinKey()); entry != null
+                && BytesUtils.compareTo(entry.getKey(), schema.getMaxKey()) <= 0; entry = cursor.get(GetOp.NEXT)) {
+          rows.add(new DirectBuffer[]{direct(entry.getKey(), copied), direct(entry.getValue(), copied)});
+        }
+      }
+    });
+    assertThat(rows.size(), is(5));
+    Predicate<A> filter = a -> a.getId().equals("a3");
+    StreamResultSet.ByteIteratorWrapper<A> iterator = new StreamResultSet.ByteIteratorWrapper<>(schema, rows.iterator(), Optional.of(filter));
+    assertTrue(iterator.hasNext());
+    assertThat(iterator.next().getId(), is("a3"));
+    assertFalse(iterator.hasNext());
+    // key and value of the row that match
+    assertThat(copied.get(), is(2));
+  }
+
+  /**
+   * Direct memory with the bytes of a row that count the number of times it is copied,
+   * which every copy into an array go through.
+   */
+  private static DirectBuffer direct(byte[] bytes, AtomicInteger copied) {
+    ByteBuffer memory = ByteBuffer.allocateDirect(bytes.length);
+    memory.put(bytes);
+    return new DirectBuffer(memory) {
+      @Override
+      public int getBytes(int index, byte[] dst, int offset, int length) {
+        copied.incrementAndGet();
+        return super.getBytes(index, dst, offset, length);
+      }
+    };
+  }
+
+  // Test that a stream in a read transaction split keys into ranges that are scanned
+  // in parallel and together return every instance once, in key order.
+  @Test
+  public void test_select_parallel() {
+    int numInstances = 100;
+    List<String> ids = new ArrayList<>();
+    graphene.withTxWrite(tx -> {
+      for (int i = 0; i < numInstances; i++) {
+        String id = String.format("a%03d", i);
+        ids.add(id);
+        tx.put(buildA(id));
+      }
+    });
+    graphene.withTxRead(tx -> {
+      Schema<A> schema = graphene.getSchema(A.class);
+      RangeSpliterator<A> spliterator = new RangeSpliterator<>(schema, schema.getKeyRange(), () -> tx.openPrimaryCursor(schema), Optional.empty());
+      assertNotNull(spliterator.trySplit());
+      assertFalse(tx.stream(A.class).isParallel());
+      List<String> result = tx.stream(A.class).parallel().map(A::getId).collect(Collectors.toList());
+      assertEquals(ids, result);
+    });
+  }
+
+  // Test that cursors of a read transaction that are used by many threads see the same
+  // snapshot while instances are written.
+  @Test
+  public void test_select_parallel_concurrent_writes() throws Exception {
+    graphene.withTxWrite(tx -> {
+      for (int i = 0; i < 1000; i++) {
+        tx.put(buildA(String.format("a%04d", i)));
+      }
+    });
+    AtomicBoolean writing = new AtomicBoolean(true);
+    Thread writer = new Thread(() -> {
+      for (int i = 1000; writing.get(); i++) {
+        graphene.put(buildA(String.format("a%04d", i)));
+      }
+    });
+    writer.start();
+    try {
+      for (int round = 0; round < 10; round++) {
+        graphene.withTxRead(tx -> {
+          List<String> sequential = tx.stream(A.class).map(A::getId).collect(Collectors.toList());
+          for (int i = 0; i < 5; i++) {
+            assertEquals(sequential, tx.stream(A.class).parallel().map(A::getId).collect(Collectors.toList()));
+          }
+        });
+      }
+    } finally {
+      writing.set(false);
+      writer.join();
+    }
+  }
+
+  @Test
+  public void test_select_reversed() {
+    int numInstances = 100;
+    List<String> ids = new ArrayList<>();
+    graphene.withTxWrite(tx -> {
+      for (int i = 0; i < numInstances; i++) {
+        String id = String.format("a%03d", i);
+        ids.add(0, id);
+        tx.put(buildA(id));
+      }
+      assertEquals(ids, tx.stream(A.class, true).map(A::getId).collect(Collectors.toList()));
+    });
+    graphene.withTxRead(tx -> {
+      List<String> result = tx.stream(A.class, true).map(A::getId).collect(Collectors.toList());
+      assertEquals(ids, result);
+    });
+  }
+
+  @Test
+  public void test_page() {
+    int numInstances = 100;
+    List<String> ids = new ArrayList<>();
+    graphene.withTxWrite(tx -> {
+      for (int i = 0; i < numInstances; i++) {
+        String id = String.format("a%03d", i);
+        ids.add(id);
+        tx.put(buildA(id));
+      }
+    });
+    List<String> result = new ArrayList<>();
+    Optional<String> token = Optional.empty();
+    int pages = 0;
+    do {
+      Page<A> page = graphene.page(A.class, 30, token);
+      page.getInstances().forEach(a -> result.add(a.getId()));
+      token = page.getToken();
+      pages++;
+    } while (token.isPresent());
+    assertEquals(ids, result);
+    assertEquals(4, pages);
+  }
+
    //Test that we can select instances based on single buildEmbedded data.
   @Test
   public void test_select_single_embedded() {
@@ -0,0 +1,104 @@
+package org.deephacks.graphene;
+
+import org.deephacks.graphene.Entities.A;
+import org.deephacks.graphene.Entities.B;
+import org.deephacks.graphene.Entities.C;
+import org.deephacks.graphene.Entities.StandardFields;
+import org.deephacks.graphene.Traversal.Order;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import static org.deephacks.graphene.Entities.buildA;
+import static org.deephacks.graphene.Entities.buildB;
+import static org.deephacks.graphene.Entities.defaultReferences;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class TraversalTest extends BaseTest {
+
+  // Test that instances are visited level by level and only once.
+  @Test
+  public void test_breadth_first() {
+    LinkedHashMap<String, StandardFields> map = putDefaultReferences();
+    List<Object> result = graphene.traverse("c1", C.class).toList();
+    assertThat(result, is(values(map, "c1", "b1", "b2", "a1", "a2", "a3")));
+  }
+
+  // Test that instances are followed by the instances reached through them.
+  @Test
+  public void test_depth_first() {
+    LinkedHashMap<String, StandardFields> map = putDefaultReferences();
+    List<Object> result = graphene.traverse("c1", C.class).order(Order.DEPTH_FIRST).toList();
+    assertThat(result, is(values(map, "c1", "b1", "a1", "a2", "a3", "b2")));
+  }
+
+  @Test
+  public void test_max_depth() {
+    LinkedHashMap<String, StandardFields> map = putDefaultReferences();
+    assertThat(graphene.traverse("c1", C.class).maxDepth(0).toList(), is(values(map, "c1")));
+    assertThat(graphene.traverse("c1", C.class).maxDepth(1).toList(), is(values(map, "c1", "b1", "b2")));
+  }
+
+  // Test that instances that do not match a filter are neither returned nor followed.
+  @Test
+  public void test_filters() {
+    LinkedHashMap<String, StandardFields> map = putDefaultReferences();
+    List<Object> result = graphene.traverse("c1", C.class)
+            .filter(B.class, b -> b.getId().equals("b2"))
+            .toList();
+    assertThat(result, is(values(map, "c1", "b2", "a1", "a2", "a3")));
+
+    result = graphene.traverse("c1", C.class)
+            .filter(2, A.class, a -> a.getId().equals("a3"))
+            .toList();
+    assertThat(result, is(values(map, "c1", "b1", "b2", "a3")));
+  }
+
+  @Test
+  public void test_many_start_instances_of_a_type() {
+    LinkedHashMap<String, StandardFields> map = putDefaultReferences();
+    List<A> result = graphene.traverse(Arrays.asList("c1", "c2", "c1"), C.class).toList(A.class);
+    assertThat(result, is(values(map, "a1", "a2", "a3")));
+  }
+
+  @Test
+  public void test_missing_start_instance() {
+    putDefaultReferences();
+    assertTrue(graphene.traverse("c3", C.class).toList().isEmpty());
+  }
+
+  // Test that levels with many keys visited in parallel give the same result.
+  @Test
+  public void test_parallel() {
+    List<A> listOfA = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      listOfA.add(buildA("a" + i));
+    }
+    graphene.putAll(listOfA);
+    graphene.put(buildB("b", listOfA.get(0), listOfA));
+    List<Object> sequential = graphene.traverse("b", B.class).toList();
+    List<Object> parallel = graphene.withTxReadReturn(tx -> graphene.traverse("b", B.class).parallel().toList());
+    assertThat(parallel.size(), is(1001));
+    assertThat(parallel, is(sequential));
+  }
+
+  private static LinkedHashMap<String, StandardFields> putDefaultReferences() {
+    LinkedHashMap<String, StandardFields> map = defaultReferences();
+    graphene.withTxWrite(tx -> map.values().forEach(tx::put));
+    return map;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> List<T> values(LinkedHashMap<String, StandardFields> map, String... ids) {
+    List<T> values = new ArrayList<>();
+    for (String id : ids) {
+      values.add((T) map.get(id));
+    }
+    return values;
+  }
+}
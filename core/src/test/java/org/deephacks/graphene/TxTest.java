@@ -5,10 +5,13 @@ import org.deephacks.graphene.Entities.B;
 import org.deephacks.graphene.Entities.C;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static java.util.concurrent.CompletableFuture.allOf;
@@ -19,6 +22,59 @@ import static org.junit.Assert.*;
 
 public class TxTest extends BaseTest {
 
+  // Test that asynchronous writes from many threads are committed.
+  @Test
+  public void test_group_commit() throws Exception {
+    List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      final int thread = i;
+      threads.add(new Thread(() -> {
+        for (int j = 0; j < 10; j++) {
+          CompletableFuture<Boolean> future = graphene.putAsync(buildA("a" + thread + "-" + j));
+          synchronized (futures) {
+            futures.add(future);
+          }
+        }
+      }));
+    }
+    threads.forEach(Thread::start);
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    allOf(futures.toArray(new CompletableFuture[futures.size()])).get();
+    assertThat(graphene.list(A.class).size(), is(80));
+    assertThat(graphene.deleteAsync("a0-0", A.class).get().get().getId(), is("a0-0"));
+    assertFalse(graphene.deleteAsync("a0-0", A.class).get().isPresent());
+    assertThat(graphene.list(A.class).size(), is(79));
+  }
+
+  // Test that every write submitted while group commit is closed is either refused
+  // or completed, and never left waiting.
+  @Test
+  public void test_group_commit_close() throws Exception {
+    for (int i = 0; i < 20; i++) {
+      GroupCommit groupCommit = new GroupCommit(graphene.getTxManager(), 16);
+      List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+      Thread thread = new Thread(() -> {
+        try {
+          while (true) {
+            futures.add(groupCommit.submit(tx -> true));
+          }
+        } catch (IllegalStateException e) {
+          // closed
+        }
+      });
+      thread.start();
+      Thread.sleep(1);
+      groupCommit.close();
+      thread.join();
+      for (CompletableFuture<Boolean> future : futures) {
+        assertTrue(future.get(10, TimeUnit.SECONDS));
+      }
+    }
+  }
+
    //Test that put can be rolled back from a get.
   @Test
   public void test_put_get_rollback() {
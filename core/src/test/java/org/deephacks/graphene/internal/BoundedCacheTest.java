@@ -0,0 +1,57 @@
+package org.deephacks.graphene.internal;
+
+import org.junit.Test;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.*;
+
+public class BoundedCacheTest {
+
+  @Test
+  public void test_bounded() {
+    BoundedCache<Integer, Integer> cache = new BoundedCache<>(100);
+    for (int i = 0; i < 10_000; i++) {
+      cache.get(i);
+      cache.put(i, i);
+      assertTrue(cache.size() <= 100);
+    }
+    assertThat(cache.size(), is(100));
+    assertThat(cache.missCount(), is(10_000L));
+    assertThat(cache.evictionCount(), is(9_900L));
+  }
+
+  // Test that removed keys does not stay in the order of keys.
+  @Test
+  public void test_put_and_remove() {
+    BoundedCache<Integer, Integer> cache = new BoundedCache<>(100);
+    for (int i = 0; i < 10_000; i++) {
+      cache.put(i % 10, i);
+      cache.remove(i % 10);
+      assertTrue(cache.orderSize() <= 100);
+    }
+    assertThat(cache.size(), is(0));
+    assertThat(cache.orderSize(), is(0));
+  }
+
+  @Test
+  public void test_frequent_keys_are_kept() {
+    BoundedCache<Integer, Integer> cache = new BoundedCache<>(100);
+    for (int i = 0; i < 10; i++) {
+      cache.put(i, i);
+    }
+    for (int round = 0; round < 10; round++) {
+      for (int i = 0; i < 10; i++) {
+        assertThat(cache.get(i), is(i));
+      }
+    }
+    // keys that are requested once does not flush the frequent keys
+    for (int i = 1000; i < 2000; i++) {
+      cache.get(i);
+      cache.put(i, i);
+    }
+    for (int i = 0; i < 10; i++) {
+      assertThat(cache.get(i), is(i));
+    }
+    assertThat(cache.hitCount(), is(110L));
+  }
+}
@@ -0,0 +1,111 @@
+package org.deephacks.graphene.internal.gql;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.*;
+
+public class AggregateTest {
+  private static final List<Person> list = new ArrayList<>();
+
+  static {
+    for (int i = 0; i < 10; i++) {
+      for (int j = 0; j < 10; j++) {
+        list.add(new Person(Character.toString((char) (65 + i)), Character.toString((char) (65 + j)), j));
+      }
+    }
+    Collections.shuffle(list);
+  }
+
+  @Test
+  public void test_aggregate() {
+    List<Aggregate> result = aggregate("filter age >= 5 count, sum age, min age, max age, avg age");
+    assertThat(result.size(), is(1));
+    assertThat(result.get(0).getGroup(), is(Collections.emptyList()));
+    assertThat(result.get(0).getValues(), is(Arrays.<Object>asList(50L, 350L, 5, 9, 7.0)));
+    assertThat(result.get(0).get("sum age"), is(350L));
+  }
+
+  @Test
+  public void test_group() {
+    List<Aggregate> result = aggregate("filter age < 2 group fname, age count, max sname");
+    assertThat(result.size(), is(20));
+    assertThat(result.get(0).getGroup(), is(Arrays.<Object>asList("A", 0)));
+    assertThat(result.get(1).getGroup(), is(Arrays.<Object>asList("A", 1)));
+    assertThat(result.get(19).getGroup(), is(Arrays.<Object>asList("J", 1)));
+    for (Aggregate aggregate : result) {
+      assertThat(aggregate.get("count"), is(1L));
+    }
+    result = aggregate("group sname count skip 2 limit 3");
+    assertThat(result.size(), is(3));
+    assertThat(result.get(0).getGroup(), is(Arrays.<Object>asList("C")));
+    assertThat(result.get(0).get(0), is(10L));
+  }
+
+  @Test
+  public void test_parallel() {
+    Query<Person> query = Query.parse("group sname count, sum age, avg age", Person.class);
+    assertEquals(query.aggregate(list.stream(), true), query.aggregate(list.parallelStream(), true));
+  }
+
+  @Test
+  public void test_no_instances() {
+    List<Aggregate> result = aggregate("filter age > 100 count, sum age, min age");
+    assertThat(result.get(0).getValues(), is(Arrays.<Object>asList(0L, null, null)));
+    assertThat(aggregate("filter age > 100 group fname count").size(), is(0));
+  }
+
+  @Test(expected = IllegalQueryException.class)
+  public void test_sum_not_numeric() {
+    aggregate("sum fname");
+  }
+
+  @Test(expected = IllegalQueryException.class)
+  public void test_ordered_aggregate() {
+    aggregate("count ordered age");
+  }
+
+  // Test that fields may be named like the keywords of aggregations.
+  @Test
+  public void test_keywords_as_fields() {
+    List<Counter> counters = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      counters.add(new Counter(i % 2 == 0 ? "even" : "odd", i));
+    }
+    List<Aggregate> result = Query.parse("filter count >= 2 group group count, sum count, min count, max count, avg count", Counter.class)
+            .aggregate(counters.stream(), true);
+    assertThat(result.size(), is(2));
+    assertThat(result.get(0).getGroup(), is(Arrays.<Object>asList("even")));
+    assertThat(result.get(0).getValues(), is(Arrays.<Object>asList(4L, 20L, 2, 8, 5.0)));
+    List<Counter> ordered = Query.parse("filter group == 'odd' reversed count", Counter.class).collect(counters.stream());
+    assertThat(ordered.get(0).getCount(), is(9));
+    assertThat(ordered.size(), is(5));
+  }
+
+  public static class Counter {
+    private final String group;
+    private final int count;
+
+    public Counter(String group, int count) {
+      this.group = group;
+      this.count = count;
+    }
+
+    public String getGroup() {
+      return group;
+    }
+
+    public Integer getCount() {
+      return count;
+    }
+  }
+
+  private static List<Aggregate> aggregate(String query) {
+    return Query.parse(query, Person.class).aggregate(list.stream(), true);
+  }
+}
@@ -0,0 +1,40 @@
+package org.deephacks.graphene.internal.gql;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+public class TopKTest {
+
+  @Test
+  public void test_same_as_sort() {
+    Random random = new Random(1);
+    List<Integer> values = IntStream.range(0, 1000).map(i -> random.nextInt(100)).boxed().collect(Collectors.toList());
+    List<Integer> expected = values.stream().sorted().limit(10).collect(Collectors.toList());
+    assertThat(values.stream().collect(TopK.collector(Comparator.<Integer>naturalOrder(), 10)), is(expected));
+    assertThat(values.parallelStream().collect(TopK.collector(Comparator.<Integer>naturalOrder(), 10)), is(expected));
+    assertThat(values.stream().collect(TopK.collector(Comparator.<Integer>naturalOrder(), 0)).size(), is(0));
+  }
+
+  @Test
+  public void test_equal_values_keep_encounter_order() {
+    List<String> values = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      values.add((i % 3) + "-" + i);
+    }
+    Comparator<String> firstChar = Comparator.comparing(s -> s.charAt(0));
+    List<String> expected = values.stream().sorted(firstChar).limit(5).collect(Collectors.toList());
+    assertThat(expected, is(Arrays.asList("0-0", "0-3", "0-6", "0-9", "0-12")));
+    assertThat(values.stream().collect(TopK.collector(firstChar, 5)), is(expected));
+    assertThat(values.parallelStream().collect(TopK.collector(firstChar, 5)), is(expected));
+  }
+}
@@ -0,0 +1,76 @@
+package org.deephacks.graphene.internal.gql;
+
+import org.junit.Test;
+
+import java.util.Optional;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.*;
+
+public class ValueAccessorTest {
+
+  @Test
+  public void test_primitive() {
+    ValueAccessor accessor = new ValueAccessor(Optional.of("number"), Outer.class);
+    assertTrue(accessor.isIntegral());
+    assertFalse(accessor.isFloatingPoint());
+    assertThat(accessor.getLong(new Outer()), is(7L));
+    assertThat(accessor.getValue(new Outer()), is(7));
+
+    accessor = new ValueAccessor(Optional.of("decimal"), Outer.class);
+    assertTrue(accessor.isFloatingPoint());
+    assertThat(accessor.getDouble(new Outer()), is(1.5));
+  }
+
+  @Test
+  public void test_nested() {
+    ValueAccessor accessor = new ValueAccessor(Optional.of("inner.number"), Outer.class);
+    assertThat(accessor.getType(), is((Object) long.class));
+    assertThat(accessor.getLong(new Outer()), is(3L));
+    accessor = new ValueAccessor(Optional.of("inner.name"), Outer.class);
+    assertThat(accessor.getValue(new Outer()), is("inner"));
+  }
+
+  @Test
+  public void test_not_public() {
+    ValueAccessor accessor = new ValueAccessor(Optional.of("number"), Hidden.class);
+    assertThat(accessor.getLong(new Hidden()), is(5L));
+    assertThat(accessor.getValue(new Hidden()), is(5));
+  }
+
+  @Test
+  public void test_no_id() {
+    ValueAccessor accessor = new ValueAccessor(Optional.empty(), String.class);
+    assertThat(accessor.getValue("value"), is("value"));
+  }
+
+  public static class Outer {
+    public int getNumber() {
+      return 7;
+    }
+
+    public double getDecimal() {
+      return 1.5;
+    }
+
+    public Inner getInner() {
+      return new Inner();
+    }
+  }
+
+  public static class Inner {
+    public long getNumber() {
+      return 3;
+    }
+
+    public String getName() {
+      return "inner";
+    }
+  }
+
+  static class Hidden {
+    public int getNumber() {
+      return 5;
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package org.deephacks.graphene.internal.serialization;
+
+import org.fusesource.lmdbjni.DirectBuffer;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Date;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.*;
+
+public class DirectBufTest {
+
+  // Test that values are read from arrays and addresses like UnsafeByteArrayBuf read them.
+  @Test
+  public void test_reads_like_unsafe_byte_array_buf() throws Exception {
+    Buf out = new UnsafeBufAllocator().allocateOutput(16);
+    out.writeBoolean(true).writeByte((byte) -1).writeShort(Short.MIN_VALUE).writeChar('c')
+            .writeInt(Integer.MIN_VALUE).writeLong(Long.MAX_VALUE).writeFloat(-1.5f).writeDouble(Double.MIN_VALUE)
+            .writeString("\u00e5\u00e4\u00f6").writeBytes(new byte[]{1, 2, 3})
+            .writeObject(new Date(123)).writeObject(new BigDecimal("1.5"))
+            .writeObject(LocalDateTime.of(2000, 1, 2, 3, 4, 5, 6)).writeObject(Duration.ofSeconds(7, 8));
+    byte[] bytes = out.getByteArray();
+    ByteBuffer memory = ByteBuffer.allocateDirect(bytes.length);
+    memory.put(bytes);
+    long address = new DirectBuffer(memory).addressOffset();
+
+    assertReadsLike(new UnsafeBufAllocator().allocateInput(bytes), new DirectBuf(bytes));
+    assertReadsLike(new UnsafeBufAllocator().allocateInput(bytes), new DirectBuf(address, bytes.length));
+    assertArrayEquals(bytes, new DirectBuf(address, bytes.length).getByteArray());
+  }
+
+  @Test
+  public void test_wrap_and_bounds() throws Exception {
+    DirectBuf buf = new DirectBuf(new UnsafeBufAllocator().allocateOutput().writeInt(1).getByteArray());
+    assertThat(buf.readInt(), is(1));
+    try {
+      buf.readByte();
+      fail("read past the end");
+    } catch (IOException e) {
+      // expected
+    }
+    buf.wrap(new UnsafeBufAllocator().allocateOutput().writeShort((short) 2).getByteArray());
+    assertThat(buf.length(), is(2));
+    assertThat(buf.getPosition(), is(0));
+    assertThat(buf.readShort(), is((short) 2));
+  }
+
+  private static void assertReadsLike(Buf expected, DirectBuf buf) throws Exception {
+    assertThat(buf.readBoolean(), is(expected.readBoolean()));
+    assertThat(buf.readByte(), is(expected.readByte()));
+    assertThat(buf.readShort(), is(expected.readShort()));
+    assertThat(buf.readChar(), is(expected.readChar()));
+    assertThat(buf.readInt(), is(expected.readInt()));
+    assertThat(buf.readLong(), is(expected.readLong()));
+    assertThat(buf.readFloat(), is(expected.readFloat()));
+    assertThat(buf.readDouble(), is(expected.readDouble()));
+    assertThat(buf.readString(), is(expected.readString()));
+    assertArrayEquals(expected.readBytes(3), buf.readBytes(3));
+    assertThat(buf.readObject(Date.class), is(expected.readObject(Date.class)));
+    assertThat(buf.readObject(BigDecimal.class), is(expected.readObject(BigDecimal.class)));
+    assertThat(buf.readObject(LocalDateTime.class), is(expected.readObject(LocalDateTime.class)));
+    assertThat(buf.readObject(Duration.class), is(expected.readObject(Duration.class)));
+    assertThat(buf.getPosition(), is(buf.length()));
+  }
+}
@@ -0,0 +1,62 @@
+package org.deephacks.graphene.internal.serialization;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.*;
+
+public class OrderedBytesTest {
+
+  @Test
+  public void test_encoded_order() {
+    assertOrdered(Long.MIN_VALUE, -1L, 0L, 1L, Long.MAX_VALUE);
+    assertOrdered(Integer.MIN_VALUE, -1, 0, 1, Integer.MAX_VALUE);
+    assertOrdered(Double.NEGATIVE_INFINITY, -1.5d, -0.0d, 0.0d, 1.5d, Double.POSITIVE_INFINITY);
+    assertOrdered(-1.5f, 0.0f, 1.5f);
+    assertOrdered((short) -1, (short) 0, (short) 1);
+    assertOrdered("", "a", "a\u0000", "ab", "b");
+    assertOrdered(LocalDateTime.parse("1969-12-31T23:59:59.999"), LocalDateTime.parse("1970-01-01T00:00"),
+            LocalDateTime.parse("1970-01-01T00:00:00.001"));
+  }
+
+  @Test
+  public void test_read_and_skip() throws Exception {
+    List<Object> values = Arrays.asList("a\u0000b", new byte[]{0, -1, 0}, true, (byte) -3, (short) -4, 'c', -5,
+            -6L, -7.5f, -8.5d, LocalDate.of(1900, 1, 2), LocalTime.of(10, 11, 12, 13),
+            LocalDateTime.of(1800, 1, 2, 3, 4, 5, 6));
+    UnsafeByteArrayBuf out = new UnsafeByteArrayBuf(new UnsafeByteArrayOutputStream(16));
+    for (Object value : values) {
+      OrderedBytes.write(out, value);
+    }
+    byte[] bytes = out.getByteArray();
+    DirectBuf in = new DirectBuf(bytes);
+    for (Object value : values) {
+      Object read = OrderedBytes.read(in, value.getClass());
+      if (value instanceof byte[]) {
+        assertArrayEquals((byte[]) value, (byte[]) read);
+      } else {
+        assertThat(read, is(value));
+      }
+    }
+    assertThat(in.getPosition(), is(bytes.length));
+    in.setPosition(0);
+    for (Object value : values) {
+      OrderedBytes.skip(in, value.getClass());
+    }
+    assertThat(in.getPosition(), is(bytes.length));
+  }
+
+  private static void assertOrdered(Object... values) {
+    for (int i = 1; i < values.length; i++) {
+      byte[] lower = OrderedBytes.encode(values[i - 1]);
+      byte[] upper = OrderedBytes.encode(values[i]);
+      assertTrue(values[i - 1] + " < " + values[i], BytesUtils.compareTo(lower, upper) < 0);
+    }
+  }
+}
@@ -0,0 +1,62 @@
+package org.deephacks.graphene.internal.serialization;
+
+import org.junit.Test;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.*;
+
+public class PooledBufAllocatorTest {
+
+  @Test
+  public void test_released_buffers_are_reused() throws Exception {
+    PooledBufAllocator allocator = new PooledBufAllocator();
+    Buf buf = allocator.allocateOutput();
+    buf.writeLong(1L).writeString("first");
+    allocator.release(buf);
+    Buf reused = allocator.allocateOutput();
+    assertSame(buf, reused);
+    assertThat(reused.size(), is(0));
+    reused.writeInt(2);
+    assertThat(reused.getByteArray().length, is(4));
+    assertNotSame(reused, allocator.allocateOutput());
+  }
+
+  @Test
+  public void test_large_buffers_are_not_kept() throws Exception {
+    PooledBufAllocator allocator = new PooledBufAllocator(2, 1024);
+    Buf large = allocator.allocateOutput();
+    large.writeBytes(new byte[4096]);
+    allocator.release(large);
+    assertNotSame(large, allocator.allocateOutput());
+    Buf[] bufs = {allocator.allocateOutput(), allocator.allocateOutput(), allocator.allocateOutput()};
+    for (Buf buf : bufs) {
+      allocator.release(buf);
+    }
+    assertSame(bufs[1], allocator.allocateOutput());
+    assertSame(bufs[0], allocator.allocateOutput());
+    assertNotSame(bufs[2], allocator.allocateOutput());
+  }
+
+  // Test that buffers released by another thread, like the writer of a group commit, are reused.
+  @Test
+  public void test_released_by_another_thread() throws Exception {
+    PooledBufAllocator allocator = new PooledBufAllocator();
+    Buf buf = allocator.allocateOutput();
+    Thread thread = new Thread(() -> allocator.release(buf));
+    thread.start();
+    thread.join();
+    assertSame(buf, allocator.allocateOutput());
+  }
+
+  @Test
+  public void test_copy_to() throws Exception {
+    Buf buf = new PooledBufAllocator().allocateOutput();
+    buf.writeInt(7).writeInt(8);
+    byte[] bytes = buf.getByteArray();
+    byte[] dest = new byte[10];
+    assertThat(buf.copyTo(dest, 2), is(8));
+    for (int i = 0; i < bytes.length; i++) {
+      assertThat(dest[i + 2], is(bytes[i]));
+    }
+  }
+}